@@ -0,0 +1,60 @@
+package com.plate.boot.commons.query;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares resolving the operator keyword of filter keys with the compiled {@link SuffixMatcher} against the
+ * former scan of the operator map, which tested every keyword with {@code endsWithIgnoreCase} and kept the
+ * longest match.
+ * <p>
+ * Run with {@code ./gradlew :platform:jmh -PjmhIncludes=SuffixMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SuffixMatcherBenchmark {
+
+    private static final String[] KEYWORDS = {"EQ", "Equal", "After", "GreaterThanEqual", "GTE", "GreaterThan",
+            "GT", "Before", "LessThanEqual", "LTE", "LessThan", "LT", "Between", "NotBetween", "In", "NotIn",
+            "IsNull", "NotNull", "IsNotNull", "Null", "Like", "NotLike", "StartingWith", "EndingWith",
+            "Containing", "NotContaining", "Not", "IsTrue", "True", "IsFalse", "False"};
+
+    private final Map<String, String> operators = Stream.of(KEYWORDS)
+            .collect(Collectors.toMap(Function.identity(), Function.identity()));
+
+    private final SuffixMatcher<String> matcher = SuffixMatcher.compile(this.operators);
+
+    private final String[] keys = {"usernameLike", "ageGte", "createdAtBetween", "nameNotIn", "code",
+            "requestAddressStartingWith", "deletedIsNull", "statusIn", "loginTimeBefore", "emailNotContaining"};
+
+    private int next;
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        String key = this.keys[this.next++ % this.keys.length];
+        blackhole.consume(this.operators.entrySet().stream()
+                .filter(entry -> StringUtils.endsWithIgnoreCase(key, entry.getKey()))
+                .max((entry1, entry2) -> Integer.compare(entry1.getKey().length(), entry2.getKey().length()))
+                .orElse(null));
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        String key = this.keys[this.next++ % this.keys.length];
+        blackhole.consume(this.matcher.match(key));
+    }
+
+    @Benchmark
+    public void operators(Blackhole blackhole) {
+        String key = this.keys[this.next++ % this.keys.length];
+        blackhole.consume(QueryJsonHelper.OPERATORS.match(key));
+    }
+}
@@ -0,0 +1,72 @@
+package com.plate.boot.relational;
+
+import com.plate.boot.commons.utils.ContextUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of capturing a body for the audit log with {@link BodyCapture}, which copies
+ * the leading bytes as the chunks stream through, against the former capture, which joined the whole body
+ * into one buffer and parsed it as JSON before the handler ran.
+ * <p>
+ * The {@code gc.alloc.rate.norm} column of {@code -prof gc} gives the memory held per request.
+ * Run with {@code ./gradlew :platform:jmh -PjmhIncludes=BodyCaptureBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BodyCaptureBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+
+    private final BodyCapture.Meters meters = BodyCapture.Meters.of("benchmark");
+
+    @Param({"1024", "65536", "1048576"})
+    private int bodySize;
+
+    private byte[][] chunks;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        while (json.length() < this.bodySize - 32) {
+            json.append("{\"code\":\"").append(json.length()).append("\",\"name\":\"item\"},");
+        }
+        json.append("{}]}");
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        this.chunks = new byte[(body.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        for (int i = 0; i < this.chunks.length; i++) {
+            int from = i * CHUNK_SIZE;
+            this.chunks[i] = Arrays.copyOfRange(body, from, Math.min(body.length, from + CHUNK_SIZE));
+        }
+    }
+
+    private Flux<DataBuffer> body() {
+        return Flux.fromArray(this.chunks).map(this.factory::wrap);
+    }
+
+    @Benchmark
+    public void joinAndParse(Blackhole blackhole) {
+        DataBuffer joined = DataBufferUtils.join(body()).block();
+        blackhole.consume(ContextUtils.OBJECT_MAPPER.readTree(joined.asInputStream()));
+        DataBufferUtils.release(joined);
+    }
+
+    @Benchmark
+    public void tee(Blackhole blackhole) {
+        BodyCapture capture = new BodyCapture(this.factory, 8192, this.meters);
+        capture.tee(body()).subscribe(blackhole::consume);
+        blackhole.consume(capture.drain(MediaType.APPLICATION_JSON));
+    }
+}
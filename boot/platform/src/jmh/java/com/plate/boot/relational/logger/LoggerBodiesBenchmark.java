@@ -0,0 +1,143 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.codec.DeflateCodec;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.ConnectionFactories;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.r2dbc.core.DatabaseClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares preparing audit log records for their insert with the bodies inline in the {@code context} jsonb,
+ * as before, against the bodies deflated apart for {@code se_logger_bodies}, without and with a dictionary
+ * trained on the same kind of payloads.
+ * <p>
+ * The score is the number of records prepared per second by the writer: bodies decoded, compressed, and the
+ * parameters of both inserts bound. The {@link Sizes} counters report the average bytes a record stores: the
+ * {@code context} of the searchable {@code se_loggers} row, which the generated {@code text_search} column and
+ * the GIN indexes process on every insert, and the compressed body. The database is not involved; see
+ * {@link LoggersWriterBenchmark} for the records written per second and the table sizes in Postgres.
+ * Run with {@code ./gradlew :platform:jmh -PjmhIncludes=LoggerBodiesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoggerBodiesBenchmark {
+
+    private static final int RECORDS = 512;
+
+    @Param({"1024", "8192"})
+    private int bodySize;
+
+    @Param({"inline", "cold", "dictionary"})
+    private String storage;
+
+    private LoggerBodies bodies;
+
+    private byte[][] requests;
+
+    private byte[][] responses;
+
+    private int next;
+
+    private static byte[] payload(int size, int seed) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder json = new StringBuilder("{\"code\":\"").append(new UUID(seed, random.nextLong()))
+                .append("\",\"items\":[");
+        while (json.length() < size - 160) {
+            json.append("{\"code\":\"").append(random.nextInt(1_000_000)).append("\",\"name\":\"menu-")
+                    .append(random.nextInt(100)).append("\",\"type\":\"MENU\",\"sort\":").append(random.nextInt(50))
+                    .append(",\"authority\":\"ROLE_ADMIN\",\"extend\":{\"icon\":\"list\"}},");
+        }
+        return json.append("{}],\"updatedAt\":\"2026-10-17T08:30:15\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup
+    public void setup() {
+        if (ContextUtils.OBJECT_MAPPER == null) {
+            ContextUtils.OBJECT_MAPPER = JsonMapper.builder().build();
+        }
+        this.requests = new byte[RECORDS][];
+        this.responses = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            this.requests[i] = payload(this.bodySize / 4, i);
+            this.responses[i] = payload(this.bodySize, i);
+        }
+        DatabaseProperties properties = new DatabaseProperties();
+        properties.getLoggers().getBodies().setEnabled(!"inline".equals(this.storage));
+        // The client is never connected: no statement is run by the benchmark.
+        this.bodies = new LoggerBodies(DatabaseClient.create(
+                ConnectionFactories.get("r2dbc:postgresql://localhost:5432/plate")), properties);
+        if ("dictionary".equals(this.storage)) {
+            List<byte[]> samples = new ArrayList<>();
+            for (int i = 1; i <= 200; i++) {
+                samples.add(("{\"requestBody\":" + new String(payload(this.bodySize / 4, -i), StandardCharsets.UTF_8)
+                        + ",\"responseBody\":" + new String(payload(this.bodySize, -i), StandardCharsets.UTF_8)
+                        + "}").getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] dictionary = DeflateCodec.train(samples, 16 * 1024);
+            this.bodies.use(DeflateCodec.id(dictionary), dictionary);
+        }
+    }
+
+    private LoggerReq record(int index) {
+        LoggerReq logger = LoggerReq.of(null, "admin", "[1] ", "POST", "200", "/menus/save",
+                ContextUtils.OBJECT_MAPPER.createObjectNode().put("requestAddress", "127.0.0.1")
+                        .put("sessionId", "session-" + index));
+        logger.setRequestBody(new CapturedBody(this.requests[index], this.requests[index].length, "application/json"));
+        logger.setResponseBody(new CapturedBody(this.responses[index], this.responses[index].length,
+                "application/json"));
+        return logger;
+    }
+
+    private LoggerReq resolve(LoggerReq logger) {
+        logger.resolveBodies("inline".equals(this.storage) ? null : this.bodies);
+        return logger;
+    }
+
+    @Benchmark
+    public void prepare(Sizes sizes, Blackhole blackhole) {
+        LoggerReq logger = resolve(record(this.next++ % RECORDS));
+        blackhole.consume(LoggersWriter.bindings(List.of(logger)));
+        if (logger.getBody() != null) {
+            blackhole.consume(LoggersWriter.bodyBindings(List.of(logger)));
+        }
+    }
+
+    /**
+     * The average bytes a record stores, reported as secondary results of {@link #prepare(Sizes, Blackhole)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+
+        public long contextBytesPerRecord;
+
+        public long bodyBytesPerRecord;
+
+        @Setup(Level.Iteration)
+        public void measure(LoggerBodiesBenchmark benchmark) {
+            long hot = 0;
+            long cold = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                LoggerReq logger = benchmark.resolve(benchmark.record(i));
+                Map<String, Object> params = LoggersWriter.bindings(List.of(logger));
+                hot += ((Json) params.get("context0")).asString().getBytes(StandardCharsets.UTF_8).length;
+                cold += logger.getBody() == null ? 0 : logger.getBody().length;
+            }
+            this.contextBytesPerRecord = hot / RECORDS;
+            this.bodyBytesPerRecord = cold / RECORDS;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import io.r2dbc.spi.ConnectionFactories;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the audit log records written per second by {@link LoggersWriter} into a migrated Postgres started
+ * with Testcontainers, with the bodies inline in the {@code context} jsonb against the bodies deflated apart into
+ * {@code se_logger_bodies}.
+ * <p>
+ * Each invocation queues a batch of records and flushes it, so the score counts the preparation, the multi-row
+ * inserts and the maintenance of the generated {@code text_search} column and the indexes. The {@link Sizes}
+ * counters report the {@code pg_total_relation_size} of the partitions of {@code se_loggers} and
+ * {@code se_logger_bodies} per record written, taken before each iteration. Requires Docker; run with
+ * {@code ./gradlew :platform:jmh -PjmhIncludes=LoggersWriterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoggersWriterBenchmark {
+
+    private static final int BATCH = 500;
+
+    private static final String SIZE_SQL = "select coalesce(sum(pg_total_relation_size(relid)), 0)::bigint"
+            + " from pg_partition_tree(CAST(:table AS regclass)) where isleaf";
+
+    @Param({"1024", "8192"})
+    private int bodySize;
+
+    @Param({"inline", "split"})
+    private String storage;
+
+    private PostgreSQLContainer postgres;
+
+    private DatabaseClient databaseClient;
+
+    private LoggersWriter writer;
+
+    private byte[] request;
+
+    private byte[] response;
+
+    private static byte[] payload(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder json = new StringBuilder("{\"code\":\"").append(UUID.randomUUID()).append("\",\"items\":[");
+        while (json.length() < size - 160) {
+            json.append("{\"code\":\"").append(random.nextInt(1_000_000)).append("\",\"name\":\"menu-")
+                    .append(random.nextInt(100)).append("\",\"type\":\"MENU\",\"sort\":").append(random.nextInt(50))
+                    .append(",\"authority\":\"ROLE_ADMIN\",\"extend\":{\"icon\":\"list\"}},");
+        }
+        return json.append("{}],\"updatedAt\":\"2026-10-17T08:30:15\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (ContextUtils.OBJECT_MAPPER == null) {
+            ContextUtils.OBJECT_MAPPER = JsonMapper.builder().build();
+        }
+        // The migrations need the zhparser extension of the image the integration tests use.
+        this.postgres = new PostgreSQLContainer(
+                DockerImageName.parse("alexbob/postgres").asCompatibleSubstituteFor("postgres"))
+                .waitingFor(Wait.forLogMessage("^.*数据库系统准备接受连接.*$", 2));
+        this.postgres.start();
+        Flyway.configure().dataSource(this.postgres.getJdbcUrl(), this.postgres.getUsername(),
+                this.postgres.getPassword()).locations("classpath:db/migration").load().migrate();
+        this.databaseClient = DatabaseClient.create(ConnectionFactories.get("r2dbc:postgresql://"
+                + this.postgres.getUsername() + ":" + this.postgres.getPassword() + "@"
+                + this.postgres.getHost() + ":" + this.postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + this.postgres.getDatabaseName()));
+        DatabaseProperties properties = new DatabaseProperties();
+        properties.getLoggers().setQueueCapacity(BATCH * 2);
+        properties.getLoggers().setBatchSize(BATCH);
+        properties.getLoggers().getBodies().setEnabled("split".equals(this.storage));
+        this.writer = new LoggersWriter(this.databaseClient, new LoggerBodies(this.databaseClient, properties),
+                properties);
+        this.request = payload(this.bodySize / 4);
+        this.response = payload(this.bodySize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.postgres.stop();
+    }
+
+    private LoggerReq record(int index) {
+        LoggerReq logger = LoggerReq.of(null, "admin", "[1] ", "POST", "200", "/menus/save",
+                ContextUtils.OBJECT_MAPPER.createObjectNode().put("requestAddress", "127.0.0.1")
+                        .put("sessionId", "session-" + index));
+        logger.setRequestBody(new CapturedBody(this.request, this.request.length, "application/json"));
+        logger.setResponseBody(new CapturedBody(this.response, this.response.length, "application/json"));
+        return logger;
+    }
+
+    private long size(String table) {
+        return Objects.requireNonNull(this.databaseClient.sql(SIZE_SQL).bind("table", table)
+                .map(row -> row.get(0, Long.class)).one().block(Duration.ofSeconds(30)));
+    }
+
+    private long records() {
+        return Objects.requireNonNull(this.databaseClient.sql("select count(*) from se_loggers")
+                .map(row -> row.get(0, Long.class)).one().block(Duration.ofSeconds(30)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void write(Sizes sizes) {
+        for (int i = 0; i < BATCH; i++) {
+            this.writer.write(record(i));
+        }
+        this.writer.flush().block(Duration.ofMinutes(1));
+    }
+
+    /**
+     * The bytes the tables take per record written, reported as secondary results of {@link #write(Sizes)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+
+        public long loggersBytesPerRecord;
+
+        public long bodiesBytesPerRecord;
+
+        @Setup(Level.Iteration)
+        public void measure(LoggersWriterBenchmark benchmark) {
+            long records = benchmark.records();
+            if (records == 0) {
+                return;
+            }
+            this.loggersBytesPerRecord = benchmark.size("se_loggers") / records;
+            this.bodiesBytesPerRecord = benchmark.size("se_logger_bodies") / records;
+        }
+    }
+}
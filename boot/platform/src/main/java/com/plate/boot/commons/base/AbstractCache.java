@@ -1,22 +1,35 @@
 package com.plate.boot.commons.base;
 
+import com.plate.boot.commons.cache.CacheAdmission;
+import com.plate.boot.commons.cache.CacheEntry;
+import com.plate.boot.commons.cache.RefreshPolicy;
+import com.plate.boot.commons.cache.SizeEstimator;
+import com.plate.boot.commons.routing.ReplicaRoutingConnectionFactory;
+import com.plate.boot.commons.utils.CacheUtils;
 import com.plate.boot.commons.utils.ContextUtils;
 import com.plate.boot.commons.utils.DatabaseUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.relational.core.query.Query;
-import org.springframework.util.ObjectUtils;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 
 /**
@@ -25,9 +38,19 @@ import java.util.Optional;
  * Subclasses obtain a {@link org.springframework.cache.Cache} named after the concrete class
  * (e.g. {@code com.example.UsersService.cache}) and use the {@code queryWithCache}/{@code countWithCache}
  * helpers to serve results from the cache while delegating misses to
- * {@link com.plate.boot.commons.utils.DatabaseUtils}. Entries larger than
+ * {@link com.plate.boot.commons.utils.DatabaseUtils}. Whether a loaded result is stored is decided by a
+ * configurable {@link CacheAdmission} policy on its estimated size (by default, entries larger than
  * {@link com.plate.boot.commons.utils.DatabaseUtils#MAX_IN_MEMORY_SIZE} are skipped to avoid
- * exhausting memory.
+ * exhausting memory).
+ * <p>
+ * Cached results can be tagged (tenant, dictionary type, user, entity code, ...). A write then calls
+ * {@link #invalidateTags(String...)} for the tags it affects, which invalidates only the entries carrying
+ * those tags instead of clearing the whole cache. Results read from a read replica are only kept for the
+ * replicas' {@code max-lag}, since the replica may not have replayed the latest write yet.
+ * <p>
+ * Subclasses may opt in to refresh-ahead by overriding {@link #refreshPolicy()}: entries past the
+ * policy's soft time-to-live (or probabilistically a little earlier) are still served while a single
+ * background reload replaces them.
  * <p>
  * Intended to be extended by Spring {@code @Service} beans; the cache is initialized in
  * {@link #afterPropertiesSet()}.
@@ -42,6 +65,37 @@ public abstract class AbstractCache implements InitializingBean {
      */
     protected Cache cache;
 
+    /**
+     * Tag type of results scoped to a tenant.
+     */
+    protected static final String TENANT_TAG = "tenant";
+
+    /**
+     * Tag type of results scoped to a user, keyed by user code or username.
+     */
+    protected static final String USER_TAG = "user";
+
+    /**
+     * Tag type of results scoped to an entity, keyed by entity code (e.g. the children of a parent code).
+     */
+    protected static final String ENTITY_TAG = "entity";
+
+    /**
+     * Key prefix of the tag generation counters, stored in the same cache as the tagged entries.
+     */
+    private static final String TAG_KEY_PREFIX = "tag:";
+
+    /**
+     * Loads currently in flight, keyed by cache key, shared by concurrent misses on the same key.
+     */
+    private final Map<String, Flux<?>> inflightLoads = new ConcurrentHashMap<>();
+
+    private Counter executedLoads;
+    private Counter coalescedLoads;
+    private Counter refreshes;
+    private Counter rejectedAdmissions;
+    private CacheAdmission admission;
+
     /**
      * Invoked by the containing {@code BeanFactory} after it has set all bean properties
      * and satisfied all dependencies for this bean. This method allows the bean instance
@@ -49,18 +103,27 @@ public abstract class AbstractCache implements InitializingBean {
      * and to throw an exception in the event of misconfiguration.
      *
      * <p>This implementation initializes the cache associated with this component,
-     * using the bean's class name concatenated with ".cache" as the cache identifier.
+     * using the bean's class name concatenated with ".cache" as the cache identifier,
+     * and registers the load counters and the admission policy of the cache.
      */
     @Override
     public void afterPropertiesSet() {
         this.cache = initializingCache(this.getClass().getName().concat(".cache"));
+        Tags tags = Tags.of("cache", this.cache.getName());
+        this.executedLoads = Metrics.counter("plate.cache.loads", tags.and("result", "executed"));
+        this.coalescedLoads = Metrics.counter("plate.cache.loads", tags.and("result", "coalesced"));
+        this.refreshes = Metrics.counter("plate.cache.loads", tags.and("result", "refreshed"));
+        this.rejectedAdmissions = Metrics.counter("plate.cache.admissions", tags.and("result", "rejected"));
+        this.admission = CacheAdmission.of(CacheUtils.CACHES_PROPERTIES == null ? null
+                : CacheUtils.CACHES_PROPERTIES.getAdmission(), DatabaseUtils.MAX_IN_MEMORY_SIZE);
     }
 
     /**
      * Initializes the cache with the specified name.
      * If the cache manager is set, it attempts to retrieve the cache from the manager;
      * otherwise, it creates a new ConcurrentMapCache with the given name.
-     * After initialization, the cache is cleared and a debug log message is generated indicating
+     * A shared cache is then placed behind an in-process near cache tier when that tier is enabled
+     * (see {@link CacheUtils#nearCache(Cache)}). After initialization, the cache is cleared and a debug log message is generated indicating
      * the cache's class name and name.
      *
      * @param cacheName The name of the cache to initialize.
@@ -68,6 +131,7 @@ public abstract class AbstractCache implements InitializingBean {
     public Cache initializingCache(String cacheName) {
         var cache = Optional.ofNullable(ContextUtils.CACHE_MANAGER)
                 .map(manager -> manager.getCache(cacheName))
+                .map(CacheUtils::nearCache)
                 .orElse(new ConcurrentMapCache(cacheName));
         cache.clear();
         log.debug("Initializing provider [{}] cache names: {}",
@@ -87,8 +151,23 @@ public abstract class AbstractCache implements InitializingBean {
      * @return A {@link Flux} emitting the query results, potentially from cache if previously stored.
      */
     protected <T> Flux<T> queryWithCache(Object key, Query query, Class<T> entityClass) {
-        return queryWithCache(key, DatabaseUtils.query(query, entityClass))
-                .timeout(Duration.ofSeconds(10)).replay(3).refCount();
+        return queryWithCache(key, Set.of(), query, entityClass);
+    }
+
+    /**
+     * Executes a database query with caching functionality, tagging the cached result so that a write
+     * affecting any of the given tags invalidates it (see {@link #invalidateTags(String...)}).
+     *
+     * @param <T>         The type of entities expected as query results.
+     * @param key         The unique identifier used as a cache key.
+     * @param tags        The tags the cached result depends on, e.g. {@code tag(TENANT_TAG, tenantCode)}.
+     * @param query       The query object defining the SQL query and its potential parameters.
+     * @param entityClass The class of the entity that each row in the result set will be mapped to.
+     * @return A {@link Flux} emitting the query results, potentially from cache if previously stored.
+     */
+    protected <T> Flux<T> queryWithCache(Object key, Collection<String> tags, Query query, Class<T> entityClass) {
+        return queryWithCache(key, tags, DatabaseUtils.query(query, entityClass))
+                .timeout(Duration.ofSeconds(10));
     }
 
     /**
@@ -106,8 +185,25 @@ public abstract class AbstractCache implements InitializingBean {
      */
     protected <T> Flux<T> queryWithCache(Object key, String sql,
                                          Map<String, Object> bindParams, Class<T> entityClass) {
-        return queryWithCache(key, DatabaseUtils.query(sql, bindParams, entityClass))
-                .timeout(Duration.ofSeconds(10)).replay(3).refCount();
+        return queryWithCache(key, Set.of(), sql, bindParams, entityClass);
+    }
+
+    /**
+     * Executes a SQL query with caching capability, tagging the cached result so that a write
+     * affecting any of the given tags invalidates it (see {@link #invalidateTags(String...)}).
+     *
+     * @param <T>         The type of entities the SQL query results will be mapped to.
+     * @param key         The cache key used to identify the cached data.
+     * @param tags        The tags the cached result depends on.
+     * @param sql         The SQL query string to be executed.
+     * @param bindParams  A map containing named parameter bindings for the SQL query.
+     * @param entityClass The class of the entity that each row in the result set will be converted into.
+     * @return A {@link Flux} emitting the entities resulting from the query, potentially from the cache.
+     */
+    protected <T> Flux<T> queryWithCache(Object key, Collection<String> tags, String sql,
+                                         Map<String, Object> bindParams, Class<T> entityClass) {
+        return queryWithCache(key, tags, DatabaseUtils.query(sql, bindParams, entityClass))
+                .timeout(Duration.ofSeconds(10));
     }
 
     /**
@@ -122,15 +218,104 @@ public abstract class AbstractCache implements InitializingBean {
      * @return A Flux that emits the cached data if available, otherwise executes the source Flux and caches the result.
      */
     protected <T> Flux<T> queryWithCache(Object key, Flux<T> sourceFlux) {
+        return queryWithCache(key, Set.of(), sourceFlux);
+    }
+
+    /**
+     * Executes a Flux-based database query with tag-aware caching.
+     * <p>
+     * A cached result is served only while the generations of its tags are unchanged. On a miss the
+     * tag generations are captured before the source is subscribed, and the collected result is stored
+     * only if they are still the same once the source completes, so a query that overlapped a write
+     * never caches what it read before that write.
+     * <p>
+     * Concurrent misses on the same key are coalesced: only the first subscriber executes the source,
+     * the others share its emissions (see {@link #coalesce(String, Supplier)}).
+     * <p>
+     * A load whose subscribers all cancel before it completes is not cached, since it would store a
+     * truncated result. Sources that emit a single value should use
+     * {@link #queryWithCache(Object, Collection, Mono)} instead, which stores the value on emission.
+     *
+     * @param <T>        The type of elements emitted by the Flux.
+     * @param key        The unique identifier used as the cache key.
+     * @param tags       The tags the cached result depends on.
+     * @param sourceFlux The original Flux to be executed for querying data.
+     * @return A Flux that emits the cached data if available, otherwise executes the source Flux and caches the result.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Flux<T> queryWithCache(Object key, Collection<String> tags, Flux<T> sourceFlux) {
         String cacheKey = key + ":data";
-        Collection<T> cacheData = this.cache.get(cacheKey, List::of);
-        if (ObjectUtils.isEmpty(cacheData)) {
-            var sourceData = new java.util.concurrent.CopyOnWriteArrayList<T>();
+        return Flux.defer(() -> {
+            CacheEntry entry = this.currentEntry(cacheKey);
+            if (entry != null && entry.value() instanceof Collection<?> cacheData) {
+                this.refreshAhead(cacheKey, entry, () -> this.load(cacheKey, tags, sourceFlux));
+                return Flux.fromIterable((Collection<T>) cacheData);
+            }
+            return this.load(cacheKey, tags, sourceFlux);
+        });
+    }
+
+    private <T> Flux<T> load(String cacheKey, Collection<String> tags, Flux<T> sourceFlux) {
+        return this.coalesce(cacheKey, () -> {
+            Map<String, Long> generations = this.generations(tags);
+            long startedAt = System.currentTimeMillis();
+            AtomicBoolean replicaRead = new AtomicBoolean();
+            var sourceData = new ArrayList<T>();
             return sourceFlux.doOnNext(sourceData::add)
-                    .doOnComplete(() -> this.cachePut(cacheKey, sourceData))
-                    .doOnCancel(() -> this.cachePut(cacheKey, sourceData));
-        }
-        return Flux.fromIterable(cacheData);
+                    .doOnComplete(() -> this.cachePut(cacheKey, tags, generations, sourceData, startedAt,
+                            replicaRead.get()))
+                    .contextWrite(ReplicaRoutingConnectionFactory.trackReplicaReads(replicaRead));
+        });
+    }
+
+    /**
+     * Executes a single-value source with tag-aware caching, e.g. a page assembled from a query and its total.
+     * <p>
+     * Unlike the {@link Flux} based overloads, which store a result only once the source completes, the
+     * value is stored as soon as it is emitted. A caller that cancels right after the value (such as
+     * {@code next()} or {@code zip}) therefore still caches it. The same tag generation check and
+     * single-flight coalescing apply. An empty source is not cached.
+     *
+     * @param <T>        The type of the value emitted by the source.
+     * @param key        The unique identifier used as the cache key.
+     * @param tags       The tags the cached value depends on.
+     * @param sourceMono The original Mono to be executed for loading the value.
+     * @return A Mono that emits the cached value if available, otherwise executes the source Mono and caches its value.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Mono<T> queryWithCache(Object key, Collection<String> tags, Mono<T> sourceMono) {
+        String cacheKey = key + ":value";
+        return Mono.defer(() -> {
+            CacheEntry entry = this.currentEntry(cacheKey);
+            if (entry != null && entry.value() != null) {
+                this.refreshAhead(cacheKey, entry, () -> this.loadOne(cacheKey, tags, sourceMono));
+                return Mono.just((T) entry.value());
+            }
+            return this.loadOne(cacheKey, tags, sourceMono).singleOrEmpty();
+        });
+    }
+
+    /**
+     * Executes a single-value source with caching, see {@link #queryWithCache(Object, Collection, Mono)}.
+     *
+     * @param <T>        The type of the value emitted by the source.
+     * @param key        The unique identifier used as the cache key.
+     * @param sourceMono The original Mono to be executed for loading the value.
+     * @return A Mono that emits the cached value if available, otherwise executes the source Mono and caches its value.
+     */
+    protected <T> Mono<T> queryWithCache(Object key, Mono<T> sourceMono) {
+        return queryWithCache(key, Set.of(), sourceMono);
+    }
+
+    private <T> Flux<T> loadOne(String cacheKey, Collection<String> tags, Mono<T> sourceMono) {
+        return this.coalesce(cacheKey, () -> {
+            Map<String, Long> generations = this.generations(tags);
+            long startedAt = System.currentTimeMillis();
+            AtomicBoolean replicaRead = new AtomicBoolean();
+            return sourceMono.doOnNext(value -> this.cachePut(cacheKey, tags, generations, value, startedAt,
+                            replicaRead.get()))
+                    .contextWrite(ReplicaRoutingConnectionFactory.trackReplicaReads(replicaRead)).flux();
+        });
     }
 
     /**
@@ -146,7 +331,21 @@ public abstract class AbstractCache implements InitializingBean {
      * @return A {@link Mono} emitting the count of entities as a {@link Long}, potentially from cache.
      */
     protected <T> Mono<Long> countWithCache(Object key, Query query, Class<T> entityClass) {
-        return countWithCache(key, DatabaseUtils.count(query, entityClass)).timeout(Duration.ofSeconds(10));
+        return countWithCache(key, Set.of(), query, entityClass);
+    }
+
+    /**
+     * Counts entities with tag-aware caching support based on the provided key, query, and entity class.
+     *
+     * @param <T>         The type of entities for which the count is to be performed.
+     * @param key         A unique identifier used as a cache key.
+     * @param tags        The tags the cached count depends on.
+     * @param query       The query object defining the criteria for counting entities.
+     * @param entityClass The class of the entities being counted.
+     * @return A {@link Mono} emitting the count of entities as a {@link Long}, potentially from cache.
+     */
+    protected <T> Mono<Long> countWithCache(Object key, Collection<String> tags, Query query, Class<T> entityClass) {
+        return countWithCache(key, tags, DatabaseUtils.count(query, entityClass)).timeout(Duration.ofSeconds(10));
     }
 
     /**
@@ -159,7 +358,20 @@ public abstract class AbstractCache implements InitializingBean {
      * @return A Mono emitting the count result, potentially fetched from cache or computed from the database.
      */
     protected Mono<Long> countWithCache(Object key, String sql, Map<String, Object> bindParams) {
-        return countWithCache(key, DatabaseUtils.count(sql, bindParams)).timeout(Duration.ofSeconds(10));
+        return countWithCache(key, Set.of(), sql, bindParams);
+    }
+
+    /**
+     * Executes a SQL count query with tag-aware caching capabilities.
+     *
+     * @param key        The unique cache key associated with the count query.
+     * @param tags       The tags the cached count depends on.
+     * @param sql        The SQL count query string to be executed.
+     * @param bindParams A map containing named parameter placeholders and their respective values for the SQL query.
+     * @return A Mono emitting the count result, potentially fetched from cache or computed from the database.
+     */
+    protected Mono<Long> countWithCache(Object key, Collection<String> tags, String sql, Map<String, Object> bindParams) {
+        return countWithCache(key, tags, DatabaseUtils.count(sql, bindParams)).timeout(Duration.ofSeconds(10));
     }
 
     /**
@@ -177,26 +389,220 @@ public abstract class AbstractCache implements InitializingBean {
      * cached, and then emitted.
      */
     protected Mono<Long> countWithCache(Object key, Mono<Long> sourceMono) {
+        return countWithCache(key, Set.of(), sourceMono);
+    }
+
+    /**
+     * Counts entities using a cached value if present and its tags are unchanged, otherwise executes
+     * the provided Mono source and caches the result unless a write to one of the tags happened meanwhile.
+     *
+     * @param key        The unique identifier used as the cache key.
+     * @param tags       The tags the cached count depends on.
+     * @param sourceMono A Mono publisher that, when subscribed to, executes a count operation.
+     * @return A Mono emitting the count of entities.
+     */
+    protected Mono<Long> countWithCache(Object key, Collection<String> tags, Mono<Long> sourceMono) {
         String cacheKey = key + ":count";
-        Long cacheCount = this.cache.get(cacheKey, () -> 0L);
-        Mono<Long> source = sourceMono.doOnNext(count -> this.cachePut(cacheKey, count));
-        return Mono.justOrEmpty(cacheCount).switchIfEmpty(Mono.defer(() -> source));
+        return Mono.defer(() -> {
+            CacheEntry entry = this.currentEntry(cacheKey);
+            if (entry != null && entry.value() instanceof Long cacheCount) {
+                this.refreshAhead(cacheKey, entry, () -> this.loadCount(cacheKey, tags, sourceMono));
+                return Mono.just(cacheCount);
+            }
+            return this.loadCount(cacheKey, tags, sourceMono).singleOrEmpty();
+        });
+    }
+
+    private Flux<Long> loadCount(String cacheKey, Collection<String> tags, Mono<Long> sourceMono) {
+        return this.coalesce(cacheKey, () -> {
+            Map<String, Long> generations = this.generations(tags);
+            long startedAt = System.currentTimeMillis();
+            AtomicBoolean replicaRead = new AtomicBoolean();
+            return sourceMono.doOnNext(count -> this.cachePut(cacheKey, tags, generations, count, startedAt,
+                            replicaRead.get()))
+                    .contextWrite(ReplicaRoutingConnectionFactory.trackReplicaReads(replicaRead)).flux();
+        });
+    }
+
+    /**
+     * Returns the refresh-ahead policy of this cache. By default, cached results are served until they
+     * expire or are invalidated; subclasses whose results are read far more often than they change
+     * can opt in to stale-while-revalidate by returning an enabled policy, e.g.
+     * <pre>{@code
+     * @Override
+     * protected RefreshPolicy refreshPolicy() {
+     *     return RefreshPolicy.of(Duration.ofMinutes(2));
+     * }
+     * }</pre>
+     *
+     * @return The refresh-ahead policy, {@link RefreshPolicy#disabled()} by default.
+     */
+    protected RefreshPolicy refreshPolicy() {
+        return RefreshPolicy.disabled();
+    }
+
+    /**
+     * Starts a background reload of a cached entry when the refresh policy decides it is due, while the
+     * caller is served the current value. The reload goes through {@link #coalesce(String, Supplier)},
+     * so at most one reload per key runs at a time, and it is skipped while a load of the key is in flight.
+     *
+     * @param cacheKey The cache key of the entry.
+     * @param entry    The entry being served.
+     * @param reload   Creates the reload of the entry.
+     */
+    private void refreshAhead(String cacheKey, CacheEntry entry, Supplier<Flux<?>> reload) {
+        if (this.inflightLoads.containsKey(cacheKey)
+                || !this.refreshPolicy().shouldRefresh(entry, System.currentTimeMillis())) {
+            return;
+        }
+        this.refreshes.increment();
+        reload.get().subscribe(null, ex -> log.warn("Cache refresh-ahead failed, key: {}. {}",
+                cacheKey, ex.getMessage()));
+    }
+
+    /**
+     * Invalidates every cached result tagged with any of the given tags by moving the tags to a new
+     * generation. Entries of other tags are left untouched. Call it after the write has completed so
+     * that loads which started before the write cannot store their results; writes running in a
+     * transaction should use {@link #invalidateTagsOnCommit(String...)} instead.
+     *
+     * @param tags The tags affected by a write.
+     */
+    protected void invalidateTags(String... tags) {
+        for (String tag : tags) {
+            this.cache.put(TAG_KEY_PREFIX + tag, ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE));
+        }
+        log.debug("Invalidated cache [{}] tags: {}", this.cache.getName(), tags);
+    }
+
+    /**
+     * Invalidates the given tags once the current transaction has committed, see {@link #invalidateTags(String...)}.
+     * <p>
+     * Invalidating from inside a transactional publisher would move the tags to a new generation before
+     * the write is visible, so a read running between the invalidation and the commit could cache the old
+     * rows under the new generation. The invalidation is therefore registered as an after-commit
+     * synchronization of the surrounding transaction, and skipped if it rolls back. Without a transaction
+     * the tags are invalidated immediately.
+     *
+     * @param tags The tags affected by a write.
+     * @return A Mono completing once the invalidation is registered or done.
+     */
+    protected Mono<Void> invalidateTagsOnCommit(String... tags) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .onErrorResume(NoTransactionException.class, _ -> Mono.empty())
+                .map(manager -> {
+                    manager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> invalidateTags(tags));
+                        }
+                    });
+                    return true;
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    this.invalidateTags(tags);
+                    return false;
+                }))
+                .then();
+    }
+
+    /**
+     * Builds a cache tag from a tag type and a value, e.g. {@code tenant:0196...}. A {@code null} value
+     * yields the wildcard tag of the type ({@code tenant:*}), used for results that are not scoped to a
+     * single value; writes should invalidate the wildcard tag together with the scoped one.
+     *
+     * @param type  The tag type, e.g. {@link #TENANT_TAG}.
+     * @param value The tag value, or {@code null} for the wildcard.
+     * @return The tag.
+     */
+    protected static String tag(String type, @Nullable Object value) {
+        return type + ":" + (value == null ? "*" : value);
+    }
+
+    /**
+     * Coalesces concurrent loads of the same cache key into a single execution ("single flight").
+     * The first caller creates the load, later callers join it while it is in flight and receive the
+     * same emissions, including the ones emitted before they joined. The load is forgotten once it
+     * terminates or once all its subscribers have cancelled. Executed and coalesced loads are counted
+     * in the {@code plate.cache.loads} meter, tagged with {@code cache} and {@code result}.
+     *
+     * @param <T>      The type of elements emitted by the load.
+     * @param cacheKey The cache key being loaded.
+     * @param loader   Creates the load; only invoked when no load of the key is in flight.
+     * @return The shared load of the key.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Flux<T> coalesce(String cacheKey, Supplier<Flux<T>> loader) {
+        boolean[] executed = {false};
+        Flux<?> load = this.inflightLoads.computeIfAbsent(cacheKey, key -> {
+            executed[0] = true;
+            return loader.get().doFinally(_ -> this.inflightLoads.remove(key)).replay().refCount();
+        });
+        (executed[0] ? this.executedLoads : this.coalescedLoads).increment();
+        return (Flux<T>) load;
+    }
+
+    private @Nullable CacheEntry currentEntry(String cacheKey) {
+        this.admission.record(cacheKey);
+        Cache.ValueWrapper wrapper = this.cache.get(cacheKey);
+        if (wrapper == null || !(wrapper.get() instanceof CacheEntry entry)
+                || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.generations().equals(this.generations(entry.generations().keySet())) ? entry : null;
+    }
+
+    private Map<String, Long> generations(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> generations = new HashMap<>(tags.size());
+        for (String tag : tags) {
+            Long generation = this.cache.get(TAG_KEY_PREFIX + tag, Long.class);
+            generations.put(tag, generation == null ? 0L : generation);
+        }
+        return generations;
+    }
+
+    /**
+     * Stores a loaded result unless its tags changed while loading. A result read from a read replica may
+     * miss a write committed and invalidated just before the load, so it is only served for the replicas'
+     * {@code max-lag} instead of until its tags change.
+     */
+    private void cachePut(String cacheKey, Collection<String> tags, Map<String, Long> generations,
+                          Object obj, long startedAt, boolean replicaRead) {
+        if (!generations.equals(this.generations(tags))) {
+            log.debug("Cache put rejected, tags {} changed while loading key: {}", tags, cacheKey);
+            return;
+        }
+        long loadedAt = System.currentTimeMillis();
+        long expiresAt = replicaRead
+                ? loadedAt + DatabaseUtils.DATABASE_PROPERTIES.getReplicas().getMaxLag().toMillis() : 0L;
+        this.cachePut(cacheKey, new CacheEntry(obj, Map.copyOf(generations), loadedAt, loadedAt - startedAt,
+                expiresAt));
     }
 
     /**
-     * Inserts an object into the specified cache if its size does not exceed the maximum allowed in-memory size.
+     * Inserts an object into the cache if the cache's admission policy accepts it.
+     * <p>
+     * The object's size is estimated with {@link SizeEstimator} instead of being serialized, and the
+     * estimation stops as soon as it exceeds the policy's maximum size. Rejected objects are not cached
+     * and are counted in the {@code plate.cache.admissions} meter.
      *
      * @param cacheKey The key under which the object will be stored in the cache.
-     * @param obj      The object to be cached. Its size will be evaluated against the maximum allowed size.
-     *                 If the object exceeds the limit, it will not be cached and a warning will be logged.
+     * @param obj      The object to be cached. Its estimated size is evaluated by the admission policy.
+     *                 If the policy rejects it, it will not be cached and a debug message will be logged.
+     * @see CacheAdmission
      */
     protected void cachePut(String cacheKey, Object obj) {
-        DataSize objectSize = DatabaseUtils.getBeanSize(obj);
-        if (objectSize.toBytes() > DatabaseUtils.MAX_IN_MEMORY_SIZE.toBytes()) {
-            log.warn("Object size is too large, Max memory size is {}, Object size is {}.",
-                    DatabaseUtils.MAX_IN_MEMORY_SIZE, objectSize);
+        long objectSize = SizeEstimator.estimate(obj, this.admission.maximumSize());
+        if (!this.admission.admit(cacheKey, objectSize)) {
+            this.rejectedAdmissions.increment();
+            log.debug("Cache admission rejected key: {}, estimated size: {}, max size: {}.",
+                    cacheKey, DataSize.ofBytes(objectSize), DataSize.ofBytes(this.admission.maximumSize()));
             return;
         }
         this.cache.put(cacheKey, obj);
     }
-}
\ No newline at end of file
+}
@@ -113,7 +113,7 @@ public interface BaseEntity<T> extends Serializable, Persistable<T> {
             fragment.ts("text_search", getSearch());
         }
         if (!ObjectUtils.isEmpty(getQuery())) {
-            fragment.condition(QueryJsonHelper.queryJson(getQuery(), null));
+            fragment.condition(QueryJsonHelper.queryJson(getQuery(), null, getClass()));
         }
         if (!ObjectUtils.isEmpty(getSecurityCode())) {
             fragment.isEq("tenantCode", getSecurityCode());
@@ -0,0 +1,113 @@
+package com.plate.boot.commons.cache;
+
+import com.plate.boot.config.CachesProperties;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Decides whether a loaded value is worth storing in a service cache.
+ * <p>
+ * Every lookup of a key is reported through {@link #record(String)}, and {@link #admit(String, long)}
+ * is asked before a loaded value is stored. Implementations are created from the configured
+ * {@link CachesProperties.Admission#getPolicy() policy}:
+ * <ul>
+ *     <li>{@code always}: every value is admitted.</li>
+ *     <li>{@code size}: values whose estimated size exceeds the maximum size are rejected.</li>
+ *     <li>{@code frequency}: as {@code size}, and values larger than the doorkeeper size are only admitted
+ *     once their key was requested at least {@code min-frequency} times recently (TinyLFU-style), so large
+ *     one-off results do not push frequently used entries out of the cache.</li>
+ * </ul>
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * CacheAdmission admission = CacheAdmission.of(properties.getAdmission(), DataSize.ofKilobytes(256));
+ * admission.record(cacheKey);
+ * if (admission.admit(cacheKey, SizeEstimator.estimate(value, limit))) {
+ *     cache.put(cacheKey, value);
+ * }
+ * }</pre>
+ */
+public interface CacheAdmission {
+
+    /**
+     * Records a lookup of the given key.
+     *
+     * @param key the cache key looked up
+     */
+    default void record(String key) {
+    }
+
+    /**
+     * Decides whether a value of the given estimated size may be stored under the key.
+     *
+     * @param key  the cache key
+     * @param size the estimated size of the value in bytes
+     * @return {@code true} if the value should be cached
+     */
+    boolean admit(String key, long size);
+
+    /**
+     * Returns the size above which a value is never admitted, used to bound the size estimation.
+     *
+     * @return the maximum size in bytes
+     */
+    long maximumSize();
+
+    /**
+     * Creates the admission policy described by the given properties.
+     *
+     * @param properties  the admission properties, or {@code null} for the defaults
+     * @param defaultSize the maximum size used when the properties do not set one, may be {@code null}
+     * @return the admission policy
+     */
+    static CacheAdmission of(CachesProperties.@Nullable Admission properties,
+                             @Nullable DataSize defaultSize) {
+        CachesProperties.Admission admission = properties != null ? properties : new CachesProperties.Admission();
+        long maximumSize = admission.getMaximumSize() != null ? admission.getMaximumSize().toBytes()
+                : defaultSize != null ? defaultSize.toBytes() : Long.MAX_VALUE;
+        return switch (admission.getPolicy()) {
+            case ALWAYS -> new CacheAdmission() {
+                @Override
+                public boolean admit(String key, long size) {
+                    return true;
+                }
+
+                @Override
+                public long maximumSize() {
+                    return Long.MAX_VALUE;
+                }
+            };
+            case SIZE -> new CacheAdmission() {
+                @Override
+                public boolean admit(String key, long size) {
+                    return size <= maximumSize;
+                }
+
+                @Override
+                public long maximumSize() {
+                    return maximumSize;
+                }
+            };
+            case FREQUENCY -> new CacheAdmission() {
+                private final FrequencySketch sketch = new FrequencySketch(admission.getSampleSize());
+                private final long doorkeeperSize = admission.getDoorkeeperSize().toBytes();
+
+                @Override
+                public void record(String key) {
+                    this.sketch.increment(key);
+                }
+
+                @Override
+                public boolean admit(String key, long size) {
+                    return size <= maximumSize && (size <= this.doorkeeperSize
+                            || this.sketch.frequency(key) >= admission.getMinFrequency());
+                }
+
+                @Override
+                public long maximumSize() {
+                    return maximumSize;
+                }
+            };
+        };
+    }
+}
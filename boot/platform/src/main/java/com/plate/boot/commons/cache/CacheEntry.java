@@ -0,0 +1,66 @@
+package com.plate.boot.commons.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A cached value together with the generations of the tags it depends on, captured when the
+ * load that produced it started.
+ * <p>
+ * A write bumps the generation of every tag it affects; an entry whose recorded generations no
+ * longer match the current ones is treated as a miss. Entries without tags are only bounded by
+ * the cache's own expiry.
+ * <p>
+ * The load time and duration are kept for refresh-ahead: a {@link RefreshPolicy} uses them to decide
+ * when the entry should be reloaded in the background.
+ * <p>
+ * An entry read from a lagging read replica may miss a write whose tags were invalidated just before
+ * the load started, so it carries an expiry of its own, {@code max-lag} after the load.
+ *
+ * @param value       the cached value, a list of rows or a count
+ * @param generations the tag generations observed when the load started, keyed by tag
+ * @param loadedAt    the epoch milliseconds at which the load completed
+ * @param loadMillis  the duration of the load in milliseconds
+ * @param expiresAt   the epoch milliseconds after which the entry is no longer served, or zero for none
+ * @see com.plate.boot.commons.base.AbstractCache#invalidateTags(String...)
+ */
+public record CacheEntry(Object value, Map<String, Long> generations,
+                         long loadedAt, long loadMillis, long expiresAt) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an entry without an expiry of its own.
+     *
+     * @param value       the cached value
+     * @param generations the tag generations observed when the load started
+     * @param loadedAt    the epoch milliseconds at which the load completed
+     * @param loadMillis  the duration of the load in milliseconds
+     */
+    public CacheEntry(Object value, Map<String, Long> generations, long loadedAt, long loadMillis) {
+        this(value, generations, loadedAt, loadMillis, 0L);
+    }
+
+    /**
+     * Tells whether the entry has passed its own expiry.
+     *
+     * @param now the current epoch milliseconds
+     * @return {@code true} if the entry has an expiry and it has passed
+     */
+    public boolean isExpired(long now) {
+        return this.expiresAt > 0 && now > this.expiresAt;
+    }
+
+    /**
+     * Creates an entry for the given value and tag generations, loaded now.
+     *
+     * @param value       the cached value
+     * @param generations the tag generations observed when the load started
+     * @return the cache entry
+     */
+    public static CacheEntry of(Object value, Map<String, Long> generations) {
+        return new CacheEntry(value, Map.copyOf(generations), System.currentTimeMillis(), 0);
+    }
+}
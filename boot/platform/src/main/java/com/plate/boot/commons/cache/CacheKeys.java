@@ -0,0 +1,219 @@
+package com.plate.boot.commons.cache;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.plate.boot.commons.utils.BeanMetadata;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ObjectUtils;
+import tools.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.*;
+
+/**
+ * Canonical, compact cache keys for query requests.
+ * <p>
+ * A key is built by feeding a canonical encoding of its parts into a 128-bit murmur3 digest: bean
+ * properties and map entries are visited in sorted order, empty bean properties are skipped, sets are
+ * order-independent, and every value is written with a type tag and a fixed encoding (UUIDs as two longs,
+ * integral numbers as longs, decimals without trailing zeros, JSON trees by structure). Logically equal
+ * requests therefore map to the same key regardless of map or set iteration order, and a key has a fixed
+ * width however large the request is.
+ * <p>
+ * {@link #of(Object...)} prefixes the digest with a readable part naming the entity and, when the first
+ * bean carries a {@code tenantCode}, the tenant, e.g. {@code user-req:0000...:Q2xhc3NpYy1rZXk0MjAwMDAwMA}.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * String key = CacheKeys.of(request, pageable);
+ * String digest = CacheKeys.digest(request);
+ * }</pre>
+ *
+ * @see com.plate.boot.commons.utils.BeanUtils#cacheKey(Object...)
+ */
+public final class CacheKeys {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+    private static final String TENANT_PROPERTY = "tenantCode";
+    private static final int MAX_DEPTH = 16;
+
+    private CacheKeys() {
+    }
+
+    /**
+     * Builds a prefixed cache key for the given parts.
+     *
+     * @param parts the request beans, pageables and values the cached result depends on
+     * @return the readable prefix followed by the digest of the parts
+     */
+    public static String of(Object... parts) {
+        StringJoiner key = new StringJoiner(":");
+        Object bean = Arrays.stream(parts).filter(CacheKeys::isBean).findFirst().orElse(null);
+        if (bean != null) {
+            key.add(CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, bean.getClass().getSimpleName()));
+            BeanMetadata.Property tenant = BeanMetadata.of(bean.getClass()).property(TENANT_PROPERTY);
+            Object tenantCode = tenant == null || !tenant.readable() ? null : tenant.get(bean);
+            if (tenantCode != null) {
+                key.add(tenantCode.toString());
+            }
+        }
+        return key.add(digest(parts)).toString();
+    }
+
+    /**
+     * Computes the fixed-width digest of the given parts, without prefix.
+     *
+     * @param parts the values to digest
+     * @return the URL-safe base64 encoding of the 128-bit digest, 22 characters long
+     */
+    public static String digest(Object... parts) {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        hasher.putInt(parts.length);
+        for (Object part : parts) {
+            encode(hasher, part, 0);
+        }
+        return ENCODING.encode(hasher.hash().asBytes());
+    }
+
+    private static void encode(Hasher hasher, @Nullable Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Cache key part nested deeper than " + MAX_DEPTH + " levels");
+        }
+        switch (value) {
+            case null -> hasher.putByte((byte) 'N');
+            case CharSequence text -> putString(hasher.putByte((byte) 'S'), text);
+            case Boolean bool -> hasher.putByte((byte) 'Z').putBoolean(bool);
+            case Character character -> hasher.putByte((byte) 'C').putChar(character);
+            case Byte _, Short _, Integer _, Long _ -> hasher.putByte((byte) 'J').putLong(((Number) value).longValue());
+            case Float _, Double _ -> hasher.putByte((byte) 'F').putDouble(((Number) value).doubleValue());
+            case BigDecimal decimal -> putString(hasher.putByte((byte) 'D'), decimal.stripTrailingZeros().toPlainString());
+            case BigInteger integer -> putString(hasher.putByte((byte) 'I'), integer.toString());
+            case UUID uuid -> hasher.putByte((byte) 'U')
+                    .putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+            case Enum<?> constant -> putString(hasher.putByte((byte) 'E'), constant.name());
+            case Date date -> hasher.putByte((byte) 'T').putLong(date.getTime());
+            case Temporal temporal -> putString(hasher.putByte((byte) 'T'), temporal.toString());
+            case Pageable pageable -> encodePageable(hasher, pageable);
+            case Sort sort -> encodeSort(hasher, sort);
+            case JsonNode node -> encodeJson(hasher, node, depth);
+            case Map<?, ?> map -> encodeMap(hasher, map, depth);
+            case Set<?> set -> encodeSet(hasher, set, depth);
+            case Collection<?> values -> encodeList(hasher, values, depth);
+            case Object[] values -> encodeList(hasher, Arrays.asList(values), depth);
+            case byte[] bytes -> hasher.putByte((byte) 'Y').putInt(bytes.length).putBytes(bytes);
+            case Number number -> putString(hasher.putByte((byte) 'O'), number.toString());
+            default -> {
+                if (isBean(value)) {
+                    encodeBean(hasher, value, depth);
+                } else {
+                    putString(hasher.putByte((byte) 'O'), value.toString());
+                }
+            }
+        }
+    }
+
+    private static void encodePageable(Hasher hasher, Pageable pageable) {
+        hasher.putByte((byte) 'P');
+        if (pageable.isPaged()) {
+            hasher.putLong(pageable.getOffset()).putInt(pageable.getPageSize());
+        } else {
+            hasher.putLong(-1);
+        }
+        encodeSort(hasher, pageable.getSort());
+    }
+
+    private static void encodeSort(Hasher hasher, Sort sort) {
+        hasher.putByte((byte) 'Q');
+        for (Sort.Order order : sort) {
+            putString(hasher, order.getProperty());
+            hasher.putInt(order.getDirection().ordinal()).putBoolean(order.isIgnoreCase())
+                    .putInt(order.getNullHandling().ordinal());
+        }
+        hasher.putByte((byte) 0);
+    }
+
+    private static void encodeJson(Hasher hasher, JsonNode node, int depth) {
+        if (node.isObject()) {
+            SortedMap<String, JsonNode> fields = new TreeMap<>();
+            node.properties().forEach(entry -> fields.put(entry.getKey(), entry.getValue()));
+            hasher.putByte((byte) 'M').putInt(fields.size());
+            fields.forEach((name, child) -> {
+                putString(hasher, name);
+                encodeJson(hasher, child, depth + 1);
+            });
+        } else if (node.isArray()) {
+            hasher.putByte((byte) 'L').putInt(node.size());
+            for (int i = 0; i < node.size(); i++) {
+                encodeJson(hasher, node.get(i), depth + 1);
+            }
+        } else {
+            putString(hasher.putByte((byte) 'V'), node.toString());
+        }
+    }
+
+    private static void encodeMap(Hasher hasher, Map<?, ?> map, int depth) {
+        SortedMap<String, Object> entries = new TreeMap<>();
+        map.forEach((key, value) -> entries.put(String.valueOf(key), value));
+        hasher.putByte((byte) 'M').putInt(entries.size());
+        entries.forEach((key, value) -> {
+            putString(hasher, key);
+            encode(hasher, value, depth + 1);
+        });
+    }
+
+    private static void encodeList(Hasher hasher, Collection<?> values, int depth) {
+        hasher.putByte((byte) 'L').putInt(values.size());
+        for (Object value : values) {
+            encode(hasher, value, depth + 1);
+        }
+    }
+
+    private static void encodeSet(Hasher hasher, Set<?> values, int depth) {
+        List<byte[]> digests = new ArrayList<>(values.size());
+        for (Object value : values) {
+            Hasher element = HASH_FUNCTION.newHasher();
+            encode(element, value, depth + 1);
+            digests.add(element.hash().asBytes());
+        }
+        digests.sort(Arrays::compare);
+        hasher.putByte((byte) 'H').putInt(digests.size());
+        digests.forEach(hasher::putBytes);
+    }
+
+    private static void encodeBean(Hasher hasher, Object bean, int depth) {
+        putString(hasher.putByte((byte) 'B'), bean.getClass().getName());
+        for (BeanMetadata.Property property : BeanMetadata.of(bean.getClass()).properties()) {
+            if (!property.readable()) {
+                continue;
+            }
+            Object value = property.get(bean);
+            if (ObjectUtils.isEmpty(value)) {
+                continue;
+            }
+            putString(hasher, property.name());
+            encode(hasher, value, depth + 1);
+        }
+        hasher.putByte((byte) 0);
+    }
+
+    private static Hasher putString(Hasher hasher, CharSequence text) {
+        return hasher.putInt(text.length()).putString(text, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBean(@Nullable Object value) {
+        return value != null && !(value instanceof Pageable) && !(value instanceof Sort)
+                && !(value instanceof CharSequence) && !(value instanceof Number) && !(value instanceof Map)
+                && !(value instanceof Iterable) && !(value instanceof JsonNode) && !(value instanceof Enum)
+                && !(value instanceof UUID) && !(value instanceof Temporal) && !(value instanceof Date)
+                && !value.getClass().isArray() && !value.getClass().getName().startsWith("java.");
+    }
+}
@@ -0,0 +1,91 @@
+package com.plate.boot.commons.cache;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch estimating how often a key was requested recently, as used by TinyLFU admission.
+ * <p>
+ * Each key is mapped to {@value #DEPTH} counters (one per row) and its frequency is the minimum of them,
+ * so estimates may be slightly high but never low. Counters saturate at {@value #MAX_COUNT}. After
+ * {@code sampleSize} increments every counter is halved, which ages out keys that were popular long ago
+ * and keeps the sketch representative of the recent workload.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * FrequencySketch sketch = new FrequencySketch(10_000);
+ * sketch.increment("users:page:0");
+ * int frequency = sketch.frequency("users:page:0"); // 1
+ * }</pre>
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * Creates a sketch sized for the given number of increments between two agings.
+     *
+     * @param sampleSize the number of increments after which all counters are halved
+     */
+    public FrequencySketch(int sampleSize) {
+        this.sampleSize = Math.max(16, sampleSize);
+        this.width = Integer.highestOneBit(Math.max(16, this.sampleSize / 2)) << 1;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+    }
+
+    /**
+     * Records one request of the given key.
+     *
+     * @param key the requested key
+     */
+    public void increment(String key) {
+        long hash = hash(key);
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            this.counters.getAndUpdate(index, count -> Math.min(MAX_COUNT, count + 1));
+        }
+        if (this.additions.incrementAndGet() >= this.sampleSize) {
+            this.reset();
+        }
+    }
+
+    /**
+     * Estimates how often the given key was requested since the last agings.
+     *
+     * @param key the key
+     * @return the estimated frequency, between {@code 0} and {@value #MAX_COUNT}
+     */
+    public int frequency(String key) {
+        long hash = hash(key);
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, this.counters.get(index(hash, row)));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        this.additions.set(0);
+        for (int i = 0; i < this.counters.length(); i++) {
+            this.counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(long hash, int row) {
+        int rowHash = (int) (hash >>> (row * 16)) ^ (int) (hash * (row + 1) >>> 32);
+        return row * this.width + (rowHash & (this.width - 1));
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
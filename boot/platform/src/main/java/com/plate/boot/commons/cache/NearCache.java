@@ -0,0 +1,199 @@
+package com.plate.boot.commons.cache;
+
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-tier {@link Cache} keeping a bounded in-process map (L1) in front of a shared cache (L2),
+ * typically the Redis cache provided by the application's {@link org.springframework.cache.CacheManager}.
+ * <p>
+ * Reads are served from L1 when possible; an L1 miss falls through to L2 and a hit there is promoted
+ * into L1. Writes, evictions and clears go to both tiers and are reported to an invalidation
+ * publisher so that other nodes can drop their local copies through {@link #invalidateLocal(String)}.
+ * <p>
+ * L1 is bounded by weight (a cached collection weighs its element count, any other value weighs one)
+ * and every local entry expires after the configured time-to-live, which caps the staleness window
+ * when an invalidation message is lost.
+ * <p>
+ * Hits and misses of both tiers are counted in the {@code plate.cache.gets} meter, tagged with
+ * {@code cache}, {@code tier} ({@code l1}/{@code l2}) and {@code result} ({@code hit}/{@code miss}),
+ * and the local entry count is exposed as the {@code plate.cache.size} gauge.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * Cache shared = cacheManager.getCache("users");
+ * Cache cache = new NearCache(shared, 10_000, Duration.ofSeconds(30),
+ *         (cacheName, key) -> log.debug("Invalidate {} {}", cacheName, key));
+ * cache.put("alice", user);
+ * cache.get("alice"); // served from the local tier
+ * }</pre>
+ *
+ * @see com.plate.boot.commons.utils.CacheUtils#nearCache(Cache)
+ */
+@Log4j2
+public class NearCache implements Cache {
+
+    private final Cache delegate;
+    private final com.google.common.cache.Cache<String, ValueWrapper> local;
+    private final BiConsumer<String, @Nullable String> invalidationPublisher;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+
+    /**
+     * Creates a near cache in front of the given shared cache.
+     *
+     * @param delegate              the shared (L2) cache
+     * @param maximumWeight         the maximum total weight of the local entries
+     * @param timeToLive            the local time-to-live counted from write
+     * @param invalidationPublisher receives the cache name and the invalidated key ({@code null} for a clear)
+     *                              whenever this node changes an entry
+     */
+    public NearCache(Cache delegate, long maximumWeight, Duration timeToLive,
+                     BiConsumer<String, @Nullable String> invalidationPublisher) {
+        this.delegate = delegate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.local = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .<String, ValueWrapper>weigher((key, value) -> weigh(value))
+                .expireAfterWrite(timeToLive)
+                .build();
+        Tags tags = Tags.of("cache", delegate.getName());
+        this.localHits = Metrics.counter("plate.cache.gets", tags.and("tier", "l1", "result", "hit"));
+        this.localMisses = Metrics.counter("plate.cache.gets", tags.and("tier", "l1", "result", "miss"));
+        this.sharedHits = Metrics.counter("plate.cache.gets", tags.and("tier", "l2", "result", "hit"));
+        this.sharedMisses = Metrics.counter("plate.cache.gets", tags.and("tier", "l2", "result", "miss"));
+        Metrics.gauge("plate.cache.size", tags.and("tier", "l1"), this.local,
+                com.google.common.cache.Cache::size);
+    }
+
+    private static int weigh(ValueWrapper wrapper) {
+        if (wrapper.get() instanceof Collection<?> values) {
+            return Math.max(1, values.size());
+        }
+        return 1;
+    }
+
+    private static String localKey(Object key) {
+        return key.toString();
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.delegate.getNativeCache();
+    }
+
+    /**
+     * Returns the shared (L2) cache wrapped by this near cache.
+     *
+     * @return the shared cache
+     */
+    public Cache getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public @Nullable ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = this.local.getIfPresent(localKey);
+        if (wrapper != null) {
+            this.localHits.increment();
+            return wrapper;
+        }
+        this.localMisses.increment();
+        ValueWrapper shared = this.delegate.get(key);
+        if (shared == null) {
+            this.sharedMisses.increment();
+            return null;
+        }
+        this.sharedHits.increment();
+        wrapper = new SimpleValueWrapper(shared.get());
+        this.local.put(localKey, wrapper);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = this.delegate.get(key, valueLoader);
+        this.local.put(localKey(key), new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        this.delegate.put(key, value);
+        this.local.put(localKey(key), new SimpleValueWrapper(value));
+        this.invalidationPublisher.accept(getName(), localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.delegate.evict(key);
+        this.local.invalidate(localKey(key));
+        this.invalidationPublisher.accept(getName(), localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        this.delegate.clear();
+        this.local.invalidateAll();
+        this.invalidationPublisher.accept(getName(), null);
+    }
+
+    /**
+     * Drops local entries after an invalidation received from another node, leaving the shared tier untouched.
+     *
+     * @param key the invalidated key, or {@code null} to drop every local entry
+     */
+    public void invalidateLocal(@Nullable String key) {
+        if (key == null) {
+            this.local.invalidateAll();
+        } else {
+            this.local.invalidate(key);
+        }
+        log.debug("Near cache [{}] invalidated local key: {}", getName(), key);
+    }
+
+    /**
+     * Returns the number of entries currently held by the local tier.
+     *
+     * @return the local entry count
+     */
+    public long localSize() {
+        return this.local.size();
+    }
+}
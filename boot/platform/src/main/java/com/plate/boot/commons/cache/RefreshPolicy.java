@@ -0,0 +1,77 @@
+package com.plate.boot.commons.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Refresh-ahead (stale-while-revalidate) policy of a service cache.
+ * <p>
+ * An entry older than {@code softTimeToLive} is still served, but triggers a background reload.
+ * To spread reloads of hot keys instead of having every node and caller hit the same instant,
+ * the decision uses probabilistic early expiration ("XFetch"): a reload is due when
+ * <pre>{@code
+ * now - loadMillis * beta * ln(random()) >= loadedAt + softTimeToLive
+ * }</pre>
+ * so entries that were expensive to load are refreshed a little earlier, and the probability of an
+ * early refresh grows as the soft expiry approaches. A {@code beta} above {@code 1} favours earlier
+ * refreshes, below {@code 1} later ones. The hard expiry remains the cache's own time-to-live.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * RefreshPolicy policy = RefreshPolicy.of(Duration.ofMinutes(2));
+ * if (policy.shouldRefresh(entry, System.currentTimeMillis())) {
+ *     reloadInBackground();
+ * }
+ * }</pre>
+ *
+ * @param softTimeToLive the age after which an entry is refreshed; {@link Duration#ZERO} disables refresh-ahead
+ * @param beta           the XFetch scaling factor applied to the load duration
+ */
+public record RefreshPolicy(Duration softTimeToLive, double beta) {
+
+    private static final RefreshPolicy DISABLED = new RefreshPolicy(Duration.ZERO, 0);
+
+    /**
+     * Returns the policy that never refreshes ahead.
+     *
+     * @return the disabled policy
+     */
+    public static RefreshPolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Creates a policy with the given soft time-to-live and the default {@code beta} of {@code 1}.
+     *
+     * @param softTimeToLive the age after which an entry is refreshed
+     * @return the refresh policy
+     */
+    public static RefreshPolicy of(Duration softTimeToLive) {
+        return new RefreshPolicy(softTimeToLive, 1.0);
+    }
+
+    /**
+     * Whether this policy refreshes entries ahead of their expiry at all.
+     *
+     * @return {@code true} if enabled
+     */
+    public boolean isEnabled() {
+        return !this.softTimeToLive.isZero() && !this.softTimeToLive.isNegative();
+    }
+
+    /**
+     * Decides whether the given entry should be reloaded in the background now.
+     *
+     * @param entry     the entry being served
+     * @param nowMillis the current epoch milliseconds
+     * @return {@code true} if a refresh is due
+     */
+    public boolean shouldRefresh(CacheEntry entry, long nowMillis) {
+        if (!isEnabled()) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = entry.loadMillis() * this.beta * -Math.log(random);
+        return nowMillis + gap >= entry.loadedAt() + this.softTimeToLive.toMillis();
+    }
+}
@@ -0,0 +1,133 @@
+package com.plate.boot.commons.cache;
+
+import org.springframework.util.ReflectionUtils;
+import tools.jackson.databind.JsonNode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cheap estimator of the serialized size of a cached value.
+ * <p>
+ * Instead of serializing the value (as {@code DatabaseUtils.getBeanSize} does), the estimator walks the
+ * object graph and adds a rough per-type byte count: string lengths, fixed widths for numbers, UUIDs and
+ * temporals, and the sum of the parts for collections, maps, JSON trees and beans. It is meant to be
+ * within a small factor of the JSON/JDK serialized size, which is all an admission decision needs.
+ * <p>
+ * The walk is bounded: large collections are sampled and the average element size is extrapolated,
+ * nesting deeper than {@value #MAX_DEPTH} levels is counted as a fixed size, and the walk stops as soon
+ * as the running total exceeds the caller's limit.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * long bytes = SizeEstimator.estimate(rows, DataSize.ofKilobytes(256).toBytes());
+ * if (bytes > limit) {
+ *     // too large to cache
+ * }
+ * }</pre>
+ */
+public final class SizeEstimator {
+
+    private static final int MAX_DEPTH = 8;
+    private static final int SAMPLE_SIZE = 32;
+    private static final long REFERENCE_SIZE = 16;
+    private static final Map<Class<?>, Field[]> FIELDS_CACHE = new ConcurrentHashMap<>();
+
+    private SizeEstimator() {
+    }
+
+    /**
+     * Estimates the serialized size of the given value in bytes.
+     *
+     * @param obj   the value to estimate, may be {@code null}
+     * @param limit the size above which the walk may stop early; the result is then only known to exceed it
+     * @return the estimated size in bytes
+     */
+    public static long estimate(Object obj, long limit) {
+        return estimate(obj, limit, 0);
+    }
+
+    private static long estimate(Object obj, long limit, int depth) {
+        return switch (obj) {
+            case null -> 4;
+            case CharSequence value -> value.length() + 2L;
+            case Number _, Boolean _, Character _ -> 8;
+            case UUID _ -> 38;
+            case Temporal _, Date _ -> 24;
+            case Enum<?> value -> value.name().length() + 2L;
+            case byte[] value -> value.length;
+            case JsonNode node -> estimateJson(node, limit, depth);
+            case Collection<?> values -> estimateElements(values, values.size(), limit, depth);
+            case Map<?, ?> map -> estimateElements(map.entrySet(), map.size(), limit, depth);
+            case Map.Entry<?, ?> entry ->
+                    estimate(entry.getKey(), limit, depth + 1) + estimate(entry.getValue(), limit, depth + 1);
+            case Object[] values -> estimateElements(Arrays.asList(values), values.length, limit, depth);
+            default -> estimateBean(obj, limit, depth);
+        };
+    }
+
+    private static long estimateElements(Iterable<?> values, int size, long limit, int depth) {
+        if (depth >= MAX_DEPTH) {
+            return REFERENCE_SIZE;
+        }
+        long total = 2;
+        int sampled = 0;
+        for (Object value : values) {
+            if (sampled == SAMPLE_SIZE) {
+                return total + (total / sampled) * (size - sampled);
+            }
+            total += estimate(value, limit, depth + 1) + 1;
+            sampled++;
+            if (total > limit) {
+                return total;
+            }
+        }
+        return total;
+    }
+
+    private static long estimateJson(JsonNode node, long limit, int depth) {
+        if (depth >= MAX_DEPTH) {
+            return REFERENCE_SIZE;
+        }
+        if (node.isObject()) {
+            return estimateElements(node.properties(), node.size(), limit, depth);
+        }
+        if (node.isArray()) {
+            List<JsonNode> values = new ArrayList<>(Math.min(node.size(), SAMPLE_SIZE + 1));
+            for (int i = 0; i < node.size() && i <= SAMPLE_SIZE; i++) {
+                values.add(node.get(i));
+            }
+            return estimateElements(values, node.size(), limit, depth);
+        }
+        return node.toString().length();
+    }
+
+    private static long estimateBean(Object obj, long limit, int depth) {
+        Class<?> type = obj.getClass();
+        if (depth >= MAX_DEPTH || type.getName().startsWith("java.")) {
+            return REFERENCE_SIZE;
+        }
+        long total = 2;
+        for (Field field : fields(type)) {
+            total += field.getName().length() + 4 + estimate(ReflectionUtils.getField(field, obj), limit, depth + 1);
+            if (total > limit) {
+                return total;
+            }
+        }
+        return total;
+    }
+
+    private static Field[] fields(Class<?> type) {
+        return FIELDS_CACHE.computeIfAbsent(type, key -> {
+            List<Field> fields = new ArrayList<>();
+            ReflectionUtils.doWithFields(key, field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            }, field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()));
+            return fields.toArray(Field[]::new);
+        });
+    }
+}
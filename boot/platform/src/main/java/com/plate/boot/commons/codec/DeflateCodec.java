@@ -0,0 +1,251 @@
+package com.plate.boot.commons.codec;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.LongFunction;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses small, similar payloads, such as JSON bodies, with deflate and a preset dictionary.
+ * <p>
+ * A small payload compresses poorly on its own: deflate has not seen its keys and values yet when it meets them
+ * first. A preset dictionary holding the strings common to the payloads lets deflate refer back to them from the
+ * first byte. {@link #train(List, int)} builds such a dictionary from sample payloads, keeping the byte segments
+ * found in the most samples.
+ * <p>
+ * The compressed bytes are in the zlib format, which names the dictionary it was compressed with by its Adler-32
+ * checksum, see {@link #id(byte[])}. {@link #decompress(byte[], LongFunction)} resolves the dictionary from that
+ * id, so payloads compressed with any earlier dictionary, or without one, are still decompressed once the
+ * current dictionary changes. A codec is immutable and thread-safe.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * DeflateCodec codec = new DeflateCodec(6, DeflateCodec.train(samples, 16 * 1024));
+ * byte[] compressed = codec.compress(payload);
+ * byte[] payload = codec.decompress(compressed, id -> dictionaries.get(id));
+ * }</pre>
+ */
+public final class DeflateCodec {
+
+    /**
+     * The largest useful dictionary: deflate refers back at most 32KB.
+     */
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int SEGMENT_SIZE = 16;
+
+    private static final int SEGMENT_STEP = 4;
+
+    private final int level;
+    private final byte @Nullable [] dictionary;
+    private final long dictionaryId;
+
+    /**
+     * Creates a codec.
+     *
+     * @param level      the compression level, from 1, fastest, to 9, smallest
+     * @param dictionary the dictionary payloads are compressed with, or {@code null} for none
+     * @throws IllegalArgumentException if the level is out of range or the dictionary is larger than 32KB
+     */
+    public DeflateCodec(int level, byte @Nullable [] dictionary) {
+        if (level < 1 || level > 9) {
+            throw new IllegalArgumentException("Deflate level must be between 1 and 9, but was " + level);
+        }
+        if (dictionary != null && dictionary.length > MAX_DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Deflate dictionary must be at most " + MAX_DICTIONARY_SIZE
+                    + " bytes, but was " + dictionary.length);
+        }
+        this.level = level;
+        this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary.clone();
+        this.dictionaryId = this.dictionary == null ? 0 : id(this.dictionary);
+    }
+
+    /**
+     * @param dictionary a dictionary
+     * @return the id zlib names the dictionary by, its Adler-32 checksum
+     */
+    public static long id(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return adler.getValue();
+    }
+
+    /**
+     * Reads the id of the dictionary a payload was compressed with from its zlib header.
+     *
+     * @param data the payload in the zlib format
+     * @return the id of the dictionary, 0 if the payload was compressed without dictionary
+     */
+    public static long dictionaryId(byte[] data) {
+        if (data.length < 6 || (data[1] & 0x20) == 0) {
+            return 0;
+        }
+        return ((data[2] & 0xFFL) << 24) | ((data[3] & 0xFFL) << 16) | ((data[4] & 0xFFL) << 8) | (data[5] & 0xFFL);
+    }
+
+    /**
+     * @return the id of the dictionary payloads are compressed with, 0 without dictionary
+     */
+    public long dictionaryId() {
+        return this.dictionaryId;
+    }
+
+    /**
+     * Compresses a payload.
+     *
+     * @param data the payload
+     * @return the payload in the zlib format
+     */
+    public byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(this.level);
+        try {
+            if (this.dictionary != null) {
+                deflater.setDictionary(this.dictionary);
+            }
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[Math.clamp(data.length, 64, 8192)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses a payload compressed by a codec of any dictionary.
+     *
+     * @param data         the payload in the zlib format
+     * @param dictionaries resolves a dictionary from its id, returning {@code null} if it is unknown; it is
+     *                     only called when the payload was compressed with another dictionary than this codec's
+     * @return the payload
+     * @throws IllegalArgumentException if the bytes are not in the zlib format or their dictionary is unknown
+     */
+    public byte[] decompress(byte[] data, LongFunction<byte @Nullable []> dictionaries) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated > 0) {
+                    out.write(buffer, 0, inflated);
+                } else if (inflater.needsDictionary()) {
+                    inflater.setDictionary(dictionary(inflater.getAdler(), dictionaries));
+                } else if (inflater.needsInput() && !inflater.finished()) {
+                    throw new IllegalArgumentException("Truncated deflate payload");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("Malformed deflate payload", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] dictionary(long id, LongFunction<byte @Nullable []> dictionaries) {
+        if (this.dictionary != null && id == this.dictionaryId) {
+            return this.dictionary;
+        }
+        byte[] dictionary = dictionaries.apply(id);
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Unknown deflate dictionary " + id);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Trains a dictionary on sample payloads.
+     * <p>
+     * Every sample is cut into overlapping segments of 16 bytes, and each segment is counted once per sample it
+     * occurs in. The segments occurring in at least two samples are taken by decreasing count, skipping those
+     * already in the dictionary, until it is full. The most common segments are placed last, nearest to the
+     * payload, where deflate refers back to them with the shortest distances.
+     *
+     * @param samples the sample payloads
+     * @param size    the size of the dictionary, at most 32KB
+     * @return the dictionary, empty if the samples share nothing
+     */
+    public static byte[] train(List<byte[]> samples, int size) {
+        int capacity = Math.clamp(size, 0, MAX_DICTIONARY_SIZE);
+        Map<Segment, int[]> counts = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Segment> seen = new HashSet<>();
+            for (int offset = 0; offset + SEGMENT_SIZE <= sample.length; offset += SEGMENT_STEP) {
+                Segment segment = new Segment(sample, offset);
+                if (seen.add(segment)) {
+                    counts.computeIfAbsent(segment, _ -> new int[1])[0]++;
+                }
+            }
+        }
+        List<Map.Entry<Segment, int[]>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.removeIf(entry -> entry.getValue()[0] < 2);
+        ranked.sort(Comparator.comparingInt((Map.Entry<Segment, int[]> entry) -> entry.getValue()[0]).reversed());
+        List<byte[]> chosen = new ArrayList<>();
+        String taken = "";
+        int length = 0;
+        for (Map.Entry<Segment, int[]> entry : ranked) {
+            if (length + SEGMENT_SIZE > capacity) {
+                break;
+            }
+            byte[] bytes = entry.getKey().bytes();
+            String text = new String(bytes, StandardCharsets.ISO_8859_1);
+            if (!taken.contains(text)) {
+                chosen.add(bytes);
+                taken = taken.concat(text);
+                length += SEGMENT_SIZE;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        for (int i = chosen.size() - 1; i >= 0; i--) {
+            out.writeBytes(chosen.get(i));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A segment of a sample, compared by content.
+     */
+    private static final class Segment {
+
+        private final byte[] sample;
+        private final int offset;
+        private final int hash;
+
+        Segment(byte[] sample, int offset) {
+            this.sample = sample;
+            this.offset = offset;
+            int hash = 1;
+            for (int i = offset; i < offset + SEGMENT_SIZE; i++) {
+                hash = 31 * hash + sample[i];
+            }
+            this.hash = hash;
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOfRange(this.sample, this.offset, this.offset + SEGMENT_SIZE);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Segment segment && Arrays.equals(this.sample, this.offset,
+                    this.offset + SEGMENT_SIZE, segment.sample, segment.offset, segment.offset + SEGMENT_SIZE);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.plate.boot.commons.journal;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of byte records, kept in fixed-size memory-mapped segment files on local disk.
+ * <p>
+ * Each record is framed by its length and the CRC32 of its bytes. The length is written last, so a record
+ * torn by a crash reads as the end of the segment, and a record whose bytes do not match their checksum is
+ * skipped. A record that does not fit in the rest of a segment starts the next one.
+ * <p>
+ * Records are addressed by offset: the segment {@code n} holds the offsets from {@code n * segmentSize}
+ * to {@code (n + 1) * segmentSize}. Records are {@link #read(int) read} from the last acknowledged offset,
+ * and {@link #acknowledge(long) acknowledged} once processed; the acknowledged offset is persisted in a
+ * checkpoint file, so that after a restart reading resumes with the first record not acknowledged, and the
+ * segments holding only acknowledged records are deleted. A failed read is retried after {@link #rewind()}.
+ * <p>
+ * The journal holds at most {@code maxSegments} segments. When a record needs a segment beyond that, the
+ * {@link DropPolicy} decides whether the record is refused or the oldest segment dropped, with its records.
+ * <p>
+ * Appends are written to the page cache and reach the disk when the operating system flushes them, when a
+ * segment is full, or on {@link #sync()}. All methods are thread-safe.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * try (SegmentJournal journal = SegmentJournal.open(dir, 16 << 20, 16, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+ *     journal.append(bytes);
+ *     List<SegmentJournal.Record> records = journal.read(100);
+ *     process(records);
+ *     journal.acknowledge(records.getLast().next());
+ * }
+ * }</pre>
+ */
+@Log4j2
+public final class SegmentJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final DropPolicy dropPolicy;
+    private final FileChannel checkpoint;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long writeOffset;
+    private long readOffset;
+    private long ackOffset;
+    private long dropped;
+
+    private SegmentJournal(Path directory, int segmentSize, int maxSegments, DropPolicy dropPolicy)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.dropPolicy = dropPolicy;
+        this.checkpoint = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Opens the journal of a directory, creating it if needed, and recovers its state: the records after the
+     * last valid one of the last segment are discarded, and reading resumes from the last acknowledged offset.
+     *
+     * @param directory   the directory of the segment files
+     * @param segmentSize the size of a segment file in bytes; it must not change while segments remain
+     * @param maxSegments the maximum number of segment files
+     * @param dropPolicy  what to drop when the journal is full
+     * @return the open journal
+     * @throws IOException if the directory or its files cannot be read or written
+     */
+    public static SegmentJournal open(Path directory, int segmentSize, int maxSegments, DropPolicy dropPolicy)
+            throws IOException {
+        if (segmentSize <= HEADER_SIZE || maxSegments < 1) {
+            throw new IllegalArgumentException("Segment size must exceed " + HEADER_SIZE
+                    + " bytes and at least one segment is required");
+        }
+        Files.createDirectories(directory);
+        SegmentJournal journal = new SegmentJournal(directory, segmentSize, maxSegments, dropPolicy);
+        journal.recover();
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long index = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                if (Files.size(file) != this.segmentSize) {
+                    throw new IOException("Segment " + file + " is not " + this.segmentSize + " bytes long");
+                }
+                this.segments.put(index, map(index));
+            }
+        }
+        long acknowledged = readCheckpoint();
+        if (this.segments.isEmpty()) {
+            this.writeOffset = acknowledged;
+        } else {
+            long last = this.segments.lastKey();
+            MappedByteBuffer buffer = this.segments.get(last);
+            int position = 0;
+            int length;
+            while ((length = frameLength(buffer, position)) > 0 && checksum(buffer, position, length)) {
+                position += HEADER_SIZE + length;
+            }
+            for (int i = position; i < this.segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            this.writeOffset = last * this.segmentSize + position;
+            acknowledged = Math.clamp(acknowledged, this.segments.firstKey() * this.segmentSize, this.writeOffset);
+        }
+        this.ackOffset = acknowledged;
+        this.readOffset = acknowledged;
+        log.info("Journal [{}] opened with {} segments, {} bytes pending.", this.directory,
+                this.segments.size(), this.writeOffset - this.ackOffset);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param data the record bytes
+     * @return {@code true} if the record was appended, {@code false} if the journal is full and drops new records
+     * @throws IllegalArgumentException if the record is larger than a segment
+     * @throws UncheckedIOException     if a segment file cannot be created
+     */
+    public synchronized boolean append(byte[] data) {
+        int frameSize = HEADER_SIZE + data.length;
+        if (frameSize > this.segmentSize || data.length == 0) {
+            throw new IllegalArgumentException("Record of " + data.length + " bytes does not fit a segment");
+        }
+        long index = this.writeOffset / this.segmentSize;
+        int position = (int) (this.writeOffset % this.segmentSize);
+        if (position + frameSize > this.segmentSize) {
+            index++;
+            position = 0;
+        }
+        MappedByteBuffer buffer = this.segments.get(index);
+        if (buffer == null) {
+            if (this.segments.size() >= this.maxSegments) {
+                if (this.dropPolicy == DropPolicy.DROP_NEWEST) {
+                    this.dropped++;
+                    return false;
+                }
+                dropOldest();
+            }
+            if (!this.segments.isEmpty()) {
+                this.segments.lastEntry().getValue().force();
+            }
+            buffer = map(index);
+            this.segments.put(index, buffer);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        buffer.put(position + HEADER_SIZE, data);
+        buffer.putInt(position, data.length);
+        this.writeOffset = index * this.segmentSize + position + frameSize;
+        return true;
+    }
+
+    /**
+     * Reads the next records, from the last acknowledged offset or the end of the previous read.
+     *
+     * @param maxRecords the maximum number of records to read
+     * @return the records read, in order, empty if there is none
+     */
+    public synchronized List<Record> read(int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        while (records.size() < maxRecords && this.readOffset < this.writeOffset) {
+            long index = this.readOffset / this.segmentSize;
+            int position = (int) (this.readOffset % this.segmentSize);
+            MappedByteBuffer buffer = this.segments.get(index);
+            int length = buffer == null ? 0 : frameLength(buffer, position);
+            if (length <= 0) {
+                this.readOffset = (index + 1) * this.segmentSize;
+                continue;
+            }
+            if (!checksum(buffer, position, length)) {
+                log.warn("Journal [{}] record at offset {} is corrupted, skipping the rest of its segment.",
+                        this.directory, this.readOffset);
+                this.readOffset = (index + 1) * this.segmentSize;
+                continue;
+            }
+            byte[] data = new byte[length];
+            buffer.get(position + HEADER_SIZE, data);
+            long next = this.readOffset + HEADER_SIZE + length;
+            records.add(new Record(this.readOffset, next, data));
+            this.readOffset = next;
+        }
+        return records;
+    }
+
+    /**
+     * Acknowledges the records before an offset, typically the {@link Record#next()} offset of the last record
+     * processed. The offset is persisted, and the segments holding only acknowledged records are deleted.
+     *
+     * @param offset the offset of the first record not acknowledged
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    public synchronized void acknowledge(long offset) {
+        if (offset <= this.ackOffset) {
+            return;
+        }
+        this.ackOffset = Math.min(offset, this.writeOffset);
+        this.readOffset = Math.max(this.readOffset, this.ackOffset);
+        writeCheckpoint(this.ackOffset);
+        long writeIndex = this.writeOffset / this.segmentSize;
+        while (!this.segments.isEmpty() && this.segments.firstKey() < writeIndex
+                && (this.segments.firstKey() + 1) * this.segmentSize <= this.ackOffset) {
+            delete(this.segments.pollFirstEntry().getKey());
+        }
+    }
+
+    /**
+     * Resumes reading from the last acknowledged offset, so that the records read since are read again.
+     */
+    public synchronized void rewind() {
+        this.readOffset = this.ackOffset;
+    }
+
+    /**
+     * @return whether records were appended and not acknowledged
+     */
+    public synchronized boolean hasPending() {
+        return this.ackOffset < this.writeOffset;
+    }
+
+    /**
+     * @return the number of bytes between the acknowledged offset and the end of the journal
+     */
+    public synchronized long pendingBytes() {
+        return this.writeOffset - this.ackOffset;
+    }
+
+    /**
+     * @return the number of records refused, or dropped with their segment, because the journal was full
+     */
+    public synchronized long dropped() {
+        return this.dropped;
+    }
+
+    /**
+     * Forces the segment being written to disk.
+     */
+    public synchronized void sync() {
+        if (!this.segments.isEmpty()) {
+            this.segments.lastEntry().getValue().force();
+        }
+    }
+
+    /**
+     * Forces the segments to disk and closes the checkpoint file.
+     *
+     * @throws IOException if the checkpoint file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.segments.values().forEach(MappedByteBuffer::force);
+        this.checkpoint.close();
+    }
+
+    private void dropOldest() {
+        Map.Entry<Long, MappedByteBuffer> oldest = this.segments.pollFirstEntry();
+        long end = (oldest.getKey() + 1) * this.segmentSize;
+        int position = (int) (Math.max(this.ackOffset - oldest.getKey() * this.segmentSize, 0));
+        int length;
+        long lost = 0;
+        while (position + HEADER_SIZE <= this.segmentSize && (length = frameLength(oldest.getValue(), position)) > 0) {
+            position += HEADER_SIZE + length;
+            lost++;
+        }
+        this.dropped += lost;
+        log.warn("Journal [{}] is full, dropped its oldest segment with {} records.", this.directory, lost);
+        if (this.ackOffset < end) {
+            this.ackOffset = end;
+            writeCheckpoint(end);
+        }
+        this.readOffset = Math.max(this.readOffset, this.ackOffset);
+        delete(oldest.getKey());
+    }
+
+    private int frameLength(MappedByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > this.segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        return length > 0 && position + HEADER_SIZE + length <= this.segmentSize ? length : 0;
+    }
+
+    private static boolean checksum(MappedByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES);
+    }
+
+    private Path segment(long index) {
+        return this.directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer map(long index) {
+        try (FileChannel channel = FileChannel.open(segment(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal segment " + index + " cannot be mapped", ex);
+        }
+    }
+
+    private void delete(long index) {
+        try {
+            Files.deleteIfExists(segment(index));
+        } catch (IOException ex) {
+            log.warn("Journal segment {} cannot be deleted. Cause: {}", segment(index), ex.getMessage());
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        if (this.checkpoint.read(buffer, 0) < buffer.capacity()) {
+            return 0;
+        }
+        long offset = buffer.getLong(0);
+        return buffer.getLong(Long.BYTES) == checkpointChecksum(offset) ? offset : 0;
+    }
+
+    private void writeCheckpoint(long offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES).putLong(offset).putLong(checkpointChecksum(offset))
+                .flip();
+        try {
+            this.checkpoint.write(buffer, 0);
+            this.checkpoint.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal checkpoint cannot be written", ex);
+        }
+    }
+
+    private static long checkpointChecksum(long offset) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(offset).flip());
+        return crc.getValue();
+    }
+
+    /**
+     * What the journal drops when a record needs a segment beyond the maximum.
+     */
+    public enum DropPolicy {
+        /**
+         * Refuses the new record, keeping the records already journaled.
+         */
+        DROP_NEWEST,
+        /**
+         * Deletes the oldest segment, with its records not yet acknowledged, to make room.
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * A journaled record.
+     *
+     * @param offset the offset of the record
+     * @param next   the offset following the record, to acknowledge once it is processed
+     * @param data   the record bytes
+     */
+    public record Record(long offset, long next, byte[] data) {
+    }
+}
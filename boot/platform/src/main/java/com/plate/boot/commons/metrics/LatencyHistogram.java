@@ -0,0 +1,195 @@
+package com.plate.boot.commons.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies, in the log-linear bucket layout of HDR histograms.
+ * <p>
+ * Values below {@value #SUB_BUCKETS} fall in a bucket of their own. Above, each power of two is split into
+ * {@value #HALF} linear buckets, so that a value is recorded with a relative error under 1/{@value #HALF}
+ * (about 6%) whatever its magnitude. The buckets are allocated up to the largest recorded value, a few hundred
+ * counts for latencies in microseconds up to minutes. Histograms of the same layout are merged by adding their
+ * counts, so histograms recorded per minute and per instance add up to the histogram of any longer period.
+ * <p>
+ * The histogram is encoded compactly, as the varint-encoded gaps and counts of its non-empty buckets.
+ * It is not thread-safe.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * histogram.record(1250);
+ * long p99 = histogram.percentile(0.99);
+ * }</pre>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    private long[] counts = new long[SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    /**
+     * @param value a non-negative value
+     * @return the index of the bucket of the value
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int sub = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (sub - HALF);
+    }
+
+    /**
+     * @param index the index of a bucket
+     * @return the largest value of the bucket
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a value; negative values are recorded as zero.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        int index = index(clamped);
+        if (index >= this.counts.length) {
+            this.counts = Arrays.copyOf(this.counts, index + 1);
+        }
+        this.counts[index]++;
+        this.total++;
+        this.max = Math.max(this.max, clamped);
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.counts.length > this.counts.length) {
+            this.counts = Arrays.copyOf(this.counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long count() {
+        return this.total;
+    }
+
+    /**
+     * @return the largest recorded value, exactly
+     */
+    public long max() {
+        return this.max;
+    }
+
+    /**
+     * Returns the value at a percentile: the largest value of the bucket holding it, at most the largest
+     * recorded value.
+     *
+     * @param quantile the percentile, between 0 and 1
+     * @return the value at the percentile, or 0 if the histogram is empty
+     */
+    public long percentile(double quantile) {
+        if (this.total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.clamp(quantile, 0.0, 1.0) * this.total));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Encodes the histogram: its largest value, then the gap from the previous non-empty bucket and the count
+     * of each non-empty bucket, as unsigned varints.
+     *
+     * @return the encoded histogram
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        writeVarint(out, this.max);
+        int previous = -1;
+        for (int i = 0; i < this.counts.length; i++) {
+            if (this.counts[i] > 0) {
+                writeVarint(out, i - previous);
+                writeVarint(out, this.counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a histogram encoded by {@link #encode()}.
+     *
+     * @param bytes the encoded histogram
+     * @return the histogram
+     * @throws IllegalArgumentException if the bytes are truncated
+     */
+    public static LatencyHistogram decode(byte[] bytes) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int[] position = {0};
+        histogram.max = readVarint(bytes, position);
+        int index = -1;
+        while (position[0] < bytes.length) {
+            index += (int) readVarint(bytes, position);
+            long count = readVarint(bytes, position);
+            if (index >= histogram.counts.length) {
+                histogram.counts = Arrays.copyOf(histogram.counts, index + 1);
+            }
+            histogram.counts[index] += count;
+            histogram.total += count;
+        }
+        return histogram;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated latency histogram");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed latency histogram varint");
+    }
+}
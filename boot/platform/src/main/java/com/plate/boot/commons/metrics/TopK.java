@@ -0,0 +1,88 @@
+package com.plate.boot.commons.metrics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the most frequent keys of a stream in bounded memory, with the Space-Saving algorithm.
+ * <p>
+ * At most {@code capacity} keys are tracked. A key arriving when all slots are taken replaces the key with the
+ * lowest count and inherits that count plus one, so a count may overestimate its key by at most the count it
+ * inherited, and any key more frequent than {@code 1/capacity} of the stream is tracked. Counters are merged by
+ * counting the keys of the other counter with their counts, under the same rule.
+ * It is not thread-safe.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * TopK operators = new TopK(10);
+ * operators.add("admin");
+ * Map<String, Long> top = operators.top();
+ * }</pre>
+ */
+public final class TopK {
+
+    private final int capacity;
+    private final Map<String, Long> counts;
+
+    /**
+     * Creates a counter.
+     *
+     * @param capacity the number of keys tracked, at least 1
+     */
+    public TopK(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.counts = HashMap.newHashMap(this.capacity + 1);
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @param key the key
+     */
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    /**
+     * Counts occurrences of a key.
+     *
+     * @param key   the key
+     * @param count the number of occurrences
+     */
+    public void add(String key, long count) {
+        Long current = this.counts.get(key);
+        if (current != null || this.counts.size() < this.capacity) {
+            this.counts.put(key, (current == null ? 0 : current) + count);
+            return;
+        }
+        Map.Entry<String, Long> lowest = null;
+        for (Map.Entry<String, Long> entry : this.counts.entrySet()) {
+            if (lowest == null || entry.getValue() < lowest.getValue()) {
+                lowest = entry;
+            }
+        }
+        long inherited = lowest.getValue();
+        this.counts.remove(lowest.getKey());
+        this.counts.put(key, inherited + count);
+    }
+
+    /**
+     * Adds the counts of another counter.
+     *
+     * @param counts the counts of the keys to add
+     */
+    public void merge(Map<String, Long> counts) {
+        counts.forEach(this::add);
+    }
+
+    /**
+     * @return the tracked keys and their counts, the most frequent first
+     */
+    public Map<String, Long> top() {
+        Map<String, Long> top = new LinkedHashMap<>();
+        this.counts.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+}
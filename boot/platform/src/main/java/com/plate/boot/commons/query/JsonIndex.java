@@ -0,0 +1,141 @@
+package com.plate.boot.commons.query;
+
+import java.lang.annotation.*;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Declares an expression index on a JSON path of an entity, so that the JSON filters of
+ * {@link QueryJsonHelper} which the GIN index cannot serve render the indexed expression.
+ * <p>
+ * Equality and {@code In} filters on JSON columns are rewritten to containment and jsonpath predicates
+ * served by the GIN index of the column. Range, {@code Between} and {@code Like} filters are not; they are
+ * rendered as {@code column->'a'->>'b'}, cast to the declared {@link Type} when it is not text, and with
+ * their values converted to that type. A B-tree index on exactly that expression then serves them, e.g.
+ * <pre>
+ * create index se_loggers_context_request_address_idx on se_loggers ((context ->> 'requestAddress') text_pattern_ops);
+ * create index se_users_extend_age_idx on se_users (((extend ->> 'age')::numeric));
+ * </pre>
+ * The declared type also decides how equality values are written as JSON literals.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * @JsonIndex(path = "extend.age", type = JsonIndex.Type.NUMERIC)
+ * public class User extends AbstractEntity<Long> {
+ * }
+ * }</pre>
+ *
+ * @see QueryJsonHelper#queryJson(java.util.Map, String, Class)
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(JsonIndex.List.class)
+public @interface JsonIndex {
+
+    /**
+     * @return the dot-delimited JSON path, starting with the property of the JSON column, e.g. {@code extend.age}
+     */
+    String path();
+
+    /**
+     * @return the type of the indexed expression
+     */
+    Type type() default Type.TEXT;
+
+    /**
+     * The type of an indexed JSON path expression.
+     */
+    enum Type {
+        TEXT(null, String.class),
+        NUMERIC("numeric", BigDecimal.class),
+        BIGINT("bigint", Long.class),
+        BOOLEAN("boolean", Boolean.class),
+        DATE("date", LocalDate.class),
+        TIMESTAMP("timestamp", LocalDateTime.class),
+        UUID("uuid", java.util.UUID.class);
+
+        private final String sqlType;
+        private final Class<?> javaType;
+
+        Type(String sqlType, Class<?> javaType) {
+            this.sqlType = sqlType;
+            this.javaType = javaType;
+        }
+
+        /**
+         * Wraps a text path expression in the cast of this type.
+         *
+         * @param expression the {@code ->>} expression
+         * @return the expression as indexed
+         */
+        String expression(String expression) {
+            return this.sqlType == null ? expression : "(" + expression + ")::" + this.sqlType;
+        }
+
+        /**
+         * Converts a filter value to the Java type bound against the cast expression.
+         *
+         * @param value the filter value
+         * @return the converted value
+         * @throws IllegalArgumentException if the value cannot be converted
+         */
+        Object convert(Object value) {
+            String text = value.toString().trim();
+            try {
+                return switch (this) {
+                    case TEXT -> value.toString();
+                    case NUMERIC -> new BigDecimal(text);
+                    case BIGINT -> Long.valueOf(text);
+                    case BOOLEAN -> Boolean.valueOf(text);
+                    case DATE -> LocalDate.parse(text);
+                    case TIMESTAMP -> LocalDateTime.parse(text);
+                    case UUID -> java.util.UUID.fromString(text);
+                };
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Value [" + value + "] is not of type " + this, ex);
+            }
+        }
+
+        /**
+         * Writes a filter value as a JSON literal of this type.
+         *
+         * @param value the filter value
+         * @return the JSON literal
+         */
+        String literal(Object value) {
+            return switch (this) {
+                case NUMERIC, BIGINT, BOOLEAN -> convert(value).toString();
+                case TEXT, DATE, TIMESTAMP, UUID -> QueryJsonHelper.quote(value.toString());
+            };
+        }
+
+        /**
+         * Converts filter values to an array of the Java type bound against the cast expression, which the
+         * driver binds as a Postgres array of this type.
+         *
+         * @param values the filter values
+         * @return the converted values
+         * @throws IllegalArgumentException if a value cannot be converted
+         */
+        Object[] array(java.util.List<?> values) {
+            Object[] array = (Object[]) Array.newInstance(this.javaType, values.size());
+            for (int i = 0; i < array.length; i++) {
+                array[i] = convert(values.get(i));
+            }
+            return array;
+        }
+    }
+
+    /**
+     * Container of repeated {@link JsonIndex} declarations.
+     */
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface List {
+        JsonIndex[] value();
+    }
+}
@@ -0,0 +1,233 @@
+package com.plate.boot.commons.query;
+
+import com.plate.boot.commons.exception.QueryException;
+import com.plate.boot.commons.utils.BeanMetadata;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Keyset (seek) pagination state: the sort key of a query and the cursor to continue from.
+ * <p>
+ * The sort key is taken from the requested {@link Sort}, or a default one, and always ends with a unique
+ * property so that it identifies a row. Every sort property must be one of the sortable properties the caller
+ * declares, which must map to {@code not null} columns since a row-value seek skips {@code NULL} keys, and
+ * must have a type a continuation token can carry; all orders must share one direction, which is what a
+ * row-value seek predicate requires. The cursor is the sort key of the last row of the previous page, carried
+ * between requests as an opaque continuation token.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * Keyset keyset = Keyset.of(Logger.class, pageable.getSort(),
+ *         Sort.by(Sort.Direction.DESC, "createdAt"), Set.of("createdAt", "code"), "id", token);
+ * QueryFragment fragment = keyset.apply(request.query(), pageable.getPageSize());
+ * Mono<KeysetPage<LoggerRes>> page = DatabaseUtils.query(fragment.querySql(), fragment, LoggerRes.class)
+ *         .collectList().map(rows -> keyset.page(rows, pageable.getPageSize()));
+ * }</pre>
+ *
+ * @param properties the sort key properties, ending with the unique property
+ * @param descending whether the sort key is descending
+ * @param cursor     the sort key values of the last row already seen, or {@code null} for the first page
+ * @see QueryFragment#seek(List, boolean, List, int)
+ */
+public record Keyset(List<String> properties, boolean descending, @Nullable List<Object> cursor) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final Set<Class<?>> SUPPORTED_TYPES = Set.of(UUID.class, LocalDateTime.class,
+            OffsetDateTime.class, Instant.class, LocalDate.class, BigDecimal.class, Long.class, long.class,
+            Integer.class, int.class, Short.class, short.class, String.class);
+
+    /**
+     * Resolves the keyset of a request.
+     *
+     * @param entityClass    the entity class whose properties the sort may reference
+     * @param sort           the requested sort, may be unsorted
+     * @param defaultSort    the sort used when the request is unsorted
+     * @param sortable       the properties the sort may reference, mapped to {@code not null} columns
+     * @param uniqueProperty the property appended to the sort key when missing, identifying a row
+     * @param token          the continuation token returned with the previous page, or {@code null}
+     * @return the keyset of the request
+     * @throws QueryException if the sort mixes directions or references a property that is unknown, not
+     *                        sortable or of a type a token cannot carry, or if the token is malformed or was
+     *                        issued for a different sort
+     */
+    public static Keyset of(Class<?> entityClass, Sort sort, Sort defaultSort, Set<String> sortable,
+                            String uniqueProperty, @Nullable String token) {
+        Sort effective = sort.isSorted() ? sort : defaultSort;
+        BeanMetadata metadata = BeanMetadata.of(entityClass);
+        List<String> properties = new ArrayList<>();
+        Set<Sort.Direction> directions = EnumSet.noneOf(Sort.Direction.class);
+        for (Sort.Order order : effective) {
+            BeanMetadata.Property property = metadata.property(order.getProperty());
+            if (property == null || !property.readable()) {
+                throw QueryException.withError("Keyset sort property is unknown",
+                        new IllegalArgumentException("Unknown sort property: " + order.getProperty()));
+            }
+            if (!sortable.contains(property.name()) && !property.name().equals(uniqueProperty)) {
+                throw QueryException.withError("Keyset sort property is not sortable",
+                        new IllegalArgumentException("Sort property is not sortable: " + property.name()));
+            }
+            properties.add(property.name());
+            directions.add(order.getDirection());
+        }
+        if (directions.size() > 1) {
+            throw QueryException.withError("Keyset sort must use a single direction",
+                    new IllegalArgumentException("Mixed sort directions: " + effective));
+        }
+        if (!properties.contains(uniqueProperty)) {
+            properties.add(uniqueProperty);
+        }
+        for (String name : properties) {
+            BeanMetadata.Property property = metadata.property(name);
+            if (property == null || !property.readable() || !supported(property.type())) {
+                throw QueryException.withError("Keyset sort property type is not supported",
+                        new IllegalArgumentException("Unsupported sort property: " + name
+                                + (property == null ? "" : " of type " + property.type().getName())));
+            }
+        }
+        boolean descending = directions.contains(Sort.Direction.DESC);
+        List<Object> cursor = StringUtils.hasText(token) ? decode(token, properties, descending, metadata) : null;
+        return new Keyset(List.copyOf(properties), descending, cursor);
+    }
+
+    /**
+     * Applies the seek predicate, order and limit of this keyset to the given fragment. One row more than
+     * the page size is requested so that {@link #page(List, int)} can tell whether a next page exists.
+     *
+     * @param fragment the query fragment holding the filters of the request
+     * @param size     the page size
+     * @return the fragment, ready to be executed
+     * @throws QueryException if the fragment is already ordered, e.g. by full-text search rank
+     */
+    public QueryFragment apply(QueryFragment fragment, int size) {
+        if (fragment.getOrdersBy().length() > 0) {
+            throw QueryException.withError("Keyset pagination cannot be combined with a ranked search",
+                    new IllegalArgumentException("Query is already ordered by " + fragment.getOrdersBy()));
+        }
+        return fragment.seek(this.properties, this.descending, this.cursor, size + 1);
+    }
+
+    /**
+     * Builds a page from the rows of a fragment prepared by {@link #apply(QueryFragment, int)}.
+     *
+     * @param <T>  the row type
+     * @param rows the fetched rows, at most one more than the page size
+     * @param size the page size
+     * @return the page, with a continuation token when more rows follow
+     */
+    public <T> KeysetPage<T> page(List<T> rows, int size) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, size, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(content, size, this.token(content.getLast()));
+    }
+
+    /**
+     * Encodes the sort key of the given row as a continuation token.
+     *
+     * @param row the last row of a page
+     * @return the opaque continuation token
+     */
+    public String token(Object row) {
+        BeanMetadata metadata = BeanMetadata.of(row.getClass());
+        StringJoiner token = new StringJoiner(".");
+        token.add(this.descending ? "D" : "A").add(encode(String.join(",", this.properties)));
+        for (String name : this.properties) {
+            BeanMetadata.Property property = Objects.requireNonNull(metadata.property(name),
+                    () -> "Row has no sort property " + name);
+            token.add(encode(tagged(property.get(row))));
+        }
+        return token.toString();
+    }
+
+    private static List<Object> decode(String token, List<String> properties, boolean descending,
+                                       BeanMetadata metadata) {
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length != properties.size() + 2 || !parts[0].equals(descending ? "D" : "A")
+                    || !decodeText(parts[1]).equals(String.join(",", properties))) {
+                throw new IllegalArgumentException("Token does not match the requested sort");
+            }
+            List<Object> values = new ArrayList<>(properties.size());
+            for (int i = 0; i < properties.size(); i++) {
+                Class<?> type = Objects.requireNonNull(metadata.property(properties.get(i))).type();
+                values.add(untagged(decodeText(parts[i + 2]), type));
+            }
+            return values;
+        } catch (IllegalArgumentException ex) {
+            throw QueryException.withError("Invalid keyset continuation token", ex);
+        }
+    }
+
+    private static boolean supported(Class<?> type) {
+        return SUPPORTED_TYPES.contains(type) || type.isEnum();
+    }
+
+    private static String tagged(@Nullable Object value) {
+        return switch (value) {
+            case null -> throw new IllegalStateException("Keyset sort properties must not be null");
+            case UUID uuid -> "u:" + uuid;
+            case LocalDateTime dateTime -> "t:" + dateTime;
+            case OffsetDateTime dateTime -> "o:" + dateTime;
+            case Instant instant -> "i:" + instant;
+            case LocalDate date -> "d:" + date;
+            case BigDecimal decimal -> "m:" + decimal.toPlainString();
+            case Long _, Integer _, Short _ -> "n:" + value;
+            case Enum<?> constant -> "s:" + constant.name();
+            case CharSequence text -> "s:" + text;
+            default -> throw new IllegalStateException("Unsupported keyset sort value type: " + value.getClass());
+        };
+    }
+
+    private static Object untagged(String text, Class<?> type) {
+        if (text.length() < 2 || text.charAt(1) != ':') {
+            throw new IllegalArgumentException("Malformed token value");
+        }
+        String value = text.substring(2);
+        try {
+            return switch (text.charAt(0)) {
+                case 'u' -> UUID.fromString(value);
+                case 't' -> LocalDateTime.parse(value);
+                case 'o' -> OffsetDateTime.parse(value);
+                case 'i' -> Instant.parse(value);
+                case 'd' -> LocalDate.parse(value);
+                case 'm' -> new BigDecimal(value);
+                case 'n' -> numeric(value, type);
+                case 's' -> value;
+                default -> throw new IllegalArgumentException("Unknown token value type");
+            };
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("Malformed token value", ex);
+        }
+    }
+
+    private static Object numeric(String value, Class<?> type) {
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Short.class || type == short.class) {
+            return Short.valueOf(value);
+        }
+        return Long.valueOf(value);
+    }
+
+    private static String encode(String text) {
+        return ENCODER.encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeText(String text) {
+        return new String(DECODER.decode(text), StandardCharsets.UTF_8);
+    }
+}
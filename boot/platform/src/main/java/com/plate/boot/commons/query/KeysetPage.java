@@ -0,0 +1,20 @@
+package com.plate.boot.commons.query;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A page of a keyset paginated query.
+ * <p>
+ * Unlike an offset page it carries no total count and no page number: the next page is requested with
+ * the {@link #next()} continuation token, which is {@code null} on the last page.
+ *
+ * @param <T>     the row type
+ * @param content the rows of the page
+ * @param size    the requested page size
+ * @param next    the continuation token of the next page, or {@code null} if this is the last page
+ * @see Keyset
+ */
+public record KeysetPage<T>(List<T> content, int size, @Nullable String next) {
+}
@@ -0,0 +1,91 @@
+package com.plate.boot.commons.query;
+
+import org.springframework.data.relational.core.query.Criteria;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares how a string property of a request type is matched by {@link QueryHelper#criteria(Object, java.util.Collection)},
+ * so that each filter is written with an operator its index can serve.
+ * <p>
+ * Without a declaration a string property is compared with {@code LIKE}, the value being the pattern, which
+ * no index serves unless the value has no wildcard. Each {@link Mode} maps to an index-backed operator:
+ * <ul>
+ *     <li>{@link Mode#EXACT}: equality, served by a B-tree index such as {@code (tenant_code, username)}</li>
+ *     <li>{@link Mode#PREFIX}: {@code LIKE 'value%'}, served by a {@code text_pattern_ops} B-tree index</li>
+ *     <li>{@link Mode#CONTAINS}: {@code ILIKE '%value%'}, served by a {@code pg_trgm} GIN index</li>
+ *     <li>{@link Mode#FUZZY}: {@code ILIKE '%term%term%'} over the words of the value, in order, served by
+ *     the same {@code pg_trgm} GIN index</li>
+ * </ul>
+ * The case-insensitive modes render as {@code ILIKE} through {@link QueryFragment}, served by a {@code pg_trgm}
+ * index on the column, and as {@code UPPER(column) LIKE UPPER(value)} through a Spring Data {@code Query},
+ * served by a {@code pg_trgm} index on {@code upper(column)}; the index must match the way the type is queried.
+ * Wildcards in the value are escaped, so that it is matched literally.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * @Match(property = "username", mode = Match.Mode.EXACT)
+ * @Match(property = "name", mode = Match.Mode.CONTAINS)
+ * public class UserReq extends User {
+ * }
+ * }</pre>
+ *
+ * @see QueryHelper#criteria(Class, String, String)
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(Match.List.class)
+public @interface Match {
+
+    /**
+     * @return the name of the string property
+     */
+    String property();
+
+    /**
+     * @return the match mode of the property
+     */
+    Mode mode();
+
+    /**
+     * The match mode of a string property.
+     */
+    enum Mode {
+        EXACT,
+        PREFIX,
+        CONTAINS,
+        FUZZY;
+
+        /**
+         * Builds the criteria matching a column with a value in this mode.
+         *
+         * @param column the column, or property, name
+         * @param value  the value to match
+         * @return the criteria
+         */
+        public Criteria criteria(String column, String value) {
+            return switch (this) {
+                case EXACT -> Criteria.where(column).is(value);
+                case PREFIX -> Criteria.where(column).like(escape(value) + "%");
+                case CONTAINS -> Criteria.where(column).like("%" + escape(value) + "%").ignoreCase(true);
+                case FUZZY -> Criteria.where(column).like("%" + String.join("%",
+                        escape(value.strip()).split("\\s+")) + "%").ignoreCase(true);
+            };
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+    }
+
+    /**
+     * Container of repeated {@link Match} declarations.
+     */
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface List {
+        Match[] value();
+    }
+}
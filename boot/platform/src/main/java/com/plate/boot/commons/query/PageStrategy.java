@@ -0,0 +1,47 @@
+package com.plate.boot.commons.query;
+
+/**
+ * How a page query obtains the total number of matching rows.
+ * <p>
+ * {@link #COUNT} runs the page query and an exact count as two statements, which on large tables often
+ * costs more than the page itself. The other strategies trade exactness of the total for fewer or
+ * cheaper statements; the page content is the same for all of them.
+ *
+ * <p>The strategy of an endpoint is configured by its name, e.g.
+ * <pre>
+ * spring.data.r2dbc.properties.page.strategies.loggers=window
+ * </pre>
+ *
+ * @see com.plate.boot.commons.utils.DatabaseUtils#page(QueryFragment, org.springframework.data.domain.Pageable, Class, PageStrategy)
+ */
+public enum PageStrategy {
+
+    /**
+     * The page query and an exact {@link QueryFragment#countSql()} count, as two statements.
+     */
+    COUNT,
+
+    /**
+     * One statement: the page query carries an exact {@code COUNT(*) OVER()} total on every row,
+     * see {@link QueryFragment#windowSql()}. A page past the end falls back to a count.
+     */
+    WINDOW,
+
+    /**
+     * One statement and no count: one more row than the page size is fetched to tell whether a next
+     * page exists. The total is a lower bound, exact only on the last page.
+     */
+    HAS_NEXT,
+
+    /**
+     * The page query and a count that stops past a cap, see {@link QueryFragment#cappedCountSql(long)};
+     * a total of {@code cap + 1} reads "more than cap".
+     */
+    CAPPED,
+
+    /**
+     * The page query and the planner's row estimate, see {@link QueryFragment#explainSql()}. Cheap on
+     * huge tables and exact on the last page, but otherwise approximate.
+     */
+    ESTIMATE
+}
@@ -15,6 +15,7 @@ import org.springframework.data.util.Pair;
 import org.springframework.util.Assert;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -52,6 +53,11 @@ import java.util.regex.Pattern;
 @Getter
 public final class QueryFragment extends HashMap<String, Object> {
 
+    /**
+     * The name of the window count column added by {@link #windowSql()}.
+     */
+    public static final String TOTAL_COLUMN = "total_count";
+
     /**
      * A StringJoiner to accumulate column names for the SELECT clause.
      * Example usage:
@@ -432,6 +438,52 @@ public final class QueryFragment extends HashMap<String, Object> {
         return this;
     }
 
+    /**
+     * Configures keyset (seek) pagination instead of LIMIT/OFFSET paging.
+     *
+     * <p>The rows are ordered by the given columns, all in the same direction, and when a cursor is given
+     * a row-value predicate skips directly past it: {@code (c1, c2) > (:seek0, :seek1)} ascending, or
+     * {@code <} descending. With an index on the same columns the database seeks to the cursor instead of
+     * scanning and discarding the earlier rows, so a deep page costs the same as the first one. The
+     * columns must identify a row uniquely, otherwise rows sharing a key may be skipped, and they must be
+     * the only order of the query, so this cannot be combined with the rank order of {@link #ts(String, Object)}.
+     *
+     * <p>Example usage:
+     * <pre>
+     * {@code
+     * queryFragment.seek(List.of("createdAt", "id"), true, List.of(lastCreatedAt, lastId), 20);
+     * }
+     * </pre>
+     * This renders {@code WHERE (created_at, id) < (:seek0, :seek1) ORDER BY created_at DESC,id DESC LIMIT 20 OFFSET 0}
+     *
+     * @param columns    the sort key columns, in camelCase or snake_case
+     * @param descending whether the rows are ordered descending
+     * @param cursor     the sort key values of the last row already seen, or {@code null} for the first page
+     * @param size       the maximum number of rows to return
+     * @return the QueryFragment instance with the seek predicate, order and limit applied
+     */
+    public QueryFragment seek(List<String> columns, boolean descending, @Nullable List<?> cursor, int size) {
+        Assert.notEmpty(columns, "Seek columns must not be empty");
+        Assert.isTrue(cursor == null || cursor.size() == columns.size(),
+                "Seek cursor must have one value per column");
+        Assert.isTrue(this.ordersBy.length() == 0, "Seek columns must be the only order of the query");
+        StringJoiner keys = new StringJoiner(", ", "(", ")");
+        StringJoiner slots = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < columns.size(); i++) {
+            String column = CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, columns.get(i));
+            keys.add(column);
+            this.orderBy(column + (descending ? " DESC" : " ASC"));
+            if (cursor != null) {
+                slots.add(":seek" + i);
+                put("seek" + i, cursor.get(i));
+            }
+        }
+        if (cursor != null) {
+            this.where(keys + (descending ? " < " : " > ") + slots);
+        }
+        return this.limit(size, 0);
+    }
+
     /**
      * Adds a full-text search condition to the query.
      *
@@ -764,12 +816,78 @@ public final class QueryFragment extends HashMap<String, Object> {
         return "SELECT COUNT(*) FROM (SELECT 1 FROM " + froms + whereSql() + ") t";
     }
 
+    /**
+     * Generates the page query with the total number of matching rows in the same statement.
+     *
+     * <p>The query of {@link #querySql()} gets an extra {@code COUNT(*) OVER()} column named
+     * {@link #TOTAL_COLUMN}. The window is evaluated over the filtered rows before LIMIT/OFFSET apply,
+     * so every returned row carries the full total and no separate count statement is needed. A page past
+     * the end returns no row and therefore no total.
+     *
+     * @return the page query with the window count column
+     * @throws QueryException if no table has been specified
+     */
+    public String windowSql() {
+        if (this.froms.length() == 0) {
+            throw QueryException.withError("This windowSql is null, please use whereSql() method!",
+                    new IllegalArgumentException("This windowSql is null, please use whereSql() method"));
+        }
+
+        return "SELECT " + columnSql() + ", COUNT(*) OVER() AS " + TOTAL_COLUMN + " FROM " + froms + whereSql()
+                + groupSql() + orderSql() + " LIMIT " + size + " OFFSET " + offset;
+    }
+
+    /**
+     * Generates a count query that stops counting past the given cap.
+     *
+     * <p>The inner query is limited to {@code cap + 1} rows, so the result is exact up to {@code cap}
+     * and {@code cap + 1} means "more than cap", e.g. displayed as "10,000+".
+     *
+     * @param cap the largest count reported exactly
+     * @return the capped COUNT SQL query
+     * @throws QueryException if no table has been specified
+     */
+    public String cappedCountSql(long cap) {
+        if (this.froms.length() == 0) {
+            throw QueryException.withError("This countSql is null, please use whereSql() method!",
+                    new IllegalArgumentException("This countSql is null, please use whereSql() method"));
+        }
+
+        return "SELECT COUNT(*) FROM (SELECT 1 FROM " + froms + whereSql() + " LIMIT " + (cap + 1) + ") t";
+    }
+
+    /**
+     * Generates an {@code EXPLAIN (FORMAT JSON)} statement for the filtered rows of the query.
+     *
+     * <p>The {@code "Plan Rows"} of the top plan node is the planner's estimate of the number of
+     * matching rows, which for an unfiltered table comes from {@code pg_class.reltuples}. The query
+     * is only planned, not executed.
+     *
+     * @return the EXPLAIN statement
+     * @throws QueryException if no table has been specified
+     */
+    public String explainSql() {
+        if (this.froms.length() == 0) {
+            throw QueryException.withError("This explainSql is null, please use whereSql() method!",
+                    new IllegalArgumentException("This explainSql is null, please use whereSql() method"));
+        }
+
+        return "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + froms + whereSql();
+    }
+
     /**
      * Represents a condition in the QueryFragment.
      *
      * <p>This class represents a condition in the QueryFragment, which can be used to construct
      * a SQL query. It contains a Criteria object and a prefix identifier.
      *
+     * <p>Rendering is split into a compile and a bind step. The criteria tree is first reduced to its
+     * shape: the prefix and, in order, the combinators, groups, columns and comparators, the number of
+     * values of IN conditions and whether a BETWEEN has bounds. Values are not part of the shape. The SQL
+     * and the ordered list of bind-slot names of a shape are rendered once and kept in a bounded cache, so
+     * a request whose shape was seen before only binds its values, and the driver sees the same SQL text
+     * for the same shape.
+     *
      * <p>Example usage:
      * <pre>
      * {@code
@@ -781,14 +899,54 @@ public final class QueryFragment extends HashMap<String, Object> {
     @Getter
     public static class Condition extends HashMap<String, Object> {
 
+        /**
+         * The maximum number of compiled shapes kept; shapes seen after the cache is full are rendered
+         * on every use instead of evicting, since applications build a small, fixed set of shapes.
+         */
+        private static final int MAX_SHAPES = 1024;
+        private static final Map<String, Shape> SHAPES = new ConcurrentHashMap<>();
+
         private final @Nullable Criteria criteria;
         private final String prefix;
         private final StringBuilder sqlBuilder = new StringBuilder();
 
-        private Condition(@Nullable Criteria criteria, String prefix) {
+        private Condition(@Nullable Criteria criteria, @Nullable String prefix) {
             this.criteria = criteria;
-            this.prefix = prefix;
-            unroll(this.criteria, sqlBuilder);
+            this.prefix = prefix == null ? "" : prefix;
+            StringBuilder signature = new StringBuilder(64).append(this.prefix.length()).append(':').append(this.prefix);
+            List<@Nullable Object> values = new ArrayList<>();
+            describe(this.criteria, signature, values);
+            Shape shape = SHAPES.get(signature.toString());
+            if (shape == null) {
+                shape = compile(this.criteria, this.prefix);
+                if (SHAPES.size() < MAX_SHAPES) {
+                    SHAPES.putIfAbsent(signature.toString(), shape);
+                }
+            }
+            this.sqlBuilder.append(shape.sql());
+            for (int i = 0; i < values.size(); i++) {
+                this.add(shape.slots().get(i), values.get(i));
+            }
+        }
+
+        private Condition(String sql, Map<String, ?> params) {
+            this.criteria = null;
+            this.prefix = "";
+            this.sqlBuilder.append(sql);
+            this.putAll(params);
+        }
+
+        /**
+         * Creates a condition from a SQL fragment and the values of its named parameters, for predicates
+         * {@link Criteria} cannot express, such as JSONB containment. The SQL must reference values only
+         * through the parameters.
+         *
+         * @param sql    the condition SQL with named parameters
+         * @param params the values of the named parameters
+         * @return a Condition rendering the given SQL
+         */
+        static Condition of(String sql, Map<String, ?> params) {
+            return new Condition(sql, params);
         }
 
         /**
@@ -841,6 +999,81 @@ public final class QueryFragment extends HashMap<String, Object> {
             return new Condition(criteria, prefix);
         }
 
+        private static Shape compile(@Nullable Criteria criteria, String prefix) {
+            var compiler = new ShapeCompiler(prefix);
+            compiler.unroll(criteria, compiler.sql);
+            return new Shape(compiler.sql.toString(), List.copyOf(compiler.slots));
+        }
+
+        /**
+         * Walks the criteria tree in rendering order, appending its shape to the signature and collecting
+         * the values that fill the bind slots of the shape, one per slot.
+         */
+        private static void describe(@Nullable CriteriaDefinition criteria, StringBuilder signature,
+                                     List<@Nullable Object> values) {
+            CriteriaDefinition current = criteria;
+            Deque<CriteriaDefinition> chain = new ArrayDeque<>();
+            while (Objects.requireNonNull(current).hasPrevious()) {
+                chain.push(current);
+                current = current.getPrevious();
+            }
+            describeCriterion(current, signature, values);
+            while (!chain.isEmpty()) {
+                CriteriaDefinition criterion = chain.pop();
+                signature.append(criterion.getCombinator().ordinal());
+                describeCriterion(criterion, signature, values);
+            }
+        }
+
+        private static void describeCriterion(CriteriaDefinition criteria, StringBuilder signature,
+                                              List<@Nullable Object> values) {
+            if (criteria.isEmpty()) {
+                signature.append('e');
+                return;
+            }
+            if (criteria.isGroup()) {
+                signature.append('(');
+                for (CriteriaDefinition criterion : criteria.getGroup()) {
+                    if (!criterion.isEmpty()) {
+                        signature.append(criterion.getCombinator().ordinal());
+                        describe(criterion, signature, values);
+                    }
+                }
+                signature.append(')');
+                return;
+            }
+            String column = Objects.requireNonNull(criteria.getColumn()).toSql(IdentifierProcessing.NONE);
+            CriteriaDefinition.Comparator comparator = Objects.requireNonNull(criteria.getComparator());
+            signature.append('[').append(column.length()).append(':').append(column)
+                    .append(':').append(comparator.ordinal()).append(criteria.isIgnoreCase() ? "i" : "");
+            switch (comparator) {
+                case BETWEEN, NOT_BETWEEN -> {
+                    Pair<?, ?> pair = (Pair<?, ?>) criteria.getValue();
+                    signature.append(pair == null ? ":0" : ":2");
+                    if (pair != null) {
+                        values.add(pair.getFirst());
+                        values.add(pair.getSecond());
+                    }
+                }
+                case IS_NULL, IS_NOT_NULL, IS_TRUE, IS_FALSE -> {
+                }
+                case IN, NOT_IN -> {
+                    Collection<?> items = (Collection<?>) criteria.getValue();
+                    signature.append(':').append(items == null ? 0 : items.size());
+                    if (items != null) {
+                        values.addAll(items);
+                    }
+                }
+                default -> {
+                    if (criteria.getValue() == null) {
+                        throw new IllegalArgumentException("Criteria value cannot be null for column: " + column);
+                    }
+                    values.add(criteria.getValue());
+                }
+            }
+            signature.append(']');
+        }
+
         /**
          * Generates the WHERE clause of the SQL statement.
          *
@@ -852,122 +1085,153 @@ public final class QueryFragment extends HashMap<String, Object> {
             return sqlBuilder.toString();
         }
 
-        private void unroll(CriteriaDefinition criteria, StringBuilder stringBuilder) {
+        /**
+         * A compiled condition shape: the rendered SQL and the names of its bind slots, in the order in
+         * which {@link #describe(CriteriaDefinition, StringBuilder, List)} collects their values.
+         */
+        private record Shape(String sql, List<String> slots) {
+        }
 
-            CriteriaDefinition current = criteria;
+        /**
+         * Renders the SQL of a criteria tree, recording a bind slot wherever a value is referenced.
+         */
+        private static final class ShapeCompiler {
 
-            Map<CriteriaDefinition, CriteriaDefinition> forwardChain = new HashMap<>();
+            private final String prefix;
+            private final StringBuilder sql = new StringBuilder();
+            private final List<String> slots = new ArrayList<>();
 
-            while (Objects.requireNonNull(current).hasPrevious()) {
-                forwardChain.put(current.getPrevious(), current);
-                current = current.getPrevious();
+            private ShapeCompiler(String prefix) {
+                this.prefix = prefix;
             }
 
-            render(current, stringBuilder);
-            while (forwardChain.containsKey(current)) {
+            private void unroll(CriteriaDefinition criteria, StringBuilder stringBuilder) {
 
-                CriteriaDefinition criterion = forwardChain.get(current);
+                CriteriaDefinition current = criteria;
 
-                if (criterion.getCombinator() != CriteriaDefinition.Combinator.INITIAL) {
-                    stringBuilder.append(' ').append(criterion.getCombinator().name()).append(' ');
+                Map<CriteriaDefinition, CriteriaDefinition> forwardChain = new HashMap<>();
+
+                while (Objects.requireNonNull(current).hasPrevious()) {
+                    forwardChain.put(current.getPrevious(), current);
+                    current = current.getPrevious();
                 }
 
-                render(criterion, stringBuilder);
+                render(current, stringBuilder);
+                while (forwardChain.containsKey(current)) {
+
+                    CriteriaDefinition criterion = forwardChain.get(current);
 
-                current = criterion;
+                    if (criterion.getCombinator() != CriteriaDefinition.Combinator.INITIAL) {
+                        stringBuilder.append(' ').append(criterion.getCombinator().name()).append(' ');
+                    }
+
+                    render(criterion, stringBuilder);
+
+                    current = criterion;
+                }
             }
-        }
 
-        private void unrollGroup(List<? extends CriteriaDefinition> criteria, StringBuilder stringBuilder) {
+            private void unrollGroup(List<? extends CriteriaDefinition> criteria, StringBuilder stringBuilder) {
 
-            stringBuilder.append("(");
+                stringBuilder.append("(");
 
-            boolean first = true;
-            for (CriteriaDefinition criterion : criteria) {
+                boolean first = true;
+                for (CriteriaDefinition criterion : criteria) {
 
-                if (criterion.isEmpty()) {
-                    continue;
-                }
+                    if (criterion.isEmpty()) {
+                        continue;
+                    }
+
+                    if (!first) {
+                        CriteriaDefinition.Combinator combinator = criterion.getCombinator()
+                                == CriteriaDefinition.Combinator.INITIAL ? CriteriaDefinition.Combinator.AND
+                                : criterion.getCombinator();
+                        stringBuilder.append(' ').append(combinator.name()).append(' ');
+                    }
 
-                if (!first) {
-                    CriteriaDefinition.Combinator combinator = criterion.getCombinator()
-                            == CriteriaDefinition.Combinator.INITIAL ? CriteriaDefinition.Combinator.AND
-                            : criterion.getCombinator();
-                    stringBuilder.append(' ').append(combinator.name()).append(' ');
+                    unroll(criterion, stringBuilder);
+                    first = false;
                 }
 
-                unroll(criterion, stringBuilder);
-                first = false;
+                stringBuilder.append(")");
             }
 
-            stringBuilder.append(")");
-        }
+            private void render(CriteriaDefinition criteria, StringBuilder stringBuilder) {
+                if (criteria.isEmpty()) {
+                    return;
+                }
 
-        private void render(CriteriaDefinition criteria, StringBuilder stringBuilder) {
-            if (criteria.isEmpty()) {
-                return;
-            }
+                if (criteria.isGroup()) {
+                    unrollGroup(criteria.getGroup(), stringBuilder);
+                    return;
+                }
+                var column = Objects.requireNonNull(criteria.getColumn()).toSql(IdentifierProcessing.NONE);
 
-            if (criteria.isGroup()) {
-                unrollGroup(criteria.getGroup(), stringBuilder);
-                return;
-            }
-            var column = Objects.requireNonNull(criteria.getColumn()).toSql(IdentifierProcessing.NONE);
+                if (!this.prefix.isEmpty()) {
+                    column = this.prefix + "." + column;
+                }
+                // Optimize column-name replacement: collapse consecutive underscores and trim leading/trailing underscores
+                var relColumn = column.replaceAll("[^\\p{Alnum}]+", "_").replaceAll("^_|_$", "");
+                // JSON path expressions are rendered by QueryJsonHelper, their keys must keep their case
+                stringBuilder.append(column.contains("->") ? column
+                                : CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, column))
+                        .append(' ').append(comparator(criteria));
+
+                switch (criteria.getComparator()) {
+                    case BETWEEN:
+                    case NOT_BETWEEN:
+                        var key1 = relColumn + "1";
+                        var key2 = relColumn + "2";
+                        if (criteria.getValue() != null) {
+                            this.slots.add(key1);
+                            this.slots.add(key2);
+                        }
+                        stringBuilder.append(" :").append(key1).append(" AND :").append(key2);
+                        break;
+
+                    case IS_NULL:
+                    case IS_NOT_NULL:
+                    case IS_TRUE:
+                    case IS_FALSE:
+                        break;
+
+                    case IN:
+                    case NOT_IN:
+                        stringBuilder.append(" (");
+                        Collection<?> values = (Collection<?>) criteria.getValue();
+                        if (values != null && !values.isEmpty()) {
+                            StringJoiner joiner = new StringJoiner(", ");
+                            for (int index = 0; index < values.size(); index++) {
+                                var key = relColumn + index;
+                                this.slots.add(key);
+                                joiner.add(":" + key);
+                            }
+                            stringBuilder.append(joiner);
+                        }
+                        stringBuilder.append(')');
+                        break;
 
-            if (this.prefix != null && !this.prefix.isEmpty()) {
-                column = this.prefix + "." + column;
+                    default:
+                        this.slots.add(relColumn);
+                        stringBuilder.append(" :").append(relColumn);
+                }
             }
-            // Optimize column-name replacement: collapse consecutive underscores and trim leading/trailing underscores
-            var relColumn = column.replaceAll("[^\\p{Alnum}]+", "_").replaceAll("^_|_$", "");
-            stringBuilder.append(CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, column))
-                    .append(' ').append(Objects.requireNonNull(criteria.getComparator()).getComparator());
-
-            switch (criteria.getComparator()) {
-                case BETWEEN:
-                case NOT_BETWEEN:
-                    Pair<Object, Object> pair = (Pair<Object, Object>) criteria.getValue();
-                    var key1 = relColumn + "1";
-                    var key2 = relColumn + "2";
-                    if (pair != null) {
-                        this.add(key1, pair.getFirst());
-                        this.add(key2, pair.getSecond());
-                    }
-                    stringBuilder.append(" :").append(key1).append(" AND :").append(key2);
-                    break;
-
-                case IS_NULL:
-                case IS_NOT_NULL:
-                case IS_TRUE:
-                case IS_FALSE:
-                    break;
-
-                case IN:
-                case NOT_IN:
-                    stringBuilder.append(" (");
-                    Collection<?> values = (Collection<?>) criteria.getValue();
-                    if (values != null && !values.isEmpty()) {
-                        StringJoiner joiner = new StringJoiner(", ");
-                        AtomicInteger indexRef = new AtomicInteger(0);
-                        for (Object item : values) {
-                            var key = relColumn + indexRef.get();
-                            this.add(key, item);
-                            joiner.add(":" + key);
-                            indexRef.incrementAndGet();
-                        }
-                        stringBuilder.append(joiner);
-                    }
-                    stringBuilder.append(')');
-                    break;
-
-                default:
-                    // Optimize null-handling logic
-                    Object value = criteria.getValue();
-                    if (value == null) {
-                        throw new IllegalArgumentException("Criteria value cannot be null for column: " + relColumn);
-                    }
-                    this.add(relColumn, value);
-                    stringBuilder.append(" :").append(relColumn);
+        }
+
+        /**
+         * Renders the comparator of a criterion, {@code LIKE} becoming {@code ILIKE} when it ignores case.
+         */
+        private static String comparator(CriteriaDefinition criteria) {
+            CriteriaDefinition.Comparator comparator = Objects.requireNonNull(criteria.getComparator());
+            if (criteria.isIgnoreCase()) {
+                if (comparator == CriteriaDefinition.Comparator.LIKE) {
+                    return "ILIKE";
+                }
+                if (comparator == CriteriaDefinition.Comparator.NOT_LIKE) {
+                    return "NOT ILIKE";
+                }
             }
+            return comparator.getComparator();
         }
 
         private void add(String column, Object value) {
@@ -4,6 +4,7 @@ import com.google.common.base.CaseFormat;
 import com.google.common.collect.Maps;
 import com.plate.boot.commons.exception.QueryException;
 import com.plate.boot.commons.utils.BeanUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.util.ObjectUtils;
@@ -54,6 +55,17 @@ public final class QueryHelper {
     public static final Set<String> SKIP_CRITERIA_KEYS = Set.of("extend", "query", "search",
             "createdTime", "updatedTime", "securityCode");
 
+    private static final ClassValue<Map<String, Match.Mode>> MATCH_MODES = new ClassValue<>() {
+        @Override
+        protected Map<String, Match.Mode> computeValue(Class<?> type) {
+            Map<String, Match.Mode> modes = new HashMap<>();
+            for (Match match : AnnotatedElementUtils.findMergedRepeatableAnnotations(type, Match.class)) {
+                modes.put(match.property(), match.mode());
+            }
+            return Map.copyOf(modes);
+        }
+    };
+
     /**
      * Resolves database table name from @Table annotation or class name
      *
@@ -103,7 +115,9 @@ public final class QueryHelper {
     /**
      * Constructs a Criteria instance by converting the provided object into a map,
      * excluding specified keys and predefined skip keys, then processing this map
-     * to create the Criteria object using parameterized queries.
+     * to create the Criteria object using parameterized queries. Property names are columns as they are,
+     * even when they end with an operator keyword, and string properties are matched in the {@link Match}
+     * mode declared by the object's class.
      *
      * <p>Example usage with custom skip keys:
      * <pre>{@code
@@ -127,7 +141,37 @@ public final class QueryHelper {
     public static Criteria criteria(Object object, Collection<String> skipKeys) {
         Map<String, Object> objectMap = BeanUtils.beanToMap(object, true);
         objectMap = Maps.filterKeys(objectMap, key -> !SKIP_CRITERIA_KEYS.contains(key) && !skipKeys.contains(key));
-        return criteria(objectMap);
+        if (ObjectUtils.isEmpty(objectMap)) {
+            return Criteria.empty();
+        }
+        Map<String, Match.Mode> modes = MATCH_MODES.get(object.getClass());
+        return Criteria.from(objectMap.entrySet().stream().map(entry -> {
+            Match.Mode mode = modes.get(entry.getKey());
+            if (mode != null && entry.getValue() instanceof String value) {
+                return mode.criteria(entry.getKey(), value);
+            }
+            return criteria(entry.getKey(), entry.getValue());
+        }).collect(Collectors.toList()));
+    }
+
+    /**
+     * Constructs the Criteria matching a string property in the {@link Match} mode declared by the given type,
+     * for request types that build their criteria property by property.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * Criteria criteria = QueryHelper.criteria(DictionaryReq.class, "dictLabel", "Gender");
+     * }</pre>
+     * This generates: "WHERE UPPER(dict_label) LIKE UPPER(?)" with the value bound as {@code %Gender%}
+     *
+     * @param type     The type declaring the match modes of its properties
+     * @param property The property name
+     * @param value    The value to match
+     * @return The Criteria of the declared mode, or a {@code LIKE} criteria if the property has none
+     */
+    public static Criteria criteria(Class<?> type, String property, String value) {
+        Match.Mode mode = MATCH_MODES.get(type).get(property);
+        return mode == null ? criteria(property, value) : mode.criteria(property, value);
     }
 
     /**
@@ -153,14 +197,26 @@ public final class QueryHelper {
      * }</pre>
      * This generates: "WHERE status IN (?, ?)"
      *
-     * <p>Example usage with case-insensitive string match:
+     * <p>Example usage with string match:
      * <pre>{@code
      * Map<String, Object> map = new HashMap<>();
      * map.put("name", "John");
      *
      * Criteria criteria = QueryHelper.criteria(map);
      * }</pre>
-     * This generates: "WHERE name LIKE ?" with case-insensitive matching
+     * This generates: "WHERE name LIKE ?", the value being the pattern
+     *
+     * <p>Keys ending with an operator keyword of {@link QueryJsonHelper} that starts a camel-case word of the
+     * key apply that operator to the column named by the rest of the key, see {@link SuffixMatcher#matchWord};
+     * keys such as {@code login} or {@code result} name their column whole:
+     * <pre>{@code
+     * Map<String, Object> map = new HashMap<>();
+     * map.put("ageGte", 18);
+     * map.put("createdAtBetween", "2024-01-01,2024-12-31");
+     *
+     * Criteria criteria = QueryHelper.criteria(map);
+     * }</pre>
+     * This generates: "WHERE age >= ? AND created_at BETWEEN ? AND ?"
      *
      * @param objectMap The map containing criteria key-value pairs
      * @return A Criteria instance representing the constructed criteria
@@ -172,13 +228,23 @@ public final class QueryHelper {
         if (ObjectUtils.isEmpty(objectMap)) {
             return Criteria.empty();
         }
-        List<Criteria> criteriaList = objectMap.entrySet().stream().map(entry ->
-                switch (entry.getValue()) {
-                    case UUID value -> Criteria.where(entry.getKey()).is(value);
-                    case String value -> Criteria.where(entry.getKey()).like(value).ignoreCase(true);
-                    case Collection<?> values -> Criteria.where(entry.getKey()).in(values);
-                    case null, default -> Criteria.where(entry.getKey()).is(entry.getValue());
-                }).collect(Collectors.toList());
+        List<Criteria> criteriaList = objectMap.entrySet().stream().map(entry -> {
+            var operator = QueryJsonHelper.OPERATORS.matchWord(entry.getKey());
+            if (operator == null) {
+                return criteria(entry.getKey(), entry.getValue());
+            }
+            String column = entry.getKey().substring(0, entry.getKey().length() - operator.getKey().length());
+            return operator.getValue().apply(column, entry.getValue());
+        }).collect(Collectors.toList());
         return Criteria.from(criteriaList);
     }
+
+    private static Criteria criteria(String column, Object value) {
+        return switch (value) {
+            case UUID uuid -> Criteria.where(column).is(uuid);
+            case String text -> Criteria.where(column).like(text);
+            case Collection<?> values -> Criteria.where(column).in(values);
+            case null, default -> Criteria.where(column).is(value);
+        };
+    }
 }
\ No newline at end of file
@@ -3,15 +3,16 @@ package com.plate.boot.commons.query;
 import com.google.common.base.CaseFormat;
 import com.google.common.collect.Maps;
 import com.plate.boot.commons.exception.QueryException;
-import com.plate.boot.commons.exception.RestServerException;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.util.StringUtils;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
+import java.math.BigDecimal;
+import java.util.*;
 import java.util.function.BiFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -47,6 +48,49 @@ public final class QueryJsonHelper {
 
     private final static Map<String, BiFunction<String, Object, Criteria>> OPERATION_MAPPER = Maps.newHashMap();
 
+    /**
+     * The operator keywords rewritten to GIN-served containment or jsonpath predicates.
+     */
+    private static final Set<String> CONTAINMENT_KEYWORDS = Set.of("EQ", "Equal", "In");
+
+    /**
+     * The operator keywords whose values are a comma-delimited list, bound as typed arrays or typed bounds.
+     */
+    private static final Set<String> LIST_KEYWORDS = Set.of("NotIn", "Between", "NotBetween");
+
+    /**
+     * The operator keywords whose criteria ignore the filter value.
+     */
+    private static final Set<String> VALUELESS_KEYWORDS = Set.of("IsNull", "NotNull", "IsNotNull", "Null",
+            "IsTrue", "True", "IsFalse", "False");
+
+    /**
+     * Strings that are also JSON numbers or booleans.
+     */
+    private static final Pattern JSON_SCALAR = Pattern.compile("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?|true|false");
+
+    /**
+     * Strings that are JSON numbers.
+     */
+    private static final Pattern JSON_NUMBER = Pattern.compile("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    /**
+     * The Postgres regular expression of the texts that cast to {@code numeric}, matching JSON numbers as well
+     * as strings holding one.
+     */
+    private static final String SQL_NUMBER = "'^-?[0-9]+(\\.[0-9]+)?([eE][+-]?[0-9]+)?$'";
+
+    private static final ClassValue<Map<String, JsonIndex>> DECLARED_INDEXES = new ClassValue<>() {
+        @Override
+        protected Map<String, JsonIndex> computeValue(Class<?> type) {
+            Map<String, JsonIndex> indexes = new HashMap<>();
+            for (JsonIndex index : AnnotatedElementUtils.findMergedRepeatableAnnotations(type, JsonIndex.class)) {
+                indexes.put(index.path(), index);
+            }
+            return Map.copyOf(indexes);
+        }
+    };
+
     static {
         OPERATION_MAPPER.put("EQ", (column, value) -> Criteria.where(column).is(value));
         OPERATION_MAPPER.put("Equal", (column, value) -> Criteria.where(column).is(value));
@@ -102,6 +146,13 @@ public final class QueryJsonHelper {
         OPERATION_MAPPER.put("False", (column, _) -> Criteria.where(column).is(false));
     }
 
+    /**
+     * The operator keywords of {@code OPERATION_MAPPER}, compiled into a suffix matcher so that resolving
+     * the operator of a filter key takes one step per character of the key. Also used by
+     * {@link QueryHelper#criteria(Map)}.
+     */
+    static final SuffixMatcher<BiFunction<String, Object, Criteria>> OPERATORS = SuffixMatcher.compile(OPERATION_MAPPER);
+
     /**
      * Transforms a given Spring Framework Sort object into a new Sort object with properties
      * converted to snake_case (lower_underscore) format, which is beneficial when sorting involves JSON fields in SQL queries.
@@ -179,75 +230,326 @@ public final class QueryJsonHelper {
      * @param prefix A string prefix to prepend to each JSON key to form the full column name in SQL queries.
      * @return A {@link QueryFragment.Condition} containing the constructed SQL conditions for querying JSON data.
      * @throws QueryException If any processing error occurs due to invalid input structure or content.
+     * @see #queryJson(Map, String, Class)
+     */
+    public static QueryFragment.Condition queryJson(Map<String, Object> params, @Nullable String prefix) {
+        return queryJson(params, prefix, null);
+    }
+
+    /**
+     * Constructs a {@link QueryFragment.Condition} representing a set of JSON-based query conditions,
+     * written so that the indexes of the JSON columns can serve them.
+     *
+     * <p>Equality filters become containment predicates, {@code extend @> '{"a":{"b":1}}'}, and {@code In}
+     * filters jsonpath predicates, {@code extend @@ '$."a"."b" == 1 || $."a"."b" == 2'}, both served by the
+     * GIN index of the column. The {@code @@} operator is used rather than {@code @?}, whose question mark the
+     * named parameter parser would take for a placeholder. Values are written as typed JSON literals: by the declared {@link JsonIndex}
+     * type of the path if any, otherwise numbers and booleans as such, and strings that read as a number or
+     * a boolean both ways, matching what comparing the {@code ->>} text used to match. The JSON documents
+     * and paths are bound as parameters.
+     *
+     * <p>The other operators compare the {@code column->'a'->>'b'} text expression, cast to the declared
+     * {@link JsonIndex} type of the path, so that an expression index declared for the entity serves them.
+     *
+     * @param params      A map where each key represents a JSON path, ending with an optional operator keyword,
+     *                    and the value is the condition's value.
+     * @param prefix      A table alias qualifying the JSON columns, or {@code null}.
+     * @param entityClass The entity class declaring the {@link JsonIndex} paths, or {@code null}.
+     * @return A {@link QueryFragment.Condition} containing the constructed SQL conditions for querying JSON data.
+     * @throws QueryException If a path is malformed or a value does not match the declared type of its path.
      */
-    public static QueryFragment.Condition queryJson(Map<String, Object> params, String prefix) {
+    public static QueryFragment.Condition queryJson(Map<String, Object> params, @Nullable String prefix,
+                                                    @Nullable Class<?> entityClass) {
+        Map<String, JsonIndex> indexes = entityClass == null ? Map.of() : DECLARED_INDEXES.get(entityClass);
+        String qualifier = StringUtils.hasText(prefix) ? prefix + "." : "";
+        String paramPrefix = StringUtils.hasText(prefix) ? prefix + "_jsonb" : "jsonb";
+        StringJoiner sql = new StringJoiner(" AND ");
+        Map<String, Object> binds = new HashMap<>();
         Criteria criteria = Criteria.empty();
         for (Map.Entry<String, Object> entry : params.entrySet()) {
-            criteria = criteria.and(buildJsonCondition(entry));
+            JsonPath path = JsonPath.parse(entry.getKey());
+            JsonIndex index = indexes.get(path.name());
+            if (path.keyword() == null || CONTAINMENT_KEYWORDS.contains(path.keyword())) {
+                String column = qualifier + path.column();
+                String name = paramPrefix + binds.size();
+                List<String> literals = literals(entry.getValue(), "In".equals(path.keyword()), index);
+                if (literals.size() == 1) {
+                    sql.add(column + " @> CAST(:" + name + " AS jsonb)");
+                    binds.put(name, path.document(literals.getFirst()));
+                } else {
+                    sql.add(column + " @@ CAST(:" + name + " AS jsonpath)");
+                    binds.put(name, path.jsonPath(literals));
+                }
+            } else if (LIST_KEYWORDS.contains(path.keyword())) {
+                sql.add(buildListCondition(path, qualifier, index, entry.getValue(), paramPrefix, binds));
+            } else {
+                criteria = criteria.and(buildJsonCondition(path, qualifier, index, entry.getValue()));
+            }
         }
-        return QueryFragment.Condition.of(criteria, prefix);
+        QueryFragment.Condition expressions = QueryFragment.Condition.of(criteria, "");
+        if (!expressions.toSql().isBlank()) {
+            sql.add(expressions.toSql());
+            binds.putAll(expressions);
+        }
+        return QueryFragment.Condition.of(sql.toString(), binds);
     }
 
     /**
-     * Constructs a {@link Criteria} based on the provided map entry and a prefix.
-     * The entry's key represents a JSON path, and the value is the condition's operand.
-     * The method supports nested JSON paths and translates them into equivalent SQL expressions
-     * compatible with JSON columns in SQL databases. It validates the path, processes the keys,
-     * and builds the final SQL condition using the operation mapper.
+     * Constructs a {@link Criteria} comparing the text expression of a JSON path, for the operators the GIN
+     * index cannot serve. The path's keys are escaped into the expression, and when the path has a declared
+     * {@link JsonIndex} type the expression is cast to it and the values converted, so that it is the exact
+     * expression of the declared index.
      * <pre>
      * {@code
      * // Create a map of JSON-based query parameters
      * Map<String, Object> jsonParams = new HashMap<>();
-     * jsonParams.put("extend.requestBody.nameEq", "Test User"); // EQ stands for Equal
-     * jsonParams.put("extend.additionalField1Eq", "value1"); // EQ stands for Equal
+     * jsonParams.put("extend.requestBody.nameLike", "Test%");
+     * jsonParams.put("extend.ageGte", "18");
      *
      * // Use the QueryJsonHelper to construct the SQL query for the given JSON parameters
      * QueryFragment.Condition condition = QueryJsonHelper.queryJson(jsonParams, "a");
      *
      * // Get the SQL condition string
      * String sqlQuery = condition.toSql();
-     *
-     * // Now you can execute the sqlQuery against your database using a JDBC template or similar
      * }
      * </pre>
      *
-     * @param entry A map entry where the key is a dot-delimited string indicating a JSON path
-     *              (e.g., "extend.usernameLike"), and the value is the target value for the condition.
-     * @return A {@link Criteria} object representing the constructed SQL condition
-     * for querying JSON data, including the SQL fragment, parameters, and the operation detail.
-     * @throws QueryException If the provided JSON path does not meet the minimum requirement of specifying
-     *                        at least one level of nesting after the prefix (if provided).
+     * @param path      The parsed JSON path, with its operator keyword.
+     * @param qualifier The table alias followed by a dot, or an empty string.
+     * @param index     The declared index of the path, or {@code null}.
+     * @param value     The value of the filter.
+     * @return A {@link Criteria} object representing the constructed SQL condition.
+     * @throws QueryException If the value does not match the declared type of the path.
      */
-    private static Criteria buildJsonCondition(Map.Entry<String, Object> entry) {
-        String[] keys = StringUtils.delimitedListToStringArray(entry.getKey(), ".");
-        if (keys.length < 2) {
-            throw QueryException.withError("Json from column path [query[" + entry.getKey() + "]] error",
-                    new IllegalArgumentException("Json path example: extend.username," +
-                            "Request from params:" +
-                            "query[extend.usernameLike]=aa," +
-                            "query[extend.age]=23," +
-                            "query[extend.nameIn]=aa,bb,cc," +
-                            "query[extend.codeEq]=123456"
-                    ));
+    private static Criteria buildJsonCondition(JsonPath path, String qualifier, @Nullable JsonIndex index,
+                                               Object value) {
+        JsonIndex.Type type = index == null ? JsonIndex.Type.TEXT : index.type();
+        String expression = type.expression(qualifier + path.textExpression());
+        String keyword = path.keyword();
+        BiFunction<String, Object, Criteria> func = OPERATION_MAPPER.get(keyword);
+        try {
+            if (type == JsonIndex.Type.TEXT || VALUELESS_KEYWORDS.contains(keyword)) {
+                return func.apply(expression, value);
+            }
+            return func.apply(expression, type.convert(value));
+        } catch (IllegalArgumentException ex) {
+            throw QueryException.withError("Json query [query[" + path.name() + keyword + "]] value error", ex);
         }
-        String column = CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, keys[0]);
-        StringBuilder columnBuilder = new StringBuilder(column);
-        int lastIndex = keys.length - 1;
-        if (lastIndex > 1) {
-            String[] joinKeys = Arrays.copyOfRange(keys, 1, lastIndex);
-            for (String path : joinKeys) {
-                columnBuilder.append("->'").append(escapeJsonKey(path)).append("'");
+    }
+
+    /**
+     * Renders a {@code NotIn}, {@code Between} or {@code NotBetween} filter with typed binds. The values are
+     * typed by the declared {@link JsonIndex} type of the path, binding {@code (expr)::type <> ALL(:array)} with
+     * an array of that type. Without a declared type, a {@code NotIn} compares the text of the values and, for
+     * the values that read as JSON numbers or booleans, their {@code jsonb} as well, so that {@code 1,2} excludes
+     * both {@code 1} and {@code "1"}. A range of two numbers compares the rows holding a number, or a string
+     * holding one, as {@code numeric} and leaves out the other rows, instead of relying on the {@code jsonb}
+     * ordering across types; other ranges are compared as text. A list is always bound as a single array, so the
+     * statement text does not depend on its length.
+     *
+     * @param path        The parsed JSON path, with its operator keyword.
+     * @param qualifier   The table alias followed by a dot, or an empty string.
+     * @param index       The declared index of the path, or {@code null}.
+     * @param value       The comma-delimited values of the filter.
+     * @param paramPrefix The prefix of the parameter names.
+     * @param binds       The parameters of the condition, receiving the values of this filter.
+     * @return The SQL of the filter.
+     * @throws QueryException If a range has not two values, or a value does not match the declared type.
+     */
+    private static String buildListCondition(JsonPath path, String qualifier, @Nullable JsonIndex index,
+                                             Object value, String paramPrefix, Map<String, Object> binds) {
+        String keyword = Objects.requireNonNull(path.keyword());
+        List<Object> values = split(value);
+        if (!"NotIn".equals(keyword) && values.size() != 2) {
+            throw QueryException.withError("Json query [query[" + path.name() + keyword + "]] value error",
+                    new IllegalArgumentException("Range must have two values: " + value));
+        }
+        String expression;
+        String cast;
+        Object[] typed;
+        if (index != null && index.type() != JsonIndex.Type.TEXT) {
+            expression = index.type().expression(qualifier + path.textExpression());
+            cast = "";
+            try {
+                typed = index.type().array(values);
+            } catch (IllegalArgumentException ex) {
+                throw QueryException.withError("Json query [query[" + path.name() + keyword + "]] value error", ex);
+            }
+        } else if ("NotIn".equals(keyword)) {
+            String text = paramPrefix + binds.size();
+            binds.put(text, values.stream().map(Object::toString).toArray(String[]::new));
+            String[] scalars = values.stream().map(Object::toString)
+                    .filter(item -> JSON_SCALAR.matcher(item).matches()).toArray(String[]::new);
+            String condition = qualifier + path.textExpression() + " <> ALL(:" + text + ")";
+            if (scalars.length == 0) {
+                return condition;
+            }
+            String json = paramPrefix + binds.size();
+            binds.put(json, scalars);
+            return "(" + condition + " AND " + qualifier + path.jsonExpression()
+                    + " <> ALL(" + bind(json, "jsonb[]") + "))";
+        } else if (values.stream().allMatch(item -> JSON_NUMBER.matcher(item.toString()).matches())) {
+            String text = qualifier + path.textExpression();
+            expression = "CASE WHEN " + text + " ~ " + SQL_NUMBER + " THEN (" + text + ")::numeric END";
+            cast = "";
+            typed = values.stream().map(item -> new BigDecimal(item.toString())).toArray(BigDecimal[]::new);
+        } else {
+            expression = qualifier + path.textExpression();
+            cast = "";
+            typed = values.stream().map(Object::toString).toArray(String[]::new);
+        }
+        if ("NotIn".equals(keyword)) {
+            String name = paramPrefix + binds.size();
+            binds.put(name, typed);
+            return expression + " <> ALL(" + bind(name, cast.isEmpty() ? "" : cast + "[]") + ")";
+        }
+        String lower = paramPrefix + binds.size();
+        binds.put(lower, typed[0]);
+        String upper = paramPrefix + binds.size();
+        binds.put(upper, typed[1]);
+        return expression + ("Between".equals(keyword) ? " BETWEEN " : " NOT BETWEEN ")
+                + bind(lower, cast) + " AND " + bind(upper, cast);
+    }
+
+    private static String bind(String name, String cast) {
+        return cast.isEmpty() ? ":" + name : "CAST(:" + name + " AS " + cast + ")";
+    }
+
+    private static List<String> literals(Object value, boolean multiple, @Nullable JsonIndex index) {
+        Set<String> literals = new LinkedHashSet<>();
+        for (Object item : multiple ? split(value) : List.of(value)) {
+            if (index != null) {
+                try {
+                    literals.add(index.type().literal(item));
+                } catch (IllegalArgumentException ex) {
+                    throw QueryException.withError("Json query [" + index.path() + "] value error", ex);
+                }
+            } else if (item instanceof Number || item instanceof Boolean) {
+                literals.add(item.toString());
+            } else {
+                String text = item.toString();
+                literals.add(quote(text));
+                if (JSON_SCALAR.matcher(text).matches()) {
+                    literals.add(text);
+                }
+            }
+        }
+        return List.copyOf(literals);
+    }
+
+    private static List<Object> split(Object value) {
+        return Arrays.stream(value.toString().split(",")).collect(Collectors.toList());
+    }
+
+    /**
+     * Writes a string as a JSON string literal, which is also a jsonpath string literal.
+     *
+     * @param text The string to quote
+     * @return The double-quoted, escaped string
+     */
+    static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * A JSON filter key parsed into the JSON column, the keys below it and the operator keyword.
+     *
+     * @param column  The snake_case JSON column
+     * @param keys    The JSON keys below the column, the last one without the operator keyword
+     * @param name    The dot-delimited path as declared by {@link JsonIndex#path()}
+     * @param keyword The operator keyword of {@code OPERATION_MAPPER}, or {@code null} for equality
+     */
+    private record JsonPath(String column, List<String> keys, String name, @Nullable String keyword) {
+
+        static JsonPath parse(String key) {
+            String[] keys = StringUtils.delimitedListToStringArray(key, ".");
+            if (keys.length < 2) {
+                throw QueryException.withError("Json from column path [query[" + key + "]] error",
+                        new IllegalArgumentException("Json path example: extend.username," +
+                                "Request from params:" +
+                                "query[extend.usernameLike]=aa," +
+                                "query[extend.age]=23," +
+                                "query[extend.nameIn]=aa,bb,cc," +
+                                "query[extend.codeEq]=123456"
+                        ));
             }
+            String column = CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, validateColumnName(keys[0]));
+            int lastIndex = keys.length - 1;
+            String lastKey = keys[lastIndex];
+            Map.Entry<String, BiFunction<String, Object, Criteria>> comparator = queryKeywordMapper(lastKey);
+            String keyword = null;
+            if (comparator != null) {
+                lastKey = lastKey.substring(0, lastKey.length() - comparator.getKey().length());
+                keyword = comparator.getKey();
+            }
+            List<String> jsonKeys = new ArrayList<>(Arrays.asList(keys).subList(1, lastIndex));
+            jsonKeys.add(lastKey);
+            String name = keys[0] + "." + String.join(".", jsonKeys);
+            return new JsonPath(column, List.copyOf(jsonKeys), name, keyword);
+        }
+
+        /**
+         * @return the {@code column->'a'->>'b'} text expression of the path
+         */
+        String textExpression() {
+            StringBuilder expression = new StringBuilder(this.column);
+            int lastIndex = this.keys.size() - 1;
+            for (String path : this.keys.subList(0, lastIndex)) {
+                expression.append("->'").append(escapeJsonKey(path)).append("'");
+            }
+            return expression.append("->>'").append(escapeJsonKey(this.keys.get(lastIndex))).append("'").toString();
+        }
+
+        /**
+         * @return the {@code column->'a'->'b'} jsonb expression of the path
+         */
+        String jsonExpression() {
+            StringBuilder expression = new StringBuilder(this.column);
+            this.keys.forEach(key -> expression.append("->'").append(escapeJsonKey(key)).append("'"));
+            return expression.toString();
         }
-        String lastKey = keys[lastIndex];
-        Map.Entry<String, BiFunction<String, Object, Criteria>> comparator = queryKeywordMapper(lastKey);
-        BiFunction<String, Object, Criteria> func = (col, value) -> Criteria.where(col).is(value);
-        if (comparator != null) {
-            lastKey = lastKey.substring(0, lastKey.length() - comparator.getKey().length());
-            func = comparator.getValue();
+
+        /**
+         * @param literal the JSON literal at the path
+         * @return the JSON document holding the literal at the path, for containment
+         */
+        String document(String literal) {
+            String document = literal;
+            for (int i = this.keys.size() - 1; i >= 0; i--) {
+                document = "{" + quote(this.keys.get(i)) + ":" + document + "}";
+            }
+            return document;
+        }
+
+        /**
+         * @param literals the JSON literals to match
+         * @return the jsonpath predicate matching any of the literals at the path
+         */
+        String jsonPath(List<String> literals) {
+            StringBuilder accessor = new StringBuilder("$");
+            this.keys.forEach(key -> accessor.append('.').append(quote(key)));
+            StringJoiner predicate = new StringJoiner(" || ");
+            literals.forEach(literal -> predicate.add(accessor + " == " + literal));
+            return predicate.toString();
         }
-        columnBuilder.append("->>'").append(escapeJsonKey(lastKey)).append("'");
-        return func.apply(columnBuilder.toString(), entry.getValue());
     }
 
     /**
@@ -264,23 +566,15 @@ public final class QueryJsonHelper {
     }
 
     /**
-     * Retrieves the longest keyword mapping from a predefined map for a given input string.
-     * The mapping is identified by checking if the input string ends with any of the keys
-     * in the SQL_OPERATION_MAPPING map, and then selecting the one with the maximum length.
-     * This is particularly useful for parsing or transforming strings based on known suffix patterns.
+     * Retrieves the longest operator keyword a JSON filter key ends with that starts a camel-case word of
+     * the key, from the precompiled {@link #OPERATORS} matcher, see {@link SuffixMatcher#matchWord}.
      *
      * @param queryKeyword The string for which the longest matching keyword mapping is to be retrieved.
-     * @return An entry containing the matched keyword and its corresponding value from the SQL_OPERATION_MAPPING,
+     * @return An entry containing the matched keyword and its corresponding value from the OPERATION_MAPPER,
      * or null if no match is found.
      */
-    private static Map.Entry<String, BiFunction<String, Object, Criteria>> queryKeywordMapper(String queryKeyword) {
-        return OPERATION_MAPPER.entrySet().stream()
-                .filter(entry -> StringUtils.endsWithIgnoreCase(queryKeyword, entry.getKey()))
-                .max((entry1, entry2) -> {
-                    int entry1Length = entry1.getKey().length();
-                    int entry2Length = entry2.getKey().length();
-                    return Integer.compare(entry1Length, entry2Length);
-                }).orElse(null);
+    private static Map.@Nullable Entry<String, BiFunction<String, Object, Criteria>> queryKeywordMapper(String queryKeyword) {
+        return OPERATORS.matchWord(queryKeyword);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.plate.boot.commons.query;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resolves the longest keyword a key ends with, ignoring case, from a fixed vocabulary.
+ * <p>
+ * The vocabulary is compiled once into a trie of the reversed, case-folded keywords. A key is matched by
+ * walking the trie from its last character backwards, remembering the last keyword completed on the way,
+ * so a lookup takes at most one step per character of the key, whatever the size of the vocabulary, and
+ * allocates nothing: the entries returned are the ones built at compile time.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * SuffixMatcher<String> matcher = SuffixMatcher.compile(Map.of("GT", ">", "GTE", ">=", "Like", "LIKE"));
+ * Map.Entry<String, String> operator = matcher.match("ageGte"); // GTE=>=
+ * Map.Entry<String, String> none = matcher.matchWord("result"); // null, "lt" does not start a word
+ * int length = operator.getKey().length(); // strip the keyword from the key
+ * }</pre>
+ *
+ * @param <T> the type of the values mapped by the keywords
+ */
+public final class SuffixMatcher<T> {
+
+    private static final char[] NO_LABELS = new char[0];
+
+    private final Node<T> root;
+
+    private SuffixMatcher(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles a keyword vocabulary.
+     *
+     * @param <T>      the type of the values mapped by the keywords
+     * @param keywords the keywords and their values; keywords differing only in case must map the same value
+     * @return the compiled matcher
+     * @throws IllegalArgumentException if a keyword is empty
+     */
+    public static <T> SuffixMatcher<T> compile(Map<String, T> keywords) {
+        Builder<T> root = new Builder<>();
+        keywords.forEach((keyword, value) -> {
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            Builder<T> node = root;
+            for (int i = keyword.length() - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(fold(keyword.charAt(i)), _ -> new Builder<>());
+            }
+            node.terminal = new AbstractMap.SimpleImmutableEntry<>(keyword, value);
+        });
+        return new SuffixMatcher<>(root.build());
+    }
+
+    /**
+     * Returns the longest keyword the given key ends with, ignoring case. The keyword may be the whole key.
+     *
+     * @param key the key to match
+     * @return the matching keyword, as declared, and its value, or {@code null} if the key ends with no keyword
+     */
+    public Map.@Nullable Entry<String, T> match(CharSequence key) {
+        Node<T> node = this.root;
+        Map.Entry<String, T> longest = null;
+        for (int i = key.length() - 1; i >= 0 && node != null; i--) {
+            node = node.child(fold(key.charAt(i)));
+            if (node != null && node.terminal != null) {
+                longest = node.terminal;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the longest keyword the given key ends with, ignoring case, that starts a camel-case word of the
+     * key: the keyword must follow at least one character and start at an upper case character of the key, so
+     * that {@code ageGte} ends with {@code GTE} while {@code login}, {@code domain} or {@code result} end with
+     * no keyword.
+     *
+     * @param key the key to match
+     * @return the matching keyword, as declared, and its value, or {@code null} if the key ends with no keyword
+     * starting a word
+     */
+    public Map.@Nullable Entry<String, T> matchWord(CharSequence key) {
+        Node<T> node = this.root;
+        Map.Entry<String, T> longest = null;
+        for (int i = key.length() - 1; i > 0 && node != null; i--) {
+            node = node.child(fold(key.charAt(i)));
+            if (node != null && node.terminal != null && Character.isUpperCase(key.charAt(i))) {
+                longest = node.terminal;
+            }
+        }
+        return longest;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * A trie node, its children sorted by label for binary search.
+     */
+    private record Node<T>(char[] labels, Node<T>[] children, Map.@Nullable Entry<String, T> terminal) {
+
+        @Nullable Node<T> child(char label) {
+            int index = Arrays.binarySearch(this.labels, label);
+            return index < 0 ? null : this.children[index];
+        }
+    }
+
+    private static final class Builder<T> {
+
+        private final TreeMap<Character, Builder<T>> children = new TreeMap<>();
+        private Map.@Nullable Entry<String, T> terminal;
+
+        @SuppressWarnings("unchecked")
+        Node<T> build() {
+            char[] labels = this.children.isEmpty() ? NO_LABELS : new char[this.children.size()];
+            Node<T>[] nodes = new Node[this.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder<T>> child : this.children.entrySet()) {
+                labels[i] = child.getKey();
+                nodes[i++] = child.getValue().build();
+            }
+            return new Node<>(labels, nodes, this.terminal);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.plate.boot.commons.routing;
+
+import com.plate.boot.config.DatabaseProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A {@link ConnectionFactory} routing read-only operations to read replicas and everything else to the primary.
+ * <p>
+ * An operation is read-only when its Reactor context carries {@link #READ_ONLY_KEY} set to {@code true}: the
+ * {@link ReplicaRoutingTransactionManager} sets it for {@code @Transactional(readOnly = true)} transactions, and
+ * {@link #readOnly()} sets it for the reads hinted on {@link com.plate.boot.commons.utils.DatabaseUtils}.
+ * Read-only operations are spread round-robin over the healthy replicas.
+ * <p>
+ * Every replica is checked at a fixed interval: a replica is healthy while the check answers within its timeout,
+ * the node is still a standby in recovery, its WAL receiver is streaming from the primary, and it reports a
+ * replication lag no greater than the configured maximum. The lag is zero once the replica has replayed all it
+ * received, so that an idle primary does not make it look stale; this only holds while the receiver streams,
+ * since a disconnected standby also replays all it received while falling behind. A node promoted to primary is
+ * no longer a replica and stops serving reads. The status of the WAL receiver is only visible to roles with the
+ * {@code pg_read_all_stats} privilege (e.g. members of {@code pg_monitor}); without it a replica is never
+ * healthy. When no replica is healthy, reads fall back to the primary, or fail if the fallback is disabled.
+ * <p>
+ * Each pool publishes the {@code plate.r2dbc.routing.connections} counter of the connections it served, tagged
+ * by {@code pool} and {@code route} ({@code write}, {@code read} or {@code fallback}). Each replica publishes the
+ * {@code plate.r2dbc.replica.lag} and {@code plate.r2dbc.replica.healthy} gauges, and the
+ * {@code plate.r2dbc.pool.acquired} and {@code plate.r2dbc.pool.idle} gauges of its pool.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * Flux<Menu> menus = DatabaseUtils.query(query, Menu.class)
+ *         .contextWrite(ReplicaRoutingConnectionFactory.readOnly());
+ * }</pre>
+ */
+@Log4j2
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements Disposable {
+
+    /**
+     * The Reactor context key marking an operation as read-only.
+     */
+    public static final String READ_ONLY_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    /**
+     * The Reactor context key of an {@link AtomicBoolean} set to {@code true} when a replica serves a connection
+     * of the operation, see {@link #trackReplicaReads(AtomicBoolean)}.
+     */
+    public static final String REPLICA_READ_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".REPLICA_READ";
+
+    /**
+     * The lookup key, and metrics tag, of the primary.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Whether the node is a standby, whether its WAL receiver is streaming, and its replay lag in seconds, zero
+     * when it replayed all it received and null when it never replayed a transaction.
+     */
+    static final String CHECK_SQL = "select pg_is_in_recovery(),"
+            + " coalesce((select status = 'streaming' from pg_stat_wal_receiver), false),"
+            + " case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end::float8";
+
+    private final List<Replica> replicas;
+    private final DatabaseProperties.Replicas properties;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryWrites;
+    private final Counter primaryFallbacks;
+    private final Disposable healthChecks;
+    private final String checkSql;
+
+    /**
+     * Creates a routing connection factory and starts the health checks of its replicas.
+     *
+     * @param primary    the connection factory of the primary, also used when no routing applies
+     * @param replicas   the connection factories of the replicas, by name
+     * @param properties the routing settings
+     */
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                           DatabaseProperties.Replicas properties) {
+        this(primary, replicas, properties, CHECK_SQL);
+    }
+
+    /**
+     * Creates a routing connection factory checking its replicas with the given statement, which answers a row
+     * like {@link #CHECK_SQL}.
+     *
+     * @param primary    the connection factory of the primary, also used when no routing applies
+     * @param replicas   the connection factories of the replicas, by name
+     * @param properties the routing settings
+     * @param checkSql   the health check statement
+     */
+    ReplicaRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                    DatabaseProperties.Replicas properties, String checkSql) {
+        this.properties = properties;
+        this.checkSql = checkSql;
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        this.setTargetConnectionFactories(targets);
+        this.setDefaultTargetConnectionFactory(primary);
+        this.setLenientFallback(false);
+        this.afterPropertiesSet();
+        this.primaryWrites = Metrics.counter("plate.r2dbc.routing.connections", "pool", PRIMARY, "route", "write");
+        this.primaryFallbacks = Metrics.counter("plate.r2dbc.routing.connections", "pool", PRIMARY, "route", "fallback");
+        this.healthChecks = Flux.interval(Duration.ZERO, properties.getCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(_ -> Flux.fromIterable(this.replicas).flatMap(Replica::check))
+                .subscribe();
+    }
+
+    /**
+     * Creates a routing connection factory with a pool for each configured replica node.
+     *
+     * @param primary    the connection factory of the primary
+     * @param properties the routing settings and replica nodes
+     * @return the routing connection factory
+     */
+    public static ReplicaRoutingConnectionFactory of(ConnectionFactory primary, DatabaseProperties.Replicas properties) {
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        for (DatabaseProperties.Node node : properties.getNodes()) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(node.getUrl()).mutate();
+            if (StringUtils.hasText(node.getUsername())) {
+                options.option(ConnectionFactoryOptions.USER, node.getUsername());
+            }
+            if (StringUtils.hasText(node.getPassword())) {
+                options.option(ConnectionFactoryOptions.PASSWORD, node.getPassword());
+            }
+            ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+                    .builder(ConnectionFactories.get(options.build()))
+                    .name(node.getName()).maxSize(properties.getPoolSize())
+                    .maxIdleTime(Duration.ofMinutes(10)).validationQuery("SELECT 1").build();
+            replicas.put(node.getName(), new ConnectionPool(configuration));
+        }
+        return new ReplicaRoutingConnectionFactory(primary, replicas, properties);
+    }
+
+    /**
+     * Marks the operations of a publisher as read-only, routing them to a replica.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * Mono<Long> count = DatabaseUtils.count(sql, params).contextWrite(ReplicaRoutingConnectionFactory.readOnly());
+     * }</pre>
+     *
+     * @return the context modification to apply with {@code contextWrite}
+     */
+    public static Function<Context, Context> readOnly() {
+        return context -> context.put(READ_ONLY_KEY, true);
+    }
+
+    /**
+     * Records whether a replica served the operations of a publisher. Results read from a replica may miss the
+     * writes of the last {@code max-lag}, so a caller keeping them, such as a cache, can bound how long it does.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * AtomicBoolean replicaRead = new AtomicBoolean();
+     * Flux<Menu> menus = DatabaseUtils.query(query, Menu.class, true)
+     *         .contextWrite(ReplicaRoutingConnectionFactory.trackReplicaReads(replicaRead));
+     * }</pre>
+     *
+     * @param replicaRead the flag set to {@code true} when a replica serves a connection
+     * @return the context modification to apply with {@code contextWrite}
+     */
+    public static Function<Context, Context> trackReplicaReads(AtomicBoolean replicaRead) {
+        return context -> context.put(REPLICA_READ_KEY, replicaRead);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (!context.getOrDefault(READ_ONLY_KEY, false)) {
+                this.primaryWrites.increment();
+                return Mono.just(PRIMARY);
+            }
+            List<Replica> healthy = this.replicas.stream().filter(replica -> replica.healthy).toList();
+            if (!healthy.isEmpty()) {
+                Replica replica = healthy.get(Math.floorMod(this.next.getAndIncrement(), healthy.size()));
+                replica.reads.increment();
+                context.<AtomicBoolean>getOrEmpty(REPLICA_READ_KEY).ifPresent(replicaRead -> replicaRead.set(true));
+                return Mono.just(replica.name);
+            }
+            if (this.properties.isFallbackToPrimary()) {
+                this.primaryFallbacks.increment();
+                return Mono.just(PRIMARY);
+            }
+            return Mono.error(new DataAccessResourceFailureException("No healthy read replica available"));
+        });
+    }
+
+    /**
+     * Tells whether a replica may serve reads.
+     *
+     * @param standby   whether the node is in recovery
+     * @param streaming whether its WAL receiver is streaming from the primary
+     * @param lag       its replay lag in seconds, or {@code null} if unknown
+     * @param maxLag    the largest lag at which a replica still serves reads
+     * @return {@code true} if the replica is healthy
+     */
+    static boolean isHealthy(boolean standby, boolean streaming, Double lag, Duration maxLag) {
+        return standby && streaming && lag != null && lag <= maxLag.toMillis() / 1000.0;
+    }
+
+    /**
+     * @return the names of the replicas currently serving reads
+     */
+    public List<String> healthyReplicas() {
+        return this.replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.name).toList();
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools. The primary is left to its owner.
+     */
+    @Override
+    public void dispose() {
+        this.healthChecks.dispose();
+        for (Replica replica : this.replicas) {
+            if (replica.factory instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.healthChecks.isDisposed();
+    }
+
+    /**
+     * A replica with its health state and metrics.
+     */
+    private final class Replica {
+
+        private final String name;
+        private final ConnectionFactory factory;
+        private final Counter reads;
+        private volatile boolean healthy;
+        private volatile double lag;
+
+        private Replica(String name, ConnectionFactory factory) {
+            this.name = name;
+            this.factory = factory;
+            Tags tags = Tags.of("pool", name);
+            this.reads = Metrics.counter("plate.r2dbc.routing.connections", tags.and("route", "read"));
+            Metrics.gauge("plate.r2dbc.replica.lag", tags, this, replica -> replica.lag);
+            Metrics.gauge("plate.r2dbc.replica.healthy", tags, this, replica -> replica.healthy ? 1 : 0);
+            if (factory instanceof ConnectionPool pool) {
+                pool.getMetrics().ifPresent(metrics -> {
+                    Metrics.gauge("plate.r2dbc.pool.acquired", tags, metrics, m -> m.acquiredSize());
+                    Metrics.gauge("plate.r2dbc.pool.idle", tags, metrics, m -> m.idleSize());
+                });
+            }
+        }
+
+        private Mono<Boolean> check() {
+            Duration maxLag = ReplicaRoutingConnectionFactory.this.properties.getMaxLag();
+            String checkSql = ReplicaRoutingConnectionFactory.this.checkSql;
+            return Mono.usingWhen(this.factory.create(),
+                            connection -> Flux.from(connection.createStatement(checkSql).execute())
+                                    .flatMap(result -> result.map(row -> {
+                                        boolean standby = Boolean.TRUE.equals(row.get(0, Boolean.class));
+                                        boolean streaming = Boolean.TRUE.equals(row.get(1, Boolean.class));
+                                        Double lag = row.get(2, Double.class);
+                                        if (lag != null) {
+                                            this.lag = lag;
+                                        }
+                                        if (!standby) {
+                                            log.debug("Read replica [{}] is not in recovery.", this.name);
+                                        } else if (!streaming) {
+                                            log.debug("Read replica [{}] is not streaming.", this.name);
+                                        }
+                                        return isHealthy(standby, streaming, lag, maxLag);
+                                    })).next(),
+                            Connection::close)
+                    .timeout(ReplicaRoutingConnectionFactory.this.properties.getCheckTimeout())
+                    .doOnNext(healthy -> {
+                        if (healthy != this.healthy) {
+                            log.info("Read replica [{}] is now {}, lag {}s.", this.name,
+                                    healthy ? "serving reads" : "out of service", this.lag);
+                        }
+                        this.healthy = healthy;
+                    })
+                    .onErrorResume(ex -> {
+                        if (this.healthy) {
+                            log.warn("Read replica [{}] health check failed, routing reads elsewhere. Cause: {}",
+                                    this.name, ex.getMessage());
+                        }
+                        this.healthy = false;
+                        return Mono.empty();
+                    });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.plate.boot.commons.routing;
+
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * An {@link R2dbcTransactionManager} over a {@link ReplicaRoutingConnectionFactory} which opens the connection of
+ * a {@code @Transactional(readOnly = true)} transaction on a read replica, and that of any other transaction on
+ * the primary.
+ * <p>
+ * The connection is opened when the transaction begins, so the read-only flag is passed to the routing factory
+ * through the Reactor context of that call; the statements of the transaction then all run on that connection.
+ */
+public class ReplicaRoutingTransactionManager extends R2dbcTransactionManager {
+
+    /**
+     * Creates a transaction manager over a routing connection factory.
+     *
+     * @param connectionFactory the routing connection factory
+     */
+    public ReplicaRoutingTransactionManager(ReplicaRoutingConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                 TransactionDefinition definition) {
+        return super.doBegin(synchronizationManager, transaction, definition)
+                .contextWrite(context -> context.put(ReplicaRoutingConnectionFactory.READ_ONLY_KEY,
+                        definition.isReadOnly()));
+    }
+}
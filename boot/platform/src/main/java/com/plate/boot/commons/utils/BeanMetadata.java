@@ -0,0 +1,242 @@
+package com.plate.boot.commons.utils;
+
+import com.google.common.base.CaseFormat;
+import com.plate.boot.commons.base.BaseEntity;
+import com.plate.boot.security.core.UserAuditor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Per-class property metadata used by the {@link BeanUtils} hot paths.
+ * <p>
+ * The metadata of a class is built once, on first use, and kept for the lifetime of the class. It holds
+ * the bean properties of the class with {@link MethodHandle} accessors, their precomputed snake_case column
+ * names and the subset of properties typed {@link UserAuditor}, so that converting a bean to a map, copying
+ * properties or resolving auditors no longer introspects the class or converts names on every call.
+ * <p>
+ * The {@code class} property and the {@code new} flag of {@link org.springframework.data.domain.Persistable}
+ * are not bean properties here.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * BeanMetadata metadata = BeanMetadata.of(User.class);
+ * for (BeanMetadata.Property property : metadata.properties()) {
+ *     Object value = property.get(user);
+ * }
+ * }</pre>
+ */
+public final class BeanMetadata {
+
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("class", "new");
+
+    private static final ClassValue<BeanMetadata> REGISTRY = new ClassValue<>() {
+        @Override
+        protected BeanMetadata computeValue(Class<?> type) {
+            return new BeanMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<Property> properties;
+    private final Map<String, Property> propertiesByName;
+    private final List<Property> auditorProperties;
+
+    private BeanMetadata(Class<?> type) {
+        this.type = type;
+        List<Property> properties = new ArrayList<>();
+        for (PropertyDescriptor descriptor : org.springframework.beans.BeanUtils.getPropertyDescriptors(type)) {
+            if (!IGNORED_PROPERTIES.contains(descriptor.getName())) {
+                properties.add(Property.of(descriptor));
+            }
+        }
+        properties.sort(Comparator.comparing(Property::name));
+        this.properties = List.copyOf(properties);
+        Map<String, Property> propertiesByName = new HashMap<>(properties.size());
+        properties.forEach(property -> propertiesByName.put(property.name(), property));
+        this.propertiesByName = Map.copyOf(propertiesByName);
+        this.auditorProperties = properties.stream()
+                .filter(property -> property.type() == UserAuditor.class).toList();
+    }
+
+    /**
+     * Returns the metadata of the given class, building it on first use.
+     *
+     * @param type the bean class
+     * @return the metadata of the class
+     */
+    public static BeanMetadata of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    /**
+     * @return the bean class described by this metadata
+     */
+    public Class<?> type() {
+        return this.type;
+    }
+
+    /**
+     * @return the bean properties of the class, sorted by name
+     */
+    public List<Property> properties() {
+        return this.properties;
+    }
+
+    /**
+     * Looks up a property by its Java name.
+     *
+     * @param name the property name
+     * @return the property, or {@code null} if the class has no such property
+     */
+    public @Nullable Property property(String name) {
+        return this.propertiesByName.get(name);
+    }
+
+    /**
+     * @return the properties typed {@link UserAuditor}
+     */
+    public List<Property> auditorProperties() {
+        return this.auditorProperties;
+    }
+
+    /**
+     * A bean property with its precomputed column name and accessors.
+     *
+     * @param name   the Java property name
+     * @param column the snake_case column name of the property
+     * @param type   the property type
+     * @param getter the getter, adapted to {@code (Object)Object}, or {@code null} if the property is not readable
+     * @param setter the setter, adapted to {@code (Object,Object)void}, or {@code null} if the property is not writable
+     */
+    public record Property(String name, String column, Class<?> type,
+                           @Nullable MethodHandle getter, @Nullable MethodHandle setter) {
+
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        static Property of(PropertyDescriptor descriptor) {
+            String name = descriptor.getName();
+            return new Property(name, CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, name),
+                    descriptor.getPropertyType() == null ? Object.class : descriptor.getPropertyType(),
+                    handle(descriptor.getReadMethod(), GETTER_TYPE), handle(descriptor.getWriteMethod(), SETTER_TYPE));
+        }
+
+        private static @Nullable MethodHandle handle(@Nullable Method method, MethodType methodType) {
+            if (method == null) {
+                return null;
+            }
+            try {
+                ReflectionUtils.makeAccessible(method);
+                return MethodHandles.lookup().unreflect(method).asType(methodType);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * @return whether the property has an accessible getter
+         */
+        public boolean readable() {
+            return this.getter != null;
+        }
+
+        /**
+         * @return whether the property has an accessible setter
+         */
+        public boolean writable() {
+            return this.setter != null;
+        }
+
+        /**
+         * Reads the property from the given bean.
+         *
+         * @param bean the bean to read
+         * @return the property value
+         * @throws IllegalStateException if the property is not readable
+         */
+        public @Nullable Object get(Object bean) {
+            if (this.getter == null) {
+                throw new IllegalStateException("Property " + this.name + " is not readable");
+            }
+            try {
+                return (Object) this.getter.invokeExact(bean);
+            } catch (Throwable ex) {
+                ReflectionUtils.rethrowRuntimeException(ex);
+                return null;
+            }
+        }
+
+        /**
+         * Writes the property of the given bean.
+         *
+         * @param bean  the bean to write
+         * @param value the new property value
+         * @throws IllegalStateException if the property is not writable
+         */
+        public void set(Object bean, @Nullable Object value) {
+            if (this.setter == null) {
+                throw new IllegalStateException("Property " + this.name + " is not writable");
+            }
+            try {
+                this.setter.invokeExact(bean, value);
+            } catch (Throwable ex) {
+                ReflectionUtils.rethrowRuntimeException(ex);
+            }
+        }
+
+        /**
+         * Tells whether a value of this property can be written to the given target property.
+         *
+         * @param target the target property
+         * @return whether this property is readable, the target writable and the types assignable
+         */
+        public boolean isCopyableTo(Property target) {
+            return this.readable() && target.writable() && ClassUtils.isAssignable(target.type(), this.type);
+        }
+    }
+
+    /**
+     * Registers the reflection hints the registry needs in a native image: the getters and setters of the
+     * entities, requests and responses of the application, which are handed to {@link BeanUtils} at runtime.
+     */
+    static class Hints implements RuntimeHintsRegistrar {
+
+        private static final String BASE_PACKAGE = "com.plate.boot";
+
+        @Override
+        public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+            var provider = new ClassPathScanningCandidateComponentProvider(false) {
+                @Override
+                protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                    return beanDefinition.getMetadata().isIndependent();
+                }
+            };
+            provider.addIncludeFilter(new AssignableTypeFilter(BaseEntity.class));
+            provider.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*(Req|Res)$")));
+            List<Class<?>> types = new ArrayList<>();
+            types.add(UserAuditor.class);
+            for (var candidate : provider.findCandidateComponents(BASE_PACKAGE)) {
+                types.add(ClassUtils.resolveClassName(Objects.requireNonNull(candidate.getBeanClassName()),
+                        classLoader));
+            }
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    types.toArray(Class<?>[]::new));
+        }
+    }
+}
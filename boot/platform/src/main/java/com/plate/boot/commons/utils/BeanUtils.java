@@ -1,17 +1,16 @@
 package com.plate.boot.commons.utils;
 
-import com.google.common.base.CaseFormat;
 import com.google.common.collect.Maps;
+import com.plate.boot.commons.cache.CacheKeys;
 import com.plate.boot.commons.exception.JsonException;
 import com.plate.boot.commons.exception.JsonPointerException;
 import com.plate.boot.security.core.UserAuditor;
 import com.plate.boot.security.core.UserAuditorAware;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,11 +18,7 @@ import tools.jackson.core.JacksonException;
 import tools.jackson.core.JsonPointer;
 import tools.jackson.databind.JsonNode;
 
-import java.beans.PropertyDescriptor;
-import java.util.Map;
-import java.util.Optional;
-import java.util.StringJoiner;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * Utility methods for bean/map conversion, JSON-path extraction, and serialization of
@@ -35,6 +30,7 @@ import java.util.stream.Collectors;
  */
 @Log4j2
 @Component
+@ImportRuntimeHints(BeanMetadata.Hints.class)
 public final class BeanUtils implements InitializingBean {
 
     /**
@@ -107,29 +103,16 @@ public final class BeanUtils implements InitializingBean {
     }
 
     /**
-     * Generates a cache key based on the hash codes of the provided objects.
-     * This method is useful for creating unique keys for caching purposes when the key is derived from multiple parameters.
+     * Generates a deterministic, compact cache key for the provided objects.
+     * Logically equal requests produce the same key whatever the iteration order of their maps and sets,
+     * and the key keeps a fixed width whatever the size of the request.
      *
-     * @param objects A variable number of objects whose hash codes will be combined to form the cache key.
-     * @return A string representation of the combined hash code, serving as a unique cache key.
+     * @param objects The request beans, pageables and values the cached result depends on.
+     * @return A readable entity (and tenant) prefix followed by a 128-bit digest of the objects.
+     * @see CacheKeys#of(Object...) for the key format and encoding rules
      */
     public static String cacheKey(Object... objects) {
-        StringJoiner keyJoiner = new StringJoiner("&");
-        for (var obj : objects) {
-            if (obj instanceof Pageable pageable) {
-                keyJoiner.add(pageable.getPageNumber() + "_" + pageable.getPageSize());
-                for (var sort : pageable.getSort()) {
-                    keyJoiner.add(sort.getProperty() + "_" + sort.getDirection().name());
-                }
-            } else {
-                var objMap = BeanUtils.beanToMap(obj, true);
-                var setStr = objMap.entrySet().stream()
-                        .map(entry -> entry.getKey() + "=" + entry.getValue())
-                        .collect(Collectors.toSet());
-                setStr.forEach(keyJoiner::add);
-            }
-        }
-        return keyJoiner.toString();
+        return CacheKeys.of(objects);
     }
 
     /**
@@ -168,16 +151,17 @@ public final class BeanUtils implements InitializingBean {
      *                        If false, all properties including those with null values are copied.
      */
     public static void copyProperties(Object source, Object target, boolean ignoreNullValue) {
-        Map<String, Object> targetMap = BeanUtils.beanToMap(source);
-        String[] nullKeys = new String[0];
-        if (ignoreNullValue) {
-            nullKeys = Maps.filterEntries(targetMap, entry -> ObjectUtils.isEmpty(entry.getValue()))
-                    .keySet().toArray(String[]::new);
-        }
-        if (nullKeys.length > 0) {
-            org.springframework.beans.BeanUtils.copyProperties(source, target, nullKeys);
-        } else {
-            org.springframework.beans.BeanUtils.copyProperties(source, target);
+        BeanMetadata targetMetadata = BeanMetadata.of(target.getClass());
+        for (BeanMetadata.Property property : BeanMetadata.of(source.getClass()).properties()) {
+            BeanMetadata.Property targetProperty = targetMetadata.property(property.name());
+            if (targetProperty == null || !property.isCopyableTo(targetProperty)) {
+                continue;
+            }
+            Object value = property.get(source);
+            if (ignoreNullValue && ObjectUtils.isEmpty(value)) {
+                continue;
+            }
+            targetProperty.set(target, value);
         }
     }
 
@@ -221,25 +205,14 @@ public final class BeanUtils implements InitializingBean {
         if (ObjectUtils.isEmpty(bean)) {
             return null;
         }
-        Class<?> actualEditable = bean.getClass();
-        PropertyDescriptor[] propertyDescriptors = org.springframework.beans.BeanUtils
-                .getPropertyDescriptors(actualEditable);
         Map<String, Object> beanMap = Maps.newHashMap();
-        for (PropertyDescriptor targetPd : propertyDescriptors) {
-            String key = targetPd.getName();
-            if (key.equals("class") || key.equals("new")) {
-                continue;
-            }
-            if (isToUnderlineCase) {
-                key = CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, key);
-            }
-            var readMethod = targetPd.getReadMethod();
-            if (Optional.ofNullable(readMethod).isEmpty()) {
+        for (BeanMetadata.Property property : BeanMetadata.of(bean.getClass()).properties()) {
+            if (!property.readable()) {
                 continue;
             }
+            String key = isToUnderlineCase ? property.column() : property.name();
             try {
-                ReflectionUtils.makeAccessible(readMethod);
-                Object value = ReflectionUtils.invokeMethod(readMethod, bean);
+                Object value = property.get(bean);
                 if (ignoreNullValue && ObjectUtils.isEmpty(value)) {
                     continue;
                 }
@@ -267,16 +240,86 @@ public final class BeanUtils implements InitializingBean {
             return Mono.empty();
         }
 
-        PropertyDescriptor[] propertyDescriptors = org.springframework.beans.BeanUtils
-                .getPropertyDescriptors(object.getClass());
-        var propertyFlux = Flux.fromArray(propertyDescriptors)
-                .filter(propertyDescriptor ->
-                        propertyDescriptor.getPropertyType() == UserAuditor.class)
-                .flatMap(propertyDescriptor ->
-                        serializeUserAuditorProperty(object, propertyDescriptor), 2);
+        var propertyFlux = Flux.fromIterable(BeanMetadata.of(object.getClass()).auditorProperties())
+                .flatMap(property -> serializeUserAuditorProperty(object, property), 2);
         return propertyFlux.then(Mono.just(object));
     }
 
+    /**
+     * Serializes the {@link UserAuditor} properties of every object emitted by the source, resolving them
+     * in windows instead of one lookup per row.
+     * <p>
+     * The source is buffered into windows of {@code windowSize} objects. For each window the distinct auditor
+     * codes not resolved yet are loaded with a single {@link UserAuditorAware#loadByCodes(Collection)} call,
+     * then the auditors are written back and the window is emitted in its original order. Resolved auditors are
+     * memoized for the lifetime of the subscription, so the same user is looked up at most once per query.
+     * A failed lookup is logged and the window is emitted with its auditors left unresolved.
+     *
+     * @param <T>        The type of the objects emitted by the source.
+     * @param source     The objects whose {@link UserAuditor} properties are to be serialized.
+     * @param windowSize The number of objects whose auditors are resolved together.
+     * @return A {@link Flux} emitting the source objects, in order, after their auditors have been resolved.
+     */
+    public static <T> Flux<T> serializeUserAuditors(Flux<T> source, int windowSize) {
+        return Flux.defer(() -> {
+            Map<UUID, Optional<UserAuditor>> memo = new HashMap<>();
+            return source.buffer(Math.max(windowSize, 1))
+                    .concatMap(window -> resolveUserAuditors(window, memo).thenMany(Flux.fromIterable(window)));
+        });
+    }
+
+    /**
+     * Resolves the {@link UserAuditor} properties of a window of objects with at most one lookup.
+     *
+     * @param window The objects to process.
+     * @param memo   The auditors resolved so far, keyed by code; an empty value marks an unknown code.
+     * @return A {@link Mono} completing once every resolvable auditor of the window has been written.
+     */
+    private static Mono<Void> resolveUserAuditors(List<?> window, Map<UUID, Optional<UserAuditor>> memo) {
+        Set<UUID> codes = new HashSet<>();
+        for (Object object : window) {
+            for (BeanMetadata.Property property : auditorProperties(object)) {
+                UserAuditor userAuditor = (UserAuditor) property.get(object);
+                if (userAuditor != null && userAuditor.code() != null && !memo.containsKey(userAuditor.code())) {
+                    codes.add(userAuditor.code());
+                }
+            }
+        }
+        Mono<Void> lookup = codes.isEmpty() ? Mono.empty() : USER_AUDITOR_AWARE.loadByCodes(codes)
+                .doOnNext(userAuditor -> memo.put(userAuditor.code(), Optional.of(userAuditor)))
+                .doOnComplete(() -> codes.forEach(code -> memo.putIfAbsent(code, Optional.empty())))
+                .onErrorResume(throwable -> {
+                    log.error("Error serializing user auditors for codes: {}", codes, throwable);
+                    return Flux.empty();
+                }).then();
+        return lookup.then(Mono.fromRunnable(() -> {
+            for (Object object : window) {
+                for (BeanMetadata.Property property : auditorProperties(object)) {
+                    UserAuditor userAuditor = (UserAuditor) property.get(object);
+                    if (userAuditor == null || userAuditor.code() == null) {
+                        continue;
+                    }
+                    memo.getOrDefault(userAuditor.code(), Optional.empty()).ifPresent(resolved ->
+                            property.set(object, resolved));
+                }
+            }
+        }));
+    }
+
+    /**
+     * Returns the readable and writable {@link UserAuditor} properties of the given object's class.
+     *
+     * @param object The object to inspect, may be {@code null}.
+     * @return The auditor properties of the object's class.
+     */
+    private static List<BeanMetadata.Property> auditorProperties(Object object) {
+        if (object == null) {
+            return List.of();
+        }
+        return BeanMetadata.of(object.getClass()).auditorProperties().stream()
+                .filter(property -> property.readable() && property.writable()).toList();
+    }
+
     /**
      * Handles the property descriptor for an object, particularly focusing on serializing
      * a {@link UserAuditor} within the given object by fetching additional user details
@@ -290,41 +333,31 @@ public final class BeanUtils implements InitializingBean {
      * - If successful in serializing the user auditor, emits a success message and completes.
      * - Emits an error signal if there are issues invoking methods on the property descriptor.
      */
-    private static <T> Mono<String> serializeUserAuditorProperty(T object, PropertyDescriptor propertyDescriptor) {
+    private static <T> Mono<String> serializeUserAuditorProperty(T object, BeanMetadata.Property property) {
         try {
-            var readMethod = propertyDescriptor.getReadMethod();
-            var writeMethod = propertyDescriptor.getWriteMethod();
-
-            if (readMethod == null || writeMethod == null) {
-                String msg = "Property " + propertyDescriptor.getName() + " is not readable or writable";
+            if (!property.readable() || !property.writable()) {
+                String msg = "Property " + property.name() + " is not readable or writable";
                 log.warn(msg);
                 return Mono.just(msg);
             }
 
-            // Make methods accessible before invoking
-            ReflectionUtils.makeAccessible(readMethod);
-            ReflectionUtils.makeAccessible(writeMethod);
-
-            UserAuditor userAuditor = (UserAuditor) ReflectionUtils.invokeMethod(readMethod, object);
+            UserAuditor userAuditor = (UserAuditor) property.get(object);
             if (ObjectUtils.isEmpty(userAuditor)) {
-                String msg = "User auditor is empty, No serializable." + propertyDescriptor.getName();
+                String msg = "User auditor is empty, No serializable." + property.name();
                 log.warn(msg);
                 return Mono.just(msg);
             }
 
             return USER_AUDITOR_AWARE.loadByCode(userAuditor.code()).flatMap(user -> {
-                ReflectionUtils.invokeMethod(writeMethod, object, user);
-                return Mono.just("User auditor serializable success. "
-                        + propertyDescriptor.getName());
+                property.set(object, user);
+                return Mono.just("User auditor serializable success. " + property.name());
             }).onErrorResume(throwable -> {
-                log.error("Error serializing user auditor for property: {}",
-                        propertyDescriptor.getName(), throwable);
-                return Mono.just("User auditor serialization failed for property: "
-                        + propertyDescriptor.getName());
+                log.error("Error serializing user auditor for property: {}", property.name(), throwable);
+                return Mono.just("User auditor serialization failed for property: " + property.name());
             });
         } catch (Exception e) {
-            log.error("Error accessing property: {}", propertyDescriptor.getName(), e);
-            return Mono.just("Error accessing property: " + propertyDescriptor.getName());
+            log.error("Error accessing property: {}", property.name(), e);
+            return Mono.just("Error accessing property: " + property.name());
         }
     }
 
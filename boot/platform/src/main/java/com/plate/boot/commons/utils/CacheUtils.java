@@ -0,0 +1,150 @@
+package com.plate.boot.commons.utils;
+
+import com.plate.boot.commons.cache.NearCache;
+import com.plate.boot.config.CachesProperties;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache utility class wiring the service-level caches of {@link com.plate.boot.commons.base.AbstractCache}
+ * into the tiers described by {@link CachesProperties}.
+ *
+ * <p>When {@code spring.cache.properties.near.enabled} is set, every shared cache handed to
+ * {@link #nearCache(Cache)} is wrapped in a {@link NearCache}. Local changes are broadcast on the
+ * configured Redis channel, and invalidations published by other nodes are applied to the local tier
+ * of the matching cache.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * Cache shared = ContextUtils.CACHE_MANAGER.getCache("users.cache");
+ * Cache cache = CacheUtils.nearCache(shared);
+ * }</pre>
+ *
+ * @see NearCache for the two-tier cache implementation
+ * @see CachesProperties for the configuration
+ */
+@Log4j2
+@Component
+public class CacheUtils implements InitializingBean, DisposableBean {
+
+    /**
+     * Cache configuration properties shared by all service caches.
+     * Populated from the injected {@link CachesProperties} during {@link #afterPropertiesSet()}.
+     */
+    public static CachesProperties CACHES_PROPERTIES;
+
+    /**
+     * Identifies this node in invalidation messages so that its own broadcasts are ignored.
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private static final Map<String, NearCache> NEAR_CACHES = new ConcurrentHashMap<>();
+
+    private static ReactiveRedisTemplate<String, Object> REDIS_TEMPLATE;
+
+    private final CachesProperties properties;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private Disposable subscription;
+
+    public CacheUtils(CachesProperties properties, ReactiveRedisTemplate<String, Object> redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Places a near cache tier in front of the given cache when enabled.
+     * Local caches ({@link ConcurrentMapCache}) and caches that are already near caches are returned unchanged,
+     * and one near cache instance is kept per cache name.
+     *
+     * @param cache the shared cache
+     * @return the near cache wrapping {@code cache}, or {@code cache} itself when the tier is disabled
+     */
+    public static Cache nearCache(Cache cache) {
+        if (CACHES_PROPERTIES == null || !CACHES_PROPERTIES.getNear().isEnabled()
+                || cache instanceof ConcurrentMapCache || cache instanceof NearCache) {
+            return cache;
+        }
+        CachesProperties.Near near = CACHES_PROPERTIES.getNear();
+        return NEAR_CACHES.computeIfAbsent(cache.getName(), name -> new NearCache(cache,
+                near.getMaximumWeight(), near.timeToLive(name), CacheUtils::publishInvalidation));
+    }
+
+    /**
+     * Broadcasts a local change so that the other nodes drop their copies.
+     *
+     * @param cacheName the cache name
+     * @param key       the changed key, or {@code null} when the whole cache was cleared
+     */
+    static void publishInvalidation(String cacheName, @Nullable String key) {
+        if (REDIS_TEMPLATE == null) {
+            return;
+        }
+        Map<String, Object> message = new HashMap<>(3);
+        message.put("origin", NODE_ID);
+        message.put("cache", cacheName);
+        message.put("key", key);
+        REDIS_TEMPLATE.convertAndSend(CACHES_PROPERTIES.getNear().getChannel(), message)
+                .subscribe(null, ex -> log.error("Near cache invalidation publish failed, cache: {}, key: {}",
+                        cacheName, key, ex));
+    }
+
+    private static void onInvalidation(Object message) {
+        if (!(message instanceof Map<?, ?> payload) || NODE_ID.equals(payload.get("origin"))) {
+            return;
+        }
+        NearCache cache = NEAR_CACHES.get(String.valueOf(payload.get("cache")));
+        if (cache != null) {
+            Object key = payload.get("key");
+            cache.invalidateLocal(key == null ? null : key.toString());
+        }
+    }
+
+    private static void invalidateAllLocal() {
+        NEAR_CACHES.values().forEach(cache -> cache.invalidateLocal(null));
+    }
+
+    /**
+     * Initializes the static cache settings and, when the near cache tier is enabled,
+     * subscribes to the invalidation channel. A lost subscription is retried with back-off and
+     * every local tier is dropped when it errors, since invalidations may have been missed meanwhile.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        log.info("Initializing utils [CacheUtils]...");
+        CACHES_PROPERTIES = this.properties;
+        REDIS_TEMPLATE = this.redisTemplate;
+        if (!this.properties.getNear().isEnabled()) {
+            return;
+        }
+        this.subscription = this.redisTemplate.listenToChannel(this.properties.getNear().getChannel())
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnError(ex -> {
+                    log.warn("Near cache invalidation channel lost, dropping local tiers. {}", ex.getMessage());
+                    invalidateAllLocal();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(CacheUtils::onInvalidation);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.subscription != null) {
+            this.subscription.dispose();
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package com.plate.boot.commons.utils;
 
+import com.google.common.base.CaseFormat;
 import com.plate.boot.commons.ProgressEvent;
 import com.plate.boot.commons.exception.RestServerException;
+import com.plate.boot.commons.query.PageStrategy;
+import com.plate.boot.commons.query.QueryFragment;
+import com.plate.boot.commons.routing.ReplicaRoutingConnectionFactory;
+import com.plate.boot.config.DatabaseProperties;
 import com.plate.boot.config.HttpCodecsProperties;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Database utility class providing reactive database operations, caching functionality,
  * and memory management capabilities for the application.
  *
  * <p>This class offers a set of static methods for executing parameterized SQL queries,
- * counting records with caching support, and managing memory constraints
+ * counting records, streaming large results, and managing memory constraints
  * to prevent SQL injection vulnerabilities and memory overflow issues.
  *
  * <p>Example usage for reactive query execution:
@@ -33,7 +50,7 @@ import java.util.function.Function;
  * Query query = Query.query(Criteria.where("status").is("active"));
  * Flux<User> users = DatabaseUtils.query(query, User.class);
  * }</pre>
- * This generates parameterized SQL query with caching
+ * This generates parameterized SQL query
  *
  * <p>Example usage for batch processing:
  * <pre>{@code
@@ -44,6 +61,12 @@ import java.util.function.Function;
  * }</pre>
  * This processes users in batch with progress tracking
  *
+ * <p>The query and count methods return cold publishers: every subscription runs the statement again
+ * and nothing is retained once the rows are emitted. Callers that need to share or replay a result
+ * must ask for it explicitly, e.g. with {@link Flux#cache()} or through the service caches of
+ * {@link com.plate.boot.commons.base.AbstractCache}. Large reads should use the {@code stream} methods,
+ * which also set the statement fetch size.
+ *
  * @see R2dbcEntityTemplate for reactive database operations
  * @see ReactiveRedisTemplate for caching implementation
  * @since 1.0
@@ -93,47 +116,80 @@ public class DatabaseUtils implements InitializingBean {
      */
     public static R2dbcConverter R2DBC_CONVERTER;
 
+    /**
+     * Query settings shared by the static helpers, such as the auditor resolution window.
+     * Populated from the injected {@link DatabaseProperties} during {@link #afterPropertiesSet()}.
+     */
+    public static DatabaseProperties DATABASE_PROPERTIES = new DatabaseProperties();
+
+    /**
+     * The row estimate of the top node of a JSON query plan, which is the first one in the document.
+     */
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
     private final R2dbcEntityTemplate entityTemplate;
     private final ReactiveRedisTemplate<String, Object> redisTemplate;
     private final DatabaseClient databaseClient;
     private final R2dbcConverter r2dbcConverter;
     private final HttpCodecsProperties codecsProperties;
+    private final DatabaseProperties databaseProperties;
 
     public DatabaseUtils(R2dbcEntityTemplate entityTemplate,
                          ReactiveRedisTemplate<String, Object> redisTemplate,
-                         HttpCodecsProperties codecsProperties) {
+                         HttpCodecsProperties codecsProperties,
+                         DatabaseProperties databaseProperties) {
         this.entityTemplate = entityTemplate;
         this.redisTemplate = redisTemplate;
         this.databaseClient = entityTemplate.getDatabaseClient();
         this.r2dbcConverter = entityTemplate.getConverter();
         this.codecsProperties = codecsProperties;
+        this.databaseProperties = databaseProperties;
     }
 
     /**
-     * Executes a database query with caching functionality.
+     * Executes a database query.
      *
      * <p>Example usage:
      * <pre>{@code
      * Query query = Query.query(Criteria.where("status").is("active"));
      * Flux<User> users = DatabaseUtils.query(query, User.class);
      * }</pre>
-     * This generates parameterized SQL query with caching
+     * This generates parameterized SQL query
      *
      * @param <T>         The type of entities expected as query results
      * @param query       The query object defining the SQL query and its parameters
      * @param entityClass The class of the entity to map results to
-     * @return A Flux emitting the query results, potentially from cache
+     * @return A cold Flux emitting the query results; each subscription executes the query
      * @see Query for query construction
-     * @see Flux#cache() for caching behavior
+     * @see #stream(Query, Class) for large reads
      * @since 1.0
      */
     public static <T> Flux<T> query(Query query, Class<T> entityClass) {
         Flux<T> source = ENTITY_TEMPLATE.select(query, entityClass);
-        return source.flatMapSequential(BeanUtils::serializeUserAuditor).cache();
+        return serializeUserAuditors(source);
     }
 
     /**
-     * Executes a parameterized SQL query with caching capability.
+     * Executes a query, routed to a read replica when it is read-only.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * Flux<Menu> menus = DatabaseUtils.query(query, Menu.class, true);
+     * }</pre>
+     *
+     * @param <T>         The type of entities expected as query results
+     * @param query       The query object defining the SQL query and its parameters
+     * @param entityClass The class of the entity to map results to
+     * @param readOnly    Whether the query may be served by a read replica, which may lag behind the primary
+     * @return A cold Flux emitting the query results; each subscription executes the query
+     * @see ReplicaRoutingConnectionFactory for the routing
+     */
+    public static <T> Flux<T> query(Query query, Class<T> entityClass, boolean readOnly) {
+        return routed(query(query, entityClass), readOnly);
+    }
+
+    /**
+     * Executes a parameterized SQL query.
      *
      * <p>Example usage:
      * <pre>{@code
@@ -141,16 +197,17 @@ public class DatabaseUtils implements InitializingBean {
      * Map<String, Object> params = Map.of("name", "John");
      * Flux<User> users = DatabaseUtils.query(sql, params, User.class);
      * }</pre>
-     * This generates parameterized SQL query with caching
+     * This generates parameterized SQL query
      *
      * @param <T>         The type of entities the SQL query results will be mapped to
      * @param sql         The SQL query string with named parameters
      * @param bindParams  A map containing named parameter bindings for the SQL query
      * @param entityClass The class of the entity to convert query results into
-     * @return A Flux emitting the entities from the query, potentially from the cache
+     * @return A cold Flux emitting the entities from the query; each subscription executes the query
      * @throws IllegalArgumentException if sql or bindParams is null
      * @see DatabaseClient #sql() for SQL query execution
      * @see R2dbcConverter #read(Class, Object, Object) for entity conversion
+     * @see #stream(String, Map, Class) for large reads
      * @since 1.0
      */
     public static <T> Flux<T> query(String sql, Map<String, Object> bindParams, Class<T> entityClass) {
@@ -159,33 +216,152 @@ public class DatabaseUtils implements InitializingBean {
         Flux<T> source = executeSpec
                 .map((row, rowMetadata) -> R2DBC_CONVERTER.read(entityClass, row, rowMetadata))
                 .all();
-        return source.flatMapSequential(BeanUtils::serializeUserAuditor).cache();
+        return serializeUserAuditors(source);
+    }
+
+    /**
+     * Executes a parameterized SQL query, routed to a read replica when it is read-only.
+     *
+     * @param <T>         The type of entities the SQL query results will be mapped to
+     * @param sql         The SQL query string with named parameters
+     * @param bindParams  A map containing named parameter bindings for the SQL query
+     * @param entityClass The class of the entity to convert query results into
+     * @param readOnly    Whether the query may be served by a read replica, which may lag behind the primary
+     * @return A cold Flux emitting the entities from the query; each subscription executes the query
+     * @see ReplicaRoutingConnectionFactory for the routing
+     */
+    public static <T> Flux<T> query(String sql, Map<String, Object> bindParams, Class<T> entityClass,
+                                    boolean readOnly) {
+        return routed(query(sql, bindParams, entityClass), readOnly);
+    }
+
+    /**
+     * Streams the results of a database query, for exports and other large reads.
+     * <p>
+     * The query is rendered with {@link QueryFragment} against the entity's table so that the statement
+     * fetch size can be set; see {@link #stream(String, Map, Class)} for the streaming behaviour.
+     * A query without limit reads the whole table.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * Query query = Query.query(Criteria.where("tenantCode").is(tenantCode)).sort(Sort.by("sortNo"));
+     * Flux<Menu> menus = DatabaseUtils.stream(query, Menu.class);
+     * }</pre>
+     *
+     * @param <T>         The type of entities expected as query results
+     * @param query       The query object defining the criteria, sort, limit and offset
+     * @param entityClass The mapped entity class, which also provides the table name
+     * @return A cold Flux emitting the query results as they are fetched
+     */
+    public static <T> Flux<T> stream(Query query, Class<T> entityClass) {
+        QueryFragment fragment = fragment(query, entityClass);
+        fragment.limit(query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE, Math.max(query.getOffset(), 0));
+        return stream(fragment.querySql(), fragment, entityClass);
+    }
+
+    /**
+     * Renders the criteria and sort of a query as a {@link QueryFragment} against the entity's table,
+     * so that it can be used with the fragment based helpers. Limit and offset are left to the caller.
+     *
+     * @param query       The query object defining the criteria and sort
+     * @param entityClass The mapped entity class, which provides the table name
+     * @return A new query fragment selecting from the entity's table
+     */
+    public static QueryFragment fragment(Query query, Class<?> entityClass) {
+        String table = R2DBC_CONVERTER.getMappingContext().getRequiredPersistentEntity(entityClass)
+                .getTableName().toSql(IdentifierProcessing.NONE);
+        QueryFragment fragment = QueryFragment.from(table);
+        query.getCriteria().filter(criteria -> !criteria.isEmpty()).ifPresent(criteria ->
+                fragment.condition(QueryFragment.Condition.of((Criteria) criteria)));
+        for (Sort.Order order : query.getSort()) {
+            fragment.orderBy(CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, order.getProperty())
+                    + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return fragment;
+    }
+
+    /**
+     * Streams the results of a parameterized SQL query, for exports and other large reads.
+     * <p>
+     * The statement is executed with the {@code spring.data.r2dbc.properties.fetch-size} fetch size, so the
+     * driver pulls rows from the server in batches of that size, and downstream demand is forwarded in
+     * batches of the same size. No replay buffer is kept: rows are released once emitted, and memory use
+     * stays bounded by the fetch size and the auditor resolution window whatever the size of the result.
+     * Streams are read-only and served by a read replica when replicas are configured.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * Flux<Logger> rows = DatabaseUtils.stream("SELECT * FROM se_loggers WHERE tenant_code = :tenantCode",
+     *         Map.of("tenantCode", tenantCode), Logger.class);
+     * }</pre>
+     *
+     * @param <T>         The type of entities the SQL query results will be mapped to
+     * @param sql         The SQL query string with named parameters
+     * @param bindParams  A map containing named parameter bindings for the SQL query
+     * @param entityClass The class of the entity to convert query results into
+     * @return A cold Flux emitting the entities as they are fetched
+     */
+    public static <T> Flux<T> stream(String sql, Map<String, Object> bindParams, Class<T> entityClass) {
+        int fetchSize = DATABASE_PROPERTIES.getFetchSize();
+        Flux<T> source = DATABASE_CLIENT.sql(() -> sql).bindValues(bindParams)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, rowMetadata) -> R2DBC_CONVERTER.read(entityClass, row, rowMetadata))
+                .all();
+        return routed(serializeUserAuditors(source).limitRate(fetchSize), true);
+    }
+
+    /**
+     * Resolves the {@link com.plate.boot.security.core.UserAuditor} properties of query results in windows of
+     * {@code spring.data.r2dbc.properties.auditor.window-size} rows, one lookup per window.
+     *
+     * @param <T>    The type of the query results
+     * @param source The query results
+     * @return A Flux emitting the query results, in order, with their auditors resolved
+     * @see BeanUtils#serializeUserAuditors(Flux, int) for the resolution details
+     */
+    private static <T> Flux<T> serializeUserAuditors(Flux<T> source) {
+        return BeanUtils.serializeUserAuditors(source, DATABASE_PROPERTIES.getAuditor().getWindowSize());
     }
 
     /**
-     * Counts entities with caching support based on provided query criteria.
+     * Counts entities based on provided query criteria.
      *
      * <p>Example usage:
      * <pre>{@code
      * Query query = Query.query(Criteria.where("status").is("active"));
      * Mono<Long> count = DatabaseUtils.count(query, User.class);
      * }</pre>
-     * This generates parameterized count query with caching
+     * This generates parameterized count query
      *
      * @param <T>         The type of entities for which the count is performed
      * @param query       The query object defining criteria for counting
      * @param entityClass The class of the entities being counted
-     * @return A Mono emitting the count as a Long, potentially from cache
+     * @return A cold Mono emitting the count as a Long; each subscription executes the count
      * @throws IllegalArgumentException if query or entityClass is null
      * @see R2dbcEntityTemplate#count(Query, Class) for underlying implementation
      * @since 1.0
      */
     public static <T> Mono<Long> count(Query query, Class<T> entityClass) {
-        return DatabaseUtils.ENTITY_TEMPLATE.count(query, entityClass).cache();
+        return DatabaseUtils.ENTITY_TEMPLATE.count(query, entityClass);
     }
 
     /**
-     * Executes a SQL count query with caching capabilities using parameterized queries.
+     * Counts entities based on provided query criteria, routed to a read replica when it is read-only.
+     *
+     * @param <T>         The type of entities for which the count is performed
+     * @param query       The query object defining criteria for counting
+     * @param entityClass The class of the entities being counted
+     * @param readOnly    Whether the count may be served by a read replica, which may lag behind the primary
+     * @return A cold Mono emitting the count as a Long; each subscription executes the count
+     * @see ReplicaRoutingConnectionFactory for the routing
+     */
+    public static <T> Mono<Long> count(Query query, Class<T> entityClass, boolean readOnly) {
+        Mono<Long> count = count(query, entityClass);
+        return readOnly ? count.contextWrite(ReplicaRoutingConnectionFactory.readOnly()) : count;
+    }
+
+    /**
+     * Executes a SQL count query using parameterized queries.
      *
      * <p>Example usage:
      * <pre>{@code
@@ -193,11 +369,11 @@ public class DatabaseUtils implements InitializingBean {
      * Map<String, Object> params = Map.of("age", 30);
      * Mono<Long> count = DatabaseUtils.count(sql, params);
      * }</pre>
-     * This generates parameterized count query with caching
+     * This generates parameterized count query
      *
      * @param sql        The SQL count query string with named parameters
      * @param bindParams A map containing parameter bindings for the SQL query
-     * @return A Mono emitting the count result, potentially from cache
+     * @return A cold Mono emitting the count result; each subscription executes the count
      * @throws IllegalArgumentException if sql or bindParams is null
      * @see DatabaseClient #sql() for SQL execution
      * @since 1.0
@@ -205,7 +381,119 @@ public class DatabaseUtils implements InitializingBean {
     public static Mono<Long> count(String sql, Map<String, Object> bindParams) {
         var executeSpec = DatabaseUtils.DATABASE_CLIENT.sql(() -> sql);
         executeSpec = executeSpec.bindValues(bindParams);
-        return executeSpec.mapValue(Long.class).first().cache();
+        return executeSpec.mapValue(Long.class).first();
+    }
+
+    /**
+     * Executes a SQL count query, routed to a read replica when it is read-only.
+     *
+     * @param sql        The SQL count query string with named parameters
+     * @param bindParams A map containing parameter bindings for the SQL query
+     * @param readOnly   Whether the count may be served by a read replica, which may lag behind the primary
+     * @return A cold Mono emitting the count result; each subscription executes the count
+     * @see ReplicaRoutingConnectionFactory for the routing
+     */
+    public static Mono<Long> count(String sql, Map<String, Object> bindParams, boolean readOnly) {
+        Mono<Long> count = count(sql, bindParams);
+        return readOnly ? count.contextWrite(ReplicaRoutingConnectionFactory.readOnly()) : count;
+    }
+
+    private static <T> Flux<T> routed(Flux<T> source, boolean readOnly) {
+        return readOnly ? source.contextWrite(ReplicaRoutingConnectionFactory.readOnly()) : source;
+    }
+
+    /**
+     * Returns the page strategy configured for an endpoint.
+     *
+     * @param endpoint The endpoint name, e.g. {@code loggers}
+     * @return The strategy under {@code spring.data.r2dbc.properties.page.strategies}, or the default one
+     */
+    public static PageStrategy pageStrategy(String endpoint) {
+        return DATABASE_PROPERTIES.getPage().strategy(endpoint);
+    }
+
+    /**
+     * Executes a page query, obtaining the total with the given strategy.
+     * <p>
+     * The fragment holds the filters and the order, e.g. applied with {@link QueryFragment#pageable(Pageable)};
+     * the pageable's limit and offset are applied here. With {@link PageStrategy#WINDOW} and {@link PageStrategy#HAS_NEXT} the page is read with a single
+     * statement; the other strategies run the page query and a count statement concurrently.
+     * Pages are read-only and served by a read replica when replicas are configured.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * QueryFragment fragment = request.query().pageable(pageable);
+     * Mono<Page<LoggerRes>> page = DatabaseUtils.page(fragment, pageable, LoggerRes.class,
+     *         DatabaseUtils.pageStrategy("loggers"));
+     * }</pre>
+     *
+     * @param <T>         The type of entities the rows are mapped to
+     * @param fragment    The query fragment holding the filters and the order
+     * @param pageable    The page to read
+     * @param entityClass The class of the entity to convert rows into
+     * @param strategy    How the total is obtained
+     * @return A cold Mono emitting the page
+     * @see PageStrategy
+     */
+    public static <T> Mono<Page<T>> page(QueryFragment fragment, Pageable pageable, Class<T> entityClass,
+                                         PageStrategy strategy) {
+        fragment.limit(pageable.getPageSize(), pageable.getOffset());
+        Mono<Page<T>> page = switch (strategy) {
+            case COUNT -> page(fragment, pageable, entityClass, count(fragment.countSql(), fragment));
+            case CAPPED -> page(fragment, pageable, entityClass,
+                    count(fragment.cappedCountSql(DATABASE_PROPERTIES.getPage().getCountCap()), fragment));
+            case ESTIMATE -> page(fragment, pageable, entityClass, estimate(fragment));
+            case WINDOW -> windowPage(fragment, pageable, entityClass);
+            case HAS_NEXT -> {
+                fragment.limit(pageable.getPageSize() + 1, pageable.getOffset());
+                yield query(fragment.querySql(), fragment, entityClass).collectList().map(rows -> {
+                    boolean hasNext = rows.size() > pageable.getPageSize();
+                    List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+                    return new PageImpl<>(content, pageable, pageable.getOffset() + rows.size());
+                });
+            }
+        };
+        return page.contextWrite(ReplicaRoutingConnectionFactory.readOnly());
+    }
+
+    private static <T> Mono<Page<T>> page(QueryFragment fragment, Pageable pageable, Class<T> entityClass,
+                                          Mono<Long> totalMono) {
+        return query(fragment.querySql(), fragment, entityClass).collectList().zipWith(totalMono)
+                .map(tuple -> new PageImpl<>(tuple.getT1(), pageable,
+                        Math.max(tuple.getT2(), pageable.getOffset() + tuple.getT1().size())));
+    }
+
+    private static <T> Mono<Page<T>> windowPage(QueryFragment fragment, Pageable pageable, Class<T> entityClass) {
+        Flux<Tuple2<T, Long>> rows = DATABASE_CLIENT.sql(fragment::windowSql).bindValues(fragment)
+                .map((row, rowMetadata) -> Tuples.of(R2DBC_CONVERTER.read(entityClass, row, rowMetadata),
+                        Objects.requireNonNull(row.get(QueryFragment.TOTAL_COLUMN, Long.class))))
+                .all();
+        return rows.collectList().<Page<T>>flatMap(tuples -> {
+            if (tuples.isEmpty()) {
+                Mono<Long> totalMono = pageable.getOffset() == 0 ? Mono.just(0L)
+                        : count(fragment.countSql(), fragment);
+                return totalMono.map(total -> new PageImpl<T>(List.of(), pageable, total));
+            }
+            long total = tuples.getFirst().getT2();
+            return serializeUserAuditors(Flux.fromIterable(tuples).map(Tuple2::getT1)).collectList()
+                    .map(content -> new PageImpl<>(content, pageable, total));
+        });
+    }
+
+    /**
+     * Reads the planner's estimate of the number of rows matching a fragment from its
+     * {@link QueryFragment#explainSql() EXPLAIN} plan.
+     *
+     * @param fragment The query fragment holding the filters
+     * @return A cold Mono emitting the estimated row count, zero if the plan carries none
+     */
+    public static Mono<Long> estimate(QueryFragment fragment) {
+        return DATABASE_CLIENT.sql(fragment::explainSql).bindValues(fragment)
+                .map(row -> Objects.requireNonNullElse(row.get(0, String.class), "")).first()
+                .map(plan -> {
+                    Matcher matcher = PLAN_ROWS_PATTERN.matcher(plan);
+                    return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+                });
     }
 
     /**
@@ -297,5 +585,6 @@ public class DatabaseUtils implements InitializingBean {
         R2DBC_CONVERTER = this.r2dbcConverter;
         REACTIVE_REDIS_TEMPLATE = this.redisTemplate;
         MAX_IN_MEMORY_SIZE = this.codecsProperties.getMaxInMemorySize();
+        DATABASE_PROPERTIES = this.databaseProperties;
     }
 }
@@ -0,0 +1,157 @@
+package com.plate.boot.config;
+
+import lombok.Data;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the service-level caches built by
+ * {@link com.plate.boot.commons.base.AbstractCache}.
+ * <p>
+ * This class binds properties prefixed with {@code spring.cache.properties}. It complements the
+ * {@code spring.cache.redis.*} settings of Spring Boot, which describe the shared Redis tier (L2),
+ * with the settings of the in-process near cache tier (L1) kept in front of it.
+ * </p>
+ *
+ * <p>
+ * Example configuration:
+ * <pre>
+ * spring.cache.properties.near.enabled=true
+ * spring.cache.properties.near.maximum-weight=10000
+ * spring.cache.properties.near.time-to-live=30s
+ * spring.cache.properties.near.time-to-lives[com.plate.boot.security.SecurityManager.cache]=10s
+ * spring.cache.properties.admission.policy=frequency
+ * spring.cache.properties.admission.doorkeeper-size=16KB
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * Author: <a href="https://github.com/vnobo">Alex Bob</a>
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.cache.properties")
+public class CachesProperties {
+
+    /**
+     * Settings of the in-process near cache tier.
+     */
+    private Near near = new Near();
+
+    /**
+     * Settings of the admission policy deciding which loaded values are stored.
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * In-process (L1) cache settings. Each cache keeps its own bounded local map; writes, evictions and
+     * clears are broadcast on a Redis channel so that the other nodes drop their local copies.
+     */
+    @Data
+    public static class Near {
+
+        /**
+         * Whether the near cache tier is placed in front of the shared cache.
+         * Default value is false.
+         */
+        private boolean enabled;
+
+        /**
+         * The maximum total weight of the entries held by one local cache. A cached collection weighs
+         * its element count, any other value weighs one.
+         * Default value is 10000.
+         */
+        private long maximumWeight = 10_000;
+
+        /**
+         * Default time-to-live of a local entry, counted from the time it was written.
+         * Default value is 30 seconds.
+         */
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        /**
+         * Per-cache time-to-live overrides, keyed by cache name.
+         */
+        private Map<String, Duration> timeToLives = new HashMap<>();
+
+        /**
+         * The Redis channel used to broadcast invalidations between nodes.
+         * Default value is {@code plate:caches:invalidation}.
+         */
+        private String channel = "plate:caches:invalidation";
+
+        /**
+         * Resolves the time-to-live of the given cache, falling back to {@link #timeToLive}.
+         *
+         * @param cacheName the cache name
+         * @return the local time-to-live of the cache
+         */
+        public Duration timeToLive(String cacheName) {
+            return this.timeToLives.getOrDefault(cacheName, this.timeToLive);
+        }
+    }
+
+    /**
+     * Cache admission settings, see {@link com.plate.boot.commons.cache.CacheAdmission}.
+     */
+    @Data
+    public static class Admission {
+
+        /**
+         * The admission policy.
+         * Default value is {@code size}.
+         */
+        private Policy policy = Policy.SIZE;
+
+        /**
+         * The estimated size above which a value is never cached. When not set, the
+         * {@code spring.http.codecs.max-in-memory-size} limit applies.
+         */
+        private @Nullable DataSize maximumSize;
+
+        /**
+         * With the {@code frequency} policy, values up to this estimated size are admitted without
+         * frequency check.
+         * Default value is 16KB.
+         */
+        private DataSize doorkeeperSize = DataSize.ofKilobytes(16);
+
+        /**
+         * With the {@code frequency} policy, the number of recent lookups a key needs before a value
+         * larger than the doorkeeper size is admitted.
+         * Default value is 2.
+         */
+        private int minFrequency = 2;
+
+        /**
+         * With the {@code frequency} policy, the number of recorded lookups after which the
+         * frequency counters are halved.
+         * Default value is 10000.
+         */
+        private int sampleSize = 10_000;
+
+        /**
+         * Admission policies.
+         */
+        public enum Policy {
+            /**
+             * Admit every value.
+             */
+            ALWAYS,
+            /**
+             * Reject values larger than the maximum size.
+             */
+            SIZE,
+            /**
+             * Reject values larger than the maximum size, and admit values larger than the doorkeeper
+             * size only for frequently requested keys.
+             */
+            FREQUENCY
+        }
+    }
+}
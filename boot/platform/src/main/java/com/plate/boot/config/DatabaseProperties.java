@@ -0,0 +1,445 @@
+package com.plate.boot.config;
+
+import com.plate.boot.commons.journal.SegmentJournal;
+import com.plate.boot.commons.query.PageStrategy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for the query helpers of {@link com.plate.boot.commons.utils.DatabaseUtils}.
+ * <p>
+ * This class binds properties prefixed with {@code spring.data.r2dbc.properties}. The
+ * {@code spring.r2dbc.properties} map is left alone, since Spring Boot passes it to the driver as
+ * connection options.
+ * </p>
+ *
+ * <p>
+ * Example configuration:
+ * <pre>
+ * spring.data.r2dbc.properties.fetch-size=500
+ * spring.data.r2dbc.properties.auditor.window-size=256
+ * spring.data.r2dbc.properties.page.default-strategy=count
+ * spring.data.r2dbc.properties.page.strategies.loggers=window
+ * spring.data.r2dbc.properties.page.count-cap=10000
+ * spring.data.r2dbc.properties.replicas.enabled=true
+ * spring.data.r2dbc.properties.replicas.nodes[0].name=replica-1
+ * spring.data.r2dbc.properties.replicas.nodes[0].url=r2dbc:postgresql://replica-1:5432/plate
+ * spring.data.r2dbc.properties.replicas.max-lag=5s
+ * spring.data.r2dbc.properties.loggers.queue-capacity=10000
+ * spring.data.r2dbc.properties.loggers.batch-size=256
+ * spring.data.r2dbc.properties.loggers.flush-interval=1s
+ * spring.data.r2dbc.properties.loggers.journal.enabled=true
+ * spring.data.r2dbc.properties.loggers.journal.directory=data/journal/loggers
+ * spring.data.r2dbc.properties.loggers.journal.max-size=256MB
+ * spring.data.r2dbc.properties.loggers.partitions.premake=3
+ * spring.data.r2dbc.properties.loggers.partitions.retention=1y
+ * spring.data.r2dbc.properties.loggers.partitions.search-window=30d
+ * spring.data.r2dbc.properties.loggers.rollups.enabled=true
+ * spring.data.r2dbc.properties.loggers.rollups.flush-interval=1m
+ * spring.data.r2dbc.properties.loggers.bodies.enabled=true
+ * spring.data.r2dbc.properties.loggers.bodies.training-samples=1000
+ * spring.data.r2dbc.properties.loggers.archive.enabled=true
+ * spring.data.r2dbc.properties.loggers.archive.directory=data/archive/loggers
+ * spring.data.r2dbc.properties.loggers.archive.age=3m
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * Author: <a href="https://github.com/vnobo">Alex Bob</a>
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.data.r2dbc.properties")
+public class DatabaseProperties {
+
+    /**
+     * The statement fetch size of the streaming queries, which is also the batch size in which
+     * downstream demand is forwarded to the driver.
+     * Default value is 500.
+     */
+    private int fetchSize = 500;
+
+    /**
+     * Settings of the {@link com.plate.boot.security.core.UserAuditor} resolution of query results.
+     */
+    private Auditor auditor = new Auditor();
+
+    /**
+     * Settings of the page queries, see {@link PageStrategy}.
+     */
+    private Page page = new Page();
+
+    /**
+     * Settings of the read replicas that read-only operations are routed to.
+     */
+    private Replicas replicas = new Replicas();
+
+    /**
+     * Settings of the asynchronous writer of the request audit logs.
+     */
+    private Loggers loggers = new Loggers();
+
+    /**
+     * Query results are resolved in windows: the auditor codes of a window of rows are collected
+     * and loaded with a single lookup before the rows are emitted.
+     */
+    @Data
+    public static class Auditor {
+
+        /**
+         * The number of rows whose auditors are resolved together.
+         * Default value is 256.
+         */
+        private int windowSize = 256;
+    }
+
+    /**
+     * Page queries obtain their total with a {@link PageStrategy} chosen per endpoint.
+     */
+    @Data
+    public static class Page {
+
+        /**
+         * The strategy of the endpoints without an entry in {@link #strategies}.
+         * Default value is {@link PageStrategy#COUNT}.
+         */
+        private PageStrategy defaultStrategy = PageStrategy.COUNT;
+
+        /**
+         * The strategy of each endpoint, keyed by endpoint name, e.g. {@code loggers} or {@code users}.
+         */
+        private Map<String, PageStrategy> strategies = new HashMap<>();
+
+        /**
+         * The largest total reported exactly by {@link PageStrategy#CAPPED}.
+         * Default value is 10000.
+         */
+        private long countCap = 10_000;
+
+        /**
+         * Returns the strategy of the given endpoint.
+         *
+         * @param endpoint the endpoint name
+         * @return the configured strategy, or the default strategy
+         */
+        public PageStrategy strategy(String endpoint) {
+            return this.strategies.getOrDefault(endpoint, this.defaultStrategy);
+        }
+    }
+
+    /**
+     * Read-only operations, those of {@code @Transactional(readOnly = true)} methods and the reads hinted on
+     * {@link com.plate.boot.commons.utils.DatabaseUtils}, are routed to a healthy replica; everything else
+     * goes to the primary.
+     */
+    @Data
+    public static class Replicas {
+
+        /**
+         * Whether reads are routed to the replicas. When disabled, or without nodes, all operations use
+         * the primary connection factory.
+         * Default value is false.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The replica nodes, each with a pool of its own.
+         */
+        private List<Node> nodes = new ArrayList<>();
+
+        /**
+         * The largest replication lag at which a replica still serves reads.
+         * Default value is 5 seconds.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * The interval between two health checks of a replica.
+         * Default value is 5 seconds.
+         */
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        /**
+         * The time a health check may take before the replica is considered down.
+         * Default value is 2 seconds.
+         */
+        private Duration checkTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Whether reads fall back to the primary when no replica is healthy; otherwise they fail.
+         * Default value is true.
+         */
+        private boolean fallbackToPrimary = true;
+
+        /**
+         * The maximum size of the pool of each replica.
+         * Default value is 32.
+         */
+        private int poolSize = 32;
+    }
+
+    /**
+     * A read replica.
+     */
+    @Data
+    public static class Node {
+
+        /**
+         * The name of the replica, tagging its metrics.
+         */
+        private String name;
+
+        /**
+         * The R2DBC URL of the replica, e.g. {@code r2dbc:postgresql://replica-1:5432/plate}.
+         */
+        private String url;
+
+        /**
+         * The login user, when not part of the URL. The health checks read the status of the replica's WAL
+         * receiver, so the user needs the {@code pg_read_all_stats} privilege, e.g. as a member of
+         * {@code pg_monitor}.
+         */
+        private String username;
+
+        /**
+         * The login password, when not part of the URL.
+         */
+        private String password;
+    }
+
+    /**
+     * Audit log records are queued in memory and written in batches, each batch with a single multi-row
+     * {@code INSERT}. A batch is written once {@code batch-size} records are queued, or at the latest
+     * {@code flush-interval} after the previous one.
+     */
+    @Data
+    public static class Loggers {
+
+        /**
+         * The maximum number of records waiting to be written. Records arriving at a full queue are
+         * dropped and counted.
+         * Default value is 10000.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * The maximum number of records written by one statement.
+         * Default value is 256.
+         */
+        private int batchSize = 256;
+
+        /**
+         * The longest time a record waits in the queue before a batch is written.
+         * Default value is 1 second.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * Settings of the local journal the records are spilled to when the database cannot keep up.
+         */
+        private Journal journal = new Journal();
+
+        /**
+         * Settings of the monthly partitions of {@code se_loggers}.
+         */
+        private Partitions partitions = new Partitions();
+
+        /**
+         * Settings of the per-minute request rollups maintained from the audit logs.
+         */
+        private Rollups rollups = new Rollups();
+
+        /**
+         * Settings of the compressed storage of the captured request and response bodies.
+         */
+        private Bodies bodies = new Bodies();
+
+        /**
+         * Settings of the archive of the aged logs to local files.
+         */
+        private Archive archive = new Archive();
+    }
+
+    /**
+     * The audit logs are stored in monthly partitions of {@code se_loggers}. Partitions are created ahead of the
+     * months they hold, and expired partitions are detached and dropped as a whole; the searches of the logs are
+     * bounded in time, so that they only scan the partitions of the months they cover.
+     */
+    @Data
+    public static class Partitions {
+
+        /**
+         * The number of months after the current one whose partitions are created ahead.
+         * Default value is 3.
+         */
+        private int premake = 3;
+
+        /**
+         * How long the logs are kept; a partition is dropped once all of its month is older.
+         * Default value is 1 year.
+         */
+        private Period retention = Period.ofYears(1);
+
+        /**
+         * How far back a search of the logs reaches when it sets no lower bound on the creation time.
+         * Default value is 30 days.
+         */
+        private Duration searchWindow = Duration.ofDays(30);
+    }
+
+    /**
+     * Records arriving at a full queue, and the records of a batch that could not be written, are appended
+     * to a journal on local disk, and written from it once the database accepts writes again. Journaled
+     * records survive a restart.
+     */
+    @Data
+    public static class Journal {
+
+        /**
+         * Whether records are spilled to the journal rather than dropped.
+         * Default value is false.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The directory of the journal files.
+         * Default value is {@code data/journal/loggers}.
+         */
+        private String directory = "data/journal/loggers";
+
+        /**
+         * The size of a journal segment file; it must not change while the journal holds segments.
+         * Default value is 16MB.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * The maximum disk space of the journal, rounded down to whole segments.
+         * Default value is 256MB.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+
+        /**
+         * What is dropped when the journal is full: the new records, or the oldest segment of records.
+         * Default value is DROP_NEWEST.
+         */
+        private SegmentJournal.DropPolicy dropPolicy = SegmentJournal.DropPolicy.DROP_NEWEST;
+    }
+
+    /**
+     * The audit logs are rolled up in memory per minute, tenant, method, route and status class, into counts,
+     * a latency histogram and the most frequent operators, and the rollups of each past minute are written to
+     * {@code se_logger_rollups}. They are kept as long as the audit logs.
+     */
+    @Data
+    public static class Rollups {
+
+        /**
+         * Whether the rollups are maintained.
+         * Default value is true.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often the rollups of the past minutes are written.
+         * Default value is 1 minute.
+         */
+        private Duration flushInterval = Duration.ofMinutes(1);
+
+        /**
+         * The number of most frequent operators tracked per rollup.
+         * Default value is 10.
+         */
+        private int topOperators = 10;
+
+        /**
+         * The maximum number of rollups held in memory; the records of new keys beyond it are not rolled up,
+         * and counted.
+         * Default value is 10000.
+         */
+        private int maxKeys = 10_000;
+    }
+
+    /**
+     * The captured request and response bodies are kept out of the searchable {@code se_loggers} rows: they are
+     * deflated, with a preset dictionary trained on the first bodies written, and stored in
+     * {@code se_logger_bodies}, partitioned by month like the logs. They are only inflated when a single log is
+     * viewed.
+     */
+    @Data
+    public static class Bodies {
+
+        /**
+         * Whether the bodies are stored compressed apart from the logs; otherwise they stay in the context.
+         * Default value is true.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The deflate compression level, from 1, fastest, to 9, smallest.
+         * Default value is 6.
+         */
+        private int level = 6;
+
+        /**
+         * The number of bodies sampled to train a dictionary when none is stored yet; 0 disables training.
+         * Default value is 1000.
+         */
+        private int trainingSamples = 1000;
+
+        /**
+         * The size of a trained dictionary, at most the 32KB window of deflate.
+         * Default value is 16KB.
+         */
+        private DataSize dictionarySize = DataSize.ofKilobytes(16);
+    }
+
+    /**
+     * The monthly partitions of the logs older than {@code age} are archived to local files, in a columnar layout
+     * with a sidecar index of per row group statistics, and then dropped from the database. The archived logs are
+     * still read by the history searches of the logs. The archive must be enabled with an age shorter than the
+     * retention of the partitions, which drops them without archiving.
+     */
+    @Data
+    public static class Archive {
+
+        /**
+         * Whether the aged partitions are archived before they are dropped.
+         * Default value is false.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The directory of the archive files.
+         * Default value is {@code data/archive/loggers}.
+         */
+        private String directory = "data/archive/loggers";
+
+        /**
+         * How old the logs of a month are before its partition is archived; a partition is archived once all of
+         * its month is older.
+         * Default value is 3 months.
+         */
+        private Period age = Period.ofMonths(3);
+
+        /**
+         * The number of logs of a row group, the unit the statistics of the index describe and a read skips.
+         * Default value is 8192.
+         */
+        private int rowGroupSize = 8192;
+
+        /**
+         * The deflate compression level of the column chunks, from 1, fastest, to 9, smallest.
+         * Default value is 6.
+         */
+        private int level = 6;
+    }
+}
@@ -1,14 +1,22 @@
 package com.plate.boot.config;
 
 import com.google.common.collect.Lists;
+import com.plate.boot.commons.routing.ReplicaRoutingConnectionFactory;
+import com.plate.boot.commons.routing.ReplicaRoutingTransactionManager;
 import io.r2dbc.spi.ConnectionFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import java.util.List;
@@ -17,27 +25,72 @@ import java.util.List;
  * Configures R2DBC (Reactive Relational Database Connectivity) settings, converters, and auditing for the application.
  * This class sets up the R2DBC connection factory, custom converters, enables transaction management,
  * and provides an auditor aware component for reactive auditing purposes.
+ * It also registers the {@link DatabaseProperties} used by the query helpers.
+ * <p>
+ * When {@code spring.data.r2dbc.properties.replicas} is enabled with nodes, the database client and the
+ * transaction manager are built over a {@link ReplicaRoutingConnectionFactory}, so that read-only queries and
+ * {@code @Transactional(readOnly = true)} transactions are served by the read replicas.
  */
 @Log4j2
 @Configuration(proxyBeanMethods = false)
 @EnableTransactionManagement
 @EnableR2dbcAuditing
+@EnableConfigurationProperties(DatabaseProperties.class)
 @RequiredArgsConstructor
-public class R2dbcConfiguration extends AbstractR2dbcConfiguration implements InitializingBean {
+public class R2dbcConfiguration extends AbstractR2dbcConfiguration implements InitializingBean, DisposableBean {
 
     private final List<Converter<?, ?>> customConverters;
     private final ConnectionFactory factory;
+    private final DatabaseProperties properties;
+    private ReplicaRoutingConnectionFactory routingFactory;
 
     /**
      * Establishes and returns the configured R2DBC Connection Factory instance.
      * This method is part of the configuration setup for R2DBC within the application,
      * providing the necessary connection details to interact with the database in a reactive manner.
+     * With read replicas enabled, the primary factory is wrapped in a {@link ReplicaRoutingConnectionFactory}.
      *
      * @return A non-null instance of {@link ConnectionFactory} configured for R2DBC connectivity.
      */
     @Override
-    public ConnectionFactory connectionFactory() {
-        return factory;
+    public synchronized ConnectionFactory connectionFactory() {
+        DatabaseProperties.Replicas replicas = properties.getReplicas();
+        if (!replicas.isEnabled() || replicas.getNodes().isEmpty()) {
+            return factory;
+        }
+        if (routingFactory == null) {
+            routingFactory = ReplicaRoutingConnectionFactory.of(factory, replicas);
+            log.info("Routing read-only queries to read replicas {}.",
+                    replicas.getNodes().stream().map(DatabaseProperties.Node::getName).toList());
+        }
+        return routingFactory;
+    }
+
+    /**
+     * Creates the {@link DatabaseClient} over {@link #connectionFactory()}, rather than over the primary
+     * factory bean, so that read-only queries can be routed to the read replicas.
+     *
+     * @return The database client
+     */
+    @Bean({"r2dbcDatabaseClient", "databaseClient"})
+    @Override
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.builder().connectionFactory(connectionFactory())
+                .bindMarkers(getDialect(factory).getBindMarkersFactory()).build();
+    }
+
+    /**
+     * Creates the transaction manager over {@link #connectionFactory()}. With read replicas enabled, the
+     * connections of read-only transactions are opened on a read replica.
+     *
+     * @return The reactive transaction manager
+     */
+    @Bean
+    public ReactiveTransactionManager transactionManager() {
+        if (connectionFactory() instanceof ReplicaRoutingConnectionFactory routing) {
+            return new ReplicaRoutingTransactionManager(routing);
+        }
+        return new R2dbcTransactionManager(factory);
     }
 
     /**
@@ -61,4 +114,14 @@ public class R2dbcConfiguration extends AbstractR2dbcConfiguration implements In
     public void afterPropertiesSet() {
         log.debug("R2DBC configuration initialized!");
     }
+
+    /**
+     * Stops the replica health checks and closes the replica pools, if any.
+     */
+    @Override
+    public void destroy() {
+        if (routingFactory != null) {
+            routingFactory.dispose();
+        }
+    }
 }
\ No newline at end of file
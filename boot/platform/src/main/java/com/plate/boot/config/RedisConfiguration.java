@@ -1,6 +1,7 @@
 package com.plate.boot.config;
 
 import lombok.NonNull;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,9 +19,11 @@ import tools.jackson.databind.json.JsonMapper;
  * <p>The {@link #reactiveObjectRedisTemplate(ReactiveRedisConnectionFactory, JsonMapper)} bean builds a
  * {@link ReactiveRedisTemplate} with {@link StringRedisSerializer} keys and Jackson JSON
  * ({@code JacksonJsonRedisSerializer}) values, using the application's shared {@link JsonMapper}.
+ * It also registers {@link CachesProperties}, which configures the near cache tier kept in front of Redis.
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
+@EnableConfigurationProperties(CachesProperties.class)
 public class RedisConfiguration {
 
     /**
@@ -2,9 +2,12 @@ package com.plate.boot.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Configuration properties for web settings.
@@ -18,6 +21,13 @@ import java.util.List;
  * <pre>
  * spring.webflux.properties.maxPageSize=100
  * spring.webflux.properties.defaultPageSize=25
+ * spring.webflux.properties.loggerBodyLimit=8KB
+ * spring.webflux.properties.loggerRules[0].path=/oauth2/token
+ * spring.webflux.properties.loggerRules[0].mode=ERRORS
+ * spring.webflux.properties.loggerRules[1].path=/sse/**
+ * spring.webflux.properties.loggerRules[1].methods=POST
+ * spring.webflux.properties.loggerRules[1].mode=SAMPLE
+ * spring.webflux.properties.loggerRules[1].ratio=0.05
  * spring.webflux.properties.pathPrefixes[0].path=/api
  * spring.webflux.properties.pathPrefixes[0].basePackage=com.example.api
  * </pre>
@@ -51,6 +61,21 @@ public class WebfluxProperties {
      */
     private int defaultPageSize = 25;
 
+    /**
+     * The maximum number of bytes of each request and response body captured for the audit log.
+     * Bodies stream through whole; only their leading bytes up to this limit are kept.
+     * Default value is 8KB.
+     */
+    private DataSize loggerBodyLimit = DataSize.ofKilobytes(8);
+
+    /**
+     * Audit rules choosing how the requests are logged, by path, method and tenant.
+     * <p>
+     * The first rule matching a request decides; a request matching no rule is logged in full if it is not a
+     * GET, HEAD, TRACE or OPTIONS request, and not logged otherwise.
+     */
+    private List<LoggerRule> loggerRules = new ArrayList<>();
+
     /**
      * Route definition list, used to configure the path prefix mapping for WebFlux.
      * <p>
@@ -83,4 +108,73 @@ public class WebfluxProperties {
         private String basePackage;
     }
 
+    /**
+     * An audit rule of the requests the logger filter logs.
+     * <p>
+     * Follows Spring Boot's relaxed binding rules, supporting the following configuration formats:
+     * spring.webflux.properties.logger-rules[0].path=/oauth2/token
+     * spring.webflux.properties.logger-rules[0].mode=errors
+     */
+    @Data
+    public static class LoggerRule {
+        /**
+         * The name of the rule, tagging its counters. Default value is {@code rule-<index>}.
+         */
+        private String name;
+
+        /**
+         * The path pattern of the matched requests, in {@code PathPattern} syntax. Default matches any path.
+         */
+        private String path;
+
+        /**
+         * The methods of the matched requests. Default matches any method.
+         */
+        private List<HttpMethod> methods = new ArrayList<>();
+
+        /**
+         * The tenants of the matched requests, of their authenticated user. Default matches any tenant,
+         * and requests without an authenticated user.
+         */
+        private List<UUID> tenants = new ArrayList<>();
+
+        /**
+         * How the matched requests are logged.
+         * Default value is ALWAYS.
+         */
+        private Mode mode = Mode.ALWAYS;
+
+        /**
+         * The share of the matched requests logged in {@link Mode#SAMPLE} mode, between 0 and 1.
+         * Default value is 1.
+         */
+        private double ratio = 1;
+
+        /**
+         * How the requests matched by a rule are logged.
+         */
+        public enum Mode {
+            /**
+             * Logged with their bodies.
+             */
+            ALWAYS,
+            /**
+             * Not logged.
+             */
+            NEVER,
+            /**
+             * A random share of {@code ratio} of them logged with their bodies.
+             */
+            SAMPLE,
+            /**
+             * Logged with their bodies if the response status is an error.
+             */
+            ERRORS,
+            /**
+             * Logged without their bodies, which are not captured.
+             */
+            HEADERS
+        }
+    }
+
 }
\ No newline at end of file
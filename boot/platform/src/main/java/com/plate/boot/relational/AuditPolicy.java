@@ -0,0 +1,200 @@
+package com.plate.boot.relational;
+
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.WebfluxProperties.LoggerRule;
+import com.plate.boot.config.WebfluxProperties.LoggerRule.Mode;
+import com.plate.boot.security.SecurityDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how the logger filter logs a request, from the declared {@link LoggerRule}s.
+ * <p>
+ * The rules are compiled once: their path patterns are parsed, and they are split by method into ordered
+ * arrays, so that a request is only tested against the rules of its method, in declaration order, until the
+ * first match. The tenant of the request is only looked up when a rule declares tenants. A request matching no
+ * rule is decided by the fallback matcher: logged in full when it matches, not logged otherwise. The decision is
+ * taken before the filter decorates the exchange, so requests that are not logged, or logged without bodies,
+ * have no body captured.
+ * <p>
+ * Each rule, and the fallback, counts the requests it kept and dropped in {@code plate.loggers.policy}, tagged
+ * by {@code rule}, {@code mode} and {@code outcome}, {@code kept} or {@code dropped}.
+ */
+final class AuditPolicy {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final Map<HttpMethod, Rule[]> rulesByMethod = new HashMap<>();
+    private final Rule[] otherRules;
+    private final boolean tenantScoped;
+    private final ServerWebExchangeMatcher fallbackMatcher;
+    private final Rule fallbackKept;
+    private final Rule fallbackDropped;
+
+    private AuditPolicy(List<Rule> rules, ServerWebExchangeMatcher fallbackMatcher) {
+        for (HttpMethod method : METHODS) {
+            this.rulesByMethod.put(method, rules.stream().filter(rule -> rule.methods().isEmpty()
+                    || rule.methods().contains(method)).toArray(Rule[]::new));
+        }
+        this.otherRules = rules.stream().filter(rule -> rule.methods().isEmpty()).toArray(Rule[]::new);
+        this.tenantScoped = rules.stream().anyMatch(rule -> !rule.tenants().isEmpty());
+        this.fallbackMatcher = fallbackMatcher;
+        this.fallbackKept = Rule.of("default", null, Set.of(), Set.of(), Mode.ALWAYS, 1);
+        this.fallbackDropped = Rule.of("default", null, Set.of(), Set.of(), Mode.NEVER, 1);
+    }
+
+    /**
+     * Compiles audit rules.
+     *
+     * @param rules           the rules, in the order they are tested
+     * @param fallbackMatcher the matcher of the requests logged in full when no rule matches
+     * @return the compiled policy
+     * @throws IllegalArgumentException if the sampling ratio of a rule is not between 0 and 1
+     */
+    static AuditPolicy compile(List<LoggerRule> rules, ServerWebExchangeMatcher fallbackMatcher) {
+        List<Rule> compiled = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            LoggerRule rule = rules.get(i);
+            if (rule.getRatio() < 0 || rule.getRatio() > 1) {
+                throw new IllegalArgumentException("Audit rule " + i + " ratio must be between 0 and 1, but was "
+                        + rule.getRatio());
+            }
+            String name = ObjectUtils.isEmpty(rule.getName()) ? "rule-" + i : rule.getName();
+            PathPattern pattern = ObjectUtils.isEmpty(rule.getPath()) ? null
+                    : PathPatternParser.defaultInstance.parse(rule.getPath());
+            compiled.add(Rule.of(name, pattern, Set.copyOf(rule.getMethods()), Set.copyOf(rule.getTenants()),
+                    rule.getMode(), rule.getRatio()));
+        }
+        return new AuditPolicy(compiled, fallbackMatcher);
+    }
+
+    /**
+     * Decides how a request is logged.
+     *
+     * @param exchange the exchange of the request
+     * @return a {@link Mono} emitting the decision
+     */
+    Mono<Decision> decide(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!this.tenantScoped) {
+            return decide(exchange, match(request.getMethod(), request.getPath().pathWithinApplication(), null));
+        }
+        return ContextUtils.securityDetails().map(SecurityDetails::getTenantCode).map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(tenant -> decide(exchange, match(request.getMethod(),
+                        request.getPath().pathWithinApplication(), tenant.orElse(null))));
+    }
+
+    private Mono<Decision> decide(ServerWebExchange exchange, @Nullable Rule rule) {
+        if (rule != null) {
+            return Mono.just(rule.decide());
+        }
+        return this.fallbackMatcher.matches(exchange).map(result -> result.isMatch()
+                ? this.fallbackKept.decide() : this.fallbackDropped.decide());
+    }
+
+    /**
+     * Finds the first rule matching a request.
+     *
+     * @param method the request method
+     * @param path   the request path within the application
+     * @param tenant the tenant of the authenticated user, if any
+     * @return the matching rule, or {@code null} if no rule matches
+     */
+    @Nullable Rule match(HttpMethod method, PathContainer path, @Nullable UUID tenant) {
+        Rule[] rules = this.rulesByMethod.getOrDefault(method, this.otherRules);
+        for (Rule rule : rules) {
+            if ((rule.pattern() == null || rule.pattern().matches(path))
+                    && (rule.tenants().isEmpty() || (tenant != null && rule.tenants().contains(tenant)))) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A compiled audit rule.
+     *
+     * @param name    the name of the rule
+     * @param pattern the path pattern, or {@code null} for any path
+     * @param methods the methods, empty for any method
+     * @param tenants the tenants, empty for any tenant
+     * @param mode    how the matched requests are logged
+     * @param ratio   the share of the matched requests logged in {@link Mode#SAMPLE} mode
+     * @param kept    the counter of the requests logged
+     * @param dropped the counter of the requests not logged
+     */
+    record Rule(String name, @Nullable PathPattern pattern, Set<HttpMethod> methods, Set<UUID> tenants,
+                Mode mode, double ratio, Counter kept, Counter dropped) {
+
+        static Rule of(String name, @Nullable PathPattern pattern, Set<HttpMethod> methods, Set<UUID> tenants,
+                       Mode mode, double ratio) {
+            return new Rule(name, pattern, methods, tenants, mode, ratio, counter(name, mode, "kept"),
+                    counter(name, mode, "dropped"));
+        }
+
+        private static Counter counter(String name, Mode mode, String outcome) {
+            return Metrics.counter("plate.loggers.policy", "rule", name, "mode", mode.name(), "outcome", outcome);
+        }
+
+        /**
+         * Decides how a request matched by this rule is logged, drawing the sample of {@link Mode#SAMPLE}.
+         * The requests decided to be logged in {@link Mode#ERRORS} mode are only counted once their status is
+         * known, see {@link Decision#logged(boolean)}.
+         *
+         * @return the decision
+         */
+        Decision decide() {
+            Decision decision = switch (this.mode) {
+                case NEVER -> new Decision(this, false, false);
+                case SAMPLE -> ThreadLocalRandom.current().nextDouble() < this.ratio
+                        ? new Decision(this, true, true) : new Decision(this, false, false);
+                case HEADERS -> new Decision(this, true, false);
+                case ALWAYS, ERRORS -> new Decision(this, true, true);
+            };
+            if (!decision.log()) {
+                this.dropped.increment();
+            } else if (this.mode != Mode.ERRORS) {
+                this.kept.increment();
+            }
+            return decision;
+        }
+    }
+
+    /**
+     * How a request is logged.
+     *
+     * @param rule    the rule that decided
+     * @param log     whether the request may be logged
+     * @param capture whether the request and response bodies are captured
+     */
+    record Decision(Rule rule, boolean log, boolean capture) {
+
+        /**
+         * Tells whether the completed request is logged, and counts it for the {@link Mode#ERRORS} rules.
+         *
+         * @param error whether the response status is an error
+         * @return true if the request is logged
+         */
+        boolean logged(boolean error) {
+            if (this.rule.mode() != Mode.ERRORS) {
+                return this.log;
+            }
+            (error ? this.rule.kept() : this.rule.dropped()).increment();
+            return error;
+        }
+    }
+}
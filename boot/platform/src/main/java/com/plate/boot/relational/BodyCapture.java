@@ -0,0 +1,142 @@
+package com.plate.boot.relational;
+
+import com.plate.boot.relational.logger.CapturedBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures the leading bytes of a body while it streams through, for the audit log.
+ * <p>
+ * {@link #tee(Publisher)} passes the body buffers on unchanged, and copies the bytes of each into a buffer
+ * allocated from the exchange's buffer factory, pooled under Netty, until {@code limit} bytes are captured;
+ * the rest of the body is only counted. So the body is neither joined nor parsed on the request path, and the
+ * capture holds at most {@code limit} bytes whatever the size of the body.
+ * <p>
+ * The capture buffer is released by {@link #drain(MediaType)}, which copies the captured bytes out, or by
+ * {@link #discard()}. Each capture records its overhead when drained: the {@code plate.loggers.capture.bytes}
+ * summary of the bytes held and the {@code plate.loggers.capture.time} timer of the time spent copying, and
+ * counts truncated bodies in {@code plate.loggers.capture.truncated}, all tagged by {@code direction}.
+ */
+final class BodyCapture {
+
+    private final DataBufferFactory factory;
+    private final int limit;
+    private final Meters meters;
+    private @Nullable DataBuffer buffer;
+    private long size;
+    private long nanos;
+    private boolean released;
+
+    /**
+     * Creates a capture.
+     *
+     * @param factory the factory the capture buffer is allocated from
+     * @param limit   the maximum number of bytes captured
+     * @param meters  the meters of the body direction
+     */
+    BodyCapture(DataBufferFactory factory, int limit, Meters meters) {
+        this.factory = factory;
+        this.limit = limit;
+        this.meters = meters;
+    }
+
+    /**
+     * Passes a body through, capturing its leading bytes.
+     *
+     * @param body the body buffers
+     * @return the same buffers, unchanged
+     */
+    Flux<DataBuffer> tee(Publisher<? extends DataBuffer> body) {
+        return Flux.<DataBuffer>from(body).doOnNext(this::copy);
+    }
+
+    private synchronized void copy(DataBuffer source) {
+        long start = System.nanoTime();
+        int readable = source.readableByteCount();
+        this.size += readable;
+        int captured = this.buffer == null ? 0 : this.buffer.readableByteCount();
+        int remaining = Math.min(this.limit - captured, readable);
+        if (remaining > 0 && !this.released) {
+            if (this.buffer == null) {
+                this.buffer = this.factory.allocateBuffer(Math.min(this.limit, Math.max(readable, 256)));
+            }
+            try (DataBuffer.ByteBufferIterator iterator = source.readableByteBuffers()) {
+                while (remaining > 0 && iterator.hasNext()) {
+                    ByteBuffer bytes = iterator.next();
+                    int length = Math.min(remaining, bytes.remaining());
+                    this.buffer.write(bytes.limit(bytes.position() + length));
+                    remaining -= length;
+                }
+            }
+        }
+        this.nanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Copies the captured bytes out, releases the capture buffer and records the capture overhead.
+     *
+     * @param contentType the content type of the body, if known
+     * @return the captured body
+     */
+    synchronized CapturedBody drain(@Nullable MediaType contentType) {
+        byte[] bytes = new byte[0];
+        if (this.buffer != null && !this.released) {
+            bytes = new byte[this.buffer.readableByteCount()];
+            this.buffer.read(bytes);
+        }
+        this.meters.bytes().record(bytes.length);
+        this.meters.time().record(this.nanos, TimeUnit.NANOSECONDS);
+        if (this.size > bytes.length) {
+            this.meters.truncated().increment();
+        }
+        discard();
+        return new CapturedBody(bytes, this.size, contentType == null ? null : contentType.toString());
+    }
+
+    /**
+     * Releases the capture buffer, if not yet released. Bytes streaming through afterwards are only counted.
+     */
+    synchronized void discard() {
+        if (!this.released && this.buffer != null) {
+            DataBufferUtils.release(this.buffer);
+        }
+        this.released = true;
+    }
+
+    /**
+     * The meters of one body direction.
+     *
+     * @param bytes     the bytes held per capture
+     * @param time      the time spent copying per capture
+     * @param truncated the number of truncated bodies
+     */
+    record Meters(DistributionSummary bytes, Timer time, Counter truncated) {
+
+        /**
+         * Registers the meters of a direction.
+         *
+         * @param direction {@code request} or {@code response}
+         * @return the meters
+         */
+        static Meters of(String direction) {
+            return new Meters(
+                    DistributionSummary.builder("plate.loggers.capture.bytes").baseUnit("bytes")
+                            .tag("direction", direction).register(Metrics.globalRegistry),
+                    Timer.builder("plate.loggers.capture.time").tag("direction", direction)
+                            .register(Metrics.globalRegistry),
+                    Metrics.counter("plate.loggers.capture.truncated", "direction", direction));
+        }
+    }
+}
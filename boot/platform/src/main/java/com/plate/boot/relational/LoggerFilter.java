@@ -1,63 +1,63 @@
 package com.plate.boot.relational;
 
-import com.plate.boot.commons.exception.JsonException;
 import com.plate.boot.commons.utils.ContextUtils;
-import com.plate.boot.config.HttpCodecsProperties;
+import com.plate.boot.config.WebfluxProperties;
 import com.plate.boot.relational.logger.LoggerEvent;
 import com.plate.boot.relational.logger.LoggerReq;
+import com.plate.boot.relational.logger.LoggerRollups;
 import com.plate.boot.security.SecurityDetails;
 import com.plate.boot.security.core.UserAuditor;
-import io.netty.buffer.Unpooled;
-import io.netty.util.internal.EmptyArrays;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
 import org.reactivestreams.Publisher;
-import org.springframework.core.io.buffer.*;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
-import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ObjectUtils;
-import org.springframework.util.unit.DataSize;
-import org.springframework.web.reactive.function.server.HandlerStrategies;
-import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import tools.jackson.core.JacksonException;
-import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.node.ObjectNode;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Function;
 
 import static com.plate.boot.commons.utils.ContextUtils.getClientIpAddress;
 import static org.springframework.security.web.server.csrf.CsrfWebFilter.DEFAULT_CSRF_MATCHER;
 
 /**
  * LoggerFilter is a WebFilter designed to intercept and log HTTP request and response details.
- * It caches the request and response bodies, decorates the requests and responses for logging purposes,
+ * It decorates the requests and responses to capture their bodies as they stream through,
  * and utilizes a LoggersService to persist operation logs with enriched content.
  * The filter matches requests based on a predefined matcher (defaultLoggerMatcher) and can be bypassed
  * if the match is not successful.
  * <p>
  * Key Features:
- * - Caches request and response bodies to ensure they can be logged even after consumption.
- * - Matches requests to determine if logging should occur based on a ServerWebExchangeMatcher.
+ * - Decides per request, from the audit rules of {@link WebfluxProperties#getLoggerRules()}, whether it is logged
+ * always, never, sampled, only on error, or without bodies; see {@link AuditPolicy}.
+ * - Captures at most {@link WebfluxProperties#getLoggerBodyLimit()} bytes of each body, in a pooled buffer,
+ * while the body streams through unchanged; the body is never joined or parsed on the request path.
+ * - Logs the requests matching no rule when they match a ServerWebExchangeMatcher, the non-GET requests.
  * - Processes and logs the HTTP method, status, path, headers, cookies, from parameters, and bodies.
- * - Handles DataBuffer retention and release to prevent memory leaks.
+ * - Records the size of each body and the number of bytes cut off; the captured bytes are stored raw
+ * and decoded when the audit record is written.
+ * - Releases the capture buffers when the exchange completes, errors or is cancelled.
  * - Utilizes a separate service (LoggersService) to handle the logging operation asynchronously.
- * - Supports tracing-level logging for debugging filter operations.
+ * - Adds every request to the {@link LoggerRollups}, before the audit policy decides whether it is logged.
  * <p>
  * Dependencies:
- * - ServerWebExchangeMatcher for matching requests.
+ * - AuditPolicy for deciding how requests are logged.
+ * - LoggerRollups for the per-minute request rollups.
  * - LoggersService for persisting log entries.
- * - SLF4J Logger (log) for internal logging.
  * <p>
  * Usage:
  * Implemented as a Spring component (@Component), it's automatically registered in the WebFilter chain.
@@ -66,292 +66,201 @@ import static org.springframework.security.web.server.csrf.CsrfWebFilter.DEFAULT
 @Log4j2
 @Component
 public class LoggerFilter implements WebFilter {
-    /**
-     * Constants for the attribute key used to cache request body information.
-     * This string represents the attribute name under which
-     * the cached request body can be stored or retrieved in a context where attributes are managed.
-     */
-    public static final String CACHED_REQUEST_BODY_ATTR = "cachedRequestBody";
-    /**
-     * Constant defining an attribute key for storing the cached response body.
-     * This can be used in scenarios where the response body needs to be temporarily stored,
-     * such as during request handling or caching purposes within an application.
-     */
-    public static final String CACHED_RESPONSE_BODY_ATTR = "cachedResponseBody";
-    /**
-     * Constants for attribute key used to store cached ServerHttpRequest decorator.
-     * This string represents the attribute name under which a decorated ServerHttpRequest
-     * can be found within the attribute map of a request processing context.
-     */
-    public static final String CACHED_SERVER_HTTP_REQUEST_DECORATOR_ATTR = "cachedServerHttpRequestDecorator";
-    /**
-     * Constant defining an attribute key for the cached server HTTP response decorator.
-     * This attribute can be used to store or retrieve a decorated server HTTP response in a context where
-     * caching mechanisms or decorators are applied to server responses.
-     */
-    public static final String CACHED_SERVER_HTTP_RESPONSE_DECORATOR_ATTR = "cachedServerHttpResponseDecorator";
 
-    private final ServerWebExchangeMatcher defaultLoggerMatcher = DEFAULT_CSRF_MATCHER;
-    private final HandlerStrategies strategies;
+    private static final BodyCapture.Meters REQUEST_METERS = BodyCapture.Meters.of("request");
+    private static final BodyCapture.Meters RESPONSE_METERS = BodyCapture.Meters.of("response");
 
-    /**
-     * Constructs a new {@code LoggerFilter} and configures the handler strategies used to read
-     * cached request/response bodies.
-     * The in-memory buffer limit is taken from {@link HttpCodecsProperties#getMaxInMemorySize()},
-     * defaulting to 10KB when it is not configured.
-     *
-     * @param codecsProperties the HTTP codecs properties providing the maximum in-memory size
-     */
-    public LoggerFilter(HttpCodecsProperties codecsProperties) {
-        var memorySize = codecsProperties.getMaxInMemorySize();
-        if (ObjectUtils.isEmpty(memorySize)) {
-            memorySize = DataSize.ofKilobytes(10);
-        }
-        DataSize finalMemorySize = memorySize;
-        this.strategies = HandlerStrategies.builder().codecs(
-                configurer -> configurer.defaultCodecs()
-                        .maxInMemorySize((int) finalMemorySize.toBytes())
-        ).build();
-    }
+    private final AuditPolicy policy;
+    private final int bodyLimit;
+    private final LoggerRollups loggerRollups;
 
     /**
-     * Caches the request body of a ServerWebExchange and decorates the ServerHttpRequest
-     * to be used within the provided function, ensuring the request body can be consumed multiple times.
+     * Constructs a new {@code LoggerFilter} deciding by the compiled {@link WebfluxProperties#getLoggerRules()}
+     * and capturing at most {@link WebfluxProperties#getLoggerBodyLimit()} bytes of each request and response body.
      *
-     * @param <T>      The type of the result emitted by the decorated function.
-     * @param exchange The current ServerWebExchange containing the request and response.
-     * @param function A function that takes a ServerHttpRequest with a cached body and returns a Mono of T.
-     * @return A Mono emitting the result of applying the function to the request with the cached body.
+     * @param webfluxProperties the web properties providing the audit rules and the body capture limit
+     * @param loggerRollups     the rollups every request is added to
      */
-    public static <T> Mono<@NonNull T> cacheRequestBody(ServerWebExchange exchange,
-                                                        Function<ServerHttpRequest, Mono<@NonNull T>> function) {
-        ServerHttpResponse response = exchange.getResponse();
-        DataBufferFactory factory = response.bufferFactory();
-        var requestBody = DataBufferUtils.join(exchange.getRequest().getBody());
-        requestBody = requestBody.defaultIfEmpty(factory.wrap(EmptyArrays.EMPTY_BYTES));
-        var requestDecorate = requestBody.flatMap(dataBuffer ->
-                Mono.just(requestDecorate(exchange, dataBuffer)));
-        return requestDecorate.flatMap(function);
+    public LoggerFilter(WebfluxProperties webfluxProperties, LoggerRollups loggerRollups) {
+        this.policy = AuditPolicy.compile(webfluxProperties.getLoggerRules(), DEFAULT_CSRF_MATCHER);
+        this.bodyLimit = Math.toIntExact(webfluxProperties.getLoggerBodyLimit().toBytes());
+        this.loggerRollups = loggerRollups;
     }
 
     /**
-     * Decorates the ServerHttpResponse to cache the response body and update it when written.
-     * It stores an initial default message in case no response body is provided later.
-     * The decoration process involves intercepting the write operation to cache the actual response
-     * and restore a previous cached response if needed.
+     * Filters the given server web exchange based on the decision of the audit policy, taken before the
+     * exchange is decorated.
+     * If the request is to be logged, it decorates the request and response to capture their bodies, unless
+     * only headers are logged, and logs the request details using user details.
+     * Otherwise, it simply continues the filter chain without capturing or logging.
+     * Either way, the completed request is added to the rollups.
      *
-     * @param exchange The current ServerWebExchange containing the response to be decorated.
-     * @return A ServerHttpResponseDecorator that overrides the writeWith method to manage caching of response bodies.
+     * @param exchange The current server web exchange to be filtered.
+     * @param chain    The filter chain to be invoked for further processing.
+     * @return A Mono that completes void when the filtering and optional capturing/logging are finished.
      */
-    public static ServerHttpResponse responseDecorate(ServerWebExchange exchange) {
-        var response = exchange.getResponse();
-        var factory = response.bufferFactory();
-        var dataBuffer = factory.wrap("{\"message\":\"No response body available!\"}".getBytes());
-        exchange.getAttributes().put(CACHED_RESPONSE_BODY_ATTR, dataBuffer);
-        exchange.getAttributes().put("cachedOriginalResponseBodyBackup", dataBuffer);
-
-        ServerHttpResponseDecorator decorator = new ServerHttpResponseDecorator(exchange.getResponse()) {
-            @Override
-            public @NonNull Mono<@NonNull Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
-                var cachedDataBuffer = DataBufferUtils.join(body).doOnNext(data -> {
-                    Object previousCachedBody = exchange.getAttributes().put(CACHED_RESPONSE_BODY_ATTR, data);
-                    if (previousCachedBody != null) {
-                        exchange.getAttributes().put("cachedOriginalResponseBodyBackup", previousCachedBody);
-                    }
-                }).flatMap(data -> Mono.fromSupplier(() -> buildDataBuffer(data)));
-                return super.writeWith(cachedDataBuffer);
-            }
-        };
-        exchange.getAttributes().put(CACHED_SERVER_HTTP_RESPONSE_DECORATOR_ATTR, decorator);
-        return decorator;
+    @Override
+    public @NonNull Mono<@NonNull Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        long start = System.nanoTime();
+        var filterMono = this.policy.decide(exchange);
+        filterMono = filterMono.filter(AuditPolicy.Decision::log);
+        filterMono = filterMono.switchIfEmpty(Mono.defer(() ->
+                continueFilterChain(exchange, chain).then(Mono.empty())));
+        return filterMono.flatMap(decision -> decision.capture() ? captureFilterChain(exchange, chain, decision)
+                        : headersFilterChain(exchange, chain, decision))
+                .then(Mono.defer(() -> recordRollup(exchange, start, null)))
+                .onErrorResume(ex -> recordRollup(exchange, start, ex).then(Mono.error(ex)));
     }
 
     /**
-     * Decorates the provided ServerHttpRequest to cache its body content.
-     * This method is useful for scenarios where the request body needs to be read or processed
-     * multiple times without losing its original state.
-     * <p>
-     * When the given {@code dataBuffer} has a capacity greater than zero, its content is recorded as a
-     * backup and, if not already present, cached for subsequent reads. A {@link ServerHttpRequestDecorator}
-     * is always returned; the original buffer is served on every {@code getBody()} call.
+     * Adds the completed request to the rollups, with the user details when authenticated. A request failed
+     * with an error is counted with the status of the error, {@code 500} unless the error carries one.
      *
-     * @param exchange   The ServerWebExchange containing the current request and response.
-     * @param dataBuffer The DataBuffer representing the body of the request.
-     * @return A decorated {@link ServerHttpRequest} with the body cached for subsequent accesses.
+     * @param exchange The current server web exchange.
+     * @param start    The {@link System#nanoTime()} the filter started the request at.
+     * @param error    The error the request failed with, or {@code null}.
+     * @return A Mono completing once the request is recorded.
      */
-    private static ServerHttpRequest requestDecorate(ServerWebExchange exchange, DataBuffer dataBuffer) {
-        if (dataBuffer.capacity() > 0) {
-            var cachedDataBuffer = exchange.getAttribute(CACHED_REQUEST_BODY_ATTR);
-            if (!(cachedDataBuffer instanceof DataBuffer)) {
-                exchange.getAttributes().put(CACHED_REQUEST_BODY_ATTR, dataBuffer);
-            }
-            exchange.getAttributes().put("cachedOriginalRequestBodyBackup", dataBuffer);
-        }
-        var decorator = new ServerHttpRequestDecorator(exchange.getRequest()) {
-            @Override
-            public @NonNull Flux<@NonNull DataBuffer> getBody() {
-                log.debug("{}Request Decorator getBody.", exchange.getLogPrefix());
-                return Mono.fromSupplier(() -> buildDataBuffer(dataBuffer)).flux();
-            }
+    private Mono<@NonNull Void> recordRollup(ServerWebExchange exchange, long start, @Nullable Throwable error) {
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        String status = switch (error) {
+            case null -> exchange.getResponse().getStatusCode() == null ? null
+                    : String.valueOf(exchange.getResponse().getStatusCode().value());
+            case ErrorResponse response -> String.valueOf(response.getStatusCode().value());
+            default -> "500";
         };
-        exchange.getAttributes().put(CACHED_SERVER_HTTP_REQUEST_DECORATOR_ATTR, decorator);
-        return decorator;
-    }
-
-    /**
-     * Constructs a new DataBuffer based on the type of the input DataBuffer.
-     * This method supports conversion for NettyDataBuffer and DefaultDataBuffer instances,
-     * ensuring compatibility or preparing the buffer for operations that require a specific format.
-     *
-     * @param dataBuffer The source DataBuffer to be converted or wrapped.
-     * @return A new DataBuffer instance, either wrapped or converted from the input,
-     * maintaining the content of the original buffer.
-     * @throws IllegalArgumentException If the input DataBuffer is neither a NettyDataBuffer
-     *                                  nor a DefaultDataBuffer, indicating an unsupported type.
-     */
-    private static DataBuffer buildDataBuffer(DataBuffer dataBuffer) {
-        if (dataBuffer instanceof NettyDataBuffer pdb) {
-            return pdb.factory().wrap(pdb.getNativeBuffer().retainedSlice());
-        } else if (dataBuffer instanceof DefaultDataBuffer ddf) {
-            return ddf.factory().wrap(Unpooled.wrappedBuffer(ddf.getNativeBuffer()).nioBuffer());
-        } else {
-            throw new IllegalArgumentException(
-                    "Unable to handle DataBuffer of type " + dataBuffer.getClass());
-        }
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = exchange.getRequest().getMethod().name();
+        return ContextUtils.securityDetails().map(Optional::of).defaultIfEmpty(Optional.empty())
+                .doOnNext(details -> this.loggerRollups.record(
+                        details.map(SecurityDetails::getTenantCode).orElse(null), method,
+                        pattern == null ? null : pattern.getPatternString(), status, latency,
+                        details.map(SecurityDetails::getUsername).orElse(null)))
+                .then();
     }
 
     /**
-     * Reads and parses the request body from the given server web exchange.
+     * Continues the filter chain by deferring to the next filter in the sequence.
      *
-     * @param exchange The ServerWebExchange containing the request information.
-     * @return A JsonNode representing the parsed request body.
-     * @throws JsonException if an IOException occurs during JSON parsing.
+     * @param exchange The current server web exchange.
+     * @param chain    The WebFilterChain representing the remaining filters to be applied.
+     * @return A Mono<Void> indicating the completion or error of the deferred filter operation.
      */
-    private JsonNode readRequestBody(ServerWebExchange exchange) {
-        DataBuffer dataBodyBuff = exchange.getRequiredAttribute(CACHED_REQUEST_BODY_ATTR);
-        try {
-            return ContextUtils.OBJECT_MAPPER.readTree(dataBodyBuff.asInputStream());
-        } catch (JacksonException e) {
-            log.warn("{}Logger filter request body is null, Abort processing.", exchange.getLogPrefix(), e);
-            throw JsonException.withError(e);
-        }
+    private Mono<@NonNull Void> continueFilterChain(ServerWebExchange exchange, WebFilterChain chain) {
+        log.debug("{}Logger filter chain [continueFilterChain] next.", exchange.getLogPrefix());
+        return Mono.defer(() -> chain.filter(exchange));
     }
 
     /**
-     * Reads and parses the response body from the given server web exchange into a JSON node.
+     * Continues the filter chain with the request and response decorated to capture their bodies, then logs
+     * the request. The capture buffers are released however the exchange ends.
      *
-     * @param exchange The ServerWebExchange containing the response body to be read.
-     * @return A JsonNode representing the parsed response body. If the body is empty or parsing fails, an empty ObjectNode is returned.
-     * @throws JsonException If an IOException occurs during JSON parsing.
+     * @param exchange The current server web exchange containing the request and response objects.
+     * @param chain    The next filter chain to be executed.
+     * @param decision The decision of the audit policy.
+     * @return A Mono that completes when the filter chain execution is finished, or signals an error if any occurs.
      */
-    private JsonNode readResponseBody(ServerWebExchange exchange) {
-        DataBuffer dataBuffer = exchange.getRequiredAttribute(CACHED_RESPONSE_BODY_ATTR);
-        try {
-            return ContextUtils.OBJECT_MAPPER.readTree(dataBuffer.asInputStream());
-        } catch (JacksonException e) {
-            log.warn("{}Logger filter response body is null, Abort processing.", exchange.getLogPrefix(), e);
-            throw JsonException.withError(e);
-        }
+    private Mono<@NonNull Void> captureFilterChain(ServerWebExchange exchange, WebFilterChain chain,
+                                                   AuditPolicy.Decision decision) {
+        log.debug("{}Logger filter chain [captureFilterChain] next.", exchange.getLogPrefix());
+        var factory = exchange.getResponse().bufferFactory();
+        var requestCapture = new BodyCapture(factory, this.bodyLimit, REQUEST_METERS);
+        var responseCapture = new BodyCapture(factory, this.bodyLimit, RESPONSE_METERS);
+        long start = System.nanoTime();
+        var captured = exchange.mutate()
+                .request(requestDecorate(exchange.getRequest(), requestCapture))
+                .response(responseDecorate(exchange.getResponse(), responseCapture)).build();
+        return chain.filter(captured)
+                .then(Mono.fromSupplier(() -> decision.logged(isError(exchange))))
+                .filter(Boolean::booleanValue)
+                .flatMap(_ -> ContextUtils.securityDetails())
+                .doOnNext(userDetails -> logRequest(exchange, userDetails, start, requestCapture, responseCapture))
+                .doFinally(_ -> {
+                    requestCapture.discard();
+                    responseCapture.discard();
+                }).then();
     }
 
-
     /**
-     * Filters the given server web exchange based on a matching condition and applies caching before continuing the filter chain.
-     * If the default logger matcher determines a match, it proceeds to cache the response and logs the request details using user details.
-     * If no match is found, it simply continues the filter chain without caching or logging.
+     * Continues the filter chain without capturing the bodies, then logs the request without them.
      *
-     * @param exchange The current server web exchange to be filtered.
-     * @param chain    The filter chain to be invoked for further processing.
-     * @return A Mono that completes void when the filtering and optional caching/logging are finished.
+     * @param exchange The current server web exchange containing the request and response objects.
+     * @param chain    The next filter chain to be executed.
+     * @param decision The decision of the audit policy.
+     * @return A Mono that completes when the filter chain execution is finished, or signals an error if any occurs.
      */
-    @Override
-    public @NonNull Mono<@NonNull Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
-        var filterMono = defaultLoggerMatcher.matches(exchange);
-        filterMono = filterMono.filter(ServerWebExchangeMatcher.MatchResult::isMatch);
-        filterMono = filterMono.switchIfEmpty(Mono.defer(() ->
-                continueFilterChain(exchange, chain).then(Mono.empty())));
-        return filterMono.flatMap((_) -> cacheFilterChain(exchange, chain)
-                .then(Mono.defer(ContextUtils::securityDetails))
-                .doOnNext(userDetails -> logRequest(exchange, userDetails)).then());
+    private Mono<@NonNull Void> headersFilterChain(ServerWebExchange exchange, WebFilterChain chain,
+                                                   AuditPolicy.Decision decision) {
+        log.debug("{}Logger filter chain [headersFilterChain] next.", exchange.getLogPrefix());
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .then(Mono.fromSupplier(() -> decision.logged(isError(exchange))))
+                .filter(Boolean::booleanValue)
+                .flatMap(_ -> ContextUtils.securityDetails())
+                .doOnNext(userDetails -> logRequest(exchange, userDetails, start, null, null)).then();
     }
 
-    /**
-     * Continues the filter chain by deferring to the next filter in the sequence.
-     * This method is typically used within a custom WebFilter implementation to ensure
-     * that the request processing flows correctly through the chain after some
-     * preliminary actions or checks have been performed.
-     *
-     * @param exchange The current server web exchange which holds information about
-     *                 the client request and provides a way to manipulate the response.
-     * @param chain    The WebFilterChain representing the remaining filters to be applied.
-     * @return A Mono<Void> indicating the completion or error of the deferred filter operation.
-     * The completion signifies that the request has been processed by the next filter
-     * in line, or an error indicates that the processing failed at some point in the chain.
-     */
-    private Mono<@NonNull Void> continueFilterChain(ServerWebExchange exchange, WebFilterChain chain) {
-        log.debug("{}Logger filter chain [continueFilterChain] next.", exchange.getLogPrefix());
-        return Mono.defer(() -> chain.filter(exchange));
+    private static boolean isError(ServerWebExchange exchange) {
+        var status = exchange.getResponse().getStatusCode();
+        return status != null && status.isError();
     }
 
     /**
-     * Continues the filter chain after caching the request body.
-     * This method first caches the request body and then proceeds to execute the next filters in the chain.
+     * Decorates the request so that its body is captured as the handler reads it.
      *
-     * @param exchange The current server web exchange containing the request and response objects.
-     * @param chain    The next filter chain to be executed after caching the request body.
-     * @return A Mono that completes when the filter chain execution is finished, or signals an error if any occurs.
+     * @param request The request to decorate.
+     * @param capture The capture of the request body.
+     * @return The decorated request.
      */
-    private Mono<@NonNull Void> cacheFilterChain(ServerWebExchange exchange, WebFilterChain chain) {
-        log.debug("{}Logger filter chain [cacheRequestBody] next.", exchange.getLogPrefix());
-        return cacheRequestBody(exchange, serverHttpRequest -> {
-            ServerHttpResponse cachedResponse = responseDecorate(exchange);
-            ServerRequest serverRequest = ServerRequest.create(
-                    exchange.mutate().request(serverHttpRequest).response(cachedResponse).build(),
-                    this.strategies.messageReaders());
-            return serverRequest.bodyToMono(Object.class);
-        }).then(Mono.defer(() -> processFilter(exchange, chain)));
+    private static ServerHttpRequest requestDecorate(ServerHttpRequest request, BodyCapture capture) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public @NonNull Flux<@NonNull DataBuffer> getBody() {
+                return capture.tee(super.getBody());
+            }
+        };
     }
 
     /**
-     * Processes the filter chain after preparing the cached request and response decorators.
+     * Decorates the response so that its body is captured as it is written.
      *
-     * @param exchange The current server web exchange that holds the request and response information.
-     * @param chain    The filter chain to continue processing.
-     * @return A Mono that completes when the processing is done or empty if caching attributes are null.
+     * @param response The response to decorate.
+     * @param capture  The capture of the response body.
+     * @return The decorated response.
      */
-    private Mono<@NonNull Void> processFilter(ServerWebExchange exchange, WebFilterChain chain) {
-        ServerHttpRequest cachedRequest = exchange.getAttribute(CACHED_SERVER_HTTP_REQUEST_DECORATOR_ATTR);
-        ServerHttpResponse cachedResponse = exchange.getAttribute(CACHED_SERVER_HTTP_RESPONSE_DECORATOR_ATTR);
-
-        if (cachedRequest == null || cachedResponse == null) {
-            log.error("{}Logger filter cached request or response is null, Abort processing.",
-                    exchange.getLogPrefix());
-            return Mono.empty();
-        }
-
-        exchange.getAttributes().remove(CACHED_SERVER_HTTP_REQUEST_DECORATOR_ATTR);
-        exchange.getAttributes().remove(CACHED_SERVER_HTTP_RESPONSE_DECORATOR_ATTR);
+    private static ServerHttpResponse responseDecorate(ServerHttpResponse response, BodyCapture capture) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public @NonNull Mono<@NonNull Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+                return super.writeWith(capture.tee(body));
+            }
 
-        return chain.filter(exchange.mutate().request(cachedRequest).response(cachedResponse).build())
-                .doFinally(_ -> releaseResources(exchange));
+            @Override
+            public @NonNull Mono<@NonNull Void> writeAndFlushWith(
+                    @NonNull Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                return super.writeAndFlushWith(Flux.from(body).map(capture::tee));
+            }
+        };
     }
 
-
     /**
      * Logs the details of an HTTP request along with optional user details for security audit purposes.
      * It extracts information from the provided ServerWebExchange including request and response headers,
-     * cookies, from parameters, body content, and response status code. The logged data is structured
-     * into an ObjectNode which is then used to create a LoggerReq object. This method also associates
-     * the log entry with a tenant code extracted from the user details, if available. The logging process
-     * is asynchronous and the result is logged at the debug level with a prefixed log message indicating
-     * the operation performed.
+     * cookies, from parameters and response status code into an ObjectNode, which is then used to create
+     * a LoggerReq object. The captured bodies are attached raw; they are decoded into the context when the
+     * record is written. This method also associates the log entry with a tenant code extracted from the
+     * user details, if available.
      *
-     * @param exchange    The current server web exchange which holds both the incoming request and the
-     *                    outgoing response.
-     * @param userDetails Optional security details of the authenticated user, containing a username
-     *                    and a tenant code. If not provided, defaults are used.
+     * @param exchange        The current server web exchange which holds both the incoming request and the
+     *                        outgoing response.
+     * @param userDetails     Optional security details of the authenticated user, containing a username
+     *                        and a tenant code. If not provided, defaults are used.
+     * @param start           The {@link System#nanoTime()} the filter started the request at.
+     * @param requestCapture  The capture of the request body, or {@code null} if bodies are not logged.
+     * @param responseCapture The capture of the response body, or {@code null} if bodies are not logged.
      */
-    private void logRequest(ServerWebExchange exchange, SecurityDetails userDetails) {
+    private void logRequest(ServerWebExchange exchange, SecurityDetails userDetails, long start,
+                            @Nullable BodyCapture requestCapture, @Nullable BodyCapture responseCapture) {
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
 
@@ -360,11 +269,9 @@ public class LoggerFilter implements WebFilter {
         contentNode.putPOJO("requestAddress", getClientIpAddress(request));
         contentNode.putPOJO("requestCookies", request.getCookies());
         contentNode.putPOJO("requestQueryParams", request.getQueryParams());
-        contentNode.set("requestBody", readRequestBody(exchange));
 
         contentNode.putPOJO("responseHeaders", response.getHeaders());
         contentNode.putPOJO("responseStatusCode", response.getStatusCode());
-        contentNode.set("responseBody", readResponseBody(exchange));
 
         String prefix = exchange.getLogPrefix();
         String method = request.getMethod().name();
@@ -378,43 +285,16 @@ public class LoggerFilter implements WebFilter {
 
         LoggerReq logger = LoggerReq.of(tenantCode, userDetails.getUsername(), prefix,
                 method, status, path, contentNode);
+        if (requestCapture != null && responseCapture != null) {
+            logger.setRequestBody(requestCapture.drain(request.getHeaders().getContentType()));
+            logger.setResponseBody(responseCapture.drain(response.getHeaders().getContentType()));
+        }
+        logger.setLatency(Duration.ofNanos(System.nanoTime() - start));
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        logger.setPathTemplate(pattern == null ? null : pattern.getPatternString());
         var userAuditor = UserAuditor.withDetails(userDetails);
         logger.setCreatedBy(userAuditor);
         logger.setUpdatedBy(userAuditor);
         ContextUtils.eventPublisher(LoggerEvent.insert(logger));
     }
-
-    /**
-     * Releases the resources held by the cached request and response bodies in the given ServerWebExchange.
-     * This method retrieves the backup cached request body and response body from the exchange attributes
-     * and then calls the `releaseDataBuffer` method to free up the resources associated with these data buffers.
-     *
-     * @param exchange The ServerWebExchange context from which the cached bodies' resources will be released.
-     */
-    private void releaseResources(ServerWebExchange exchange) {
-        Object backupCachedReqBody = exchange.getAttributes().get("cachedOriginalRequestBodyBackup");
-        Object backupCachedResBody = exchange.getAttributes().get("cachedOriginalResponseBodyBackup");
-
-        releaseDataBuffer(backupCachedReqBody);
-        releaseDataBuffer(backupCachedResBody);
-
-        exchange.getAttributes().remove("cachedOriginalRequestBodyBackup");
-        exchange.getAttributes().remove("cachedOriginalResponseBodyBackup");
-    }
-
-    /**
-     * Releases the given data buffer object if it is an instance of {@link DataBuffer}.
-     * This method ensures that the resources held by the data buffer are properly released.
-     *
-     * @param dataBufferObject The object that may be a DataBuffer instance to be released.
-     */
-    private void releaseDataBuffer(Object dataBufferObject) {
-        if (dataBufferObject instanceof DataBuffer dataBuffer) {
-            try {
-                DataBufferUtils.release(dataBuffer);
-            } catch (Exception e) {
-                log.warn("Logger filter failed to release DataBuffer resource.", e);
-            }
-        }
-    }
-}
\ No newline at end of file
+}
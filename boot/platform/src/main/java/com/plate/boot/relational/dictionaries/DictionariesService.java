@@ -1,14 +1,15 @@
 package com.plate.boot.relational.dictionaries;
 
 import com.plate.boot.commons.base.AbstractCache;
+import com.plate.boot.commons.cache.RefreshPolicy;
 import com.plate.boot.commons.exception.RestServerException;
 import com.plate.boot.commons.utils.BeanUtils;
 import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.utils.DatabaseUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.relational.core.query.Query;
@@ -17,6 +18,10 @@ import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Service class for managing Dictionary entities.
  * Provides comprehensive CRUD operations, caching, and business logic for data dictionaries.
@@ -37,8 +42,25 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class DictionariesService extends AbstractCache {
 
+    /**
+     * Tag type of the per-type dictionary lists, keyed by tenant code and dictionary type.
+     */
+    private static final String DICT_TYPE_TAG = "dict-type";
+
     private final DictionariesRepository dictionariesRepository;
 
+    /**
+     * Dictionaries are read for nearly every form and dropdown but edited rarely, so cached lists are
+     * refreshed in the background after five minutes while the current list keeps being served.
+     * Writes still invalidate the affected tags immediately.
+     *
+     * @return the refresh-ahead policy of the dictionary cache
+     */
+    @Override
+    protected RefreshPolicy refreshPolicy() {
+        return RefreshPolicy.of(Duration.ofMinutes(5));
+    }
+
     /**
      * Searches for dictionaries based on the provided criteria with pagination.
      * Results are cached for improved performance.
@@ -50,7 +72,8 @@ public class DictionariesService extends AbstractCache {
     public Flux<Dictionary> search(DictionaryReq request, Pageable pageable) {
         var cacheKey = BeanUtils.cacheKey(request, pageable);
         Query query = Query.query(request.toCriteria()).with(pageable).sort(Sort.by("sortNo").ascending());
-        return this.queryWithCache(cacheKey, query, Dictionary.class);
+        var tags = Set.of(tag(TENANT_TAG, request.getTenantCode()));
+        return this.queryWithCache(cacheKey, tags, DatabaseUtils.query(query, Dictionary.class, true));
     }
 
     /**
@@ -61,11 +84,12 @@ public class DictionariesService extends AbstractCache {
      * @return A Mono emitting a Page of dictionaries
      */
     public Mono<Page<Dictionary>> page(DictionaryReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        Query query = Query.query(request.toCriteria());
-        var countMono = super.countWithCache(BeanUtils.cacheKey(request), query, Dictionary.class);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("dictionaries");
+        Query query = Query.query(request.toCriteria()).with(pageable).sort(Sort.by("sortNo").ascending());
+        var tags = Set.of(tag(TENANT_TAG, request.getTenantCode()));
+        var fragment = DatabaseUtils.fragment(query, Dictionary.class);
+        var pageMono = DatabaseUtils.page(fragment, pageable, Dictionary.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), tags, pageMono);
     }
 
     /**
@@ -78,7 +102,7 @@ public class DictionariesService extends AbstractCache {
      */
     public Flux<Dictionary> findByType(java.util.UUID tenantCode, String dictType) {
         String cacheKey = "dict:type:" + tenantCode + ":" + dictType;
-        return this.queryWithCache(cacheKey, 
+        return this.queryWithCache(cacheKey, Set.of(tag(DICT_TYPE_TAG, tenantCode + ":" + dictType)),
             this.dictionariesRepository.findByTenantCodeAndDictTypeOrderBySortNoAsc(tenantCode, dictType));
     }
 
@@ -92,7 +116,7 @@ public class DictionariesService extends AbstractCache {
      */
     public Flux<Dictionary> findEnabledByType(java.util.UUID tenantCode, String dictType) {
         String cacheKey = "dict:type:enabled:" + tenantCode + ":" + dictType;
-        return this.queryWithCache(cacheKey,
+        return this.queryWithCache(cacheKey, Set.of(tag(DICT_TYPE_TAG, tenantCode + ":" + dictType)),
             this.dictionariesRepository.findByTenantCodeAndDictTypeAndEnabledOrderBySortNoAsc(
                 tenantCode, dictType, true));
     }
@@ -106,7 +130,7 @@ public class DictionariesService extends AbstractCache {
      */
     public Flux<Dictionary> findChildren(java.util.UUID pcode) {
         String cacheKey = "dict:children:" + pcode;
-        return this.queryWithCache(cacheKey,
+        return this.queryWithCache(cacheKey, Set.of(tag(ENTITY_TAG, pcode)),
             this.dictionariesRepository.findByPcodeOrderBySortNoAsc(pcode));
     }
 
@@ -172,10 +196,13 @@ public class DictionariesService extends AbstractCache {
                     request.getDictType(), request.getDictKey())))
             .defaultIfEmpty(request.toDictionary())
             .flatMap(dictionary -> {
+                Set<String> tags = dictionaryTags(dictionary);
                 BeanUtils.copyProperties(request, dictionary, true);
-                return this.save(dictionary);
-            })
-            .doAfterTerminate(() -> this.cache.clear());
+                return this.save(dictionary).flatMap(saved -> {
+                    tags.addAll(dictionaryTags(dictionary));
+                    return this.invalidateTagsOnCommit(tags.toArray(String[]::new)).thenReturn(saved);
+                });
+            });
     }
 
     /**
@@ -201,7 +228,7 @@ public class DictionariesService extends AbstractCache {
 
     /**
      * Deletes a dictionary entry.
-     * Publishes a delete event and clears cache.
+     * Publishes a delete event and invalidates the cached results affected by the entry.
      *
      * @param request The dictionary delete request containing the code
      * @return A Mono indicating completion
@@ -213,7 +240,29 @@ public class DictionariesService extends AbstractCache {
         
         return this.dictionariesRepository.findByCode(request.getCode())
             .doOnNext(res -> ContextUtils.eventPublisher(DictionaryEvent.delete(res)))
-            .flatMap(this.dictionariesRepository::delete)
-            .doAfterTerminate(() -> this.cache.clear());
+            .flatMap(res -> this.dictionariesRepository.delete(res).then(
+                this.invalidateTagsOnCommit(dictionaryTags(res).toArray(String[]::new))));
+    }
+
+    /**
+     * Collects the cache tags affected by a write to the given dictionary: its tenant's searches,
+     * the searches not scoped to a tenant, its type list and its parent's children list.
+     *
+     * @param dictionary The written dictionary
+     * @return A mutable set of the affected tags
+     */
+    private static Set<String> dictionaryTags(Dictionary dictionary) {
+        Set<String> tags = new HashSet<>();
+        tags.add(tag(TENANT_TAG, null));
+        if (dictionary.getTenantCode() != null) {
+            tags.add(tag(TENANT_TAG, dictionary.getTenantCode()));
+        }
+        if (dictionary.getDictType() != null) {
+            tags.add(tag(DICT_TYPE_TAG, dictionary.getTenantCode() + ":" + dictionary.getDictType()));
+        }
+        if (dictionary.getPcode() != null) {
+            tags.add(tag(ENTITY_TAG, dictionary.getPcode()));
+        }
+        return tags;
     }
 }
@@ -1,5 +1,7 @@
 package com.plate.boot.relational.dictionaries;
 
+import com.plate.boot.commons.query.Match;
+import com.plate.boot.commons.query.QueryHelper;
 import com.plate.boot.commons.utils.BeanUtils;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -22,9 +24,15 @@ import java.util.UUID;
  * - Filtering by dictionary type, key, or enabled status
  * - Tenant and parent code filtering
  * - JSON-based extended queries
+ * <p>
+ * The string filters are matched in the {@link Match} modes declared here.
  *
  * @author <a href="https://github.com/vnobo">Alex Bob</a>
  */
+@Match(property = "dictType", mode = Match.Mode.EXACT)
+@Match(property = "dictKey", mode = Match.Mode.EXACT)
+@Match(property = "dictValue", mode = Match.Mode.CONTAINS)
+@Match(property = "dictLabel", mode = Match.Mode.FUZZY)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class DictionaryReq {
@@ -113,9 +121,9 @@ public class DictionaryReq {
      * Combines multiple search conditions using AND logic.
      * <p>
      * Supported criteria:
-     * - Exact match: id, code, pcode, tenantCode, dictType, dictKey
+     * - Exact match: id, code, pcode, tenantCode
      * - Equals match: enabled
-     * - Pattern match: dictValue, dictLabel (case-insensitive LIKE)
+     * - Declared {@link Match} mode: dictType, dictKey (exact), dictValue (contains), dictLabel (fuzzy)
      *
      * @return Criteria object for database querying
      */
@@ -139,19 +147,19 @@ public class DictionaryReq {
         }
 
         if (StringUtils.hasText(this.dictType)) {
-            criteriaList.add(Criteria.where("dictType").is(this.dictType));
+            criteriaList.add(QueryHelper.criteria(DictionaryReq.class, "dictType", this.dictType));
         }
 
         if (StringUtils.hasText(this.dictKey)) {
-            criteriaList.add(Criteria.where("dictKey").is(this.dictKey));
+            criteriaList.add(QueryHelper.criteria(DictionaryReq.class, "dictKey", this.dictKey));
         }
 
         if (StringUtils.hasText(this.dictValue)) {
-            criteriaList.add(Criteria.where("dictValue").like("%" + this.dictValue + "%").ignoreCase(true));
+            criteriaList.add(QueryHelper.criteria(DictionaryReq.class, "dictValue", this.dictValue));
         }
 
         if (StringUtils.hasText(this.dictLabel)) {
-            criteriaList.add(Criteria.where("dictLabel").like("%" + this.dictLabel + "%").ignoreCase(true));
+            criteriaList.add(QueryHelper.criteria(DictionaryReq.class, "dictLabel", this.dictLabel));
         }
 
         if (!ObjectUtils.isEmpty(this.enabled)) {
@@ -0,0 +1,74 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.utils.ContextUtils;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The leading bytes of a request or response body, captured as they streamed through for the audit log.
+ * <p>
+ * The bytes are kept raw; they are only decoded by {@link #writeTo(ObjectNode, String)} when the audit record
+ * is written, off the request path. A complete JSON body is stored as JSON, any other body as text.
+ *
+ * @param bytes       the captured bytes, at most the configured limit
+ * @param size        the number of bytes of the whole body
+ * @param contentType the content type of the body, if known
+ */
+public record CapturedBody(byte[] bytes, long size, @Nullable String contentType) {
+
+    /**
+     * @return the number of bytes of the body beyond the captured ones
+     */
+    public long truncated() {
+        return this.size - this.bytes.length;
+    }
+
+    /**
+     * Adds the body to an audit context as {@code <direction>Body}, with its size as {@code <direction>BodySize}
+     * and the number of bytes cut off as {@code <direction>BodyTruncated}.
+     *
+     * @param context   the audit context
+     * @param direction {@code request} or {@code response}
+     */
+    public void writeTo(ObjectNode context, String direction) {
+        writeTo(context, context, direction);
+    }
+
+    /**
+     * Adds the body to the bodies of an audit record as {@code <direction>Body}, and its size and the number of
+     * bytes cut off to the audit context, as {@code <direction>BodySize} and {@code <direction>BodyTruncated}.
+     *
+     * @param context   the audit context
+     * @param bodies    the bodies of the audit record
+     * @param direction {@code request} or {@code response}
+     */
+    public void writeTo(ObjectNode context, ObjectNode bodies, String direction) {
+        String field = direction + "Body";
+        if (this.bytes.length > 0 && truncated() == 0 && isJson()) {
+            try {
+                bodies.set(field, ContextUtils.OBJECT_MAPPER.readTree(this.bytes));
+            } catch (JacksonException ex) {
+                bodies.put(field, new String(this.bytes, StandardCharsets.UTF_8));
+            }
+        } else if (this.bytes.length > 0) {
+            bodies.put(field, new String(this.bytes, StandardCharsets.UTF_8));
+        }
+        context.put(field + "Size", this.size);
+        context.put(field + "Truncated", truncated());
+    }
+
+    private boolean isJson() {
+        if (this.contentType != null) {
+            return this.contentType.contains("json");
+        }
+        for (byte b : this.bytes) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,15 @@
 package com.plate.boot.relational.logger;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.plate.boot.commons.base.AbstractEntity;
 import com.plate.boot.commons.base.BaseEntity;
+import com.plate.boot.commons.query.JsonIndex;
 import com.plate.boot.relational.MethodType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 import tools.jackson.databind.JsonNode;
 
@@ -23,11 +28,19 @@ import tools.jackson.databind.JsonNode;
  * stored as a {@link JsonNode}, allows for flexible storage of additional structured data
  * related to the logged event.</p>
  *
+ * <p>The captured request and response bodies are not part of the context: they are written compressed to
+ * {@code se_logger_bodies} with the record, see {@link LoggerBodies}, and read back when a single record is
+ * viewed.</p>
+ *
+ * <p>Range and pattern filters on {@code context.requestAddress} are served by the expression index
+ * declared with {@link JsonIndex}.</p>
+ *
  * @see AbstractEntity for the base entity contract this class extends, providing common entity behaviors.
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
 @Table("se_loggers")
+@JsonIndex(path = "context.requestAddress")
 public class Logger extends AbstractEntity<Long> {
 
     /**
@@ -77,4 +90,12 @@ public class Logger extends AbstractEntity<Long> {
      */
     private JsonNode context;
 
-}
\ No newline at end of file
+    /**
+     * The captured request and response bodies, compressed by {@link LoggerBodies}, set while the record is
+     * written; they are stored apart from the record, in {@code se_logger_bodies}.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private @Transient byte @Nullable [] body;
+
+}
@@ -0,0 +1,222 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.config.DatabaseProperties;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Archives the audit logs of the aged monthly partitions of {@code se_loggers} to local files, and searches them.
+ * <p>
+ * {@link #archive(LocalDate)} streams the logs of every partition whose whole month is older than the archive
+ * {@code age}, oldest month first, with their compressed bodies, into a {@link LoggerArchiveFile} of the month:
+ * row groups of {@code row-group-size} logs, each column deflated apart, and a sidecar index of the minimum and
+ * maximum {@code created_at}, {@code tenant_code}, {@code operator} and {@code status} of every row group. Once
+ * the archive of a month is complete, the partitions of the month are dropped from the database. A month whose
+ * archive is complete already is not written again, so a run interrupted between the archive and the drop is
+ * resumed by the next one.
+ * <p>
+ * {@link #search(LoggerReq, LocalDateTime, LocalDateTime)} reads the logs of the archives back, skipping the row
+ * groups the index tells cannot match. Only the time range, tenant, operator and status of a search are applied
+ * to the archived logs; their auditors are codes only.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * loggerArchive.archive(LocalDate.now()).subscribe();
+ * Flux<LoggerRes> loggers = loggerArchive.search(request, from, to);
+ * }</pre>
+ */
+@Log4j2
+@Component
+public class LoggerArchive {
+
+    private static final String MONTH_SQL = "select l.id, l.code, l.tenant_code, l.prefix, l.operator, l.status,"
+            + " l.method, l.url, l.context, l.extend, l.created_by, l.updated_by, l.created_at, l.updated_at, b.body"
+            + " from se_loggers l left join se_logger_bodies b on b.code = l.code and b.created_at = l.created_at"
+            + " and b.created_at >= :from and b.created_at < :to"
+            + " where l.created_at >= :from and l.created_at < :to order by l.created_at, l.id";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter r2dbcConverter;
+    private final LoggersPartitions loggersPartitions;
+    private final DatabaseProperties.Archive properties;
+    private final int fetchSize;
+    private final Path directory;
+
+    /**
+     * Creates the archive of the aged logs.
+     *
+     * @param entityTemplate    the template whose client reads the logs, on the primary, and whose converter maps them
+     * @param loggersPartitions the partitions dropped once archived
+     * @param properties        the database settings holding the archive settings
+     */
+    public LoggerArchive(R2dbcEntityTemplate entityTemplate, LoggersPartitions loggersPartitions,
+                         DatabaseProperties properties) {
+        this.databaseClient = entityTemplate.getDatabaseClient();
+        this.r2dbcConverter = entityTemplate.getConverter();
+        this.loggersPartitions = loggersPartitions;
+        this.properties = properties.getLoggers().getArchive();
+        this.fetchSize = properties.getFetchSize();
+        this.directory = Path.of(this.properties.getDirectory());
+    }
+
+    /**
+     * @return whether the aged logs are archived and the archives searched
+     */
+    public boolean enabled() {
+        return this.properties.isEnabled();
+    }
+
+    /**
+     * Archives the partitions whose whole month is older than the archive age, then drops them, a month at a
+     * time, oldest first. Does nothing when the archive is disabled.
+     *
+     * @param today the current date
+     * @return a {@link Mono} emitting the number of archived months
+     */
+    public Mono<Long> archive(LocalDate today) {
+        if (!this.properties.isEnabled()) {
+            return Mono.just(0L);
+        }
+        return this.loggersPartitions.expiredMonths(today.minus(this.properties.getAge()))
+                .concatMap(month -> archive(month)
+                        .then(this.loggersPartitions.dropExpired(month.plusMonths(1).atDay(1))))
+                .count();
+    }
+
+    private Mono<LoggerArchiveFile.Index> archive(YearMonth month) {
+        Path indexFile = LoggerArchiveFile.indexFile(this.directory, month);
+        var existing = Mono.fromCallable(() -> Files.exists(indexFile)).subscribeOn(Schedulers.boundedElastic());
+        return existing.flatMap(exists -> exists ? Mono.fromCallable(() -> LoggerArchiveFile.readIndex(indexFile))
+                .subscribeOn(Schedulers.boundedElastic()) : write(month));
+    }
+
+    private Mono<LoggerArchiveFile.Index> write(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Flux<Logger> loggers = this.databaseClient.sql(MONTH_SQL).bind("from", from).bind("to", to)
+                .filter(statement -> statement.fetchSize(this.fetchSize))
+                .map((row, rowMetadata) -> {
+                    Logger logger = this.r2dbcConverter.read(Logger.class, row, rowMetadata);
+                    logger.setBody(row.get("body", byte[].class));
+                    return logger;
+                }).all();
+        var index = Mono.usingWhen(
+                Mono.fromCallable(() -> new LoggerArchiveFile.Writer(this.directory, month,
+                        this.properties.getLevel())).subscribeOn(Schedulers.boundedElastic()),
+                writer -> loggers.buffer(this.properties.getRowGroupSize())
+                        .concatMap(group -> Mono.fromCallable(() -> {
+                            writer.append(group);
+                            return group.size();
+                        }).subscribeOn(Schedulers.boundedElastic()))
+                        .then(Mono.fromCallable(writer::finish).subscribeOn(Schedulers.boundedElastic())),
+                writer -> Mono.fromCallable(() -> {
+                    writer.close();
+                    return month;
+                }).subscribeOn(Schedulers.boundedElastic()));
+        return index.doOnNext(written -> log.info("Archived {} audit logs of {} to {}.", written.rows(), month,
+                this.directory));
+    }
+
+    /**
+     * Finds the latest archived month, from the index files of the archive directory.
+     *
+     * @return the latest month, or {@code null} if no month is archived
+     * @throws IOException if the directory cannot be listed
+     */
+    @Nullable YearMonth archivedThrough() throws IOException {
+        if (!Files.isDirectory(this.directory)) {
+            return null;
+        }
+        YearMonth latest = null;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith("loggers-") || !name.endsWith(".idx")) {
+                    continue;
+                }
+                try {
+                    YearMonth month = YearMonth.parse(name.substring("loggers-".length(), name.length() - 4));
+                    latest = latest == null || month.isAfter(latest) ? month : latest;
+                } catch (DateTimeParseException ignored) {
+                    // Not an index of the archive.
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Finds the start of the logs still in the database: the first month after the latest archived one.
+     *
+     * @return a {@link Mono} emitting the start, or empty if no month is archived or the archive is disabled
+     */
+    public Mono<LocalDateTime> liveFrom() {
+        if (!this.properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(this::archivedThrough).subscribeOn(Schedulers.boundedElastic())
+                .map(month -> month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Searches the archived logs of a time range, newest first.
+     * <p>
+     * The archives are read a row group at a time as the logs are requested, so a search taking its first logs
+     * only reads the row groups it needs.
+     *
+     * @param request the search, of which only the tenant, {@code securityCode}, the operator and the status apply
+     * @param from    the earliest creation time, inclusive
+     * @param to      the latest creation time, exclusive
+     * @return a {@link Flux} of the matching logs, by creation time descending
+     */
+    public Flux<LoggerRes> search(LoggerReq request, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Flux.empty();
+        }
+        var filter = new LoggerArchiveFile.Filter(from, to, request.getSecurityCode(), request.getOperator(),
+                request.getStatus());
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(to.minusNanos(1)); !month.isBefore(YearMonth.from(from));
+             month = month.minusMonths(1)) {
+            months.add(month);
+        }
+        return Flux.fromIterable(months).concatMap(month -> search(month, filter));
+    }
+
+    private Flux<LoggerRes> search(YearMonth month, LoggerArchiveFile.Filter filter) {
+        Path indexFile = LoggerArchiveFile.indexFile(this.directory, month);
+        Path dataFile = LoggerArchiveFile.dataFile(this.directory, month);
+        var index = Mono.fromCallable(() -> Files.exists(indexFile) ? LoggerArchiveFile.readIndex(indexFile) : null)
+                .subscribeOn(Schedulers.boundedElastic());
+        return index.flatMapMany(read -> {
+            List<LoggerArchiveFile.Group> groups = new ArrayList<>(read.groups());
+            Collections.reverse(groups);
+            return Flux.fromIterable(groups).filter(filter::mayMatch)
+                    .concatMap(group -> Mono.fromCallable(() -> {
+                        List<LoggerRes> loggers = LoggerArchiveFile.read(dataFile, group, filter, false);
+                        Collections.reverse(loggers);
+                        return loggers;
+                    }).subscribeOn(Schedulers.boundedElastic()), 1)
+                    .concatMapIterable(loggers -> loggers);
+        });
+    }
+}
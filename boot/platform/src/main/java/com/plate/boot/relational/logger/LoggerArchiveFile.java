@@ -0,0 +1,484 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.codec.DeflateCodec;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.relational.MethodType;
+import com.plate.boot.security.core.UserAuditor;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.core.JacksonException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * The archive file of the audit logs of a month, in a columnar layout, and its sidecar index.
+ * <p>
+ * The data file {@code loggers-YYYY-MM.plog} holds the logs in row groups of consecutive logs, ordered by creation
+ * time. A row group stores each {@link Column} in a chunk of its own, deflated: the values of a column look
+ * alike, so they compress well together, and a read only inflates the columns it needs. The creation times are
+ * delta-encoded. The sidecar index {@code loggers-YYYY-MM.idx}, a small JSON document, locates the row groups and
+ * chunks and keeps the minimum and maximum {@code created_at}, {@code tenant_code}, {@code operator} and
+ * {@code status} of every row group, so that a search skips the row groups it cannot match without reading them.
+ * <p>
+ * Both files are written under a temporary name, synced and renamed; the index is written last, so an archive is
+ * complete exactly when its index exists.
+ */
+final class LoggerArchiveFile {
+
+    private static final byte[] MAGIC = {'P', 'L', 'A', '1'};
+
+    private static final String DATA_SUFFIX = ".plog";
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private LoggerArchiveFile() {
+    }
+
+    /**
+     * @param directory the archive directory
+     * @param month     the month of the archive
+     * @return the data file of the archive of the month
+     */
+    static Path dataFile(Path directory, YearMonth month) {
+        return directory.resolve("loggers-" + month + DATA_SUFFIX);
+    }
+
+    /**
+     * @param directory the archive directory
+     * @param month     the month of the archive
+     * @return the index file of the archive of the month
+     */
+    static Path indexFile(Path directory, YearMonth month) {
+        return directory.resolve("loggers-" + month + INDEX_SUFFIX);
+    }
+
+    /**
+     * Reads the index of an archive.
+     *
+     * @param file the index file
+     * @return the index
+     * @throws IOException if the file cannot be read or is not an index
+     */
+    static Index readIndex(Path file) throws IOException {
+        try {
+            return ContextUtils.OBJECT_MAPPER.readValue(Files.readAllBytes(file), Index.class);
+        } catch (JacksonException ex) {
+            throw new IOException("Malformed audit log archive index " + file, ex);
+        }
+    }
+
+    /**
+     * Reads the logs of a row group matching a filter. The filter columns are inflated first; the other columns
+     * are only inflated when a log matches.
+     *
+     * @param data   the data file
+     * @param group  the row group, from the index
+     * @param filter the filter of the logs
+     * @param bodies whether the compressed bodies are read too, the largest column
+     * @return the matching logs, in creation order
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    static List<LoggerRes> read(Path data, Group group, Filter filter, boolean bodies) throws IOException {
+        LoggerRes[] loggers = new LoggerRes[group.rows()];
+        for (int i = 0; i < loggers.length; i++) {
+            loggers[i] = new LoggerRes();
+        }
+        long[] offsets = new long[Column.VALUES.length];
+        long offset = group.offset();
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = offset;
+            offset += group.chunks().get(i);
+        }
+        DeflateCodec codec = new DeflateCodec(1, null);
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            for (Column column : Column.FILTERS) {
+                decode(column, chunk(channel, codec, offsets[column.ordinal()], group.chunks().get(column.ordinal())),
+                        loggers);
+            }
+            List<LoggerRes> matched = new ArrayList<>();
+            for (LoggerRes logger : loggers) {
+                if (filter.matches(logger)) {
+                    matched.add(logger);
+                }
+            }
+            if (matched.isEmpty()) {
+                return matched;
+            }
+            for (Column column : Column.VALUES) {
+                if (!Column.FILTERS.contains(column) && (bodies || column != Column.BODY)) {
+                    decode(column, chunk(channel, codec, offsets[column.ordinal()],
+                            group.chunks().get(column.ordinal())), loggers);
+                }
+            }
+            return matched;
+        }
+    }
+
+    private static DataInputStream chunk(FileChannel channel, DeflateCodec codec, long offset, int length)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated audit log archive");
+            }
+        }
+        try {
+            return new DataInputStream(new ByteArrayInputStream(codec.decompress(buffer.array(), _ -> null)));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Corrupt audit log archive chunk at " + offset, ex);
+        }
+    }
+
+    private static byte[] encode(Column column, List<? extends Logger> loggers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(loggers.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            long previous = 0;
+            for (Logger logger : loggers) {
+                switch (column) {
+                    case ID -> out.writeLong(logger.getId() == null ? 0 : logger.getId());
+                    case CODE -> LoggersWriter.writeUuid(out, logger.getCode());
+                    case TENANT_CODE -> LoggersWriter.writeUuid(out, logger.getTenantCode());
+                    case PREFIX -> LoggersWriter.writeString(out, logger.getPrefix());
+                    case OPERATOR -> LoggersWriter.writeString(out, logger.getOperator());
+                    case STATUS -> LoggersWriter.writeString(out, logger.getStatus());
+                    case METHOD -> LoggersWriter.writeString(out,
+                            logger.getMethod() == null ? null : logger.getMethod().name());
+                    case URL -> LoggersWriter.writeString(out, logger.getUrl());
+                    case CONTEXT -> LoggersWriter.writeString(out,
+                            logger.getContext() == null ? null : logger.getContext().toString());
+                    case EXTEND -> LoggersWriter.writeString(out,
+                            logger.getExtend() == null ? null : logger.getExtend().toString());
+                    case CREATED_BY -> LoggersWriter.writeUuid(out,
+                            logger.getCreatedBy() == null ? null : logger.getCreatedBy().code());
+                    case UPDATED_BY -> LoggersWriter.writeUuid(out,
+                            logger.getUpdatedBy() == null ? null : logger.getUpdatedBy().code());
+                    case CREATED_AT -> {
+                        long micros = micros(logger.getCreatedAt());
+                        writeVarLong(out, zigzag(micros - previous));
+                        previous = micros;
+                    }
+                    case UPDATED_AT -> {
+                        out.writeBoolean(logger.getUpdatedAt() != null);
+                        if (logger.getUpdatedAt() != null) {
+                            out.writeLong(micros(logger.getUpdatedAt()));
+                        }
+                    }
+                    case BODY -> LoggersWriter.writeBytes(out, logger.getBody());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(Column column, DataInputStream in, Logger[] loggers) throws IOException {
+        long previous = 0;
+        try {
+            for (Logger logger : loggers) {
+                switch (column) {
+                    case ID -> logger.setId(in.readLong());
+                    case CODE -> logger.setCode(LoggersWriter.readUuid(in));
+                    case TENANT_CODE -> logger.setTenantCode(LoggersWriter.readUuid(in));
+                    case PREFIX -> logger.setPrefix(LoggersWriter.readString(in));
+                    case OPERATOR -> logger.setOperator(LoggersWriter.readString(in));
+                    case STATUS -> logger.setStatus(LoggersWriter.readString(in));
+                    case METHOD -> {
+                        String method = LoggersWriter.readString(in);
+                        logger.setMethod(method == null ? null : MethodType.value(method));
+                    }
+                    case URL -> logger.setUrl(LoggersWriter.readString(in));
+                    case CONTEXT -> {
+                        String context = LoggersWriter.readString(in);
+                        logger.setContext(context == null ? null : ContextUtils.OBJECT_MAPPER.readTree(context));
+                    }
+                    case EXTEND -> {
+                        String extend = LoggersWriter.readString(in);
+                        logger.setExtend(extend == null ? null : ContextUtils.OBJECT_MAPPER.readTree(extend));
+                    }
+                    case CREATED_BY -> {
+                        UUID createdBy = LoggersWriter.readUuid(in);
+                        logger.setCreatedBy(createdBy == null ? null : UserAuditor.withCode(createdBy));
+                    }
+                    case UPDATED_BY -> {
+                        UUID updatedBy = LoggersWriter.readUuid(in);
+                        logger.setUpdatedBy(updatedBy == null ? null : UserAuditor.withCode(updatedBy));
+                    }
+                    case CREATED_AT -> {
+                        previous += unzigzag(readVarLong(in));
+                        logger.setCreatedAt(dateTime(previous));
+                    }
+                    case UPDATED_AT -> logger.setUpdatedAt(in.readBoolean() ? dateTime(in.readLong()) : null);
+                    case BODY -> logger.setBody(LoggersWriter.readBytes(in));
+                }
+            }
+        } catch (JacksonException ex) {
+            throw new IOException("Malformed audit log archive " + column + " column", ex);
+        }
+    }
+
+    private static long micros(@Nullable LocalDateTime time) {
+        Objects.requireNonNull(time, "Archived audit logs must have a creation time");
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed audit log archive varint");
+    }
+
+    /**
+     * The columns of an archive, in the order of their chunks in a row group.
+     */
+    enum Column {
+        ID, CODE, TENANT_CODE, PREFIX, OPERATOR, STATUS, METHOD, URL, CONTEXT, EXTEND, CREATED_BY, UPDATED_BY,
+        CREATED_AT, UPDATED_AT, BODY;
+
+        static final Column[] VALUES = values();
+
+        /**
+         * The columns the filters of a search test, inflated before the others.
+         */
+        static final Set<Column> FILTERS = EnumSet.of(TENANT_CODE, OPERATOR, STATUS, CREATED_AT);
+    }
+
+    /**
+     * The index of an archive.
+     *
+     * @param month  the month of the archived logs
+     * @param rows   the number of archived logs
+     * @param groups the row groups, in creation order
+     */
+    record Index(YearMonth month, long rows, List<Group> groups) {
+    }
+
+    /**
+     * A row group of an archive, with the minimum and maximum values of its filter columns, {@code null} when all
+     * of its values are {@code null}.
+     *
+     * @param offset       the position of the first chunk in the data file
+     * @param rows         the number of logs
+     * @param chunks       the length of the chunk of each column, in column order
+     * @param minCreatedAt the earliest creation time
+     * @param maxCreatedAt the latest creation time
+     * @param minTenant    the least tenant code, as text
+     * @param maxTenant    the greatest tenant code, as text
+     * @param minOperator  the least operator
+     * @param maxOperator  the greatest operator
+     * @param minStatus    the least status
+     * @param maxStatus    the greatest status
+     */
+    record Group(long offset, int rows, List<Integer> chunks, LocalDateTime minCreatedAt,
+                 LocalDateTime maxCreatedAt, @Nullable String minTenant, @Nullable String maxTenant,
+                 @Nullable String minOperator, @Nullable String maxOperator, @Nullable String minStatus,
+                 @Nullable String maxStatus) {
+
+        static Group of(long offset, List<? extends Logger> loggers, List<Integer> chunks) {
+            Range<LocalDateTime> createdAt = new Range<>();
+            Range<String> tenant = new Range<>();
+            Range<String> operator = new Range<>();
+            Range<String> status = new Range<>();
+            for (Logger logger : loggers) {
+                createdAt.add(logger.getCreatedAt());
+                tenant.add(logger.getTenantCode() == null ? null : logger.getTenantCode().toString());
+                operator.add(logger.getOperator());
+                status.add(logger.getStatus());
+            }
+            return new Group(offset, loggers.size(), chunks, createdAt.min, createdAt.max, tenant.min,
+                    tenant.max, operator.min, operator.max, status.min, status.max);
+        }
+    }
+
+    private static final class Range<T extends Comparable<? super T>> {
+
+        private @Nullable T min;
+        private @Nullable T max;
+
+        void add(@Nullable T value) {
+            if (value == null) {
+                return;
+            }
+            if (this.min == null || value.compareTo(this.min) < 0) {
+                this.min = value;
+            }
+            if (this.max == null || value.compareTo(this.max) > 0) {
+                this.max = value;
+            }
+        }
+    }
+
+    /**
+     * The filter of a search of the archives: a creation time range, and optionally a tenant, an operator and a
+     * status the logs must equal.
+     *
+     * @param from     the earliest creation time, inclusive
+     * @param to       the latest creation time, exclusive
+     * @param tenant   the tenant code, or {@code null} for any
+     * @param operator the operator, or {@code null} for any
+     * @param status   the status, or {@code null} for any
+     */
+    record Filter(LocalDateTime from, LocalDateTime to, @Nullable UUID tenant, @Nullable String operator,
+                  @Nullable String status) {
+
+        /**
+         * Tells whether a row group may hold matching logs, from its statistics.
+         *
+         * @param group the row group
+         * @return false if no log of the row group matches
+         */
+        boolean mayMatch(Group group) {
+            return group.maxCreatedAt().isAfter(this.from.minusNanos(1)) && group.minCreatedAt().isBefore(this.to)
+                    && within(this.tenant == null ? null : this.tenant.toString(), group.minTenant(), group.maxTenant())
+                    && within(this.operator, group.minOperator(), group.maxOperator())
+                    && within(this.status, group.minStatus(), group.maxStatus());
+        }
+
+        private static boolean within(@Nullable String value, @Nullable String min, @Nullable String max) {
+            return value == null || (min != null && max != null && value.compareTo(min) >= 0
+                    && value.compareTo(max) <= 0);
+        }
+
+        /**
+         * @param logger a log with its filter columns read
+         * @return true if the log matches
+         */
+        boolean matches(Logger logger) {
+            return !logger.getCreatedAt().isBefore(this.from) && logger.getCreatedAt().isBefore(this.to)
+                    && (this.tenant == null || this.tenant.equals(logger.getTenantCode()))
+                    && (this.operator == null || this.operator.equals(logger.getOperator()))
+                    && (this.status == null || this.status.equals(logger.getStatus()));
+        }
+    }
+
+    /**
+     * Writes the archive of a month, row group by row group. The archive only replaces an existing one of the
+     * same month once {@link #finish()} returns; closing the writer before discards it.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path directory;
+        private final YearMonth month;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final DeflateCodec codec;
+        private final List<Group> groups = new ArrayList<>();
+        private long offset;
+        private long rows;
+        private boolean finished;
+
+        /**
+         * Opens the archive of a month for writing.
+         *
+         * @param directory the archive directory, created if missing
+         * @param month     the month of the archived logs
+         * @param level     the deflate compression level of the chunks
+         * @throws IOException if the file cannot be created
+         */
+        Writer(Path directory, YearMonth month, int level) throws IOException {
+            Files.createDirectories(directory);
+            this.directory = directory;
+            this.month = month;
+            this.temporary = directory.resolve(dataFile(directory, month).getFileName() + ".tmp");
+            this.channel = FileChannel.open(this.temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.codec = new DeflateCodec(level, null);
+            write(MAGIC);
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                this.offset += this.channel.write(buffer);
+            }
+        }
+
+        /**
+         * Appends a row group.
+         *
+         * @param loggers the logs of the row group, in creation order after those already appended
+         * @throws IOException if the file cannot be written
+         */
+        void append(List<? extends Logger> loggers) throws IOException {
+            if (loggers.isEmpty()) {
+                return;
+            }
+            long start = this.offset;
+            List<Integer> chunks = new ArrayList<>(Column.VALUES.length);
+            for (Column column : Column.VALUES) {
+                byte[] chunk = this.codec.compress(encode(column, loggers));
+                write(chunk);
+                chunks.add(chunk.length);
+            }
+            this.groups.add(Group.of(start, loggers, chunks));
+            this.rows += loggers.size();
+        }
+
+        /**
+         * Syncs and publishes the archive: its data file, then its index.
+         *
+         * @return the index of the archive
+         * @throws IOException if the files cannot be written
+         */
+        Index finish() throws IOException {
+            this.channel.force(true);
+            this.channel.close();
+            Files.move(this.temporary, dataFile(this.directory, this.month), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Index index = new Index(this.month, this.rows, List.copyOf(this.groups));
+            Path indexFile = indexFile(this.directory, this.month);
+            Path indexTemporary = this.directory.resolve(indexFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(indexTemporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                out.write(ByteBuffer.wrap(ContextUtils.OBJECT_MAPPER.writeValueAsBytes(index)));
+                out.force(true);
+            }
+            Files.move(indexTemporary, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            this.finished = true;
+            return index;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.finished) {
+                this.channel.close();
+                Files.deleteIfExists(this.temporary);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.codec.DeflateCodec;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compresses the captured request and response bodies of the audit logs, which are stored apart from the logs
+ * in {@code se_logger_bodies}, and reads them back.
+ * <p>
+ * The bodies of a record are held in one JSON object, {@code requestBody} and {@code responseBody}, deflated with
+ * a {@link DeflateCodec}. When no dictionary is stored yet, the first {@code training-samples} bodies are sampled,
+ * a dictionary of {@code dictionary-size} is trained on them and stored in {@code se_logger_dictionaries}, and
+ * the following bodies are compressed with it. The stored dictionaries are loaded at start, the latest one
+ * compressing. A body names its dictionary, so the bodies compressed by another instance, or before a new
+ * dictionary was trained, are read back with theirs, loaded on demand.
+ * <p>
+ * Compression runs on the audit log writer, off the request path; bodies are only decompressed when a single log
+ * is viewed. The raw and stored sizes of the bodies are published as {@code plate.loggers.bodies.raw} and
+ * {@code plate.loggers.bodies.stored}.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * byte[] body = loggerBodies.compress(bodies);
+ * Mono<ObjectNode> read = loggerBodies.find(code, createdAt);
+ * }</pre>
+ */
+@Log4j2
+@Component
+public class LoggerBodies implements InitializingBean {
+
+    private final DatabaseClient databaseClient;
+    private final DatabaseProperties.Bodies properties;
+    private final Map<Long, byte[]> dictionaries = new ConcurrentHashMap<>();
+    private final DistributionSummary rawBytes;
+    private final DistributionSummary storedBytes;
+    private volatile DeflateCodec codec;
+    private @Nullable List<byte[]> samples;
+
+    /**
+     * Creates the compression of the bodies, without dictionary until the stored ones are loaded.
+     *
+     * @param databaseClient the client reading the bodies and the dictionaries
+     * @param properties     the database settings holding the body settings
+     */
+    public LoggerBodies(DatabaseClient databaseClient, DatabaseProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties.getLoggers().getBodies();
+        this.codec = new DeflateCodec(this.properties.getLevel(), null);
+        this.rawBytes = DistributionSummary.builder("plate.loggers.bodies.raw").baseUnit("bytes")
+                .register(Metrics.globalRegistry);
+        this.storedBytes = DistributionSummary.builder("plate.loggers.bodies.stored").baseUnit("bytes")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @return whether the bodies are stored compressed apart from the logs
+     */
+    public boolean enabled() {
+        return this.properties.isEnabled();
+    }
+
+    /**
+     * Compresses the bodies of a record, and samples them while a dictionary is being trained.
+     *
+     * @param bodies the bodies of the record
+     * @return the compressed bodies
+     */
+    public byte[] compress(ObjectNode bodies) {
+        byte[] raw = ContextUtils.OBJECT_MAPPER.writeValueAsBytes(bodies);
+        byte[] stored = this.codec.compress(raw);
+        this.rawBytes.record(raw.length);
+        this.storedBytes.record(stored.length);
+        sample(raw);
+        return stored;
+    }
+
+    /**
+     * Decompresses the bodies of a record, with a dictionary already loaded.
+     *
+     * @param body the compressed bodies
+     * @return the bodies of the record
+     * @throws IllegalArgumentException if the bodies are malformed or their dictionary is not loaded
+     */
+    ObjectNode decompress(byte[] body) {
+        JsonNode bodies = ContextUtils.OBJECT_MAPPER.readTree(this.codec.decompress(body, this.dictionaries::get));
+        return bodies instanceof ObjectNode node ? node : ContextUtils.OBJECT_MAPPER.createObjectNode();
+    }
+
+    /**
+     * Reads the bodies of a record.
+     *
+     * @param code      the code of the record
+     * @param createdAt the creation time of the record, which locates its partition
+     * @return a {@link Mono} emitting the bodies, or empty if the record has none
+     */
+    public Mono<ObjectNode> find(UUID code, LocalDateTime createdAt) {
+        var body = this.databaseClient.sql("select body from se_logger_bodies where code = :code"
+                        + " and created_at = :createdAt")
+                .bind("code", code).bind("createdAt", createdAt)
+                .map(row -> row.get("body", byte[].class)).one();
+        return body.flatMap(bytes -> dictionary(DeflateCodec.dictionaryId(bytes)).then(Mono.fromCallable(
+                () -> decompress(bytes))));
+    }
+
+    private Mono<Void> dictionary(long id) {
+        if (id == 0 || id == this.codec.dictionaryId() || this.dictionaries.containsKey(id)) {
+            return Mono.empty();
+        }
+        return this.databaseClient.sql("select dictionary from se_logger_dictionaries where id = :id")
+                .bind("id", id).map(row -> row.get("dictionary", byte[].class)).one()
+                .doOnNext(dictionary -> this.dictionaries.put(id, dictionary)).then();
+    }
+
+    private void sample(byte[] raw) {
+        List<byte[]> trained;
+        synchronized (this) {
+            if (this.samples == null) {
+                return;
+            }
+            this.samples.add(raw);
+            if (this.samples.size() < this.properties.getTrainingSamples()) {
+                return;
+            }
+            trained = this.samples;
+            this.samples = null;
+        }
+        byte[] dictionary = DeflateCodec.train(trained, Math.toIntExact(this.properties.getDictionarySize()
+                .toBytes()));
+        if (dictionary.length == 0) {
+            log.info("Audit log bodies share too little to train a dictionary, compressing without.");
+            return;
+        }
+        long id = DeflateCodec.id(dictionary);
+        this.databaseClient.sql("insert into se_logger_dictionaries (id, dictionary, samples)"
+                        + " values (:id, :dictionary, :samples) on conflict (id) do nothing")
+                .bind("id", id).bind("dictionary", dictionary).bind("samples", trained.size())
+                .fetch().rowsUpdated()
+                .subscribe(_ -> use(id, dictionary),
+                        ex -> log.warn("Storing the audit log body dictionary failed, compressing without.", ex));
+    }
+
+    /**
+     * Compresses the following bodies with a dictionary.
+     *
+     * @param id         the id of the dictionary, see {@link DeflateCodec#id(byte[])}
+     * @param dictionary the dictionary
+     */
+    void use(long id, byte[] dictionary) {
+        this.dictionaries.put(id, dictionary);
+        this.codec = new DeflateCodec(this.properties.getLevel(), dictionary);
+        log.info("Audit log bodies are compressed with dictionary {} of {} bytes.", id, dictionary.length);
+    }
+
+    /**
+     * Loads the stored dictionaries, compressing with the latest one; without any, starts sampling the bodies
+     * to train one.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!this.properties.isEnabled()) {
+            return;
+        }
+        this.databaseClient.sql("select id, dictionary from se_logger_dictionaries order by created_at")
+                .map(row -> Map.entry(row.get("id", Long.class), row.get("dictionary", byte[].class))).all()
+                .collectList()
+                .subscribe(stored -> {
+                    stored.forEach(entry -> this.dictionaries.put(entry.getKey(), entry.getValue()));
+                    if (!stored.isEmpty()) {
+                        use(stored.getLast().getKey(), stored.getLast().getValue());
+                    } else if (this.properties.getTrainingSamples() > 0) {
+                        synchronized (this) {
+                            this.samples = new ArrayList<>(this.properties.getTrainingSamples());
+                        }
+                    }
+                }, ex -> log.warn("Loading the audit log body dictionaries failed, compressing without.", ex));
+    }
+}
@@ -1,12 +1,21 @@
 package com.plate.boot.relational.logger;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.plate.boot.commons.query.QueryFragment;
 import com.plate.boot.commons.utils.BeanUtils;
+import com.plate.boot.commons.utils.ContextUtils;
 import com.plate.boot.relational.MethodType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.annotation.Transient;
 import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,6 +29,43 @@ import java.util.UUID;
 @ToString(callSuper = true)
 public class LoggerReq extends Logger {
 
+    /**
+     * The earliest creation time of the searched records, inclusive.
+     */
+    private @Transient @Nullable LocalDateTime createdFrom;
+
+    /**
+     * The latest creation time of the searched records, inclusive.
+     */
+    private @Transient @Nullable LocalDateTime createdTo;
+
+    /**
+     * The captured request body, resolved by {@link #resolveBodies(LoggerBodies)}.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private @Transient @Nullable CapturedBody requestBody;
+
+    /**
+     * The captured response body, resolved by {@link #resolveBodies(LoggerBodies)}.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private @Transient @Nullable CapturedBody responseBody;
+
+    /**
+     * The time the request took, from the logger filter to the end of the response, for the request rollups.
+     */
+    @JsonIgnore
+    private @Transient @Nullable Duration latency;
+
+    /**
+     * The route pattern the request was handled by, such as {@code /menus/{code}}, for the request rollups;
+     * {@code null} if no handler matched.
+     */
+    @JsonIgnore
+    private @Transient @Nullable String pathTemplate;
+
     /**
      * Constructs a new {@link LoggerReq} instance with specified details.
      *
@@ -56,4 +102,51 @@ public class LoggerReq extends Logger {
         return BeanUtils.copyProperties(this, Logger.class);
     }
 
-}
\ No newline at end of file
+    /**
+     * Constructs the {@link QueryFragment} of a search, always bounded by the creation time, so that only the
+     * monthly partitions of {@code se_loggers} the search covers are scanned. Without {@link #createdFrom},
+     * the search reaches back {@code window} from now.
+     *
+     * @param window how far back the search reaches when it sets no lower bound
+     * @return a {@link QueryFragment} of the request criteria and the creation time bounds
+     */
+    public QueryFragment query(Duration window) {
+        QueryFragment fragment = query(List.of("createdFrom", "createdTo"));
+        LocalDateTime from = this.createdFrom != null ? this.createdFrom : LocalDateTime.now().minus(window);
+        if (this.createdTo != null) {
+            return fragment.between("createdAt", from, this.createdTo);
+        }
+        return fragment.greaterThanOrEqual("createdAt", from);
+    }
+
+    /**
+     * Decodes the captured bodies, as {@code requestBody} and {@code responseBody}, adds their sizes and truncated
+     * lengths to the context, and drops the raw bytes. With the bodies stored apart, they are compressed into
+     * {@link #getBody()}; otherwise they are added to the context. This is done by the audit log writer, so that
+     * the bodies are not parsed on the request path.
+     *
+     * @param bodies the compression of the bodies, or {@code null} to add them to the context
+     */
+    public void resolveBodies(@Nullable LoggerBodies bodies) {
+        if (this.requestBody == null && this.responseBody == null) {
+            return;
+        }
+        ObjectNode context = getContext() instanceof ObjectNode node ? node
+                : ContextUtils.OBJECT_MAPPER.createObjectNode();
+        ObjectNode target = bodies == null || !bodies.enabled() ? context
+                : ContextUtils.OBJECT_MAPPER.createObjectNode();
+        if (this.requestBody != null) {
+            this.requestBody.writeTo(context, target, "request");
+        }
+        if (this.responseBody != null) {
+            this.responseBody.writeTo(context, target, "response");
+        }
+        setContext(context);
+        if (target != context && !target.isEmpty()) {
+            setBody(bodies.compress(target));
+        }
+        this.requestBody = null;
+        this.responseBody = null;
+    }
+
+}
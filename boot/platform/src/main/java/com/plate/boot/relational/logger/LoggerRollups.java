@@ -0,0 +1,405 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.metrics.LatencyHistogram;
+import com.plate.boot.commons.metrics.TopK;
+import com.plate.boot.commons.routing.ReplicaRoutingConnectionFactory;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.Readable;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains per-minute rollups of the request audit logs, and serves request time series from them.
+ * <p>
+ * Every request passing the {@link com.plate.boot.relational.LoggerFilter} is added to the in-memory rollup of
+ * its minute, tenant, method, route pattern and status class, before the audit rules decide whether it is
+ * logged, so that requests never or only partly logged, such as sampled ones, are counted in full: a count, the sum and {@link LatencyHistogram} of the latencies in microseconds, and the most frequent
+ * operators counted by a {@link TopK}. The keys use the route pattern rather than the path, so their number is
+ * bounded by the routes of the application; at most {@code max-keys} rollups are held, records of new keys
+ * beyond are counted in {@code plate.loggers.rollups.overflow}. Every {@code flush-interval}, the rollups of
+ * the past minutes are removed and written to {@code se_logger_rollups}, one row per rollup, in multi-row inserts.
+ * <p>
+ * {@link #stats(LoggerStatsReq, UUID)} answers time-series queries, such as the error rate per route in the
+ * last hour, from the rollup rows of the tenant alone, routed to a read replica; the raw audit logs are not read.
+ * The histograms and operators of the rows falling in a point of the series are merged, so a point may span any
+ * number of minutes and instances.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * loggerRollups.record(tenantCode, "GET", "/menus/{id}", "200", latency, "admin");
+ * Flux<LoggerStats> series = loggerRollups.stats(request, tenantCode);
+ * }</pre>
+ */
+@Log4j2
+@Component
+public class LoggerRollups implements InitializingBean, DisposableBean {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    private static final String[] COLUMNS = {"bucket", "tenant_code", "method", "path", "status_class", "count",
+            "latency_sum", "latency_max", "histogram", "operators"};
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final TypeReference<Map<String, Long>> OPERATORS_TYPE = new TypeReference<>() {
+    };
+
+    private final DatabaseClient databaseClient;
+    private final DatabaseProperties.Rollups properties;
+    private final Map<Key, Rollup> rollups = new ConcurrentHashMap<>();
+    private final Counter overflow;
+    private final Counter written;
+    private final Counter failed;
+    private Disposable flushLoop;
+
+    /**
+     * Creates the rollups; they are written periodically once the bean is initialized.
+     *
+     * @param databaseClient the client executing the inserts and queries
+     * @param properties     the database settings holding the rollup settings
+     */
+    public LoggerRollups(DatabaseClient databaseClient, DatabaseProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties.getLoggers().getRollups();
+        Metrics.gaugeMapSize("plate.loggers.rollups.keys", Tags.empty(), this.rollups);
+        this.overflow = Metrics.counter("plate.loggers.rollups.overflow");
+        this.written = Metrics.counter("plate.loggers.rollups.written");
+        this.failed = Metrics.counter("plate.loggers.rollups.failed");
+    }
+
+    /**
+     * Classifies a response status.
+     *
+     * @param status the status code, as logged
+     * @return the status class, such as {@code 2xx}, or {@code unknown}
+     */
+    static String statusClass(@Nullable String status) {
+        if (status != null && status.length() == 3 && status.charAt(0) >= '1' && status.charAt(0) <= '5') {
+            return status.charAt(0) + "xx";
+        }
+        return "unknown";
+    }
+
+    /**
+     * Adds a completed request to the rollup of the current minute.
+     *
+     * @param tenantCode   the tenant of the user, or {@code null} for the default tenant
+     * @param method       the request method
+     * @param pathTemplate the route pattern the request matched, or {@code null}
+     * @param status       the response status code, or {@code null} if unknown
+     * @param latency      the time taken to serve the request
+     * @param operator     the user, or {@code null} if anonymous
+     */
+    public void record(@Nullable UUID tenantCode, String method, @Nullable String pathTemplate,
+                       @Nullable String status, Duration latency, @Nullable String operator) {
+        record(tenantCode, method, pathTemplate, status, latency, operator, LocalDateTime.now());
+    }
+
+    /**
+     * Adds an audit record to the rollup of a minute.
+     *
+     * @param logger the audit record
+     * @param now    the time the record is rolled up at
+     */
+    void record(LoggerReq logger, LocalDateTime now) {
+        record(logger.getTenantCode(), logger.getMethod() == null ? "UNKNOWN" : logger.getMethod().name(),
+                logger.getPathTemplate(), logger.getStatus(),
+                Objects.requireNonNullElse(logger.getLatency(), Duration.ZERO), logger.getOperator(), now);
+    }
+
+    private void record(@Nullable UUID tenantCode, String method, @Nullable String pathTemplate,
+                        @Nullable String status, Duration latency, @Nullable String operator, LocalDateTime now) {
+        if (!this.properties.isEnabled()) {
+            return;
+        }
+        Key key = new Key(now.truncatedTo(ChronoUnit.MINUTES),
+                Objects.requireNonNullElse(tenantCode, ContextUtils.DEFAULT_UUID_CODE), method,
+                Objects.requireNonNullElse(pathTemplate, UNMATCHED), statusClass(status));
+        if (this.rollups.size() >= this.properties.getMaxKeys() && !this.rollups.containsKey(key)) {
+            this.overflow.increment();
+            return;
+        }
+        long micros = latency.toNanos() / 1000;
+        this.rollups.compute(key, (_, rollup) -> {
+            Rollup target = rollup == null ? new Rollup(this.properties.getTopOperators()) : rollup;
+            target.add(micros, operator);
+            return target;
+        });
+    }
+
+    /**
+     * @return the number of rollups held in memory
+     */
+    int pending() {
+        return this.rollups.size();
+    }
+
+    /**
+     * Writes the rollups of the minutes before the current one.
+     *
+     * @return a {@link Mono} emitting the number of written rollups
+     */
+    public Mono<Long> flush() {
+        return flush(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    /**
+     * Removes the rollups of the minutes before a time and writes them.
+     *
+     * @param before the minute from which rollups are kept in memory
+     * @return a {@link Mono} emitting the number of written rollups
+     */
+    Mono<Long> flush(LocalDateTime before) {
+        return Mono.defer(() -> {
+            List<Map.Entry<Key, Rollup>> closed = new ArrayList<>();
+            for (Key key : this.rollups.keySet()) {
+                if (key.minute().isBefore(before)) {
+                    Rollup rollup = this.rollups.remove(key);
+                    if (rollup != null) {
+                        closed.add(Map.entry(key, rollup));
+                    }
+                }
+            }
+            if (closed.isEmpty()) {
+                return Mono.just(0L);
+            }
+            List<List<Map.Entry<Key, Rollup>>> batches = new ArrayList<>();
+            for (int i = 0; i < closed.size(); i += BATCH_SIZE) {
+                batches.add(closed.subList(i, Math.min(closed.size(), i + BATCH_SIZE)));
+            }
+            return Flux.fromIterable(batches).concatMap(this::insert).reduce(0L, Long::sum);
+        });
+    }
+
+    private Mono<Long> insert(List<Map.Entry<Key, Rollup>> batch) {
+        return this.databaseClient.sql(insertSql(batch.size())).bindValues(bindings(batch)).fetch().rowsUpdated()
+                .doOnNext(this.written::increment)
+                .onErrorResume(ex -> {
+                    log.warn("Writing {} request rollups failed, rollups dropped.", batch.size(), ex);
+                    this.failed.increment(batch.size());
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * Builds the multi-row insert of a batch of rollups, the parameters of row {@code i} being suffixed with
+     * {@code i}.
+     *
+     * @param rows the number of rows of the batch
+     * @return the insert statement
+     */
+    static String insertSql(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            StringJoiner row = new StringJoiner(", ", "(", ")");
+            for (String column : COLUMNS) {
+                row.add(":" + column + i);
+            }
+            values.add(row.toString());
+        }
+        return "insert into se_logger_rollups (" + String.join(", ", COLUMNS) + ") values " + values;
+    }
+
+    static Map<String, Object> bindings(List<Map.Entry<Key, Rollup>> batch) {
+        Map<String, Object> params = HashMap.newHashMap(batch.size() * COLUMNS.length);
+        for (int i = 0; i < batch.size(); i++) {
+            Key key = batch.get(i).getKey();
+            Rollup rollup = batch.get(i).getValue();
+            params.put("bucket" + i, key.minute());
+            params.put("tenant_code" + i, key.tenantCode());
+            params.put("method" + i, key.method());
+            params.put("path" + i, key.path());
+            params.put("status_class" + i, key.statusClass());
+            params.put("count" + i, rollup.count);
+            params.put("latency_sum" + i, rollup.latencySum);
+            params.put("latency_max" + i, rollup.histogram.max());
+            params.put("histogram" + i, rollup.histogram.encode());
+            Map<String, Long> operators = rollup.operators.top();
+            params.put("operators" + i, operators.isEmpty() ? Parameters.in(Json.class)
+                    : Json.of(ContextUtils.OBJECT_MAPPER.writeValueAsString(operators)));
+        }
+        return params;
+    }
+
+    /**
+     * Queries a request time series of a tenant from the rollup rows.
+     *
+     * @param request    the period, step and filters of the series
+     * @param tenantCode the tenant of the requests
+     * @return a {@link Flux} of the points of the series, by time, method and route
+     */
+    public Flux<LoggerStats> stats(LoggerStatsReq request, UUID tenantCode) {
+        LocalDateTime to = Objects.requireNonNullElseGet(request.getTo(), LocalDateTime::now);
+        LocalDateTime from = Objects.requireNonNullElseGet(request.getFrom(), () -> to.minusHours(1))
+                .truncatedTo(ChronoUnit.MINUTES);
+        int step = Math.clamp(request.getStep(), 1, 1440);
+        StringBuilder sql = new StringBuilder("select bucket, method, path, status_class, count, histogram, operators"
+                + " from se_logger_rollups where tenant_code = :tenantCode and bucket >= :from and bucket < :to");
+        Map<String, Object> params = new HashMap<>(Map.of("tenantCode", tenantCode, "from", from, "to", to));
+        if (!ObjectUtils.isEmpty(request.getMethod())) {
+            sql.append(" and method = :method");
+            params.put("method", request.getMethod().toUpperCase(Locale.ROOT));
+        }
+        if (!ObjectUtils.isEmpty(request.getPath())) {
+            sql.append(" and path = :path");
+            params.put("path", request.getPath());
+        }
+        var rows = this.databaseClient.sql(sql.toString()).bindValues(params).map(LoggerRollups::row).all();
+        return rows.collect(() -> new TreeMap<Point, Series>(), (series, row) -> {
+            long minutes = ChronoUnit.MINUTES.between(from, row.bucket());
+            Point point = new Point(from.plusMinutes(minutes / step * step), row.method(), row.path());
+            series.computeIfAbsent(point, _ -> new Series(this.properties.getTopOperators())).add(row);
+        }).flatMapIterable(series -> series.entrySet().stream()
+                .map(entry -> entry.getValue().stats(entry.getKey())).toList())
+                .contextWrite(ReplicaRoutingConnectionFactory.readOnly());
+    }
+
+    private static Row row(Readable row) {
+        String operators = row.get("operators", String.class);
+        Map<String, Long> counts = Map.of();
+        if (operators != null) {
+            try {
+                counts = ContextUtils.OBJECT_MAPPER.readValue(operators, OPERATORS_TYPE);
+            } catch (JacksonException ex) {
+                log.warn("Request rollup operators are unreadable, ignored.", ex);
+            }
+        }
+        return new Row(Objects.requireNonNull(row.get("bucket", LocalDateTime.class)),
+                row.get("method", String.class), row.get("path", String.class),
+                row.get("status_class", String.class), Objects.requireNonNull(row.get("count", Long.class)),
+                LatencyHistogram.decode(Objects.requireNonNull(row.get("histogram", byte[].class))), counts);
+    }
+
+    /**
+     * Deletes the rollups of the minutes before a date.
+     *
+     * @param cutoff the date rollups are kept from
+     * @return a {@link Mono} emitting the number of deleted rollups
+     */
+    public Mono<Long> prune(LocalDate cutoff) {
+        return this.databaseClient.sql("delete from se_logger_rollups where bucket < :cutoff")
+                .bind("cutoff", cutoff.atStartOfDay()).fetch().rowsUpdated();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (this.properties.isEnabled()) {
+            this.flushLoop = Flux.interval(this.properties.getFlushInterval())
+                    .onBackpressureDrop()
+                    .concatMap(_ -> flush(), 1)
+                    .subscribe();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.flushLoop != null) {
+            this.flushLoop.dispose();
+        }
+        flush(LocalDateTime.MAX).block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * The key of a rollup.
+     *
+     * @param minute      the minute of the requests
+     * @param tenantCode  the tenant of the requests
+     * @param method      the HTTP method of the requests
+     * @param path        the route pattern of the requests
+     * @param statusClass the status class of the responses
+     */
+    record Key(LocalDateTime minute, UUID tenantCode, String method, String path, String statusClass) {
+    }
+
+    /**
+     * The rollup of the requests of a key. It is only updated within {@link ConcurrentHashMap#compute}.
+     */
+    static final class Rollup {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final TopK operators;
+        private long count;
+        private long latencySum;
+
+        Rollup(int topOperators) {
+            this.operators = new TopK(topOperators);
+        }
+
+        void add(long latency, @Nullable String operator) {
+            this.count++;
+            this.latencySum += latency;
+            this.histogram.record(latency);
+            if (operator != null) {
+                this.operators.add(operator);
+            }
+        }
+    }
+
+    private record Row(LocalDateTime bucket, String method, String path, String statusClass, long count,
+                       LatencyHistogram histogram, Map<String, Long> operators) {
+    }
+
+    private record Point(LocalDateTime bucket, String method, String path) implements Comparable<Point> {
+
+        private static final Comparator<Point> ORDER = Comparator.comparing(Point::bucket)
+                .thenComparing(Point::method).thenComparing(Point::path);
+
+        @Override
+        public int compareTo(Point other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * The rows merged into a point of a series.
+     */
+    private static final class Series {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<String, Long> statuses = new TreeMap<>();
+        private final TopK operators;
+        private long count;
+
+        Series(int topOperators) {
+            this.operators = new TopK(topOperators);
+        }
+
+        void add(Row row) {
+            this.count += row.count();
+            this.statuses.merge(row.statusClass(), row.count(), Long::sum);
+            this.histogram.merge(row.histogram());
+            this.operators.merge(row.operators());
+        }
+
+        LoggerStats stats(Point point) {
+            long errors = this.statuses.getOrDefault("4xx", 0L) + this.statuses.getOrDefault("5xx", 0L);
+            return new LoggerStats(point.bucket(), point.method(), point.path(), this.count, this.statuses,
+                    this.count == 0 ? 0 : (double) errors / this.count, this.histogram.percentile(0.5),
+                    this.histogram.percentile(0.95), this.histogram.percentile(0.99), this.histogram.max(),
+                    this.operators.top());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.plate.boot.relational.logger;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A point of a request time series, served from the request rollups by {@link LoggerRollups}.
+ *
+ * @param bucket       the start of the point
+ * @param method       the HTTP method of the requests
+ * @param path         the route pattern of the requests, {@code UNMATCHED} for requests no handler matched
+ * @param count        the number of requests
+ * @param statuses     the number of requests per status class, such as {@code 2xx} or {@code 5xx}
+ * @param errorRate    the share of the requests answered with a {@code 4xx} or {@code 5xx} status
+ * @param p50          the median latency, in microseconds
+ * @param p95          the 95th percentile latency, in microseconds
+ * @param p99          the 99th percentile latency, in microseconds
+ * @param max          the highest latency, in microseconds
+ * @param topOperators the most frequent operators and their approximate number of requests
+ */
+public record LoggerStats(LocalDateTime bucket, String method, String path, long count, Map<String, Long> statuses,
+                          double errorRate, long p50, long p95, long p99, long max, Map<String, Long> topOperators) {
+}
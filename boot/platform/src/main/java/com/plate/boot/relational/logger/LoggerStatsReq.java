@@ -0,0 +1,40 @@
+package com.plate.boot.relational.logger;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Logger Stats Request DTO
+ * Criteria of a time-series query over the per-minute request rollups, see {@link LoggerRollups}.
+ *
+ * @author <a href="https://github.com/vnobo">Alex Bob</a>
+ */
+@Data
+public class LoggerStatsReq {
+
+    /**
+     * The start of the queried period, inclusive. Defaults to one hour before {@link #to}.
+     */
+    private LocalDateTime from;
+
+    /**
+     * The end of the queried period, exclusive. Defaults to now.
+     */
+    private LocalDateTime to;
+
+    /**
+     * The length of a point of the series, in minutes, from 1 to 1440. Default value is 1.
+     */
+    private int step = 1;
+
+    /**
+     * The HTTP method of the queried requests, or {@code null} for any method.
+     */
+    private String method;
+
+    /**
+     * The route pattern of the queried requests, such as {@code /menus/{code}}, or {@code null} for any route.
+     */
+    private String path;
+}
@@ -1,15 +1,21 @@
 package com.plate.boot.relational.logger;
 
 import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.query.KeysetPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedModel;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.UUID;
+
 /**
  * REST controller responsible for handling read and pagination operations on loggers.
  * This controller interacts with the {@link LoggersService} to process requests
@@ -45,4 +51,72 @@ public class LoggersController {
             return this.loggersService.page(request, pageable);
         }).map(PagedModel::new);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a page of log records by keyset pagination.
+     * <p>
+     * The first page is requested without a token; every following page is requested with the
+     * {@code next} token of the previous one, until it is {@code null}. The sort and filters must stay the
+     * same between requests, a token issued for another sort is rejected.
+     *
+     * @param request  A {@link LoggerReq} object encapsulating the criteria for the log search.
+     * @param pageable A Spring {@link Pageable} instance defining the page size and sorting instructions.
+     * @param token    The continuation token returned with the previous page, absent for the first page.
+     * @return A {@link Mono} emitting a {@link KeysetPage} of {@link LoggerRes} objects and the next token.
+     */
+    @GetMapping("page/cursor")
+    public Mono<KeysetPage<LoggerRes>> cursorPage(LoggerReq request, Pageable pageable,
+                                                  @RequestParam(required = false) String token) {
+        return ContextUtils.securityDetails().flatMap(userDetails -> {
+            request.setSecurityCode(userDetails.getTenantCode());
+            return this.loggersService.cursorPage(request, pageable, token);
+        });
+    }
+
+    /**
+     * Retrieves the latest log records of a time range, across the live records and the archive of the aged ones.
+     * <p>
+     * The archived records, older than the archive age, only honour the tenant, time range, operator and status of the
+     * request; the live ones honour all of its criteria. See {@link LoggersService#history(LoggerReq, int)}.
+     *
+     * @param request A {@link LoggerReq} object encapsulating the criteria and the time range of the search.
+     * @param limit   The maximum number of records, 100 by default, at most 1000.
+     * @return A {@link Flux} of {@link LoggerRes} objects, newest first.
+     */
+    @GetMapping("history")
+    public Flux<LoggerRes> history(LoggerReq request, @RequestParam(defaultValue = "100") int limit) {
+        return ContextUtils.securityDetails().flatMapMany(userDetails -> {
+            request.setSecurityCode(userDetails.getTenantCode());
+            return this.loggersService.history(request, Math.clamp(limit, 1, 1000));
+        });
+    }
+
+    /**
+     * Retrieves a single log record of the tenant of the current user, with the request and response bodies
+     * captured with it, which the searches leave out.
+     *
+     * @param code The code of the log record.
+     * @return A {@link Mono} emitting the {@link Logger}, or empty if the tenant has no record of this code.
+     */
+    @GetMapping("{code}")
+    public Mono<Logger> find(@PathVariable UUID code) {
+        return ContextUtils.securityDetails().flatMap(userDetails ->
+                this.loggersService.find(code, userDetails.getTenantCode()));
+    }
+
+    /**
+     * Retrieves a request time series of the tenant of the current user, such as the error rate and latency
+     * percentiles per route over the last hour.
+     * <p>
+     * The series is computed from the per-minute request rollups, not from the log records, so it is cheap
+     * whatever the period. Each point covers {@code step} minutes of the requests of one method and route.
+     *
+     * @param request A {@link LoggerStatsReq} object holding the period, step and filters of the series.
+     * @return A {@link Flux} of {@link LoggerStats} points, by time, method and route.
+     */
+    @GetMapping("stats")
+    public Flux<LoggerStats> stats(LoggerStatsReq request) {
+        return ContextUtils.securityDetails().flatMapMany(userDetails ->
+                this.loggersService.stats(request, userDetails.getTenantCode()));
+    }
+}
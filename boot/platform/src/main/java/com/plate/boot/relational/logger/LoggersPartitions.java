@@ -0,0 +1,151 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.config.DatabaseProperties;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions {@code se_loggers_pYYYYMM} of the {@code se_loggers} table, and
+ * {@code se_logger_bodies_pYYYYMM} of the {@code se_logger_bodies} table holding their compressed bodies.
+ * <p>
+ * {@link #maintain(LocalDate)} creates the partitions of the current month and of the {@code premake} months
+ * after it, with the {@code se_loggers_create_partitions} function of the schema, so that records always have
+ * a partition to go to. It then detaches and drops the partitions whose whole month is older than the
+ * {@code retention} period. Detaching runs {@code CONCURRENTLY}, outside of a transaction, so writes and reads
+ * of the other partitions are not blocked; a detach interrupted before it completed is finalized. Dropping a
+ * partition frees its rows and indexes at once, without the dead tuples and index churn of a {@code DELETE}.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * loggersPartitions.maintain(LocalDate.now()).subscribe();
+ * }</pre>
+ */
+@Log4j2
+@Component
+public class LoggersPartitions {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("(?:se_loggers|se_logger_bodies)_p(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS_SQL = "select p.relname as parent, c.relname as name,"
+            + " i.inhdetachpending as pending from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+            + " join pg_class p on p.oid = i.inhparent"
+            + " where i.inhparent in ('se_loggers'::regclass, 'se_logger_bodies'::regclass)";
+
+    private final DatabaseClient databaseClient;
+    private final DatabaseProperties.Partitions properties;
+
+    /**
+     * Creates the maintenance of the partitions.
+     *
+     * @param databaseClient the client executing the statements, on the primary
+     * @param properties     the database settings holding the partition settings
+     */
+    public LoggersPartitions(DatabaseClient databaseClient, DatabaseProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties.getLoggers().getPartitions();
+    }
+
+    /**
+     * Tells whether a partition only holds records older than a cutoff, from the month in its name.
+     *
+     * @param name   the name of the partition
+     * @param cutoff the creation time records are kept from
+     * @return true if the partition is named {@code se_loggers_pYYYYMM} or {@code se_logger_bodies_pYYYYMM} and
+     * its month ends before the cutoff
+     */
+    static boolean expired(String name, LocalDate cutoff) {
+        YearMonth month = month(name);
+        return month != null && !month.plusMonths(1).atDay(1).isAfter(cutoff);
+    }
+
+    /**
+     * @param name the name of a partition
+     * @return the month in the name of the partition, or {@code null} if it is not named
+     * {@code se_loggers_pYYYYMM} or {@code se_logger_bodies_pYYYYMM}
+     */
+    static @Nullable YearMonth month(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        return matcher.matches() ? YearMonth.parse(matcher.group(1), PARTITION_MONTH) : null;
+    }
+
+    /**
+     * Lists the months of the {@code se_loggers} partitions holding only records older than a cutoff.
+     *
+     * @param cutoff the creation time records are kept from
+     * @return a {@link Flux} of the months, oldest first
+     */
+    public Flux<YearMonth> expiredMonths(LocalDate cutoff) {
+        var names = this.databaseClient.sql(PARTITIONS_SQL + " and p.relname = 'se_loggers'")
+                .map(row -> row.get("name", String.class)).all();
+        return names.filter(name -> expired(name, cutoff)).map(LoggersPartitions::month).sort();
+    }
+
+    /**
+     * Creates the partitions of the current month and of the months ahead, then drops the expired ones.
+     *
+     * @param today the current date
+     * @return a {@link Mono} emitting the number of dropped partitions
+     */
+    public Mono<Long> maintain(LocalDate today) {
+        return create(today).then(dropExpired(today.minus(this.properties.getRetention())));
+    }
+
+    /**
+     * Creates the missing partitions of the current month and of the {@code premake} months after it.
+     *
+     * @param today the current date
+     * @return a {@link Mono} emitting the number of created partitions
+     */
+    public Mono<Integer> create(LocalDate today) {
+        var spec = this.databaseClient.sql("select se_loggers_create_partitions(:from, :to) as created")
+                .bind("from", today.withDayOfMonth(1))
+                .bind("to", today.plusMonths(this.properties.getPremake()));
+        return spec.map(row -> row.get("created", Integer.class)).one()
+                .doOnNext(created -> log.debug("Created {} audit log partitions.", created));
+    }
+
+    /**
+     * Detaches and drops the partitions holding only records older than a cutoff, one at a time.
+     *
+     * @param cutoff the creation time records are kept from
+     * @return a {@link Mono} emitting the number of dropped partitions
+     */
+    public Mono<Long> dropExpired(LocalDate cutoff) {
+        var partitions = this.databaseClient.sql(PARTITIONS_SQL)
+                .map(row -> new Partition(row.get("parent", String.class), row.get("name", String.class),
+                        Boolean.TRUE.equals(row.get("pending", Boolean.class)))).all();
+        return partitions.filter(partition -> expired(partition.name(), cutoff)).collectList()
+                .flatMapMany(Flux::fromIterable).concatMap(this::drop).count();
+    }
+
+    private Mono<String> drop(Partition partition) {
+        String detach = "alter table " + partition.parent() + " detach partition " + partition.name()
+                + (partition.pending() ? " finalize" : " concurrently");
+        return this.databaseClient.sql(detach).then()
+                .then(this.databaseClient.sql("drop table " + partition.name()).then())
+                .thenReturn(partition.name())
+                .doOnNext(name -> log.info("Dropped expired audit log partition {}.", name));
+    }
+
+    /**
+     * A partition of {@code se_loggers} or {@code se_logger_bodies}.
+     *
+     * @param parent  the name of the partitioned table
+     * @param name    the name of the partition
+     * @param pending whether a concurrent detach of the partition was interrupted
+     */
+    private record Partition(String parent, String name, boolean pending) {
+    }
+}
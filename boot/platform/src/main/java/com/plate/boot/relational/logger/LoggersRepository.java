@@ -3,25 +3,17 @@ package com.plate.boot.relational.logger;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Defines the repository interface for interacting with logger entities within a reactive environment.
- * Extending from R2dbcRepository, this interface inherits CRUD operations and adds a custom method
- * to delete log records based on their creation time, facilitating efficient cleanup and management
- * of log data.
+ * Extending from R2dbcRepository, this interface inherits CRUD operations. Expired log records are not
+ * deleted through this repository: whole monthly partitions are dropped by {@link LoggersPartitions}.
  *
  * <p>This repository is designed specifically to work with the {@link Logger} entity and provides
  * a reactive approach to data access, leveraging Project Reactor's Mono and Flux types for asynchronous,
  * non-blocking interactions with the underlying data store.</p>
  *
- * <p>Notably, it includes:</p>
- * <ul>
- *   <li>{@link #deleteByCreatedAtBefore(LocalDateTime)}: A method to remove outdated log entries
- *       based on the specified creation time threshold.</li>
- * </ul>
- *
  * <p>Usage of this repository promotes scalable and responsive logging systems, particularly in
  * scenarios where high throughput and low latency are critical.</p>
  *
@@ -30,18 +22,15 @@ import java.util.UUID;
  */
 public interface LoggersRepository extends R2dbcRepository<Logger, Long> {
     /**
-     * Find group by code
+     * Find logger by code.
+     * <p>
+     * Since {@code se_loggers} is partitioned by {@code created_at}, the table only enforces the code to be
+     * unique together with {@code created_at}. Codes are UUIDv7 values, generated by {@code Uuid7.next()} or
+     * the column default {@code uuidv7()}, whose random bits make them unique across partitions, so the code
+     * alone still identifies a single record; the lookup probes the code index of every partition.
      *
-     * @param code the unique code of the group to find
-     * @return Mono containing the found Group or empty if not found
+     * @param code the unique code of the logger to find
+     * @return Mono containing the found Logger or empty if not found
      */
     Mono<Logger> findByCode(UUID code);
-
-    /**
-     * Deletes all log records from the database whose creation time is before the specified timestamp.
-     *
-     * @param createdTime The threshold LocalDateTime before which log records should be deleted.
-     * @return A Mono emitting the number of log records deleted upon successful execution.
-     */
-    Mono<Long> deleteByCreatedAtBefore(LocalDateTime createdTime);
 }
\ No newline at end of file
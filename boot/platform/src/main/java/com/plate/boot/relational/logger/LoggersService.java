@@ -1,31 +1,67 @@
 package com.plate.boot.relational.logger;
 
 import com.plate.boot.commons.base.AbstractCache;
+import com.plate.boot.commons.query.Keyset;
+import com.plate.boot.commons.query.KeysetPage;
 import com.plate.boot.commons.query.QueryFragment;
 import com.plate.boot.commons.utils.BeanUtils;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.utils.DatabaseUtils;
+import com.plate.boot.config.DatabaseProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import tools.jackson.databind.node.ObjectNode;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for handling operations related to loggers, including searching,
- * paging, saving, and scheduled cleanup of outdated log records.
+ * paging, saving, and scheduled maintenance of the monthly log partitions.
+ * <p>
+ * Searches are bounded by the creation time, see {@link LoggerReq#query(java.time.Duration)}, so that they
+ * only scan the partitions of the months they cover. The cached searches of a tenant are invalidated each time
+ * the {@link LoggersWriter} writes a batch holding records of the tenant, so that new records show up at once.
  */
 @Log4j2
 @Service
 @RequiredArgsConstructor
 public class LoggersService extends AbstractCache {
 
+    private static final Set<String> CURSOR_SORTABLE = Set.of("createdAt", "code");
+
     private final LoggersRepository loggersRepository;
+    private final LoggersWriter loggersWriter;
+    private final LoggersPartitions loggersPartitions;
+    private final LoggerRollups loggerRollups;
+    private final LoggerBodies loggerBodies;
+    private final LoggerArchive loggerArchive;
+    private final DatabaseProperties databaseProperties;
+
+    /**
+     * Initializes the cache and invalidates the cached searches of the tenants of every batch written.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        this.loggersWriter.onWritten(this::invalidateWritten);
+    }
 
     /**
      * Searches for loggers based on the provided request and pagination information.
@@ -35,9 +71,11 @@ public class LoggersService extends AbstractCache {
      * @return A Flux of Logger objects matching the search criteria, respecting the specified pagination.
      */
     public Flux<LoggerRes> search(LoggerReq request, Pageable pageable) {
-        QueryFragment queryFragment = request.query().pageable(pageable);
+        QueryFragment queryFragment = query(request).pageable(pageable);
         var cacheKey = BeanUtils.cacheKey(request, pageable);
-        return this.queryWithCache(cacheKey, queryFragment.querySql(), queryFragment, LoggerRes.class);
+        var tags = Set.of(tag(TENANT_TAG, request.getSecurityCode()));
+        return this.queryWithCache(cacheKey, tags,
+                DatabaseUtils.query(queryFragment.querySql(), queryFragment, LoggerRes.class, true));
     }
 
     /**
@@ -47,20 +85,103 @@ public class LoggersService extends AbstractCache {
      * @param pageable A {@link Pageable} instance specifying pagination information like page number, size, sorting, etc.
      * @return A {@link Mono} emitting a {@link Page} of {@link Logger} objects that match the given criteria,
      * respecting the specified pagination and sorted accordingly. The {@link Page} includes both content and
-     * metadata such as total elements, page number, and page size.
+     * metadata such as total elements, page number, and page size. The total is obtained with the
+     * {@code loggers} page strategy, see {@link DatabaseUtils#pageStrategy(String)}.
      */
     public Mono<Page<LoggerRes>> page(LoggerReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment queryFragment = request.query();
-        var countMono = this.countWithCache(BeanUtils.cacheKey(request), queryFragment.countSql(), queryFragment);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("loggers");
+        QueryFragment queryFragment = query(request).pageable(pageable);
+        var tags = Set.of(tag(TENANT_TAG, request.getSecurityCode()));
+        var pageMono = DatabaseUtils.page(queryFragment, pageable, LoggerRes.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), tags, pageMono);
+    }
+
+    /**
+     * Retrieves a page of loggers by keyset pagination, continuing after the row a previous page ended with.
+     * <p>
+     * Rows are ordered by the requested sort, {@code createdAt} descending by default, with {@code id} as
+     * the tie-breaker. Instead of skipping an offset, the query seeks past the sort key carried by the
+     * continuation token, so deep pages are as cheap as the first one, and no total count is computed.
+     *
+     * @param request  A {@link LoggerReq} object containing criteria to filter loggers.
+     * @param pageable A {@link Pageable} instance specifying the page size and sorting; the page number is ignored.
+     * @param token    The continuation token of the previous page, or {@code null} for the first page.
+     * @return A {@link Mono} emitting a {@link KeysetPage} of {@link LoggerRes} objects with the token of the next page.
+     */
+    public Mono<KeysetPage<LoggerRes>> cursorPage(LoggerReq request, Pageable pageable, @Nullable String token) {
+        var keyset = Keyset.of(Logger.class, pageable.getSort(), Sort.by(Sort.Direction.DESC, "createdAt"),
+                CURSOR_SORTABLE, "id", token);
+        int size = pageable.getPageSize();
+        QueryFragment queryFragment = keyset.apply(query(request), size);
+        var cacheKey = BeanUtils.cacheKey(request, pageable, token);
+        var tags = Set.of(tag(TENANT_TAG, request.getSecurityCode()));
+        return this.queryWithCache(cacheKey, tags, queryFragment.querySql(), queryFragment, LoggerRes.class)
+                .collectList().map(rows -> keyset.page(rows, size));
+    }
+
+    /**
+     * Retrieves the latest log records of a time range, from the database and from the archive of the aged logs.
+     * <p>
+     * The range is the {@code createdFrom} and {@code createdTo} of the request, reaching back the search window
+     * without a lower bound. The part of the range after the latest archived month is searched in the database
+     * with all the criteria of the request; the part before it is searched in the archive, where only the tenant,
+     * operator and status criteria apply, see {@link LoggerArchive#search(LoggerReq, LocalDateTime, LocalDateTime)}.
+     * The records are ordered by creation time descending, the database ones first, and the archive is only read
+     * when the database holds fewer than {@code limit} of them.
+     *
+     * @param request A {@link LoggerReq} object containing criteria to filter loggers, with its time range.
+     * @param limit   The maximum number of records.
+     * @return A {@link Flux} of the records, newest first.
+     */
+    public Flux<LoggerRes> history(LoggerReq request, int limit) {
+        LocalDateTime to = request.getCreatedTo() != null ? request.getCreatedTo() : LocalDateTime.now();
+        LocalDateTime from = request.getCreatedFrom() != null ? request.getCreatedFrom()
+                : to.minus(this.databaseProperties.getLoggers().getPartitions().getSearchWindow());
+        return this.loggerArchive.liveFrom().defaultIfEmpty(from).flatMapMany(liveFrom -> {
+            LocalDateTime start = liveFrom.isAfter(from) ? liveFrom : from;
+            Flux<LoggerRes> live = Flux.empty();
+            if (start.isBefore(to)) {
+                LoggerReq liveRequest = BeanUtils.copyProperties(request, LoggerReq.class);
+                liveRequest.setCreatedFrom(start);
+                liveRequest.setCreatedTo(to);
+                var pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+                QueryFragment queryFragment = query(liveRequest).pageable(pageable);
+                live = DatabaseUtils.query(queryFragment.querySql(), queryFragment, LoggerRes.class, true);
+            }
+            // The database range includes createdTo, the archive range excludes its end.
+            LocalDateTime archivedTo = start.isBefore(to) ? start : to.plusNanos(1);
+            return live.concatWith(this.loggerArchive.search(request, from, archivedTo));
+        }).take(limit);
+    }
+
+    /**
+     * Retrieves a single log record of a tenant, with its captured bodies.
+     * <p>
+     * The bodies are stored compressed apart from the records and are not read by the searches; they are only
+     * read and decompressed here, and added to the context as {@code requestBody} and {@code responseBody}.
+     *
+     * @param code       the code of the record
+     * @param tenantCode the tenant of the current user; records of other tenants are not found
+     * @return A {@link Mono} emitting the record, or empty if the tenant has no record of this code.
+     */
+    public Mono<Logger> find(UUID code, UUID tenantCode) {
+        return this.loggersRepository.findByCode(code)
+                .filter(logger -> tenantCode.equals(logger.getTenantCode()))
+                .flatMap(logger -> this.loggerBodies.find(logger.getCode(), logger.getCreatedAt())
+                        .map(bodies -> {
+                            ObjectNode context = logger.getContext() instanceof ObjectNode node ? node
+                                    : ContextUtils.OBJECT_MAPPER.createObjectNode();
+                            context.setAll(bodies);
+                            logger.setContext(context);
+                            return logger;
+                        }).defaultIfEmpty(logger));
     }
 
     /**
      * Operates on a given {@link LoggerReq} by converting it into a {@link Logger}
-     * entity and saving it using the {@link #save(Logger)} method. After the termination
-     * of the save operation, the cache is cleared to ensure fresh data is fetched on subsequent queries.
+     * entity and saving it using the {@link #save(Logger)} method. Once the save has
+     * committed, the cached results of the logger's tenant are invalidated so that
+     * subsequent queries fetch fresh data, while other tenants keep their cached pages.
      *
      * @param request The {@link LoggerReq} containing details necessary to create or update a {@link Logger} entity.
      * @return A {@link Mono} emitting the saved {@link Logger} entity upon successful completion of the save operation.
@@ -71,7 +192,8 @@ public class LoggersService extends AbstractCache {
             BeanUtils.copyProperties(request, data);
             return this.save(data);
         });
-        return loggerMono.doAfterTerminate(() -> this.cache.clear());
+        return loggerMono.flatMap(saved -> this.invalidateTagsOnCommit(
+                tag(TENANT_TAG, request.getTenantCode()), tag(TENANT_TAG, null)).thenReturn(saved));
     }
 
     /**
@@ -98,35 +220,68 @@ public class LoggersService extends AbstractCache {
     }
 
     /**
-     * Scheduled task to clear outdated log records.
+     * Queries a request time series of a tenant from the per-minute request rollups, without reading the logs.
+     *
+     * @param request    the period, step and filters of the series
+     * @param tenantCode the tenant of the requests
+     * @return a {@link Flux} of the points of the series
+     */
+    public Flux<LoggerStats> stats(LoggerStatsReq request, UUID tenantCode) {
+        return this.loggerRollups.stats(request, tenantCode);
+    }
+
+    /**
+     * Scheduled maintenance of the log partitions.
      * <p>
-     * This method is scheduled to run daily at 1 AM. It deletes log records whose creation time is older
-     * than one year from the current date. The result of the deletion operation is logged.
+     * This method runs once the application is ready and then daily at 1 AM. It creates the partitions of the
+     * coming months and detaches and drops the partitions whose records are all older than the retention period,
+     * one year by default, instead of deleting the expired records row by row. The request rollups older than
+     * the retention period are deleted too. The result is logged. With the archive enabled, the partitions older
+     * than the archive age are archived and dropped first, see {@link LoggerArchive#archive(LocalDate)}.
      * </p>
      */
     @Scheduled(cron = "0 0 1 * * ?")
-    public void clearLoggers() {
-        this.loggersRepository.deleteByCreatedAtBefore(LocalDateTime.now().minusYears(1))
-                .subscribe(res -> log.info("CLEAN UP EXPIRED LOGS: {}", res));
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        var retention = this.databaseProperties.getLoggers().getPartitions().getRetention();
+        this.loggerArchive.archive(today)
+                .doOnNext(archived -> log.debug("Archived {} months of audit logs.", archived))
+                .then(this.loggersPartitions.maintain(today))
+                .flatMap(dropped -> this.loggerRollups.prune(today.minus(retention)).thenReturn(dropped))
+                .subscribe(res -> log.info("CLEAN UP EXPIRED LOG PARTITIONS: {}", res),
+                        ex -> log.error("Audit log partition maintenance failed.", ex));
     }
 
     /**
      * Event listener for processing logger events.
      * <p>
-     * This method listens for {@link LoggerEvent} instances. If the event kind is INSERT, it converts the event's
-     * entity to a {@link Logger} and saves it using the {@link #operate(LoggerReq)} method. The result of the save
-     * operation is logged.
+     * This method listens for {@link LoggerEvent} instances. If the event kind is INSERT, the event's entity is
+     * queued on the {@link LoggersWriter}, which inserts it with the next batch; the request is never held up
+     * by the write. The request rollups of {@link LoggerRollups} are recorded by the filter for every request. Records dropped because the writer's queue is full are counted by the writer.
      * </p>
      *
      * @param event The {@link LoggerEvent} to process.
      */
     @EventListener(LoggerEvent.class)
     public void processLoggerEvent(LoggerEvent event) {
-        if (event.getKind() == LoggerEvent.Kind.INSERT) {
-            var logger = event.getEntity();
-            this.operate(logger).subscribe(res ->
-                    log.debug("{}Client request log save result. log code: {}, id: {}",
-                            res.getPrefix(), res.getCode(), res.getId()));
+        if (event.getKind() != LoggerEvent.Kind.INSERT) {
+            return;
+        }
+        if (!this.loggersWriter.write(event.getEntity())) {
+            log.debug("{}Audit log writer queue is full, request log dropped.", event.getEntity().getPrefix());
         }
     }
-}
\ No newline at end of file
+
+    private void invalidateWritten(List<Logger> batch) {
+        this.invalidateTags(Stream.concat(
+                        batch.stream().map(Logger::getTenantCode).filter(Objects::nonNull).distinct()
+                                .map(tenantCode -> tag(TENANT_TAG, tenantCode)),
+                        Stream.of(tag(TENANT_TAG, null)))
+                .toArray(String[]::new));
+    }
+
+    private QueryFragment query(LoggerReq request) {
+        return request.query(this.databaseProperties.getLoggers().getPartitions().getSearchWindow());
+    }
+}
@@ -0,0 +1,737 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.journal.SegmentJournal;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.utils.Uuid7;
+import com.plate.boot.config.DatabaseProperties;
+import com.plate.boot.relational.MethodType;
+import com.plate.boot.security.core.UserAuditor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.postgresql.codec.Json;
+import io.r2dbc.spi.Parameters;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes the request audit logs to {@code se_loggers} asynchronously, in batches.
+ * <p>
+ * Records are added to a bounded, lock-free queue and return immediately. They are written in batches of up to
+ * {@code batch-size} records, each batch with a single multi-row {@code INSERT}, as soon as a full batch is
+ * queued and at the latest {@code flush-interval} after the previous write. A single writer drains the queue, so
+ * batches are written one at a time and in the order the records were queued. When the queue is full, new
+ * records are dropped rather than holding up the requests they audit. Records are inserted as new rows: there is
+ * no lookup of existing rows and no cache invalidation on this path, the cached log pages expire on their own.
+ * <p>
+ * With the journal enabled, the records arriving at a full queue, and those of a batch the database failed to
+ * write, are appended to a {@link SegmentJournal} on local disk instead of being dropped. The appends run on a
+ * dedicated journal thread: a record arriving at a full queue is only handed to a second bounded queue, of the same
+ * capacity, drained by that thread, so that the request thread never waits for the disk. After the queue is
+ * drained, the journaled records are written back in batches, and acknowledged once inserted, until the journal
+ * is empty or a batch fails; they are retried with the next flush, also after a restart. Records the database
+ * rejects as invalid, and records a batch cannot be built from, are dropped and counted, not retried.
+ * <p>
+ * The captured bodies of the records are compressed by {@link LoggerBodies} when the batch is written, and
+ * inserted into {@code se_logger_bodies} after the records, by a second multi-row {@code INSERT}; the searchable
+ * rows of {@code se_loggers} only keep the sizes of the bodies.
+ * <p>
+ * The writer publishes:
+ * <ul>
+ *     <li>{@code plate.loggers.writer.queue}: the number of queued records</li>
+ *     <li>{@code plate.loggers.writer.batch}: the size of the written batches</li>
+ *     <li>{@code plate.loggers.writer.flush}: the time taken to write a batch</li>
+ *     <li>{@code plate.loggers.writer.written}: the number of written records</li>
+ *     <li>{@code plate.loggers.writer.dropped}: the number of lost records, tagged by {@code reason},
+ *     {@code full} for records arriving at a full queue and {@code failed} for records of a failed batch</li>
+ *     <li>{@code plate.loggers.writer.errors}: the number of flushes that failed unexpectedly; the flush loop
+ *     keeps running and the next flush starts from the records still queued</li>
+ *     <li>{@code plate.loggers.writer.spilled} and {@code plate.loggers.writer.replayed}: the number of records
+ *     journaled and written back from the journal</li>
+ *     <li>{@code plate.loggers.journal.pending} and {@code plate.loggers.journal.dropped}: the bytes not yet
+ *     written back, and the records the full journal dropped</li>
+ * </ul>
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * boolean queued = loggersWriter.write(LoggerReq.of(tenantCode, username, prefix, method, status, path, context));
+ * }</pre>
+ */
+@Log4j2
+@Component
+public class LoggersWriter implements InitializingBean, DisposableBean {
+
+    private static final String[] COLUMNS = {"code", "tenant_code", "prefix", "operator", "status", "method", "url",
+            "context", "created_by", "updated_by", "created_at", "updated_at"};
+
+    /**
+     * Postgres accepts at most 65535 bind parameters per statement.
+     */
+    private static final int MAX_BATCH_SIZE = 65535 / COLUMNS.length;
+
+    private static final String[] BODY_COLUMNS = {"code", "created_at", "body"};
+
+    private static final byte CODEC_VERSION = 2;
+
+    private final DatabaseClient databaseClient;
+    private final LoggerBodies loggerBodies;
+    private final DatabaseProperties.Loggers properties;
+    private final int batchSize;
+    private final Queue<Logger> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Queue<Logger> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowDepth = new AtomicInteger();
+    private final AtomicInteger overflowDrains = new AtomicInteger();
+    private final Sinks.Many<Boolean> wakeups = Sinks.many().multicast().directBestEffort();
+    private final List<Consumer<List<Logger>>> writtenListeners = new CopyOnWriteArrayList<>();
+    private final DistributionSummary batches;
+    private final Timer flushes;
+    private final Counter written;
+    private final Counter droppedFull;
+    private final Counter droppedFailed;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Counter errors;
+    private @Nullable SegmentJournal journal;
+    private @Nullable Scheduler journalWorker;
+    private Disposable flushLoop;
+
+    /**
+     * Creates the writer; it starts writing once the bean is initialized.
+     *
+     * @param databaseClient the client executing the inserts
+     * @param loggerBodies   the compression of the captured bodies
+     * @param properties     the database settings holding the writer settings
+     */
+    public LoggersWriter(DatabaseClient databaseClient, LoggerBodies loggerBodies, DatabaseProperties properties) {
+        this.databaseClient = databaseClient;
+        this.loggerBodies = loggerBodies;
+        this.properties = properties.getLoggers();
+        this.batchSize = Math.clamp(this.properties.getBatchSize(), 1, MAX_BATCH_SIZE);
+        Metrics.gauge("plate.loggers.writer.queue", this.depth);
+        this.batches = DistributionSummary.builder("plate.loggers.writer.batch").baseUnit("records")
+                .register(Metrics.globalRegistry);
+        this.flushes = Timer.builder("plate.loggers.writer.flush").register(Metrics.globalRegistry);
+        this.written = Metrics.counter("plate.loggers.writer.written");
+        this.droppedFull = Metrics.counter("plate.loggers.writer.dropped", "reason", "full");
+        this.droppedFailed = Metrics.counter("plate.loggers.writer.dropped", "reason", "failed");
+        this.spilled = Metrics.counter("plate.loggers.writer.spilled");
+        this.replayed = Metrics.counter("plate.loggers.writer.replayed");
+        this.errors = Metrics.counter("plate.loggers.writer.errors");
+    }
+
+    /**
+     * Builds the multi-row insert of a batch, the parameters of row {@code i} being suffixed with {@code i}.
+     * Rows whose code exists are skipped, so that a batch written again after a lost acknowledgement
+     * does not fail; the code is unique together with {@code created_at}, the partition key of the table,
+     * which a record keeps when it is written again.
+     *
+     * @param rows the number of rows of the batch
+     * @return the insert statement
+     */
+    static String insertSql(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            StringJoiner row = new StringJoiner(", ", "(", ")");
+            for (String column : COLUMNS) {
+                row.add(":" + column + i);
+            }
+            values.add(row.toString());
+        }
+        return "insert into se_loggers (" + String.join(", ", COLUMNS) + ") values " + values
+                + " on conflict (code, created_at) do nothing";
+    }
+
+    /**
+     * Binds the values of a batch to the parameters of {@link #insertSql(int)}.
+     *
+     * @param loggers the records of the batch
+     * @return the parameters by name
+     */
+    static Map<String, Object> bindings(List<Logger> loggers) {
+        Map<String, Object> params = new HashMap<>(loggers.size() * COLUMNS.length * 4 / 3 + 1);
+        for (int i = 0; i < loggers.size(); i++) {
+            Logger logger = loggers.get(i);
+            LocalDateTime createdAt = Objects.requireNonNullElseGet(logger.getCreatedAt(), LocalDateTime::now);
+            params.put("code" + i, Objects.requireNonNullElseGet(logger.getCode(), Uuid7::next));
+            params.put("tenant_code" + i, Objects.requireNonNullElse(logger.getTenantCode(),
+                    ContextUtils.DEFAULT_UUID_CODE));
+            params.put("prefix" + i, nullable(logger.getPrefix(), String.class));
+            params.put("operator" + i, nullable(logger.getOperator(), String.class));
+            params.put("status" + i, nullable(logger.getStatus(), String.class));
+            params.put("method" + i, nullable(
+                    logger.getMethod() == null ? null : logger.getMethod().name(), String.class));
+            params.put("url" + i, nullable(logger.getUrl(), String.class));
+            params.put("context" + i, nullable(json(logger.getContext()), Json.class));
+            params.put("created_by" + i, auditor(logger.getCreatedBy()));
+            params.put("updated_by" + i, auditor(logger.getUpdatedBy()));
+            params.put("created_at" + i, createdAt);
+            params.put("updated_at" + i, Objects.requireNonNullElse(logger.getUpdatedAt(), createdAt));
+        }
+        return params;
+    }
+
+    /**
+     * Builds the multi-row insert of the bodies of a batch, the parameters of row {@code i} being suffixed with
+     * {@code i}. Bodies already written, with a batch written again, are skipped.
+     *
+     * @param rows the number of bodies of the batch
+     * @return the insert statement
+     */
+    static String bodiesSql(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            StringJoiner row = new StringJoiner(", ", "(", ")");
+            for (String column : BODY_COLUMNS) {
+                row.add(":" + column + i);
+            }
+            values.add(row.toString());
+        }
+        return "insert into se_logger_bodies (" + String.join(", ", BODY_COLUMNS) + ") values " + values
+                + " on conflict (code, created_at) do nothing";
+    }
+
+    /**
+     * Binds the bodies of a batch to the parameters of {@link #bodiesSql(int)}.
+     *
+     * @param loggers the records of the batch having a body, with their code and creation time set
+     * @return the parameters by name
+     */
+    static Map<String, Object> bodyBindings(List<Logger> loggers) {
+        Map<String, Object> params = HashMap.newHashMap(loggers.size() * BODY_COLUMNS.length);
+        for (int i = 0; i < loggers.size(); i++) {
+            Logger logger = loggers.get(i);
+            params.put("code" + i, Objects.requireNonNull(logger.getCode()));
+            params.put("created_at" + i, Objects.requireNonNull(logger.getCreatedAt()));
+            params.put("body" + i, Objects.requireNonNull(logger.getBody()));
+        }
+        return params;
+    }
+
+    private static Object nullable(Object value, Class<?> type) {
+        return value == null ? Parameters.in(type) : value;
+    }
+
+    private static Json json(JsonNode node) {
+        return node == null || node.isNull() ? null : Json.of(node.toString());
+    }
+
+    private static UUID auditor(UserAuditor auditor) {
+        return auditor == null || auditor.code() == null ? ContextUtils.DEFAULT_UUID_CODE : auditor.code();
+    }
+
+    /**
+     * Encodes a record for the journal.
+     *
+     * @param logger the record, with its code and creation time set
+     * @return the record bytes
+     */
+    static byte[] encode(Logger logger) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CODEC_VERSION);
+            writeUuid(out, logger.getCode());
+            writeUuid(out, logger.getTenantCode());
+            writeString(out, logger.getPrefix());
+            writeString(out, logger.getOperator());
+            writeString(out, logger.getStatus());
+            writeString(out, logger.getMethod() == null ? null : logger.getMethod().name());
+            writeString(out, logger.getUrl());
+            writeString(out, logger.getContext() == null ? null : logger.getContext().toString());
+            writeUuid(out, logger.getCreatedBy() == null ? null : logger.getCreatedBy().code());
+            writeUuid(out, logger.getUpdatedBy() == null ? null : logger.getUpdatedBy().code());
+            writeString(out, logger.getCreatedAt() == null ? null : logger.getCreatedAt().toString());
+            writeBytes(out, logger.getBody());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a record of the journal.
+     *
+     * @param data the record bytes
+     * @return the record
+     * @throws IOException if the bytes are not an encoded record
+     */
+    static Logger decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version < 1 || version > CODEC_VERSION) {
+                throw new IOException("Unknown audit log record version");
+            }
+            Logger logger = new Logger();
+            logger.setCode(readUuid(in));
+            logger.setTenantCode(readUuid(in));
+            logger.setPrefix(readString(in));
+            logger.setOperator(readString(in));
+            logger.setStatus(readString(in));
+            String method = readString(in);
+            logger.setMethod(method == null ? null : MethodType.value(method));
+            logger.setUrl(readString(in));
+            String context = readString(in);
+            logger.setContext(context == null ? null : ContextUtils.OBJECT_MAPPER.readTree(context));
+            UUID createdBy = readUuid(in);
+            logger.setCreatedBy(createdBy == null ? null : UserAuditor.withCode(createdBy));
+            UUID updatedBy = readUuid(in);
+            logger.setUpdatedBy(updatedBy == null ? null : UserAuditor.withCode(updatedBy));
+            String createdAt = readString(in);
+            logger.setCreatedAt(createdAt == null ? null : LocalDateTime.parse(createdAt));
+            if (version > 1) {
+                logger.setBody(readBytes(in));
+            }
+            return logger;
+        } catch (JacksonException | DateTimeException ex) {
+            throw new IOException("Malformed audit log record", ex);
+        }
+    }
+
+    static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Truncated audit log record");
+        }
+        return bytes;
+    }
+
+    /**
+     * Queues a record for writing. When the queue is full, the record is handed to the journal thread if the
+     * journal is enabled, and dropped otherwise. The caller never writes to the journal itself.
+     *
+     * @param logger the record
+     * @return {@code true} if the record was queued or handed to the journal, {@code false} if it was dropped
+     */
+    public boolean write(Logger logger) {
+        if (logger.getCode() == null) {
+            logger.setCode(Uuid7.next());
+        }
+        if (logger.getCreatedAt() == null) {
+            logger.setCreatedAt(LocalDateTime.now());
+        }
+        int queued;
+        do {
+            queued = this.depth.get();
+            if (queued >= this.properties.getQueueCapacity()) {
+                if (overflow(logger)) {
+                    return true;
+                }
+                this.droppedFull.increment();
+                return false;
+            }
+        } while (!this.depth.compareAndSet(queued, queued + 1));
+        this.queue.offer(logger);
+        if (queued + 1 >= this.batchSize) {
+            this.wakeups.tryEmitNext(Boolean.TRUE);
+        }
+        return true;
+    }
+
+    /**
+     * Hands a record arriving at a full queue to the journal thread, unless the journal is disabled or the
+     * records already waiting for it fill the overflow queue.
+     *
+     * @param logger the record
+     * @return {@code true} if the record will be journaled
+     */
+    private boolean overflow(Logger logger) {
+        if (this.journalWorker == null) {
+            return false;
+        }
+        if (this.overflowDepth.incrementAndGet() > this.properties.getQueueCapacity()) {
+            this.overflowDepth.decrementAndGet();
+            return false;
+        }
+        this.overflow.offer(logger);
+        if (this.overflowDrains.getAndIncrement() == 0) {
+            this.journalWorker.schedule(this::drainOverflow);
+        }
+        return true;
+    }
+
+    /**
+     * Journals the overflowed records, batch by batch, on the journal thread, until no record is left;
+     * records the full journal refuses are dropped.
+     */
+    private void drainOverflow() {
+        int missed = 1;
+        do {
+            List<Logger> batch = new ArrayList<>(this.batchSize);
+            Logger logger;
+            while ((logger = this.overflow.poll()) != null) {
+                this.overflowDepth.decrementAndGet();
+                batch.add(logger);
+                if (batch.size() >= this.batchSize || this.overflow.isEmpty()) {
+                    int spilled = spill(batch);
+                    this.droppedFull.increment(batch.size() - spilled);
+                    batch = new ArrayList<>(this.batchSize);
+                }
+            }
+            missed = this.overflowDrains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return the number of records waiting to be written
+     */
+    public int queued() {
+        return this.depth.get();
+    }
+
+    /**
+     * Writes all queued records, batch by batch, then the journaled records while the database accepts them.
+     *
+     * @return a Mono completing once the records queued at subscription time are written, journaled or dropped
+     */
+    public Mono<Void> flush() {
+        Mono<Void> queued = Mono.defer(this::flushBatch).repeat(() -> this.depth.get() > 0).then();
+        if (this.journal == null) {
+            return queued;
+        }
+        return queued.then(Mono.defer(this::replayBatch).repeat().takeWhile(Boolean::booleanValue).then());
+    }
+
+    private Mono<Long> flushBatch() {
+        List<Logger> batch = new ArrayList<>(Math.min(this.batchSize, this.depth.get()));
+        Logger logger;
+        while (batch.size() < this.batchSize && (logger = this.queue.poll()) != null) {
+            this.depth.decrementAndGet();
+            batch.add(logger);
+        }
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        return insert(batch).doOnCancel(() -> requeue(batch)).onErrorResume(ex -> {
+            Mono<Integer> spilling = rejected(ex) || this.journalWorker == null
+                    ? Mono.just(0) : Mono.fromCallable(() -> spill(batch)).subscribeOn(this.journalWorker);
+            return spilling.map(spilled -> logFailedBatch(batch, spilled, ex));
+        });
+    }
+
+    /**
+     * Puts the records of a batch whose write was cancelled, by stopping the flush loop, back on the queue,
+     * beyond its capacity if need be. Writing them again is safe: rows already inserted are skipped.
+     *
+     * @param batch the records of the batch
+     */
+    private void requeue(List<Logger> batch) {
+        for (Logger logger : batch) {
+            this.queue.offer(logger);
+            this.depth.incrementAndGet();
+        }
+        log.debug("Writing {} audit log records was cancelled, queued them again.", batch.size());
+    }
+
+    /**
+     * Counts and logs the records of a failed batch that could not be journaled.
+     *
+     * @param batch   the records of the batch
+     * @param spilled the number of records journaled
+     * @param ex      the cause of the failure
+     * @return zero, the number of records written
+     */
+    private long logFailedBatch(List<Logger> batch, int spilled, Throwable ex) {
+        if (spilled < batch.size()) {
+            this.droppedFailed.increment(batch.size() - spilled);
+            log.error("Writing {} audit log records failed, dropping {} of them. Cause: {}",
+                    batch.size(), batch.size() - spilled, ex.getMessage(), ex);
+        } else {
+            log.warn("Writing {} audit log records failed, journaled them. Cause: {}",
+                    batch.size(), ex.getMessage());
+        }
+        return 0L;
+    }
+
+    private Mono<Boolean> replayBatch() {
+        List<SegmentJournal.Record> records = this.journal.read(this.batchSize);
+        if (records.isEmpty()) {
+            return Mono.just(false);
+        }
+        long next = records.getLast().next();
+        List<Logger> batch = new ArrayList<>(records.size());
+        for (SegmentJournal.Record record : records) {
+            try {
+                batch.add(decode(record.data()));
+            } catch (IOException ex) {
+                this.droppedFailed.increment();
+                log.warn("Journaled audit log record at offset {} is malformed, dropping it. Cause: {}",
+                        record.offset(), ex.getMessage());
+            }
+        }
+        if (batch.isEmpty()) {
+            this.journal.acknowledge(next);
+            return Mono.just(true);
+        }
+        return insert(batch).doOnCancel(this.journal::rewind).map(_ -> {
+            this.journal.acknowledge(next);
+            this.replayed.increment(batch.size());
+            return true;
+        }).onErrorResume(ex -> {
+            if (rejected(ex)) {
+                this.journal.acknowledge(next);
+                this.droppedFailed.increment(batch.size());
+                log.error("Journaled audit log records were rejected, dropping {} of them. Cause: {}",
+                        batch.size(), ex.getMessage(), ex);
+                return Mono.just(true);
+            }
+            this.journal.rewind();
+            log.debug("Replaying journaled audit log records failed, retrying later. Cause: {}", ex.getMessage());
+            return Mono.just(false);
+        });
+    }
+
+    /**
+     * Inserts a batch. The bodies are resolved and the statements built on subscription, and a failure to do so
+     * is signalled as an {@link InvalidDataAccessApiUsageException}, so that it goes through the same error
+     * handling as a failed insert instead of escaping the flush with the records already taken off the queue.
+     *
+     * @param batch the records of the batch
+     * @return a Mono emitting the number of inserted records
+     */
+    private Mono<Long> insert(List<Logger> batch) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+            Mono<Long> inserted;
+            try {
+                resolveBodies(batch);
+                inserted = this.databaseClient.sql(insertSql(batch.size())).bindValues(bindings(batch))
+                        .fetch().rowsUpdated();
+                List<Logger> bodies = batch.stream().filter(logger -> logger.getBody() != null).toList();
+                if (!bodies.isEmpty()) {
+                    String sql = bodiesSql(bodies.size());
+                    Map<String, Object> params = bodyBindings(bodies);
+                    inserted = inserted.flatMap(rows -> this.databaseClient.sql(sql).bindValues(params)
+                            .fetch().rowsUpdated().thenReturn(rows));
+                }
+            } catch (RuntimeException ex) {
+                return Mono.error(new InvalidDataAccessApiUsageException(
+                        "Preparing " + batch.size() + " audit log records failed", ex));
+            }
+            return inserted.doOnNext(rows -> {
+                sample.stop(this.flushes);
+                this.batches.record(batch.size());
+                this.written.increment(rows);
+                notifyWritten(batch);
+            });
+        });
+    }
+
+    /**
+     * Registers a listener told of every batch once written, e.g. to invalidate the cached searches the
+     * records of the batch belong in. Listeners run on the flush thread and should not block.
+     *
+     * @param listener the listener, given the records of the batch
+     */
+    public void onWritten(Consumer<List<Logger>> listener) {
+        this.writtenListeners.add(listener);
+    }
+
+    private void notifyWritten(List<Logger> batch) {
+        for (Consumer<List<Logger>> listener : this.writtenListeners) {
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException ex) {
+                log.warn("Audit log written listener failed. Cause: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a batch failed for its content rather than the database being unavailable: writing it again
+     * would fail the same way, so its records are dropped instead of journaled or retried.
+     *
+     * @param ex the cause of the failure
+     * @return {@code true} if the records were rejected
+     */
+    private static boolean rejected(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException || ex instanceof InvalidDataAccessApiUsageException;
+    }
+
+    /**
+     * Decodes and compresses the bodies captured with the records, off the request path.
+     *
+     * @param loggers the records
+     */
+    private void resolveBodies(List<Logger> loggers) {
+        for (Logger logger : loggers) {
+            if (logger instanceof LoggerReq request) {
+                request.resolveBodies(this.loggerBodies);
+            }
+        }
+    }
+
+    /**
+     * Appends records to the journal; runs on the journal thread.
+     *
+     * @param loggers the records
+     * @return the number of records journaled, from the first one; zero without journal
+     */
+    private int spill(List<Logger> loggers) {
+        if (this.journal == null) {
+            return 0;
+        }
+        int spilled = 0;
+        try {
+            resolveBodies(loggers);
+            for (Logger logger : loggers) {
+                if (!this.journal.append(encode(logger))) {
+                    break;
+                }
+                spilled++;
+            }
+            if (loggers.size() > 1) {
+                this.journal.sync();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Journaling audit log records failed. Cause: {}", ex.getMessage(), ex);
+        }
+        this.spilled.increment(spilled);
+        return spilled;
+    }
+
+    /**
+     * Opens the journal and starts its thread, when enabled, and starts the flush loop, woken every {@code flush-interval} and
+     * whenever a full batch is queued. A flush failing unexpectedly is logged and counted, and does not stop
+     * the loop.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        DatabaseProperties.Journal settings = this.properties.getJournal();
+        if (settings.isEnabled()) {
+            int segmentSize = Math.toIntExact(settings.getSegmentSize().toBytes());
+            int maxSegments = (int) Math.max(1, settings.getMaxSize().toBytes() / segmentSize);
+            this.journal = SegmentJournal.open(Path.of(settings.getDirectory()), segmentSize, maxSegments,
+                    settings.getDropPolicy());
+            Metrics.gauge("plate.loggers.journal.pending", this.journal, SegmentJournal::pendingBytes);
+            Metrics.gauge("plate.loggers.journal.dropped", this.journal, SegmentJournal::dropped);
+            this.journalWorker = Schedulers.newSingle("loggers-journal", true);
+        }
+        this.flushLoop = Flux.merge(Flux.interval(this.properties.getFlushInterval()).map(_ -> Boolean.FALSE),
+                        this.wakeups.asFlux())
+                .onBackpressureDrop()
+                .concatMap(_ -> this.flush().onErrorResume(ex -> {
+                    this.errors.increment();
+                    log.error("Flushing audit log records failed, retrying with the next flush. Cause: {}",
+                            ex.getMessage(), ex);
+                    return Mono.empty();
+                }), 1)
+                .subscribe(null, ex -> log.error("Audit log flush loop stopped. Cause: {}", ex.getMessage(), ex));
+        log.info("Audit log writer started, batches of {} records every {}, journal {}.", this.batchSize,
+                this.properties.getFlushInterval(), settings.isEnabled() ? settings.getDirectory() : "disabled");
+    }
+
+    /**
+     * Stops the flush loop, writes the records still queued, lets the journal thread journal the records handed
+     * to it and closes the journal; the records that could not be written stay in the journal for the next start.
+     * A batch being written when the loop stops is queued again, and the records still queued when the final
+     * flush fails or times out are journaled before the journal is closed.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void destroy() throws IOException {
+        try {
+            if (this.flushLoop != null) {
+                this.flushLoop.dispose();
+            }
+            this.flush().block(Duration.ofSeconds(10));
+        } finally {
+            try {
+                if (this.journalWorker != null) {
+                    this.journalWorker.disposeGracefully().block(Duration.ofSeconds(10));
+                }
+            } finally {
+                if (this.journal != null) {
+                    spillQueued();
+                    this.journal.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Journals the records still queued, batch by batch; those the journal refuses are dropped.
+     */
+    private void spillQueued() {
+        List<Logger> batch = new ArrayList<>(this.batchSize);
+        Logger logger;
+        while ((logger = this.queue.poll()) != null) {
+            this.depth.decrementAndGet();
+            batch.add(logger);
+            if (batch.size() >= this.batchSize || this.queue.isEmpty()) {
+                int spilled = spill(batch);
+                this.droppedFailed.increment(batch.size() - spilled);
+                batch = new ArrayList<>(this.batchSize);
+            }
+        }
+    }
+}
@@ -90,7 +90,7 @@ public class MenusController {
                     request.setRules(rules);
                 }
             }
-            return this.menusService.search(request, Pageable.ofSize(Integer.MAX_VALUE)).distinct(Menu::getAuthority);
+            return this.menusService.stream(request).distinct(Menu::getAuthority);
         });
     }
 
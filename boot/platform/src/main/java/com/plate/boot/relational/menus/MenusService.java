@@ -5,18 +5,25 @@ import com.plate.boot.commons.base.AbstractCache;
 import com.plate.boot.commons.exception.RestServerException;
 import com.plate.boot.commons.utils.BeanUtils;
 import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.utils.DatabaseUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.relational.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ObjectUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.plate.boot.commons.utils.ContextUtils.DEFAULT_UUID_CODE;
+
 /**
  * Service class for managing {@link Menu} entities.
  * <p>
@@ -48,7 +55,19 @@ public class MenusService extends AbstractCache {
     public Flux<Menu> search(MenuReq request, Pageable pageable) {
         var cacheKey = BeanUtils.cacheKey(request, pageable);
         Query query = Query.query(request.toCriteria()).with(pageable).sort(Sort.by("sortNo"));
-        return this.queryWithCache(cacheKey, query, Menu.class);
+        return this.queryWithCache(cacheKey, tenantTags(request), DatabaseUtils.query(query, Menu.class, true));
+    }
+
+    /**
+     * Streams all menus matching the provided request, ordered by sort number, without caching
+     * or paging the result.
+     *
+     * @param request The menu request containing search criteria.
+     * @return A Flux of Menu entities emitted as they are fetched.
+     */
+    public Flux<Menu> stream(MenuReq request) {
+        Query query = Query.query(request.toCriteria()).sort(Sort.by("sortNo"));
+        return DatabaseUtils.stream(query, Menu.class);
     }
 
     /**
@@ -60,11 +79,10 @@ public class MenusService extends AbstractCache {
      * @return A Mono of Page containing Menu entities.
      */
     public Mono<Page<Menu>> page(MenuReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        Query query = Query.query(request.toCriteria());
-        var countMono = super.countWithCache(BeanUtils.cacheKey(request), query, Menu.class);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("menus");
+        Query query = Query.query(request.toCriteria()).with(pageable).sort(Sort.by("sortNo"));
+        var pageMono = DatabaseUtils.page(DatabaseUtils.fragment(query, Menu.class), pageable, Menu.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), tenantTags(request), pageMono);
     }
 
     /**
@@ -117,10 +135,12 @@ public class MenusService extends AbstractCache {
                 .switchIfEmpty(Mono.defer(() -> this.menusRepository
                         .findByTenantCodeAndAuthority(request.getTenantCode(), request.getAuthority())))
                 .defaultIfEmpty(request.toMenu())
-                .flatMap(user -> {
-                    BeanUtils.copyProperties(request, user, true);
-                    return this.save(user);
-                }).doAfterTerminate(() -> this.cache.clear());
+                .flatMap(menu -> {
+                    UUID oldTenantCode = menu.getTenantCode();
+                    BeanUtils.copyProperties(request, menu, true);
+                    return this.save(menu).flatMap(saved ->
+                            this.invalidateTenants(oldTenantCode, menu.getTenantCode()).thenReturn(saved));
+                });
     }
 
     /**
@@ -156,7 +176,42 @@ public class MenusService extends AbstractCache {
         log.warn("Delete menu request: {}", request);
         return this.menusRepository.findByCode(request.getCode())
                 .doOnNext(res -> ContextUtils.eventPublisher(MenuEvent.delete(res)))
-                .flatMap(this.menusRepository::delete)
-                .doAfterTerminate(() -> this.cache.clear());
+                .flatMap(res -> this.menusRepository.delete(res)
+                        .then(this.invalidateTenants(res.getTenantCode())));
+    }
+
+    /**
+     * Builds the cache tags of a menu query. Menu queries of a tenant also return the default tenant's
+     * menus, so they depend on both tenants; queries without a tenant depend on every tenant.
+     *
+     * @param request The menu request containing search criteria.
+     * @return The tags the cached result depends on.
+     */
+    private static Set<String> tenantTags(MenuReq request) {
+        if (ObjectUtils.isEmpty(request.getTenantCode())) {
+            return Set.of(tag(TENANT_TAG, null));
+        }
+        if (DEFAULT_UUID_CODE.equals(request.getTenantCode())) {
+            return Set.of(tag(TENANT_TAG, DEFAULT_UUID_CODE));
+        }
+        return Set.of(tag(TENANT_TAG, request.getTenantCode()), tag(TENANT_TAG, DEFAULT_UUID_CODE));
+    }
+
+    /**
+     * Invalidates the cached menu queries affected by a write to the given tenants' menus,
+     * including the queries that are not scoped to a tenant, once the write has committed.
+     *
+     * @param tenantCodes The tenants of the written menu, before and after the write.
+     * @return A Mono completing once the invalidation is registered or done.
+     */
+    private Mono<Void> invalidateTenants(UUID... tenantCodes) {
+        Set<String> tags = new HashSet<>();
+        tags.add(tag(TENANT_TAG, null));
+        for (UUID tenantCode : tenantCodes) {
+            if (!ObjectUtils.isEmpty(tenantCode)) {
+                tags.add(tag(TENANT_TAG, tenantCode));
+            }
+        }
+        return this.invalidateTagsOnCommit(tags.toArray(String[]::new));
     }
 }
\ No newline at end of file
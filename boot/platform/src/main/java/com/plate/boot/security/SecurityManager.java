@@ -1,6 +1,7 @@
 package com.plate.boot.security;
 
 import com.plate.boot.commons.base.AbstractCache;
+import com.plate.boot.commons.cache.RefreshPolicy;
 import com.plate.boot.commons.query.QueryFragment;
 import com.plate.boot.commons.utils.DatabaseUtils;
 import com.plate.boot.security.core.group.authority.GroupAuthority;
@@ -47,7 +48,7 @@ import java.util.regex.Pattern;
  * - Retrieve user information based on OAuth2 bindings for authentication purposes.
  * - Load user details by username, including associated roles and permissions.
  * - Cache query results to minimize direct database hits for frequently accessed data.
- * - Handle password updates in a secure manner, clearing related caches post-update.
+ * - Handle password updates in a secure manner, invalidating the updated user's cache entries post-update.
  * - Populate SecurityDetails objects with comprehensive user and authorization data.
  * <p>
  * Dependencies:
@@ -76,6 +77,12 @@ public class SecurityManager extends AbstractCache implements ReactiveUserDetail
     private static final String CACHE_KEY_USER_AUTHORITIES_PREFIX = "USER_AUTHORITIES-";
     private static final String CACHE_KEY_GROUP_AUTHORITIES_PREFIX = "GROUP_AUTHORITIES-";
 
+    /**
+     * Cache tag value shared by the users loaded through OAuth2 bindings, whose usernames are unknown
+     * until loaded; a password update invalidates them together with the user's own entry.
+     */
+    private static final String OAUTH2_USERS = "oauth2";
+
     /**
      * Default cache duration
      */
@@ -123,6 +130,18 @@ public class SecurityManager extends AbstractCache implements ReactiveUserDetail
      */
     private final UsersService usersService;
 
+    /**
+     * Security lookups run on every login and session restore while users, groups and authorities change
+     * rarely, so cached entries are refreshed in the background after two minutes instead of being
+     * reloaded on the caller's path. Password updates still invalidate the user's entries immediately.
+     *
+     * @return the refresh-ahead policy of the security cache
+     */
+    @Override
+    protected RefreshPolicy refreshPolicy() {
+        return RefreshPolicy.of(Duration.ofMinutes(2));
+    }
+
     /**
      * Updates the password for a given user's UserDetails.
      *
@@ -135,7 +154,8 @@ public class SecurityManager extends AbstractCache implements ReactiveUserDetail
         Query query = Query.query(Criteria.where("username").is(userDetails.getUsername()).ignoreCase(true));
         Update update = Update.update("password", newPassword);
         return DatabaseUtils.ENTITY_TEMPLATE.update(query, update, User.class)
-                .flatMap(_ -> Mono.just(userDetails)).doAfterTerminate(() -> this.cache.clear());
+                .flatMap(_ -> this.invalidateTagsOnCommit(tag(USER_TAG, userDetails.getUsername().toLowerCase()),
+                        tag(USER_TAG, OAUTH2_USERS)).thenReturn(userDetails));
     }
 
     /**
@@ -173,7 +193,7 @@ public class SecurityManager extends AbstractCache implements ReactiveUserDetail
         queryFragment.put("openid", openid);
         var userFlux = DatabaseUtils.query(queryFragment.querySql(), queryFragment, User.class);
         String cacheKey = CACHE_KEY_OAUTH2_PREFIX + bindType + "_" + openid;
-        return this.queryWithCache(cacheKey, userFlux).singleOrEmpty();
+        return this.queryWithCache(cacheKey, Set.of(tag(USER_TAG, OAUTH2_USERS)), userFlux).singleOrEmpty();
     }
 
     /**
@@ -186,7 +206,8 @@ public class SecurityManager extends AbstractCache implements ReactiveUserDetail
     public Mono<@NonNull User> loadByUsername(String username) {
         Query query = Query.query(Criteria.where("username").is(username).ignoreCase(true));
         var userFlux = DatabaseUtils.query(query, User.class);
-        return this.queryWithCache(username, userFlux).singleOrEmpty().switchIfEmpty(Mono.defer(() ->
+        var tags = Set.of(tag(USER_TAG, username.toLowerCase()));
+        return this.queryWithCache(username, tags, userFlux).singleOrEmpty().switchIfEmpty(Mono.defer(() ->
                 Mono.error(new UsernameNotFoundException("Login user does not exist, username: " + username))));
     }
 
@@ -10,8 +10,12 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.ReactiveAuditorAware;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -95,5 +99,38 @@ public class UserAuditorAware implements ReactiveAuditorAware<UserAuditor> {
                 .doOnNext(sourceData -> this.cache.put(code, sourceData)));
     }
 
+    /**
+     * Loads the users with the given codes, reading the cache first and the repository once for all misses.
+     * <p>
+     * This is the batch form of {@link #loadByCode(UUID)}: the codes missing from the cache are loaded with
+     * a single {@code code = any(:codes)} statement and written back to the cache. Codes that match no user
+     * are simply absent from the result.
+     *
+     * @param codes The unique codes used to identify the users, {@code null} elements are ignored.
+     * @return A {@link Flux} emitting a {@link UserAuditor} for every code found, in no particular order.
+     */
+    public Flux<UserAuditor> loadByCodes(Collection<UUID> codes) {
+        List<UserAuditor> hits = new ArrayList<>(codes.size());
+        List<UUID> misses = new ArrayList<>(codes.size());
+        for (UUID code : codes) {
+            if (code == null) {
+                continue;
+            }
+            Cache.ValueWrapper wrapper = this.cache == null ? null : this.cache.get(code);
+            if (wrapper != null && wrapper.get() instanceof UserAuditor userAuditor) {
+                hits.add(userAuditor);
+            } else {
+                misses.add(code);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Flux.fromIterable(hits);
+        }
+        var loaded = this.usersRepository.findByCodes(misses.toArray(UUID[]::new)).map(UserAuditor::withUser);
+        if (this.cache != null) {
+            loaded = loaded.doOnNext(sourceData -> this.cache.put(sourceData.code(), sourceData));
+        }
+        return Flux.fromIterable(hits).concatWith(loaded);
+    }
 
-}
\ No newline at end of file
+}
@@ -4,9 +4,9 @@ import com.plate.boot.commons.base.AbstractCache;
 import com.plate.boot.commons.query.QueryFragment;
 import com.plate.boot.commons.utils.BeanUtils;
 import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.commons.utils.DatabaseUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -48,12 +48,10 @@ public class GroupsService extends AbstractCache {
      * @return Paginated results containing group information
      */
     public Mono<Page<Group>> page(GroupReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment queryFragment = request.query();
-        var countMono = this.countWithCache(BeanUtils.cacheKey(request), queryFragment.countSql(), queryFragment);
-
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("groups");
+        QueryFragment queryFragment = request.query().pageable(pageable);
+        var pageMono = DatabaseUtils.page(queryFragment, pageable, Group.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), pageMono);
     }
 
     /**
@@ -10,7 +10,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.relational.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -53,11 +52,10 @@ public class GroupMembersService extends AbstractCache {
      * @return A Mono containing a Page of GroupMemberRes objects with pagination metadata
      */
     public Mono<Page<GroupMemberRes>> page(GroupMemberReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment fragment = request.toParamSql();
-        var countMono = this.countWithCache(BeanUtils.cacheKey(request), fragment.countSql(), fragment);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("group-members");
+        QueryFragment fragment = request.toParamSql().pageable(pageable);
+        var pageMono = DatabaseUtils.page(fragment, pageable, GroupMemberRes.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), pageMono);
     }
 
     /**
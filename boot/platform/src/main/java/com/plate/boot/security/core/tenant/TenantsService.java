@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -46,7 +45,7 @@ public class TenantsService {
     @Cacheable(cacheNames = "tenants", key = "T(com.plate.boot.commons.utils.BeanUtils).cacheKey(#request,#pageable)")
     public Flux<Tenant> search(TenantReq request, Pageable pageable) {
         QueryFragment queryFragment = request.query().pageable(pageable);
-        return DatabaseUtils.query(queryFragment.querySql(), queryFragment, Tenant.class);
+        return DatabaseUtils.query(queryFragment.querySql(), queryFragment, Tenant.class, true);
     }
 
     /**
@@ -58,11 +57,8 @@ public class TenantsService {
      */
     @Cacheable(cacheNames = "tenants", key = "T(com.plate.boot.commons.utils.BeanUtils).cacheKey(#request,#pageable)")
     public Mono<Page<Tenant>> page(TenantReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment queryFragment = request.query();
-        var countMono = DatabaseUtils.count(queryFragment.countSql(), queryFragment);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        QueryFragment queryFragment = request.query().pageable(pageable);
+        return DatabaseUtils.page(queryFragment, pageable, Tenant.class, DatabaseUtils.pageStrategy("tenants"));
     }
 
     /**
@@ -10,7 +10,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.query.Query;
@@ -60,11 +59,10 @@ public class TenantMembersService extends AbstractCache {
      * @return a Mono of Page containing TenantMemberRes objects
      */
     public Mono<Page<TenantMemberRes>> page(TenantMemberReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment queryFragment = request.toParamSql();
-        Mono<Long> countMono = this.countWithCache(BeanUtils.cacheKey(request), queryFragment.countSql(), queryFragment);
-        return searchMono.zipWith(countMono)
-                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()));
+        var strategy = DatabaseUtils.pageStrategy("tenant-members");
+        QueryFragment queryFragment = request.toParamSql().pageable(pageable);
+        var pageMono = DatabaseUtils.page(queryFragment, pageable, TenantMemberRes.class, strategy);
+        return this.queryWithCache(BeanUtils.cacheKey(request, pageable, strategy), pageMono);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.plate.boot.security.core.user;
 
+import com.plate.boot.commons.query.Match;
 import com.plate.boot.commons.utils.BeanUtils;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -12,7 +13,13 @@ import java.util.UUID;
  * Represents a user request, extending the base User class with additional attributes specific to requests.
  * It includes a from map for parameters and a security code, offering fluent method for setting the security code.
  * This class also provides utility methods to convert to a plain User instance and to bind request parameters into a SQL from fragment.
+ * The string filters are matched in the {@link Match} modes declared here: the username exactly, email and phone
+ * by prefix, and the name by substring.
  */
+@Match(property = "username", mode = Match.Mode.EXACT)
+@Match(property = "email", mode = Match.Mode.PREFIX)
+@Match(property = "phone", mode = Match.Mode.PREFIX)
+@Match(property = "name", mode = Match.Mode.CONTAINS)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @ToString(callSuper = true)
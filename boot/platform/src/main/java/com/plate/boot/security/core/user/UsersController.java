@@ -1,5 +1,6 @@
 package com.plate.boot.security.core.user;
 
+import com.plate.boot.commons.query.KeysetPage;
 import com.plate.boot.commons.utils.BeanUtils;
 import com.plate.boot.commons.utils.ContextUtils;
 import jakarta.validation.Valid;
@@ -59,6 +60,23 @@ public class UsersController {
                 .map(PagedModel::new);
     }
 
+    /**
+     * Retrieves a page of users by keyset pagination within the authenticated tenant.
+     * The first page is requested without a token, every following page with the {@code next}
+     * token of the previous one, keeping the same sort and filters.
+     *
+     * @param request  A UserReq object encapsulating the user search criteria.
+     * @param pageable Specifies the page size and sort orders; the page number is ignored.
+     * @param token    The continuation token returned with the previous page, absent for the first page.
+     * @return A Mono wrapping a KeysetPage of UserRes objects and the token of the next page.
+     */
+    @GetMapping("page/cursor")
+    public Mono<@NonNull KeysetPage<@NonNull UserRes>> cursorPage(UserReq request, Pageable pageable,
+                                                                 @RequestParam(required = false) String token) {
+        return ContextUtils.securityDetails().flatMap(details ->
+                this.usersService.cursorPage(request.securityCode(details.getTenantCode()), pageable, token));
+    }
+
     /**
      * Adds a new user based on the provided UserReq.
      *
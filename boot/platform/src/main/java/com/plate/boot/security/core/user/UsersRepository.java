@@ -1,7 +1,9 @@
 package com.plate.boot.security.core.user;
 
 import lombok.NonNull;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -20,6 +22,16 @@ public interface UsersRepository extends R2dbcRepository<@NonNull User, @NonNull
      */
     Mono<User> findByCode(UUID code);
 
+    /**
+     * Retrieves the User entities matching any of the provided codes in a single statement.
+     * The codes are bound as one array parameter, so the statement text does not depend on their number.
+     *
+     * @param codes The unique codes used to identify the users.
+     * @return A Flux emitting the User entities found, in no particular order.
+     */
+    @Query("select * from se_users where code = any(:codes)")
+    Flux<User> findByCodes(UUID[] codes);
+
     /**
      * Finds a user by their username.
      *
@@ -1,17 +1,20 @@
 package com.plate.boot.security.core.user;
 
 import com.plate.boot.commons.exception.RestServerException;
+import com.plate.boot.commons.query.Keyset;
+import com.plate.boot.commons.query.KeysetPage;
 import com.plate.boot.commons.query.QueryFragment;
 import com.plate.boot.commons.utils.BeanUtils;
 import com.plate.boot.commons.utils.ContextUtils;
 import com.plate.boot.commons.utils.DatabaseUtils;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,6 +23,8 @@ import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Set;
+
 /**
  * User domain service, responsible for querying, creating, modifying, deleting and persisting users.
  *
@@ -38,6 +43,8 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class UsersService {
 
+    private static final Set<String> CURSOR_SORTABLE = Set.of("createdAt", "updatedAt", "code", "username");
+
     private final PasswordEncoder passwordEncoder;
     private final UsersRepository usersRepository;
 
@@ -51,15 +58,15 @@ public class UsersService {
     @Cacheable(cacheNames = "users", key = "T(com.plate.boot.commons.utils.BeanUtils).cacheKey(#request,#pageable)")
     public Flux<@NonNull UserRes> search(UserReq request, Pageable pageable) {
         QueryFragment queryFragment = request.query().pageable(pageable);
-        return DatabaseUtils.query(queryFragment.querySql(), queryFragment, UserRes.class);
+        return DatabaseUtils.query(queryFragment.querySql(), queryFragment, UserRes.class, true);
     }
 
     /**
      * Retrieves a paged list of users based on the provided request and pagination settings.
      * <p>
      * This method performs a search from using the given {@link UserReq} and {@link Pageable} parameters,
-     * and then retrieves the total count of matching records. The results are then combined into a single
-     * {@link Page} object, which includes both the list of users and the total count, allowing for pagination.
+     * and obtains the total count of matching records with the {@code users} page strategy. The results are
+     * combined into a single {@link Page} object, which includes both the list of users and the total count.
      *
      * @param request  The {@link UserReq} object containing the search criteria.
      * @param pageable The {@link Pageable} object defining the pagination settings.
@@ -67,11 +74,31 @@ public class UsersService {
      */
     @Cacheable(cacheNames = "users", key = "T(com.plate.boot.commons.utils.BeanUtils).cacheKey(#request,#pageable)")
     public Mono<@NonNull Page<@NonNull UserRes>> page(UserReq request, Pageable pageable) {
-        var searchMono = this.search(request, pageable).collectList();
-        QueryFragment queryFragment = request.query();
-        var countMono = DatabaseUtils.count(queryFragment.countSql(), queryFragment);
-        return Mono.zip(searchMono, countMono)
-                .map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+        QueryFragment queryFragment = request.query().pageable(pageable);
+        return DatabaseUtils.page(queryFragment, pageable, UserRes.class, DatabaseUtils.pageStrategy("users"));
+    }
+
+    /**
+     * Retrieves a page of users by keyset pagination, continuing after the row a previous page ended with.
+     * <p>
+     * Rows are ordered by the requested sort, {@code createdAt} descending by default, with {@code id} as
+     * the tie-breaker. The query seeks past the sort key carried by the continuation token instead of
+     * skipping an offset, and no total count is computed.
+     *
+     * @param request  The {@link UserReq} object containing the search criteria.
+     * @param pageable The {@link Pageable} object defining the page size and sorting; the page number is ignored.
+     * @param token    The continuation token of the previous page, or {@code null} for the first page.
+     * @return A {@link Mono} that emits a {@link KeysetPage} of users with the token of the next page.
+     */
+    @Cacheable(cacheNames = "users", key = "T(com.plate.boot.commons.utils.BeanUtils).cacheKey(#request,#pageable,#token)")
+    public Mono<@NonNull KeysetPage<@NonNull UserRes>> cursorPage(UserReq request, Pageable pageable,
+                                                                 @Nullable String token) {
+        var keyset = Keyset.of(User.class, pageable.getSort(), Sort.by(Sort.Direction.DESC, "createdAt"),
+                CURSOR_SORTABLE, "id", token);
+        int size = pageable.getPageSize();
+        QueryFragment queryFragment = keyset.apply(request.query(), size);
+        return DatabaseUtils.query(queryFragment.querySql(), queryFragment, UserRes.class)
+                .collectList().map(rows -> keyset.page(rows, size));
     }
 
     /**
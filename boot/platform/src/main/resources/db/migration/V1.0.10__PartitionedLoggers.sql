@@ -0,0 +1,99 @@
+-- Range-partitions se_loggers by month of created_at, so that expired months are detached and dropped
+-- instead of deleted row by row, and queries bounded by created_at only scan the months they cover.
+-- Primary and unique keys of a partitioned table must contain the partition key, hence (id, created_at)
+-- and (code, created_at); a record keeps its created_at, so its code stays unique for conflict handling.
+-- There is no default partition: it would forbid detaching partitions concurrently. Partitions are made
+-- months ahead, here and by the scheduled maintenance of the application.
+alter table se_loggers rename to se_loggers_legacy;
+alter table se_loggers_legacy rename constraint se_loggers_pkey to se_loggers_legacy_pkey;
+alter table se_loggers_legacy rename constraint se_loggers_code_key to se_loggers_legacy_code_key;
+alter sequence se_loggers_id_seq rename to se_loggers_legacy_id_seq;
+
+create table se_loggers
+(
+    id          BIGSERIAL,
+    code        uuid        not null default uuidv7(),
+    version     int         not null default 0,
+    tenant_code uuid        not null default '00000000-0000-0000-0000-000000000000',
+    prefix      varchar(64),
+    operator    varchar(64),
+    status      varchar(64),
+    method      varchar(64),
+    url         text,
+    context     jsonb,
+    extend      jsonb,
+    created_by  uuid        not null default '00000000-0000-0000-0000-000000000000',
+    updated_by  uuid        not null default '00000000-0000-0000-0000-000000000000',
+    created_at  TIMESTAMPTZ not null default current_timestamp,
+    updated_at  TIMESTAMPTZ not null default current_timestamp,
+    text_search tsvector generated always as (
+        setweight(to_tsvector('chinese', code::text), 'A') || ' ' ||
+        setweight(to_tsvector('chinese', tenant_code::text), 'A') || ' ' ||
+        setweight(to_tsvector('chinese', coalesce(prefix, '')), 'B') || ' ' ||
+        setweight(to_tsvector('chinese', coalesce(operator, '')), 'B') || ' ' ||
+        setweight(to_tsvector('chinese', coalesce(method, '')), 'B') || ' ' ||
+        setweight(to_tsvector('chinese', coalesce(url, '')), 'C') || ' ' ||
+        setweight(jsonb_to_tsvector('chinese', context::jsonb, '[
+          "string"
+        ]'), 'D')) stored,
+    constraint se_loggers_pkey primary key (id, created_at),
+    constraint se_loggers_code_created_ux unique (code, created_at)
+) partition by range (created_at);
+comment on table se_loggers is 'Operation log table, partitioned by month of created_at';
+
+-- Creates the missing monthly partitions se_loggers_pYYYYMM covering p_from through p_to.
+create or replace function se_loggers_create_partitions(p_from date, p_to date) returns int
+    language plpgsql as
+$$
+declare
+    month_start    date := date_trunc('month', p_from)::date;
+    created        int  := 0;
+    partition_name text;
+begin
+    while month_start <= p_to
+        loop
+            partition_name := 'se_loggers_p' || to_char(month_start, 'YYYYMM');
+            if to_regclass(partition_name) is null then
+                execute format('create table %I partition of se_loggers for values from (%L) to (%L)',
+                               partition_name, month_start::timestamptz, (month_start + interval '1 month')::timestamptz);
+                created := created + 1;
+            end if;
+            month_start := (month_start + interval '1 month')::date;
+        end loop;
+    return created;
+end;
+$$;
+
+select se_loggers_create_partitions(
+               coalesce((select min(created_at) from se_loggers_legacy)::date, current_date),
+               (current_date + interval '3 months')::date);
+
+insert into se_loggers (id, code, version, tenant_code, prefix, operator, status, method, url, context, extend,
+                        created_by, updated_by, created_at, updated_at)
+select id,
+       code,
+       version,
+       tenant_code,
+       prefix,
+       operator,
+       status,
+       method,
+       url,
+       context,
+       extend,
+       created_by,
+       updated_by,
+       created_at,
+       updated_at
+from se_loggers_legacy;
+
+select setval('se_loggers_id_seq', coalesce((select max(id) from se_loggers), 0) + 1, false);
+
+drop table se_loggers_legacy;
+
+-- Indexes declared on the parent are created on every partition, present and future.
+create index se_loggers_context_gin_idx on se_loggers using gin (context);
+create index se_loggers_extend_gin_idx on se_loggers using gin (extend);
+create index se_loggers_text_search_gin_idx on se_loggers using gin (text_search);
+create index se_loggers_tenant_created_id_idx on se_loggers (tenant_code, created_at desc, id desc);
+create index se_loggers_context_request_address_idx on se_loggers ((context ->> 'requestAddress') text_pattern_ops);
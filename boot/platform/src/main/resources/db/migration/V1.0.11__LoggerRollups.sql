@@ -0,0 +1,21 @@
+-- Per-minute rollups of the audit logs, written by each application instance for the minutes it served.
+-- A minute may have several rows per key, from several instances or late records; the rows of a key add up.
+-- The latency histogram holds microseconds, encoded by LatencyHistogram; operators maps the most frequent
+-- operators to their counts.
+create table if not exists se_logger_rollups
+(
+    id           BIGSERIAL primary key,
+    bucket       TIMESTAMPTZ  not null,
+    tenant_code  uuid         not null default '00000000-0000-0000-0000-000000000000',
+    method       varchar(16)  not null,
+    path         varchar(512) not null,
+    status_class varchar(8)   not null,
+    count        bigint       not null,
+    latency_sum  bigint       not null,
+    latency_max  bigint       not null,
+    histogram    bytea        not null,
+    operators    jsonb,
+    created_at   TIMESTAMPTZ  not null default current_timestamp
+);
+create index se_logger_rollups_tenant_bucket_idx on se_logger_rollups (tenant_code, bucket);
+comment on table se_logger_rollups is 'Per-minute request rollups of the operation logs';
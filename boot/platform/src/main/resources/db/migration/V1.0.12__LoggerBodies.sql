@@ -0,0 +1,58 @@
+-- Captured request and response bodies of the audit logs, kept out of the searchable se_loggers rows so that
+-- the generated text_search column and the context indexes no longer process them on every insert.
+-- A body is the JSON object of requestBody and responseBody, deflated in the zlib format, with the preset
+-- dictionary of se_logger_dictionaries its header names, if any. The column is stored external: the bytes are
+-- compressed already, TOAST only moves them out of line.
+-- The table is partitioned by month like se_loggers, and its partitions are created and dropped with theirs.
+create table se_logger_bodies
+(
+    code       uuid        not null,
+    created_at TIMESTAMPTZ not null,
+    body       bytea       not null,
+    constraint se_logger_bodies_pkey primary key (code, created_at)
+) partition by range (created_at);
+alter table se_logger_bodies alter column body set storage external;
+comment on table se_logger_bodies is 'Compressed bodies of the operation logs, partitioned by month of created_at';
+
+-- Deflate dictionaries trained on the bodies, by Adler-32 checksum as named in the zlib header.
+create table if not exists se_logger_dictionaries
+(
+    id         bigint primary key,
+    dictionary bytea       not null,
+    samples    int         not null,
+    created_at TIMESTAMPTZ not null default current_timestamp
+);
+comment on table se_logger_dictionaries is 'Compression dictionaries of the operation log bodies';
+
+-- Creates the missing monthly partitions se_loggers_pYYYYMM and se_logger_bodies_pYYYYMM covering p_from
+-- through p_to.
+create or replace function se_loggers_create_partitions(p_from date, p_to date) returns int
+    language plpgsql as
+$$
+declare
+    month_start    date := date_trunc('month', p_from)::date;
+    created        int  := 0;
+    parent_name    text;
+    partition_name text;
+begin
+    while month_start <= p_to
+        loop
+            foreach parent_name in array array ['se_loggers', 'se_logger_bodies']
+                loop
+                    partition_name := parent_name || '_p' || to_char(month_start, 'YYYYMM');
+                    if to_regclass(partition_name) is null then
+                        execute format('create table %I partition of %I for values from (%L) to (%L)',
+                                       partition_name, parent_name, month_start::timestamptz,
+                                       (month_start + interval '1 month')::timestamptz);
+                        created := created + 1;
+                    end if;
+                end loop;
+            month_start := (month_start + interval '1 month')::date;
+        end loop;
+    return created;
+end;
+$$;
+
+select se_loggers_create_partitions(
+               coalesce((select min(created_at) from se_loggers)::date, current_date),
+               (current_date + interval '3 months')::date);
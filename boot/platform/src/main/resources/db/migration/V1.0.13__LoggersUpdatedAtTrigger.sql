@@ -0,0 +1,9 @@
+-- V1.0.10 recreated se_loggers as a partitioned table and dropped the legacy table, together with the
+-- se_loggers_updated_at_trigger V1.0.2 had created on it, so updated_at was no longer maintained.
+-- A row trigger created on the partitioned parent is cloned to every partition, present and future.
+drop trigger if exists se_loggers_updated_at_trigger on se_loggers;
+create trigger se_loggers_updated_at_trigger
+    before update
+    on se_loggers
+    for each row
+execute function plate_update_updated_at_column();
@@ -0,0 +1,8 @@
+-- Contains and fuzzy matches queried through Spring Data, as the dictionaries are, render as
+-- UPPER(column) LIKE UPPER(value), which the pg_trgm indexes on the raw columns cannot serve; the
+-- QueryFragment renderer writes ILIKE instead, which they do. Index the upper-cased dictionary columns.
+drop index if exists se_dictionaries_value_trgm_idx;
+drop index if exists se_dictionaries_label_trgm_idx;
+
+create index se_dictionaries_value_upper_trgm_idx on se_dictionaries using gin (upper(dict_value) gin_trgm_ops);
+create index se_dictionaries_label_upper_trgm_idx on se_dictionaries using gin (upper(dict_label) gin_trgm_ops);
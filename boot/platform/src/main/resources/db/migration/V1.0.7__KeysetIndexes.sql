@@ -0,0 +1,4 @@
+-- Indexes matching the default keyset order of the cursor pages, so that a page seeks to its
+-- continuation token within the tenant instead of sorting the tenant's rows.
+create index se_loggers_tenant_created_id_idx on se_loggers (tenant_code, created_at desc, id desc);
+create index se_users_tenant_created_id_idx on se_users (tenant_code, created_at desc, id desc);
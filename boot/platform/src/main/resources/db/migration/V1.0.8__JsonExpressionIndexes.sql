@@ -0,0 +1,4 @@
+-- Expression indexes for the JSON filters the GIN indexes cannot serve. Equality and IN filters on
+-- JSON columns are containment and jsonpath predicates served by the GIN index of the column; range and
+-- pattern filters compare the ->> text of a path, which each entity declares with @JsonIndex.
+create index se_loggers_context_request_address_idx on se_loggers ((context ->> 'requestAddress') text_pattern_ops);
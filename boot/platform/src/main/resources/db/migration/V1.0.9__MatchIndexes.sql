@@ -0,0 +1,11 @@
+-- Indexes serving the declared match modes of the request filters. Exact matches use the existing
+-- B-tree indexes; prefix matches (LIKE 'value%') need text_pattern_ops under a non-C collation;
+-- contains and fuzzy matches (ILIKE '%value%') are served by pg_trgm GIN indexes.
+create extension if not exists pg_trgm;
+
+create index se_users_email_pattern_idx on se_users (email text_pattern_ops);
+create index se_users_phone_pattern_idx on se_users (phone text_pattern_ops);
+create index se_users_name_trgm_idx on se_users using gin (name gin_trgm_ops);
+
+create index se_dictionaries_value_trgm_idx on se_dictionaries using gin (dict_value gin_trgm_ops);
+create index se_dictionaries_label_trgm_idx on se_dictionaries using gin (dict_label gin_trgm_ops);
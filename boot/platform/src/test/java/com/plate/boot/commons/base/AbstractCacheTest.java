@@ -1,11 +1,29 @@
 package com.plate.boot.commons.base;
 
+import com.plate.boot.commons.cache.CacheEntry;
+import com.plate.boot.commons.cache.RefreshPolicy;
+import com.plate.boot.commons.routing.ReplicaRoutingConnectionFactory;
 import com.plate.boot.commons.utils.ContextUtils;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.cache.Cache;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,7 +34,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  * When {@link ContextUtils#CACHE_MANAGER} is {@code null}, {@code initializingCache} falls back to a
  * local {@link ConcurrentMapCache}. The SQL-bound {@code queryWithCache}/{@code countWithCache}
  * helpers depend on the static {@code DatabaseUtils} template/client, which are only populated by
- * Spring, so they are intentionally NOT tested here (see report).
+ * Spring, so they are intentionally NOT tested here (see report). The tag-aware cache-aside logic is
+ * exercised through the {@link Flux}/{@link Mono} based overloads with in-memory sources.
  */
 class AbstractCacheTest {
 
@@ -36,6 +55,13 @@ class AbstractCacheTest {
     static class TestCache extends AbstractCache {
     }
 
+    static class RefreshingCache extends AbstractCache {
+        @Override
+        protected RefreshPolicy refreshPolicy() {
+            return RefreshPolicy.of(Duration.ofSeconds(1));
+        }
+    }
+
     @Test
     void afterPropertiesSetInitialisesLocalCache() {
         TestCache cache = new TestCache();
@@ -53,4 +79,173 @@ class AbstractCacheTest {
         assertThat(cache).isInstanceOf(ConcurrentMapCache.class);
         assertThat(cache.getName()).isEqualTo("custom.cache");
     }
+
+    @Test
+    void cachedResultIsServedUntilItsTagIsInvalidated() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        AtomicInteger loads = new AtomicInteger();
+        Flux<String> source = Flux.defer(() -> Flux.just("v" + loads.incrementAndGet()));
+        Set<String> tags = Set.of(AbstractCache.tag(AbstractCache.TENANT_TAG, "a"));
+
+        assertThat(cache.queryWithCache("k", tags, source).collectList().block()).containsExactly("v1");
+        assertThat(cache.queryWithCache("k", tags, source).collectList().block()).containsExactly("v1");
+
+        cache.invalidateTags(AbstractCache.tag(AbstractCache.TENANT_TAG, "b"));
+        assertThat(cache.queryWithCache("k", tags, source).collectList().block()).containsExactly("v1");
+
+        cache.invalidateTags(AbstractCache.tag(AbstractCache.TENANT_TAG, "a"));
+        assertThat(cache.queryWithCache("k", tags, source).collectList().block()).containsExactly("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidateOnCommitWithoutTransactionInvalidatesImmediately() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        AtomicInteger loads = new AtomicInteger();
+        Flux<String> source = Flux.defer(() -> Flux.just("v" + loads.incrementAndGet()));
+        String tag = AbstractCache.tag(AbstractCache.TENANT_TAG, "a");
+
+        assertThat(cache.queryWithCache("k", Set.of(tag), source).collectList().block()).containsExactly("v1");
+        cache.invalidateTagsOnCommit(tag).block();
+        assertThat(cache.queryWithCache("k", Set.of(tag), source).collectList().block()).containsExactly("v2");
+    }
+
+    @Test
+    void loadOverlappingWriteIsNotCached() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        String tag = AbstractCache.tag(AbstractCache.USER_TAG, "alice");
+        AtomicInteger loads = new AtomicInteger();
+        Flux<String> racingSource = Flux.defer(() -> {
+            loads.incrementAndGet();
+            cache.invalidateTags(tag);
+            return Flux.just("stale");
+        });
+
+        cache.queryWithCache("k", Set.of(tag), racingSource).blockLast();
+        cache.queryWithCache("k", Set.of(tag), racingSource).blockLast();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void singleValueIsCachedOnEmission() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> source = Flux.defer(() -> Flux.just("v" + loads.incrementAndGet()))
+                .concatWith(Flux.never()).next();
+        Set<String> tags = Set.of(AbstractCache.tag(AbstractCache.TENANT_TAG, "a"));
+
+        assertThat(cache.queryWithCache("k", tags, source).block(Duration.ofSeconds(1))).isEqualTo("v1");
+        assertThat(cache.queryWithCache("k", tags, source).block(Duration.ofSeconds(1))).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+
+        cache.invalidateTags(AbstractCache.tag(AbstractCache.TENANT_TAG, "a"));
+        assertThat(cache.queryWithCache("k", tags, source).block(Duration.ofSeconds(1))).isEqualTo("v2");
+    }
+
+    @Test
+    void secondCallForSamePageDoesNotTouchSource() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        Pageable pageable = PageRequest.of(0, 2);
+        AtomicInteger queries = new AtomicInteger();
+        AtomicInteger counts = new AtomicInteger();
+        Flux<String> rows = Flux.defer(() -> {
+            queries.incrementAndGet();
+            return Flux.just("a", "b");
+        });
+        Mono<Long> total = Mono.fromSupplier(() -> {
+            counts.incrementAndGet();
+            return 5L;
+        });
+        Mono<Page<String>> pageMono = rows.collectList().zipWith(total)
+                .map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+        Set<String> tags = Set.of(AbstractCache.tag(AbstractCache.TENANT_TAG, "a"));
+
+        Page<String> first = cache.queryWithCache("page", tags, pageMono).block();
+        Page<String> second = cache.queryWithCache("page", tags, pageMono).block();
+
+        assertThat(first).isNotNull();
+        assertThat(first.getContent()).containsExactly("a", "b");
+        assertThat(second).isNotNull();
+        assertThat(second.getTotalElements()).isEqualTo(5L);
+        assertThat(queries).hasValue(1);
+        assertThat(counts).hasValue(1);
+    }
+
+    @Test
+    void replicaReadIsOnlyServedForMaxLag() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        AtomicInteger loads = new AtomicInteger();
+        Flux<String> replicaSource = Flux.deferContextual(context -> {
+            context.<AtomicBoolean>get(ReplicaRoutingConnectionFactory.REPLICA_READ_KEY).set(true);
+            return Flux.just("v" + loads.incrementAndGet());
+        });
+
+        assertThat(cache.queryWithCache("k", Set.of(), replicaSource).collectList().block()).containsExactly("v1");
+        CacheEntry entry = cache.cache.get("k:data", CacheEntry.class);
+        assertThat(entry).isNotNull();
+        assertThat(entry.expiresAt()).isGreaterThan(entry.loadedAt());
+
+        cache.cache.put("k:data", new CacheEntry(entry.value(), Map.of(), entry.loadedAt(), 0,
+                System.currentTimeMillis() - 1));
+        assertThat(cache.queryWithCache("k", Set.of(), replicaSource).collectList().block()).containsExactly("v2");
+    }
+
+    @Test
+    void countIsCachedPerTag() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        AtomicInteger loads = new AtomicInteger();
+        Mono<Long> source = Mono.fromSupplier(() -> (long) loads.incrementAndGet());
+        Set<String> tags = Set.of(AbstractCache.tag(AbstractCache.TENANT_TAG, null));
+
+        assertThat(cache.countWithCache("k", tags, source).block()).isEqualTo(1L);
+        assertThat(cache.countWithCache("k", tags, source).block()).isEqualTo(1L);
+        cache.invalidateTags(AbstractCache.tag(AbstractCache.TENANT_TAG, null));
+        assertThat(cache.countWithCache("k", tags, source).block()).isEqualTo(2L);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        TestCache cache = new TestCache();
+        cache.afterPropertiesSet();
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<String> source = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return sink.asFlux();
+        });
+
+        CompletableFuture<List<String>> first = cache.queryWithCache("k", Set.of(), source).collectList().toFuture();
+        sink.tryEmitNext("a");
+        CompletableFuture<List<String>> second = cache.queryWithCache("k", Set.of(), source).collectList().toFuture();
+        sink.tryEmitNext("b");
+        sink.tryEmitComplete();
+
+        assertThat(first.join()).containsExactly("a", "b");
+        assertThat(second.join()).containsExactly("a", "b");
+        assertThat(subscriptions).hasValue(1);
+        assertThat(cache.queryWithCache("k", Set.of(), source).collectList().block()).containsExactly("a", "b");
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshedInBackground() {
+        RefreshingCache cache = new RefreshingCache();
+        cache.afterPropertiesSet();
+        long loadedAt = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+        cache.cache.put("k:data", new CacheEntry(List.of("stale"), Map.of(), loadedAt, 0));
+        AtomicInteger loads = new AtomicInteger();
+        Flux<String> source = Flux.defer(() -> Flux.just("fresh" + loads.incrementAndGet()));
+
+        assertThat(cache.queryWithCache("k", Set.of(), source).collectList().block()).containsExactly("stale");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.queryWithCache("k", Set.of(), source).collectList().block()).containsExactly("fresh1");
+        assertThat(loads).hasValue(1);
+    }
 }
@@ -0,0 +1,76 @@
+package com.plate.boot.commons.cache;
+
+import com.plate.boot.config.CachesProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link CacheAdmission} policies and the {@link FrequencySketch} behind the
+ * frequency-aware policy.
+ */
+class CacheAdmissionTest {
+
+    private static CachesProperties.Admission properties(CachesProperties.Admission.Policy policy) {
+        CachesProperties.Admission admission = new CachesProperties.Admission();
+        admission.setPolicy(policy);
+        admission.setDoorkeeperSize(DataSize.ofBytes(100));
+        admission.setMinFrequency(2);
+        return admission;
+    }
+
+    @Test
+    void sizePolicyRejectsValuesAboveMaximumSize() {
+        CacheAdmission admission = CacheAdmission.of(properties(CachesProperties.Admission.Policy.SIZE),
+                DataSize.ofKilobytes(1));
+
+        assertThat(admission.maximumSize()).isEqualTo(1024);
+        assertThat(admission.admit("k", 1024)).isTrue();
+        assertThat(admission.admit("k", 1025)).isFalse();
+    }
+
+    @Test
+    void defaultsApplyWithoutProperties() {
+        CacheAdmission admission = CacheAdmission.of(null, null);
+
+        assertThat(admission.admit("k", Long.MAX_VALUE)).isTrue();
+    }
+
+    @Test
+    void alwaysPolicyAdmitsEverything() {
+        CacheAdmission admission = CacheAdmission.of(properties(CachesProperties.Admission.Policy.ALWAYS),
+                DataSize.ofBytes(1));
+
+        assertThat(admission.admit("k", 1_000_000)).isTrue();
+    }
+
+    @Test
+    void frequencyPolicyAdmitsLargeValuesOnlyForFrequentKeys() {
+        CacheAdmission admission = CacheAdmission.of(properties(CachesProperties.Admission.Policy.FREQUENCY),
+                DataSize.ofKilobytes(1));
+
+        assertThat(admission.admit("small", 50)).isTrue();
+        admission.record("large");
+        assertThat(admission.admit("large", 500)).isFalse();
+        admission.record("large");
+        assertThat(admission.admit("large", 500)).isTrue();
+        assertThat(admission.admit("large", 5_000)).isFalse();
+    }
+
+    @Test
+    void sketchCountsAndAgesFrequencies() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("hot");
+        }
+
+        assertThat(sketch.frequency("hot")).isGreaterThanOrEqualTo(10);
+        assertThat(sketch.frequency("cold")).isLessThanOrEqualTo(1);
+
+        for (int i = 0; i < 64; i++) {
+            sketch.increment("other-" + i);
+        }
+        assertThat(sketch.frequency("hot")).isLessThan(10);
+    }
+}
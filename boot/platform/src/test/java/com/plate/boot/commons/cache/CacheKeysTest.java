@@ -0,0 +1,115 @@
+package com.plate.boot.commons.cache;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CacheKeys}.
+ */
+class CacheKeysTest {
+
+    @Test
+    void digestHasFixedWidth() {
+        assertThat(CacheKeys.digest()).hasSize(22);
+        assertThat(CacheKeys.digest("x".repeat(10_000), List.of(1, 2, 3))).hasSize(22);
+    }
+
+    @Test
+    void mapsAreEncodedInSortedKeyOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "Alice");
+        first.put("age", 30);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("age", 30);
+        second.put("name", "Alice");
+
+        assertThat(CacheKeys.digest(first)).isEqualTo(CacheKeys.digest(second));
+    }
+
+    @Test
+    void setsAreOrderIndependentButListsAreNot() {
+        assertThat(CacheKeys.digest(new LinkedHashSet<>(List.of("a", "b"))))
+                .isEqualTo(CacheKeys.digest(new LinkedHashSet<>(List.of("b", "a"))));
+        assertThat(CacheKeys.digest(List.of("a", "b"))).isNotEqualTo(CacheKeys.digest(List.of("b", "a")));
+    }
+
+    @Test
+    void encodingsAreTypeStable() {
+        UUID code = UUID.randomUUID();
+
+        assertThat(CacheKeys.digest(code)).isNotEqualTo(CacheKeys.digest(code.toString()));
+        assertThat(CacheKeys.digest(1)).isEqualTo(CacheKeys.digest(1L));
+        assertThat(CacheKeys.digest(1)).isNotEqualTo(CacheKeys.digest("1"));
+        assertThat(CacheKeys.digest(new BigDecimal("1.50"))).isEqualTo(CacheKeys.digest(new BigDecimal("1.5")));
+        assertThat(CacheKeys.digest("ab", "c")).isNotEqualTo(CacheKeys.digest("a", "bc"));
+    }
+
+    @Test
+    void jsonObjectsIgnoreFieldOrder() {
+        JsonMapper mapper = JsonMapper.builder().build();
+        var first = mapper.readTree("{\"a\":1,\"b\":{\"c\":[1,2]}}");
+        var second = mapper.readTree("{\"b\":{\"c\":[1,2]},\"a\":1}");
+
+        assertThat(CacheKeys.digest(first)).isEqualTo(CacheKeys.digest(second));
+    }
+
+    @Test
+    void emptyBeanPropertiesAreSkipped() {
+        Request withNull = new Request();
+        withNull.setName("Alice");
+        Request withEmptyQuery = new Request();
+        withEmptyQuery.setName("Alice");
+        withEmptyQuery.setQuery(Map.of());
+
+        assertThat(CacheKeys.of(withNull)).isEqualTo(CacheKeys.of(withEmptyQuery));
+    }
+
+    @Test
+    void prefixNamesEntityAndTenant() {
+        UUID tenant = UUID.randomUUID();
+        Request request = new Request();
+        request.setTenantCode(tenant);
+
+        assertThat(CacheKeys.of(request)).startsWith("request:" + tenant + ":");
+        assertThat(CacheKeys.of(new Request())).startsWith("request:")
+                .hasSize("request:".length() + 22);
+        assertThat(CacheKeys.of("plain")).hasSize(22);
+    }
+
+    // ---- test fixtures -----------------------------------------------------
+
+    public static class Request {
+        private String name;
+        private UUID tenantCode;
+        private Map<String, Object> query;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public UUID getTenantCode() {
+            return tenantCode;
+        }
+
+        public void setTenantCode(UUID tenantCode) {
+            this.tenantCode = tenantCode;
+        }
+
+        public Map<String, Object> getQuery() {
+            return query;
+        }
+
+        public void setQuery(Map<String, Object> query) {
+            this.query = query;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.plate.boot.commons.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NearCache}, using a {@link ConcurrentMapCache} as the shared tier
+ * and recording the published invalidations instead of sending them to Redis.
+ */
+class NearCacheTest {
+
+    private ConcurrentMapCache shared;
+    private List<String> invalidations;
+    private NearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCache("near.test");
+        invalidations = new ArrayList<>();
+        cache = new NearCache(shared, 100, Duration.ofMinutes(1),
+                (name, key) -> invalidations.add(name + "/" + key));
+    }
+
+    @Test
+    void sharedHitIsPromotedToLocalTier() {
+        shared.put("k", "v");
+
+        assertThat(cache.get("k", String.class)).isEqualTo("v");
+        shared.evict("k");
+
+        assertThat(cache.get("k", String.class)).isEqualTo("v");
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void missOnBothTiersReturnsNull() {
+        assertThat(cache.get("absent")).isNull();
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void putWritesBothTiersAndPublishesInvalidation() {
+        cache.put("k", List.of(1, 2, 3));
+
+        assertThat(shared.get("k")).isNotNull();
+        assertThat(cache.localSize()).isEqualTo(1);
+        assertThat(invalidations).containsExactly("near.test/k");
+    }
+
+    @Test
+    void evictAndClearPublishInvalidations() {
+        cache.put("k", "v");
+        cache.evict("k");
+        cache.clear();
+
+        assertThat(shared.get("k")).isNull();
+        assertThat(invalidations).containsExactly("near.test/k", "near.test/k", "near.test/null");
+    }
+
+    @Test
+    void invalidateLocalFallsBackToSharedTier() {
+        cache.put("k", "v1");
+        shared.put("k", "v2");
+
+        assertThat(cache.get("k", String.class)).isEqualTo("v1");
+        cache.invalidateLocal("k");
+        assertThat(cache.get("k", String.class)).isEqualTo("v2");
+
+        cache.invalidateLocal(null);
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void valueLoaderIsUsedOnMiss() {
+        assertThat(cache.get("k", () -> "loaded")).isEqualTo("loaded");
+        assertThat(shared.get("k", String.class)).isEqualTo("loaded");
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void typedGetRejectsMismatchedType() {
+        cache.put("k", "v");
+
+        assertThatThrownBy(() -> cache.get("k", Long.class)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void collectionsAreWeighedByElementCount() {
+        NearCache small = new NearCache(new ConcurrentMapCache("near.small"), 3, Duration.ofMinutes(1),
+                (name, key) -> {
+                });
+        small.put("big", List.of(1, 2, 3, 4, 5));
+
+        assertThat(small.localSize()).isZero();
+        assertThat(small.getName()).isEqualTo("near.small");
+    }
+}
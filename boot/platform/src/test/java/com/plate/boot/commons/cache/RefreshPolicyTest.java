@@ -0,0 +1,55 @@
+package com.plate.boot.commons.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the XFetch refresh decision of {@link RefreshPolicy}.
+ */
+class RefreshPolicyTest {
+
+    private static CacheEntry entry(long loadedAt, long loadMillis) {
+        return new CacheEntry(List.of("v"), Map.of(), loadedAt, loadMillis);
+    }
+
+    @Test
+    void disabledPolicyNeverRefreshes() {
+        RefreshPolicy policy = RefreshPolicy.disabled();
+
+        assertThat(policy.isEnabled()).isFalse();
+        assertThat(policy.shouldRefresh(entry(0, 1_000), Long.MAX_VALUE / 2)).isFalse();
+    }
+
+    @Test
+    void entryPastSoftTimeToLiveIsAlwaysRefreshed() {
+        RefreshPolicy policy = RefreshPolicy.of(Duration.ofSeconds(10));
+
+        assertThat(policy.shouldRefresh(entry(1_000, 0), 11_000)).isTrue();
+        assertThat(policy.shouldRefresh(entry(1_000, 50), 20_000)).isTrue();
+    }
+
+    @Test
+    void cheapFreshEntryIsNotRefreshed() {
+        RefreshPolicy policy = RefreshPolicy.of(Duration.ofSeconds(10));
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(policy.shouldRefresh(entry(1_000, 0), 5_000)).isFalse();
+        }
+    }
+
+    @Test
+    void expensiveEntryIsSometimesRefreshedEarly() {
+        RefreshPolicy policy = new RefreshPolicy(Duration.ofSeconds(10), 1.0);
+        CacheEntry expensive = entry(0, 5_000);
+
+        long early = java.util.stream.IntStream.range(0, 1_000)
+                .filter(_ -> policy.shouldRefresh(expensive, 8_000)).count();
+
+        assertThat(early).isBetween(100L, 900L);
+    }
+}
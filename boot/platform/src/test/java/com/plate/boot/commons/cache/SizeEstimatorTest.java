@@ -0,0 +1,55 @@
+package com.plate.boot.commons.cache;
+
+import com.plate.boot.security.core.UserAuditor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SizeEstimator}.
+ */
+class SizeEstimatorTest {
+
+    record Row(UUID code, String name, LocalDateTime createdAt, UserAuditor createdBy) {
+    }
+
+    @Test
+    void scalarsHaveSmallFixedSizes() {
+        assertThat(SizeEstimator.estimate(null, Long.MAX_VALUE)).isPositive();
+        assertThat(SizeEstimator.estimate(42L, Long.MAX_VALUE)).isEqualTo(8);
+        assertThat(SizeEstimator.estimate("abcd", Long.MAX_VALUE)).isEqualTo(6);
+        assertThat(SizeEstimator.estimate(UUID.randomUUID(), Long.MAX_VALUE)).isEqualTo(38);
+    }
+
+    @Test
+    void beansAndCollectionsAddUpTheirParts() {
+        Row row = new Row(UUID.randomUUID(), "alice", LocalDateTime.now(), UserAuditor.withCode(UUID.randomUUID()));
+        long rowSize = SizeEstimator.estimate(row, Long.MAX_VALUE);
+
+        assertThat(rowSize).isGreaterThan(38 + 7 + 24);
+        assertThat(SizeEstimator.estimate(List.of(row, row), Long.MAX_VALUE)).isGreaterThan(2 * rowSize);
+        assertThat(SizeEstimator.estimate(Map.of("k", row), Long.MAX_VALUE)).isGreaterThan(rowSize);
+    }
+
+    @Test
+    void largeCollectionsAreExtrapolatedFromASample() {
+        List<String> values = Collections.nCopies(10_000, "0123456789");
+
+        long size = SizeEstimator.estimate(values, Long.MAX_VALUE);
+
+        assertThat(size).isBetween(100_000L, 140_000L);
+    }
+
+    @Test
+    void estimationStopsOnceTheLimitIsExceeded() {
+        List<String> values = Collections.nCopies(20, "x".repeat(1_000));
+
+        assertThat(SizeEstimator.estimate(values, 2_000)).isGreaterThan(2_000).isLessThan(5_000);
+    }
+}
@@ -0,0 +1,84 @@
+package com.plate.boot.commons.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link DeflateCodec} (no Spring / container required).
+ * Focus: round trips with and without dictionary, dictionaries resolved by id, and the gain of a trained one.
+ */
+class DeflateCodecTest {
+
+    private static byte[] payload(int index) {
+        return ("{\"code\":\"" + (index * 7919) + "\",\"name\":\"menu-" + index + "\",\"type\":\"MENU\","
+                + "\"authority\":\"ROLE_ADMIN\",\"extend\":{\"icon\":\"list\",\"path\":\"/menus/" + index + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void roundTripsWithoutDictionary() {
+        DeflateCodec codec = new DeflateCodec(6, null);
+        byte[] compressed = codec.compress(payload(1));
+
+        assertThat(DeflateCodec.dictionaryId(compressed)).isZero();
+        assertThat(codec.decompress(compressed, _ -> null)).isEqualTo(payload(1));
+        assertThat(codec.decompress(codec.compress(new byte[0]), _ -> null)).isEmpty();
+    }
+
+    @Test
+    void trainedDictionaryShrinksSmallPayloads() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(payload(i));
+        }
+        byte[] dictionary = DeflateCodec.train(samples, 4096);
+        DeflateCodec plain = new DeflateCodec(6, null);
+        DeflateCodec trained = new DeflateCodec(6, dictionary);
+
+        byte[] compressed = trained.compress(payload(500));
+
+        assertThat(dictionary).isNotEmpty().hasSizeLessThanOrEqualTo(4096);
+        assertThat(compressed.length).isLessThan(plain.compress(payload(500)).length * 2 / 3);
+        assertThat(DeflateCodec.dictionaryId(compressed)).isEqualTo(trained.dictionaryId())
+                .isEqualTo(DeflateCodec.id(dictionary));
+        assertThat(trained.decompress(compressed, _ -> null)).isEqualTo(payload(500));
+    }
+
+    @Test
+    void earlierDictionariesAreResolvedById() {
+        byte[] old = "\"authority\":\"ROLE_ADMIN\"".getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = new DeflateCodec(6, old).compress(payload(3));
+        DeflateCodec current = new DeflateCodec(6, "\"type\":\"MENU\"".getBytes(StandardCharsets.UTF_8));
+        Map<Long, byte[]> dictionaries = Map.of(DeflateCodec.id(old), old);
+
+        assertThat(current.decompress(compressed, dictionaries::get)).isEqualTo(payload(3));
+        assertThatThrownBy(() -> current.decompress(compressed, _ -> null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unknown deflate dictionary");
+    }
+
+    @Test
+    void rejectsMalformedPayloads() {
+        byte[] compressed = new DeflateCodec(6, null).compress(payload(1));
+
+        assertThatThrownBy(() -> new DeflateCodec(6, null).decompress(new byte[]{1, 2, 3}, _ -> null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DeflateCodec(6, null)
+                .decompress(Arrays.copyOf(compressed, compressed.length / 2), _ -> null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DeflateCodec(0, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void samplesSharingNothingTrainEmptyDictionary() {
+        assertThat(DeflateCodec.train(List.of(payload(1)), 4096)).isEmpty();
+        assertThat(DeflateCodec.train(List.of(), 4096)).isEmpty();
+    }
+}
@@ -0,0 +1,146 @@
+package com.plate.boot.commons.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SegmentJournal} against a temporary directory.
+ * Focus: framing, rotation, acknowledgement, recovery after a restart or a torn write, and the drop policies.
+ */
+class SegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    private SegmentJournal open(int maxSegments, SegmentJournal.DropPolicy policy) throws IOException {
+        return SegmentJournal.open(directory, SEGMENT_SIZE, maxSegments, policy);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> values(List<SegmentJournal.Record> records) {
+        return records.stream().map(record -> new String(record.data(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    @Test
+    void readsAppendedRecordsInOrderAcrossSegments() throws IOException {
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            for (int i = 0; i < 6; i++) {
+                assertThat(journal.append(bytes("record-" + i + "-0123456789"))).isTrue();
+            }
+
+            assertThat(values(journal.read(4))).containsExactly("record-0-0123456789", "record-1-0123456789",
+                    "record-2-0123456789", "record-3-0123456789");
+            assertThat(values(journal.read(4))).containsExactly("record-4-0123456789", "record-5-0123456789");
+            assertThat(journal.read(4)).isEmpty();
+            assertThat(segmentFiles()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void acknowledgedSegmentsAreDeletedAndRewindRereadsTheRest() throws IOException {
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            for (int i = 0; i < 6; i++) {
+                journal.append(bytes("record-" + i + "-0123456789"));
+            }
+            List<SegmentJournal.Record> first = journal.read(3);
+            journal.acknowledge(first.getLast().next());
+            journal.read(3);
+
+            journal.rewind();
+
+            assertThat(values(journal.read(10))).containsExactly("record-3-0123456789", "record-4-0123456789",
+                    "record-5-0123456789");
+            assertThat(segmentFiles()).isEqualTo(2);
+            assertThat(journal.hasPending()).isTrue();
+        }
+    }
+
+    @Test
+    void reopenedJournalResumesAfterLastAcknowledgedRecord() throws IOException {
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            journal.append(bytes("a"));
+            journal.append(bytes("b"));
+            journal.acknowledge(journal.read(1).getFirst().next());
+        }
+
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            journal.append(bytes("c"));
+
+            assertThat(values(journal.read(10))).containsExactly("b", "c");
+        }
+    }
+
+    @Test
+    void tornRecordIsDiscardedOnRecovery() throws IOException {
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            journal.append(bytes("kept"));
+            journal.append(bytes("torn"));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(String.format("%020d.seg", 0))
+                .toFile(), "rw")) {
+            file.seek(8 + 4 + 8);
+            file.write(bytes("xx"));
+        }
+
+        try (SegmentJournal journal = open(8, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            journal.append(bytes("next"));
+
+            assertThat(values(journal.read(10))).containsExactly("kept", "next");
+        }
+    }
+
+    @Test
+    void fullJournalRefusesNewRecords() throws IOException {
+        try (SegmentJournal journal = open(1, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThat(journal.append(bytes("record-0-0123456789"))).isTrue();
+            assertThat(journal.append(bytes("record-1-0123456789"))).isTrue();
+            assertThat(journal.append(bytes("record-2-0123456789"))).isFalse();
+
+            assertThat(journal.dropped()).isEqualTo(1);
+            assertThat(values(journal.read(10))).containsExactly("record-0-0123456789", "record-1-0123456789");
+        }
+    }
+
+    @Test
+    void fullJournalDropsOldestSegment() throws IOException {
+        try (SegmentJournal journal = open(1, SegmentJournal.DropPolicy.DROP_OLDEST)) {
+            journal.append(bytes("record-0-0123456789"));
+            journal.append(bytes("record-1-0123456789"));
+            assertThat(journal.append(bytes("record-2-0123456789"))).isTrue();
+
+            assertThat(journal.dropped()).isEqualTo(2);
+            assertThat(values(journal.read(10))).containsExactly("record-2-0123456789");
+            assertThat(segmentFiles()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rejectsRecordsLargerThanSegment() throws IOException {
+        try (SegmentJournal journal = open(1, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThatThrownBy(() -> journal.append(new byte[SEGMENT_SIZE]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.plate.boot.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link LatencyHistogram} (no Spring / container required).
+ * Focus: the bucket layout, percentiles within the bucket precision, merging and the compact encoding.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndBoundTheRelativeError() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestValue(index) - value).isLessThanOrEqualTo(value / 16);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValue(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.count()).isEqualTo(10_000);
+        assertThat(histogram.percentile(0.5)).isBetween(5_000L, 5_000L + 5_000L / 16);
+        assertThat(histogram.percentile(0.99)).isBetween(9_900L, 10_000L);
+        assertThat(histogram.percentile(1)).isEqualTo(10_000);
+        assertThat(histogram.max()).isEqualTo(10_000);
+        assertThat(new LatencyHistogram().percentile(0.5)).isZero();
+    }
+
+    @Test
+    void mergedHistogramsAddTheirCounts() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1_000_000);
+        }
+
+        fast.merge(slow);
+
+        assertThat(fast.count()).isEqualTo(100);
+        assertThat(fast.percentile(0.9)).isEqualTo(LatencyHistogram.highestValue(LatencyHistogram.index(100)));
+        assertThat(fast.percentile(0.95)).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void encodedHistogramDecodesToSameCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(42);
+        histogram.record(42);
+        histogram.record(3_600_000_000L);
+
+        byte[] bytes = histogram.encode();
+        LatencyHistogram decoded = LatencyHistogram.decode(bytes);
+
+        assertThat(bytes).hasSizeLessThan(20);
+        assertThat(decoded.count()).isEqualTo(4);
+        assertThat(decoded.max()).isEqualTo(3_600_000_000L);
+        assertThat(decoded.percentile(0.5)).isEqualTo(histogram.percentile(0.5));
+        assertThat(decoded.encode()).isEqualTo(bytes);
+        assertThatThrownBy(() -> LatencyHistogram.decode(new byte[]{(byte) 0x80}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
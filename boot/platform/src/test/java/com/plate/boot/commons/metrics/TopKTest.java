@@ -0,0 +1,37 @@
+package com.plate.boot.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TopK} (no Spring / container required).
+ * Focus: exact counts within capacity, and a heavy hitter kept when the keys exceed it.
+ */
+class TopKTest {
+
+    @Test
+    void countsExactlyWithinCapacity() {
+        TopK top = new TopK(3);
+        top.add("admin");
+        top.add("admin");
+        top.add("alice");
+        top.add("bob", 5);
+
+        assertThat(top.top()).containsExactly(Map.entry("bob", 5L), Map.entry("admin", 2L), Map.entry("alice", 1L));
+    }
+
+    @Test
+    void keepsHeavyHitterBeyondCapacity() {
+        TopK top = new TopK(3);
+        for (int i = 0; i < 1_000; i++) {
+            top.add("admin");
+            top.add("user-" + i);
+        }
+
+        assertThat(top.top()).hasSize(3).containsKey("admin");
+        assertThat(top.top().get("admin")).isGreaterThanOrEqualTo(1_000);
+    }
+}
@@ -0,0 +1,121 @@
+package com.plate.boot.commons.query;
+
+import com.plate.boot.commons.exception.QueryException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Keyset}.
+ */
+class KeysetTest {
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+    private static final Set<String> SORTABLE = Set.of("createdAt");
+
+    @Test
+    void defaultSortGetsUniqueTieBreaker() {
+        Keyset keyset = Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", null);
+
+        assertThat(keyset.properties()).containsExactly("createdAt", "id");
+        assertThat(keyset.descending()).isTrue();
+        assertThat(keyset.cursor()).isNull();
+    }
+
+    @Test
+    void tokenRoundTripsTheSortKeyOfTheLastRow() {
+        Keyset first = Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", null);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_000);
+        List<Row> rows = List.of(new Row(3L, createdAt.plusSeconds(1)), new Row(2L, createdAt),
+                new Row(1L, createdAt.minusSeconds(1)));
+
+        KeysetPage<Row> page = first.page(rows, 2);
+        assertThat(page.content()).hasSize(2);
+        assertThat(page.next()).isNotNull();
+
+        Keyset next = Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", page.next());
+        assertThat(next.cursor()).containsExactly(createdAt, 2L);
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        Keyset keyset = Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", null);
+
+        KeysetPage<Row> page = keyset.page(List.of(new Row(1L, LocalDateTime.now())), 2);
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void tokenOfAnotherSortIsRejected() {
+        Keyset keyset = Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", null);
+        String token = keyset.token(new Row(1L, LocalDateTime.now()));
+
+        assertThatThrownBy(() -> Keyset.of(Row.class, Sort.by("id"), DEFAULT_SORT, SORTABLE, "id", token))
+                .isInstanceOf(QueryException.class);
+        assertThatThrownBy(() -> Keyset.of(Row.class, Sort.unsorted(), DEFAULT_SORT, SORTABLE, "id", "not-a-token"))
+                .isInstanceOf(QueryException.class);
+    }
+
+    @Test
+    void unknownPropertiesAndMixedDirectionsAreRejected() {
+        assertThatThrownBy(() -> Keyset.of(Row.class, Sort.by("id; drop table se_users"), DEFAULT_SORT, SORTABLE,
+                "id", null))
+                .isInstanceOf(QueryException.class);
+        Sort mixed = Sort.by(Sort.Order.asc("createdAt"), Sort.Order.desc("id"));
+        assertThatThrownBy(() -> Keyset.of(Row.class, mixed, DEFAULT_SORT, SORTABLE, "id", null))
+                .isInstanceOf(QueryException.class);
+    }
+
+    @Test
+    void propertiesNotDeclaredSortableOrOfUnsupportedTypeAreRejected() {
+        assertThatThrownBy(() -> Keyset.of(Row.class, Sort.by("note"), DEFAULT_SORT, SORTABLE, "id", null))
+                .isInstanceOf(QueryException.class);
+        assertThatThrownBy(() -> Keyset.of(Row.class, Sort.by("enabled"), DEFAULT_SORT, Set.of("enabled"), "id",
+                null)).isInstanceOf(QueryException.class);
+    }
+
+    // ---- test fixtures -----------------------------------------------------
+
+    public static class Row {
+        private Long id;
+        private LocalDateTime createdAt;
+
+        public Row() {
+        }
+
+        Row(Long id, LocalDateTime createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+
+        public String getNote() {
+            return null;
+        }
+
+        public Boolean getEnabled() {
+            return null;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -194,6 +194,63 @@ class QueryFragmentTest {
         assertThat(f.orderSql()).contains("created_at DESC");
     }
 
+    @Test
+    void windowSqlCarriesTotalOnEveryRow() {
+        QueryFragment f = QueryFragment.from("se_loggers").where("tenant_code = :tenantCode")
+                .pageable(PageRequest.of(1, 10, Sort.by(Sort.Order.desc("created_at"))));
+
+        assertThat(f.windowSql()).isEqualTo("SELECT *, COUNT(*) OVER() AS total_count FROM se_loggers"
+                + " WHERE tenant_code = :tenantCode ORDER BY created_at DESC LIMIT 10 OFFSET 10");
+    }
+
+    @Test
+    void cappedCountSqlLimitsTheCountedRows() {
+        QueryFragment f = QueryFragment.from("se_loggers").where("tenant_code = :tenantCode");
+
+        assertThat(f.cappedCountSql(10_000)).isEqualTo("SELECT COUNT(*) FROM (SELECT 1 FROM se_loggers"
+                + " WHERE tenant_code = :tenantCode LIMIT 10001) t");
+    }
+
+    @Test
+    void explainSqlPlansTheFilteredRows() {
+        QueryFragment f = QueryFragment.from("se_loggers").where("tenant_code = :tenantCode").orderBy("id");
+
+        assertThat(f.explainSql())
+                .isEqualTo("EXPLAIN (FORMAT JSON) SELECT 1 FROM se_loggers WHERE tenant_code = :tenantCode");
+    }
+
+    @Test
+    void seekWithoutCursorOnlyOrdersAndLimits() {
+        QueryFragment f = QueryFragment.from("se_loggers")
+                .seek(List.of("createdAt", "id"), true, null, 21);
+
+        assertThat(f.querySql()).doesNotContain("WHERE")
+                .contains("ORDER BY created_at DESC,id DESC")
+                .contains("LIMIT 21 OFFSET 0");
+    }
+
+    @Test
+    void seekBindsCursorInRowValuePredicate() {
+        QueryFragment f = QueryFragment.from("se_loggers")
+                .seek(List.of("createdAt", "id"), true, List.of("2024-01-01T00:00", 42L), 21);
+
+        assertThat(f.querySql()).contains("WHERE (created_at, id) < (:seek0, :seek1)")
+                .contains("ORDER BY created_at DESC,id DESC");
+        assertThat(f.get("seek0")).isEqualTo("2024-01-01T00:00");
+        assertThat(f.get("seek1")).isEqualTo(42L);
+
+        QueryFragment ascending = QueryFragment.from("se_users").seek(List.of("id"), false, List.of(7L), 10);
+        assertThat(ascending.querySql()).contains("WHERE (id) > (:seek0)").contains("ORDER BY id ASC");
+    }
+
+    @Test
+    void seekRejectsAnAlreadyOrderedQuery() {
+        QueryFragment f = QueryFragment.from("docs").ts("text_search", "term");
+
+        assertThatThrownBy(() -> f.seek(List.of("id"), false, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void conditionAddsSqlAndParametersFromCriteria() {
         Criteria criteria = Criteria.where("name").like("Bob").ignoreCase(true);
@@ -219,4 +276,40 @@ class QueryFragmentTest {
 
         assertThat(f.whereSql()).contains("active = :");
     }
+
+    @Test
+    void conditionsOfTheSameShapeShareSqlButBindTheirOwnValues() {
+        QueryFragment.Condition alice = QueryFragment.Condition.of(
+                Criteria.where("name").is("Alice").and("age").between(18, 30));
+        QueryFragment.Condition bob = QueryFragment.Condition.of(
+                Criteria.where("name").is("Bob").and("age").between(40, 50));
+
+        assertThat(bob.toSql()).isEqualTo(alice.toSql())
+                .isEqualTo("name = :name AND age BETWEEN :age1 AND :age2");
+        assertThat(alice).containsEntry("name", "Alice").containsEntry("age1", 18).containsEntry("age2", 30);
+        assertThat(bob).containsEntry("name", "Bob").containsEntry("age1", 40).containsEntry("age2", 50);
+    }
+
+    @Test
+    void conditionShapeDependsOnStructureAndInListSize() {
+        String two = QueryFragment.Condition.of(Criteria.where("id").in(1, 2)).toSql();
+        String three = QueryFragment.Condition.of(Criteria.where("id").in(1, 2, 3)).toSql();
+        String and = QueryFragment.Condition.of(Criteria.where("a").is(1).and("b").is(2)).toSql();
+        String or = QueryFragment.Condition.of(Criteria.where("a").is(1).or("b").is(2)).toSql();
+        String prefixed = QueryFragment.Condition.of(Criteria.where("a").is(1).and("b").is(2), "t").toSql();
+
+        assertThat(two).isEqualTo("id IN (:id0, :id1)");
+        assertThat(three).isEqualTo("id IN (:id0, :id1, :id2)");
+        assertThat(and).isEqualTo("a = :a AND b = :b");
+        assertThat(or).isEqualTo("a = :a OR b = :b");
+        assertThat(prefixed).isEqualTo("t.a = :t_a AND t.b = :t_b");
+    }
+
+    @Test
+    void conditionWithoutPrefixAcceptsNull() {
+        QueryFragment.Condition condition = QueryFragment.Condition.of(Criteria.where("id").is(1), null);
+
+        assertThat(condition.toSql()).isEqualTo("id = :id");
+        assertThat(condition.getPrefix()).isEmpty();
+    }
 }
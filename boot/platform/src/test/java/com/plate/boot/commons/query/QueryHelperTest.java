@@ -11,6 +11,7 @@ import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.data.relational.core.query.Criteria;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -117,6 +118,33 @@ class QueryHelperTest {
         assertThat(sql).doesNotContain(malicious);
     }
 
+    @Test
+    void criteriaAppliesOperatorKeywordsOfMapKeys() {
+        Map<String, Object> map = Map.of("ageGte", 18, "createdAtBetween", "2024-01-01,2024-12-31");
+
+        String sql = QueryFragment.Condition.of(QueryHelper.criteria(map)).toSql();
+
+        assertThat(sql).contains("age >= :").contains("created_at BETWEEN :");
+        assertThat(sql).doesNotContain("age_gte").doesNotContain("2024");
+    }
+
+    @Test
+    void criteriaNamesColumnsWholeWhenNoKeywordStartsAWord() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("domain", "a.com");
+        map.put("login", "bob");
+        map.put("origin", "web");
+        map.put("result", "ok");
+        map.put("default", true);
+        map.put("xnotIn", "a,b");
+
+        String sql = QueryFragment.Condition.of(QueryHelper.criteria(map)).toSql();
+
+        assertThat(sql).contains("domain LIKE :").contains("login LIKE :").contains("origin LIKE :")
+                .contains("result LIKE :").contains("default = :").contains("xnot IN (");
+        assertThat(sql).doesNotContain("doma ").doesNotContain("resu").doesNotContain("defau");
+    }
+
     @Test
     void criteriaFromObjectWithSkipKeysExcludesSkippedAndNullFields() {
         SampleEntity entity = new SampleEntity();
@@ -132,6 +160,36 @@ class QueryHelperTest {
         assertThat(sql).doesNotContain("extend");
     }
 
+    @Test
+    void criteriaFromObjectUsesDeclaredMatchModes() {
+        MatchedEntity entity = new MatchedEntity();
+        entity.setName("Bob");
+
+        QueryFragment.Condition condition = QueryFragment.Condition.of(QueryHelper.criteria(entity, Set.of()));
+
+        assertThat(condition.toSql()).isEqualTo("name = :name");
+        assertThat(condition).containsEntry("name", "Bob");
+    }
+
+    @Test
+    void matchModesEscapeWildcardsAndMapToIndexedOperators() {
+        QueryFragment.Condition prefix = QueryFragment.Condition.of(
+                QueryHelper.criteria(MatchedEntity.class, "search", "50%_off"));
+        QueryFragment.Condition contains = QueryFragment.Condition.of(Match.Mode.CONTAINS.criteria("name", "Bo"));
+        QueryFragment.Condition fuzzy = QueryFragment.Condition.of(Match.Mode.FUZZY.criteria("name", " jo  sm "));
+
+        assertThat(prefix.toSql()).isEqualTo("search LIKE :search");
+        assertThat(prefix).containsEntry("search", "50\\%\\_off%");
+        assertThat(contains.toSql()).isEqualTo("name ILIKE :name");
+        assertThat(contains).containsEntry("name", "%Bo%");
+        assertThat(fuzzy).containsEntry("name", "%jo%sm%");
+    }
+
+    @Match(property = "name", mode = Match.Mode.EXACT)
+    @Match(property = "search", mode = Match.Mode.PREFIX)
+    static class MatchedEntity extends SampleEntity {
+    }
+
     @Table("sample_entity")
     static class SampleEntity {
         private UUID code;
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 
+import java.math.BigDecimal;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -105,4 +106,84 @@ class QueryJsonHelperTest {
         assertThat(sql).contains(">");
         assertThat(sql).doesNotContain("18");
     }
+
+    @Test
+    void queryJsonRewritesEqualityToContainment() {
+        QueryFragment.Condition condition = QueryJsonHelper.queryJson(Map.of("extend.profile.name", "Alice"), null);
+
+        assertThat(condition.toSql()).isEqualTo("extend @> CAST(:jsonb0 AS jsonb)");
+        assertThat(condition).containsEntry("jsonb0", "{\"profile\":{\"name\":\"Alice\"}}");
+    }
+
+    @Test
+    void queryJsonMatchesAmbiguousAndListValuesWithJsonPath() {
+        QueryFragment.Condition numeric = QueryJsonHelper.queryJson(Map.of("extend.code", "42"), "e");
+        QueryFragment.Condition list = QueryJsonHelper.queryJson(Map.of("extend.nameIn", "a,b"), null);
+
+        assertThat(numeric.toSql()).isEqualTo("e.extend @@ CAST(:e_jsonb0 AS jsonpath)");
+        assertThat(numeric).containsEntry("e_jsonb0", "$.\"code\" == \"42\" || $.\"code\" == 42");
+        assertThat(list).containsEntry("jsonb0", "$.\"name\" == \"a\" || $.\"name\" == \"b\"");
+    }
+
+    @Test
+    void queryJsonCastsDeclaredIndexExpressionsAndConvertsValues() {
+        QueryFragment.Condition range = QueryJsonHelper.queryJson(Map.of("extend.ageGte", "18"), null, Indexed.class);
+        QueryFragment.Condition equal = QueryJsonHelper.queryJson(Map.of("extend.age", "18"), null, Indexed.class);
+
+        assertThat(range.toSql()).contains("(extend->>'age')::numeric >= :");
+        assertThat(range.values()).containsExactly(new BigDecimal("18"));
+        assertThat(equal).containsEntry("jsonb0", "{\"age\":18}");
+        assertThatThrownBy(() -> QueryJsonHelper.queryJson(Map.of("extend.ageLt", "old"), null, Indexed.class))
+                .isInstanceOf(QueryException.class);
+    }
+
+    @Test
+    void queryJsonBindsListsAsOneArrayWhateverTheirLength() {
+        QueryFragment.Condition two = QueryJsonHelper.queryJson(Map.of("extend.nameNotIn", "a,b"), null);
+        QueryFragment.Condition three = QueryJsonHelper.queryJson(Map.of("extend.nameNotIn", "a,b,c"), null);
+
+        assertThat(two.toSql()).isEqualTo("extend->>'name' <> ALL(:jsonb0)").isEqualTo(three.toSql());
+        assertThat((Object[]) three.get("jsonb0")).isInstanceOf(String[].class).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void queryJsonExcludesNumericShapedValuesAsTextAndJsonb() {
+        QueryFragment.Condition notIn = QueryJsonHelper.queryJson(Map.of("extend.codeNotIn", "1,a"), null);
+
+        assertThat(notIn.toSql())
+                .isEqualTo("(extend->>'code' <> ALL(:jsonb0) AND extend->'code' <> ALL(CAST(:jsonb1 AS jsonb[])))");
+        assertThat((Object[]) notIn.get("jsonb0")).containsExactly("1", "a");
+        assertThat((Object[]) notIn.get("jsonb1")).containsExactly("1");
+    }
+
+    @Test
+    void queryJsonComparesNumericRangesAsNumeric() {
+        QueryFragment.Condition between = QueryJsonHelper.queryJson(Map.of("extend.scoreBetween", "1.5,3"), "e");
+        QueryFragment.Condition text = QueryJsonHelper.queryJson(Map.of("extend.flagBetween", "false,true"), null);
+
+        assertThat(between.toSql()).isEqualTo("CASE WHEN e.extend->>'score' ~ '^-?[0-9]+(\\.[0-9]+)?([eE][+-]?[0-9]+)?$'"
+                + " THEN (e.extend->>'score')::numeric END BETWEEN :e_jsonb0 AND :e_jsonb1");
+        assertThat(between).containsEntry("e_jsonb0", new BigDecimal("1.5")).containsEntry("e_jsonb1", new BigDecimal("3"));
+        assertThat(text.toSql()).isEqualTo("extend->>'flag' BETWEEN :jsonb0 AND :jsonb1");
+    }
+
+    @Test
+    void queryJsonTypesListsByTheDeclaredIndex() {
+        QueryFragment.Condition between = QueryJsonHelper.queryJson(Map.of("extend.ageBetween", "18,30"),
+                null, Indexed.class);
+        QueryFragment.Condition notIn = QueryJsonHelper.queryJson(Map.of("extend.ageNotIn", "18,30"),
+                null, Indexed.class);
+
+        assertThat(between.toSql()).isEqualTo("(extend->>'age')::numeric BETWEEN :jsonb0 AND :jsonb1");
+        assertThat(between).containsEntry("jsonb0", new BigDecimal("18")).containsEntry("jsonb1", new BigDecimal("30"));
+        assertThat((Object[]) notIn.get("jsonb0")).isInstanceOf(BigDecimal[].class).hasSize(2);
+        assertThatThrownBy(() -> QueryJsonHelper.queryJson(Map.of("extend.ageBetween", "18"), null, Indexed.class))
+                .isInstanceOf(QueryException.class);
+    }
+
+    // ---- test fixtures -----------------------------------------------------
+
+    @JsonIndex(path = "extend.age", type = JsonIndex.Type.NUMERIC)
+    public static class Indexed {
+    }
 }
@@ -0,0 +1,53 @@
+package com.plate.boot.commons.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SuffixMatcher}.
+ */
+class SuffixMatcherTest {
+
+    private final SuffixMatcher<String> matcher = SuffixMatcher.compile(
+            Map.of("GT", ">", "GTE", ">=", "In", "IN", "NotIn", "NOT IN", "Like", "LIKE"));
+
+    @Test
+    void matchesTheLongestKeywordIgnoringCase() {
+        assertThat(matcher.match("ageGte")).isEqualTo(Map.entry("GTE", ">="));
+        assertThat(matcher.match("agegt")).isEqualTo(Map.entry("GT", ">"));
+        assertThat(matcher.match("nameNotIn")).isEqualTo(Map.entry("NotIn", "NOT IN"));
+        assertThat(matcher.match("nameIN")).isEqualTo(Map.entry("In", "IN"));
+    }
+
+    @Test
+    void matchesTheWholeKeyOrNothing() {
+        assertThat(matcher.match("like")).isEqualTo(Map.entry("Like", "LIKE"));
+        assertThat(matcher.match("name")).isNull();
+        assertThat(matcher.match("")).isNull();
+    }
+
+    @Test
+    void matchesWordsAtCamelCaseBoundariesOnly() {
+        assertThat(matcher.matchWord("ageGte")).isEqualTo(Map.entry("GTE", ">="));
+        assertThat(matcher.matchWord("nameNotIn")).isEqualTo(Map.entry("NotIn", "NOT IN"));
+        assertThat(matcher.matchWord("xnotIn")).isEqualTo(Map.entry("In", "IN"));
+        assertThat(matcher.matchWord("login")).isNull();
+        assertThat(matcher.matchWord("agegt")).isNull();
+        assertThat(matcher.matchWord("Like")).isNull();
+    }
+
+    @Test
+    void returnsTheCompiledEntries() {
+        assertThat(matcher.match("aGte")).isSameAs(matcher.match("bGTE"));
+    }
+
+    @Test
+    void rejectsEmptyKeywords() {
+        assertThatThrownBy(() -> SuffixMatcher.compile(Map.of("", 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
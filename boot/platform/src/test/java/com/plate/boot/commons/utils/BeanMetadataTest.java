@@ -0,0 +1,127 @@
+package com.plate.boot.commons.utils;
+
+import com.plate.boot.security.core.UserAuditor;
+import com.plate.boot.security.core.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link BeanMetadata} (no Spring context required).
+ */
+class BeanMetadataTest {
+
+    @Test
+    void metadataIsBuiltOncePerClass() {
+        assertThat(BeanMetadata.of(Audited.class)).isSameAs(BeanMetadata.of(Audited.class));
+        assertThat(BeanMetadata.of(Audited.class).type()).isEqualTo(Audited.class);
+    }
+
+    @Test
+    void propertiesExcludeClassAndPrecomputeColumns() {
+        BeanMetadata metadata = BeanMetadata.of(Audited.class);
+
+        assertThat(metadata.properties()).extracting(BeanMetadata.Property::name)
+                .containsExactlyInAnyOrder("createdBy", "itemCount", "readOnlyName");
+        assertThat(metadata.property("itemCount").column()).isEqualTo("item_count");
+        assertThat(metadata.property("class")).isNull();
+        assertThat(metadata.auditorProperties()).extracting(BeanMetadata.Property::name)
+                .containsExactly("createdBy");
+    }
+
+    @Test
+    void accessorsReadAndWriteThroughMethodHandles() {
+        Audited bean = new Audited();
+        BeanMetadata.Property createdBy = BeanMetadata.of(Audited.class).property("createdBy");
+        UserAuditor auditor = UserAuditor.withCode(UUID.randomUUID());
+
+        createdBy.set(bean, auditor);
+
+        assertThat(bean.getCreatedBy()).isSameAs(auditor);
+        assertThat(createdBy.get(bean)).isSameAs(auditor);
+    }
+
+    @Test
+    void readOnlyPropertyIsNotWritable() {
+        BeanMetadata.Property readOnly = BeanMetadata.of(Audited.class).property("readOnlyName");
+
+        assertThat(readOnly.readable()).isTrue();
+        assertThat(readOnly.writable()).isFalse();
+        assertThatThrownBy(() -> readOnly.set(new Audited(), "x")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void copyabilityFollowsTypeAssignability() {
+        BeanMetadata.Property primitive = BeanMetadata.of(Audited.class).property("itemCount");
+        BeanMetadata.Property boxed = BeanMetadata.of(Boxed.class).property("itemCount");
+        BeanMetadata.Property readOnly = BeanMetadata.of(Audited.class).property("readOnlyName");
+        BeanMetadata.Property otherType = BeanMetadata.of(Boxed.class).property("readOnlyName");
+
+        assertThat(primitive.isCopyableTo(boxed)).isTrue();
+        assertThat(boxed.isCopyableTo(primitive)).isTrue();
+        assertThat(readOnly.isCopyableTo(otherType)).isFalse();
+        assertThat(otherType.isCopyableTo(readOnly)).isFalse();
+    }
+
+    @Test
+    void hintsRegisterApplicationBeans() {
+        RuntimeHints hints = new RuntimeHints();
+
+        new BeanMetadata.Hints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(hints.reflection().getTypeHint(User.class)).isNotNull();
+        assertThat(hints.reflection().getTypeHint(UserAuditor.class)).isNotNull();
+    }
+
+    // ---- test fixtures -----------------------------------------------------
+
+    public static class Audited {
+        private UserAuditor createdBy;
+        private int itemCount;
+
+        public UserAuditor getCreatedBy() {
+            return createdBy;
+        }
+
+        public void setCreatedBy(UserAuditor createdBy) {
+            this.createdBy = createdBy;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        public void setItemCount(int itemCount) {
+            this.itemCount = itemCount;
+        }
+
+        public String getReadOnlyName() {
+            return "read-only";
+        }
+    }
+
+    public static class Boxed {
+        private Integer itemCount;
+        private Long readOnlyName;
+
+        public Integer getItemCount() {
+            return itemCount;
+        }
+
+        public void setItemCount(Integer itemCount) {
+            this.itemCount = itemCount;
+        }
+
+        public Long getReadOnlyName() {
+            return readOnlyName;
+        }
+
+        public void setReadOnlyName(Long readOnlyName) {
+            this.readOnlyName = readOnlyName;
+        }
+    }
+}
@@ -9,15 +9,19 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for {@link BeanUtils} (no Spring / container required).
@@ -120,19 +124,23 @@ class BeanUtilsTest {
     }
 
     @Test
-    void cacheKeyForBeanContainsPropertyEntries() {
+    void cacheKeyForBeanIsPrefixedAndDependsOnPropertyValues() {
         Person person = new Person("Alice", 30, "Alice A");
 
         String key = BeanUtils.cacheKey(person);
 
-        assertThat(key).contains("name=Alice").contains("age=30");
+        assertThat(key).startsWith("person:").hasSize("person:".length() + 22);
+        assertThat(key).isEqualTo(BeanUtils.cacheKey(new Person("Alice", 30, "Alice A")));
+        assertThat(key).isNotEqualTo(BeanUtils.cacheKey(new Person("Alice", 31, "Alice A")));
     }
 
     @Test
-    void cacheKeyForPageableContainsPageAndSort() {
+    void cacheKeyForPageableDependsOnPageAndSort() {
         String key = BeanUtils.cacheKey(PageRequest.of(0, 10, Sort.by("name").ascending()));
 
-        assertThat(key).contains("0_10").contains("name_ASC");
+        assertThat(key).isEqualTo(BeanUtils.cacheKey(PageRequest.of(0, 10, Sort.by("name").ascending())));
+        assertThat(key).isNotEqualTo(BeanUtils.cacheKey(PageRequest.of(1, 10, Sort.by("name").ascending())));
+        assertThat(key).isNotEqualTo(BeanUtils.cacheKey(PageRequest.of(0, 10, Sort.by("name").descending())));
     }
 
     @Test
@@ -190,6 +198,40 @@ class BeanUtilsTest {
         assertThat(result.getValue()).isEqualTo("hi");
     }
 
+    @Test
+    void serializeUserAuditorsResolvesEachWindowWithOneLookup() {
+        UserAuditorAware aware = mock(UserAuditorAware.class);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(aware.loadByCodes(any())).thenAnswer(invocation -> {
+            Collection<UUID> codes = invocation.getArgument(0);
+            return Flux.fromIterable(codes)
+                    .filter(code -> !code.equals(unknown))
+                    .map(code -> UserAuditor.of(code, code.equals(first) ? "First" : "Second"));
+        });
+        BeanUtils.USER_AUDITOR_AWARE = aware;
+
+        List<AuditedBean> beans = List.of(audited(first), audited(first), audited(unknown),
+                audited(second), audited(first), audited(unknown));
+
+        List<AuditedBean> result = BeanUtils.serializeUserAuditors(
+                Flux.fromIterable(beans), 3).collectList().block();
+
+        assertThat(result).containsExactlyElementsOf(beans);
+        assertThat(result).extracting(bean -> bean.getCreatedBy().name())
+                .containsExactly("First", "First", null, "Second", "First", null);
+        verify(aware).loadByCodes(Set.of(first, unknown));
+        verify(aware).loadByCodes(Set.of(second));
+        verify(aware, never()).loadByCode(any());
+    }
+
+    private static AuditedBean audited(UUID code) {
+        AuditedBean bean = new AuditedBean();
+        bean.setCreatedBy(UserAuditor.withCode(code));
+        return bean;
+    }
+
     // ---- test fixtures -----------------------------------------------------
 
     record UserName(String name) {
@@ -0,0 +1,120 @@
+package com.plate.boot.relational;
+
+import com.plate.boot.config.WebfluxProperties.LoggerRule;
+import com.plate.boot.config.WebfluxProperties.LoggerRule.Mode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.web.server.csrf.CsrfWebFilter.DEFAULT_CSRF_MATCHER;
+
+/**
+ * Unit tests for {@link AuditPolicy} (no Spring / container required).
+ * Focus: first-match rule selection by path, method and tenant, the fallback matcher, sampling and the
+ * errors-only decision.
+ */
+class AuditPolicyTest {
+
+    private static final UUID TENANT = UUID.fromString("0193e9a8-7d5c-7000-8000-000000000001");
+
+    private static LoggerRule rule(String name, String path, Mode mode) {
+        LoggerRule rule = new LoggerRule();
+        rule.setName(name);
+        rule.setPath(path);
+        rule.setMode(mode);
+        return rule;
+    }
+
+    private static PathContainer path(String path) {
+        return PathContainer.parsePath(path);
+    }
+
+    @Test
+    void firstMatchingRuleDecides() {
+        LoggerRule post = rule("sse-post", "/sse/**", Mode.SAMPLE);
+        post.setMethods(List.of(HttpMethod.POST));
+        AuditPolicy policy = AuditPolicy.compile(List.of(post, rule("sse", "/sse/**", Mode.NEVER),
+                rule("any", null, Mode.HEADERS)), DEFAULT_CSRF_MATCHER);
+
+        assertThat(policy.match(HttpMethod.POST, path("/sse/save"), null).name()).isEqualTo("sse-post");
+        assertThat(policy.match(HttpMethod.PUT, path("/sse/save"), null).name()).isEqualTo("sse");
+        assertThat(policy.match(HttpMethod.DELETE, path("/menus/1"), null).name()).isEqualTo("any");
+        assertThat(policy.match(HttpMethod.valueOf("PURGE"), path("/sse/save"), null).name()).isEqualTo("sse");
+    }
+
+    @Test
+    void tenantRulesOnlyMatchTheirTenants() {
+        LoggerRule tenant = rule("tenant", "/menus/**", Mode.NEVER);
+        tenant.setTenants(List.of(TENANT));
+        AuditPolicy policy = AuditPolicy.compile(List.of(tenant), DEFAULT_CSRF_MATCHER);
+
+        assertThat(policy.match(HttpMethod.POST, path("/menus/save"), TENANT)).isNotNull();
+        assertThat(policy.match(HttpMethod.POST, path("/menus/save"), UUID.randomUUID())).isNull();
+        assertThat(policy.match(HttpMethod.POST, path("/menus/save"), null)).isNull();
+    }
+
+    @Test
+    void unmatchedRequestsFollowFallbackMatcher() {
+        AuditPolicy policy = AuditPolicy.compile(List.of(rule("token", "/oauth2/token", Mode.ERRORS)),
+                DEFAULT_CSRF_MATCHER);
+
+        StepVerifier.create(policy.decide(MockServerWebExchange.from(MockServerHttpRequest.post("/menus/save"))))
+                .assertNext(decision -> assertThat(decision.log()).isTrue())
+                .verifyComplete();
+        StepVerifier.create(policy.decide(MockServerWebExchange.from(MockServerHttpRequest.get("/menus/page"))))
+                .assertNext(decision -> assertThat(decision.log()).isFalse())
+                .verifyComplete();
+    }
+
+    @Test
+    void errorsRuleLogsOnlyFailedRequests() {
+        AuditPolicy policy = AuditPolicy.compile(List.of(rule("token", "/oauth2/token", Mode.ERRORS)),
+                _ -> ServerWebExchangeMatcher.MatchResult.notMatch());
+
+        var decision = policy.decide(MockServerWebExchange.from(MockServerHttpRequest.post("/oauth2/token")))
+                .block();
+
+        assertThat(decision.capture()).isTrue();
+        assertThat(decision.logged(false)).isFalse();
+        assertThat(decision.logged(true)).isTrue();
+    }
+
+    @Test
+    void headersRuleSkipsBodyCapture() {
+        AuditPolicy policy = AuditPolicy.compile(List.of(rule("headers", "/menus/**", Mode.HEADERS)),
+                DEFAULT_CSRF_MATCHER);
+
+        var decision = policy.decide(MockServerWebExchange.from(MockServerHttpRequest.post("/menus/save"))).block();
+
+        assertThat(decision.log()).isTrue();
+        assertThat(decision.capture()).isFalse();
+    }
+
+    @Test
+    void samplingRatioBoundsAreKeptAndChecked() {
+        LoggerRule none = rule("none", "/a", Mode.SAMPLE);
+        none.setRatio(0);
+        LoggerRule all = rule("all", "/b", Mode.SAMPLE);
+        AuditPolicy policy = AuditPolicy.compile(List.of(none, all), DEFAULT_CSRF_MATCHER);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.match(HttpMethod.POST, path("/a"), null).decide().log()).isFalse();
+            assertThat(policy.match(HttpMethod.POST, path("/b"), null).decide().log()).isTrue();
+        }
+        assertThat(policy.match(HttpMethod.POST, path("/a"), null).dropped().count()).isGreaterThanOrEqualTo(100);
+
+        LoggerRule invalid = rule("invalid", "/c", Mode.SAMPLE);
+        invalid.setRatio(1.5);
+        assertThatThrownBy(() -> AuditPolicy.compile(List.of(invalid), DEFAULT_CSRF_MATCHER))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.plate.boot.relational;
+
+import com.plate.boot.relational.logger.CapturedBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BodyCapture} (no Spring / container required).
+ * Focus: the body passing through unchanged, the capture limit and truncation, and the release of the
+ * capture buffer.
+ */
+class BodyCaptureTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<NettyDataBuffer> allocated = new ArrayList<>();
+
+    private final NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT) {
+        @Override
+        public NettyDataBuffer allocateBuffer(int initialCapacity) {
+            NettyDataBuffer buffer = super.allocateBuffer(initialCapacity);
+            allocated.add(buffer);
+            return buffer;
+        }
+    };
+
+    private BodyCapture capture(int limit) {
+        return new BodyCapture(this.factory, limit, new BodyCapture.Meters(
+                DistributionSummary.builder("bytes").register(this.registry),
+                Timer.builder("time").register(this.registry),
+                Counter.builder("truncated").register(this.registry)));
+    }
+
+    private Flux<DataBuffer> body(String... chunks) {
+        return Flux.fromArray(chunks).map(chunk -> this.factory.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String text(DataBuffer buffer) {
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void bodyPassesThroughUnchanged() {
+        BodyCapture capture = capture(4);
+
+        StepVerifier.create(capture.tee(body("{\"a\":", "1}")).map(BodyCaptureTest::text))
+                .expectNext("{\"a\":", "1}")
+                .verifyComplete();
+    }
+
+    @Test
+    void capturesWholeBodyWithinLimit() {
+        BodyCapture capture = capture(64);
+        capture.tee(body("{\"a\":", "1}")).blockLast();
+
+        CapturedBody captured = capture.drain(MediaType.APPLICATION_JSON);
+
+        assertThat(new String(captured.bytes(), StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}");
+        assertThat(captured.size()).isEqualTo(7);
+        assertThat(captured.truncated()).isZero();
+        assertThat(captured.contentType()).isEqualTo("application/json");
+        assertThat(this.registry.get("truncated").counter().count()).isZero();
+    }
+
+    @Test
+    void capturesLeadingBytesAndRecordsTruncation() {
+        BodyCapture capture = capture(6);
+        capture.tee(body("abcd", "efgh", "ijkl")).blockLast();
+
+        CapturedBody captured = capture.drain(null);
+
+        assertThat(new String(captured.bytes(), StandardCharsets.UTF_8)).isEqualTo("abcdef");
+        assertThat(captured.size()).isEqualTo(12);
+        assertThat(captured.truncated()).isEqualTo(6);
+        assertThat(this.registry.get("bytes").summary().totalAmount()).isEqualTo(6);
+        assertThat(this.registry.get("truncated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void captureBufferIsReleasedOnDrainAndDiscard() {
+        BodyCapture drained = capture(8);
+        drained.tee(body("abcd")).blockLast();
+        drained.drain(null);
+        BodyCapture discarded = capture(8);
+        discarded.tee(body("abcd")).blockLast();
+        discarded.discard();
+        discarded.discard();
+
+        assertThat(this.allocated).hasSize(2)
+                .allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+    }
+
+    @Test
+    void emptyBodyAllocatesNothing() {
+        BodyCapture capture = capture(8);
+        capture.tee(Flux.empty()).blockLast();
+
+        CapturedBody captured = capture.drain(null);
+
+        assertThat(captured.bytes()).isEmpty();
+        assertThat(captured.size()).isZero();
+        assertThat(this.allocated).isEmpty();
+    }
+}
@@ -0,0 +1,165 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.relational.MethodType;
+import com.plate.boot.security.core.UserAuditor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LoggerArchiveFile} (no Spring / container required).
+ * Focus: the round trip of the logs through an archive, the statistics of the index and the row groups they skip.
+ */
+class LoggerArchiveFileTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2026, 6);
+
+    private static final UUID TENANT_A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+
+    private static final UUID TENANT_B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    private static JsonMapper savedMapper;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void setUp() {
+        savedMapper = ContextUtils.OBJECT_MAPPER;
+        ContextUtils.OBJECT_MAPPER = JsonMapper.builder().build();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        ContextUtils.OBJECT_MAPPER = savedMapper;
+    }
+
+    private static Logger logger(int index, UUID tenant, String operator, String status) {
+        Logger logger = new Logger();
+        logger.setId((long) index);
+        logger.setCode(new UUID(index, index));
+        logger.setTenantCode(tenant);
+        logger.setPrefix("[" + index + "] ");
+        logger.setOperator(operator);
+        logger.setStatus(status);
+        logger.setMethod(MethodType.POST);
+        logger.setUrl("/menus/" + index);
+        logger.setContext(ContextUtils.OBJECT_MAPPER.createObjectNode().put("sessionId", "session-" + index));
+        logger.setCreatedBy(UserAuditor.withCode(new UUID(0, index)));
+        logger.setCreatedAt(MONTH.atDay(1).atStartOfDay().plusMinutes(index).plusNanos(123_000));
+        logger.setUpdatedAt(logger.getCreatedAt());
+        logger.setBody(("body-" + index).getBytes(StandardCharsets.UTF_8));
+        return logger;
+    }
+
+    private static LoggerArchiveFile.Filter all() {
+        return new LoggerArchiveFile.Filter(MONTH.atDay(1).atStartOfDay(),
+                MONTH.plusMonths(1).atDay(1).atStartOfDay(), null, null, null);
+    }
+
+    private LoggerArchiveFile.Index write(List<List<Logger>> groups) throws IOException {
+        try (var writer = new LoggerArchiveFile.Writer(this.directory, MONTH, 6)) {
+            for (List<Logger> group : groups) {
+                writer.append(group);
+            }
+            return writer.finish();
+        }
+    }
+
+    @Test
+    void logsRoundTripThroughTheArchive() throws IOException {
+        List<Logger> loggers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            loggers.add(logger(i, TENANT_A, "admin", "200"));
+        }
+        write(List.of(loggers));
+
+        var index = LoggerArchiveFile.readIndex(LoggerArchiveFile.indexFile(this.directory, MONTH));
+        List<LoggerRes> read = LoggerArchiveFile.read(LoggerArchiveFile.dataFile(this.directory, MONTH),
+                index.groups().getFirst(), all(), true);
+
+        assertThat(index.month()).isEqualTo(MONTH);
+        assertThat(index.rows()).isEqualTo(10);
+        assertThat(read).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            Logger expected = loggers.get(i);
+            LoggerRes actual = read.get(i);
+            assertThat(actual.getId()).isEqualTo(expected.getId());
+            assertThat(actual.getCode()).isEqualTo(expected.getCode());
+            assertThat(actual.getTenantCode()).isEqualTo(TENANT_A);
+            assertThat(actual.getMethod()).isEqualTo(MethodType.POST);
+            assertThat(actual.getUrl()).isEqualTo(expected.getUrl());
+            assertThat(actual.getContext().get("sessionId").asText()).isEqualTo("session-" + i);
+            assertThat(actual.getCreatedBy().code()).isEqualTo(expected.getCreatedBy().code());
+            assertThat(actual.getUpdatedBy()).isNull();
+            assertThat(actual.getCreatedAt()).isEqualTo(expected.getCreatedAt());
+            assertThat(actual.getUpdatedAt()).isEqualTo(expected.getUpdatedAt());
+            assertThat(actual.getBody()).isEqualTo(expected.getBody());
+        }
+        assertThat(Files.list(this.directory)).noneMatch(file -> file.toString().endsWith(".tmp"));
+    }
+
+    @Test
+    void indexStatisticsSkipRowGroupsThatCannotMatch() throws IOException {
+        List<Logger> first = List.of(logger(1, TENANT_A, "admin", "200"), logger(2, TENANT_A, "batch", "200"));
+        List<Logger> second = List.of(logger(3, TENANT_B, "admin", "500"), logger(4, TENANT_B, "admin", "200"));
+        var index = write(List.of(first, second));
+        var from = MONTH.atDay(1).atStartOfDay();
+        var to = MONTH.plusMonths(1).atDay(1).atStartOfDay();
+        var groupA = index.groups().get(0);
+        var groupB = index.groups().get(1);
+
+        assertThat(groupA.minOperator()).isEqualTo("admin");
+        assertThat(groupA.maxOperator()).isEqualTo("batch");
+        assertThat(groupB.minCreatedAt()).isEqualTo(second.getFirst().getCreatedAt());
+        assertThat(new LoggerArchiveFile.Filter(from, to, TENANT_B, null, null).mayMatch(groupA)).isFalse();
+        assertThat(new LoggerArchiveFile.Filter(from, to, TENANT_B, null, null).mayMatch(groupB)).isTrue();
+        assertThat(new LoggerArchiveFile.Filter(from, to, null, null, "500").mayMatch(groupA)).isFalse();
+        assertThat(new LoggerArchiveFile.Filter(from, to, null, "batch", null).mayMatch(groupB)).isFalse();
+        assertThat(new LoggerArchiveFile.Filter(from.plusMinutes(3), to, null, null, null).mayMatch(groupA))
+                .isFalse();
+        assertThat(new LoggerArchiveFile.Filter(from, from.plusMinutes(3), null, null, null).mayMatch(groupB))
+                .isFalse();
+    }
+
+    @Test
+    void readKeepsOnlyMatchingLogsOfARowGroup() throws IOException {
+        var index = write(List.of(List.of(logger(1, TENANT_A, "admin", "200"), logger(2, TENANT_A, "batch", "500"),
+                logger(3, TENANT_A, "admin", "500"))));
+        var filter = new LoggerArchiveFile.Filter(MONTH.atDay(1).atStartOfDay(), LocalDateTime.MAX, TENANT_A,
+                "admin", "500");
+
+        List<LoggerRes> read = LoggerArchiveFile.read(LoggerArchiveFile.dataFile(this.directory, MONTH),
+                index.groups().getFirst(), filter, false);
+
+        assertThat(read).singleElement().satisfies(logger -> {
+            assertThat(logger.getId()).isEqualTo(3);
+            assertThat(logger.getUrl()).isEqualTo("/menus/3");
+            assertThat(logger.getBody()).isNull();
+        });
+    }
+
+    @Test
+    void unfinishedArchiveLeavesNoFiles() throws IOException {
+        try (var writer = new LoggerArchiveFile.Writer(this.directory, MONTH, 6)) {
+            writer.append(List.of(logger(1, TENANT_A, "admin", "200")));
+        }
+
+        assertThat(Files.list(this.directory)).isEmpty();
+    }
+}
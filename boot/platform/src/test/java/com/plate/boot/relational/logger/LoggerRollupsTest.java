@@ -0,0 +1,165 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.metrics.LatencyHistogram;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import io.r2dbc.postgresql.codec.Json;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LoggerRollups} (no Spring / container required).
+ * Focus: the rollup keys, the key bound and the flush of the closed minutes.
+ */
+class LoggerRollupsTest {
+
+    private static JsonMapper savedMapper;
+
+    @BeforeAll
+    static void setUp() {
+        savedMapper = ContextUtils.OBJECT_MAPPER;
+        ContextUtils.OBJECT_MAPPER = JsonMapper.builder().build();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        ContextUtils.OBJECT_MAPPER = savedMapper;
+    }
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2026, 10, 17, 8, 30);
+
+    private static DatabaseProperties properties(int maxKeys) {
+        DatabaseProperties properties = new DatabaseProperties();
+        properties.getLoggers().getRollups().setMaxKeys(maxKeys);
+        return properties;
+    }
+
+    private static LoggerReq logger(String pathTemplate, String status, long latencyMillis) {
+        LoggerReq logger = LoggerReq.of(UUID.randomUUID(), "admin", "[1] ", "GET", status, "/menus/42",
+                ContextUtils.OBJECT_MAPPER.createObjectNode());
+        logger.setPathTemplate(pathTemplate);
+        logger.setLatency(Duration.ofMillis(latencyMillis));
+        return logger;
+    }
+
+    private static DatabaseClient client(List<String> statements, List<Map<String, Object>> params) {
+        DatabaseClient client = mock(DatabaseClient.class);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap())).thenAnswer(bind -> {
+                params.add(bind.getArgument(0));
+                return spec;
+            });
+            when(spec.fetch().rowsUpdated()).thenReturn(Mono.just(1L));
+            return spec;
+        });
+        return client;
+    }
+
+    @Test
+    void classifiesStatuses() {
+        assertThat(LoggerRollups.statusClass("200")).isEqualTo("2xx");
+        assertThat(LoggerRollups.statusClass("503")).isEqualTo("5xx");
+        assertThat(LoggerRollups.statusClass("OK")).isEqualTo("unknown");
+        assertThat(LoggerRollups.statusClass(null)).isEqualTo("unknown");
+    }
+
+    @Test
+    void insertsEveryRowWithItsOwnParameters() {
+        String sql = LoggerRollups.insertSql(2);
+
+        assertThat(sql).startsWith("insert into se_logger_rollups (bucket, tenant_code, method, path, status_class,"
+                + " count, latency_sum, latency_max, histogram, operators) values (:bucket0, :tenant_code0,");
+        assertThat(sql).contains("), (:bucket1, :tenant_code1,").endsWith(":operators1)");
+    }
+
+    @Test
+    void recordsOfSameRouteAndStatusClassShareRollup() {
+        var rollups = new LoggerRollups(mock(DatabaseClient.class), properties(100));
+        LoggerReq first = logger("/menus/{id}", "200", 5);
+        LoggerReq second = logger("/menus/{id}", "204", 7);
+        second.setTenantCode(first.getTenantCode());
+
+        rollups.record(first, MINUTE.plusSeconds(10));
+        rollups.record(second, MINUTE.plusSeconds(50));
+        rollups.record(logger("/menus/{id}", "404", 1), MINUTE);
+        rollups.record(logger(null, "200", 1), MINUTE.plusMinutes(1));
+
+        assertThat(rollups.pending()).isEqualTo(3);
+    }
+
+    @Test
+    void requestsAreRolledUpWithoutAuditRecord() {
+        var rollups = new LoggerRollups(mock(DatabaseClient.class), properties(100));
+
+        rollups.record(null, "GET", "/menus/{id}", "200", Duration.ofMillis(3), null);
+        rollups.record(ContextUtils.DEFAULT_UUID_CODE, "GET", "/menus/{id}", "204", Duration.ofMillis(5), "admin");
+
+        assertThat(rollups.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsOfNewKeysBeyondBoundAreDropped() {
+        var rollups = new LoggerRollups(mock(DatabaseClient.class), properties(2));
+
+        for (int i = 0; i < 5; i++) {
+            rollups.record(logger("/menus/" + i, "200", 1), MINUTE);
+        }
+
+        assertThat(rollups.pending()).isEqualTo(2);
+    }
+
+    @Test
+    void disabledRollupsRecordNothing() {
+        DatabaseProperties properties = properties(100);
+        properties.getLoggers().getRollups().setEnabled(false);
+        var rollups = new LoggerRollups(mock(DatabaseClient.class), properties);
+
+        rollups.record(logger("/menus/{id}", "200", 1), MINUTE);
+
+        assertThat(rollups.pending()).isZero();
+    }
+
+    @Test
+    void flushWritesOnlyClosedMinutes() {
+        List<String> statements = new ArrayList<>();
+        List<Map<String, Object>> params = new ArrayList<>();
+        var rollups = new LoggerRollups(client(statements, params), properties(100));
+        LoggerReq first = logger("/menus/{id}", "200", 4);
+        LoggerReq second = logger("/menus/{id}", "200", 12);
+        second.setTenantCode(first.getTenantCode());
+        rollups.record(first, MINUTE);
+        rollups.record(second, MINUTE.plusSeconds(30));
+        rollups.record(logger("/menus/{id}", "200", 1), MINUTE.plusMinutes(1));
+
+        StepVerifier.create(rollups.flush(MINUTE.plusMinutes(1))).expectNext(1L).verifyComplete();
+
+        assertThat(rollups.pending()).isEqualTo(1);
+        assertThat(statements).hasSize(1);
+        Map<String, Object> row = params.getFirst();
+        assertThat(row).containsEntry("bucket0", MINUTE).containsEntry("method0", "GET")
+                .containsEntry("path0", "/menus/{id}").containsEntry("status_class0", "2xx")
+                .containsEntry("count0", 2L).containsEntry("latency_sum0", 16_000L)
+                .containsEntry("latency_max0", 12_000L);
+        assertThat(LatencyHistogram.decode((byte[]) row.get("histogram0")).count()).isEqualTo(2);
+        assertThat(((Json) row.get("operators0")).asString()).isEqualTo("{\"admin\":2}");
+    }
+}
@@ -0,0 +1,71 @@
+package com.plate.boot.relational.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LoggersPartitions} and the time bound of {@link LoggerReq#query(Duration)}
+ * (no Spring / container required).
+ * Focus: which partitions expire, and the creation time bound every log search carries.
+ */
+class LoggersPartitionsTest {
+
+    @Test
+    void partitionExpiresOnceItsWholeMonthIsBeforeCutoff() {
+        LocalDate cutoff = LocalDate.of(2025, 10, 17);
+
+        assertThat(LoggersPartitions.expired("se_loggers_p202509", cutoff)).isTrue();
+        assertThat(LoggersPartitions.expired("se_loggers_p202510", cutoff)).isFalse();
+        assertThat(LoggersPartitions.expired("se_loggers_p202509", LocalDate.of(2025, 10, 1))).isTrue();
+        assertThat(LoggersPartitions.expired("se_loggers_p202510", LocalDate.of(2025, 10, 1))).isFalse();
+        assertThat(LoggersPartitions.expired("se_logger_bodies_p202509", cutoff)).isTrue();
+        assertThat(LoggersPartitions.expired("se_logger_bodies_p202510", cutoff)).isFalse();
+    }
+
+    @Test
+    void partitionsNotNamedByMonthNeverExpire() {
+        LocalDate cutoff = LocalDate.of(2025, 10, 17);
+
+        assertThat(LoggersPartitions.expired("se_loggers_archive", cutoff)).isFalse();
+        assertThat(LoggersPartitions.expired("se_loggers_p2025", cutoff)).isFalse();
+    }
+
+    @Test
+    void partitionMonthIsReadFromItsName() {
+        assertThat(LoggersPartitions.month("se_loggers_p202509")).isEqualTo(YearMonth.of(2025, 9));
+        assertThat(LoggersPartitions.month("se_logger_bodies_p202512")).isEqualTo(YearMonth.of(2025, 12));
+        assertThat(LoggersPartitions.month("se_loggers_archive")).isNull();
+    }
+
+    @Test
+    void searchWithoutBoundsReachesBackTheWindow() {
+        LoggerReq request = new LoggerReq();
+        request.setOperator("admin");
+
+        var fragment = request.query(Duration.ofDays(30));
+
+        assertThat(fragment.whereSql()).contains("created_at >= :createdAt");
+        assertThat((LocalDateTime) fragment.get("createdAt"))
+                .isBetween(LocalDateTime.now().minusDays(30).minusMinutes(1), LocalDateTime.now().minusDays(30));
+    }
+
+    @Test
+    void searchBoundsAreBoundAndNotMatchedAsColumns() {
+        LoggerReq request = new LoggerReq();
+        request.setCreatedFrom(LocalDateTime.of(2026, 9, 1, 0, 0));
+        request.setCreatedTo(LocalDateTime.of(2026, 9, 30, 23, 59));
+
+        var fragment = request.query(Duration.ofDays(30));
+
+        assertThat(fragment.whereSql()).contains("created_at BETWEEN :createdAt1 AND :createdAt2")
+                .doesNotContain("created_from").doesNotContain("created_to");
+        assertThat(fragment.get("createdAt1")).isEqualTo(request.getCreatedFrom());
+        assertThat(fragment.get("createdAt2")).isEqualTo(request.getCreatedTo());
+    }
+}
@@ -0,0 +1,359 @@
+package com.plate.boot.relational.logger;
+
+import com.plate.boot.commons.journal.SegmentJournal;
+import com.plate.boot.commons.utils.ContextUtils;
+import com.plate.boot.config.DatabaseProperties;
+import com.plate.boot.security.core.UserAuditor;
+import io.r2dbc.spi.Parameter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LoggersWriter} (no Spring / container required).
+ * Focus: the multi-row insert, the queue bound, the batching of queued records and the bodies stored apart.
+ */
+class LoggersWriterTest {
+
+    private static JsonMapper savedMapper;
+
+    @BeforeAll
+    static void setUp() {
+        savedMapper = ContextUtils.OBJECT_MAPPER;
+        ContextUtils.OBJECT_MAPPER = JsonMapper.builder().build();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        ContextUtils.OBJECT_MAPPER = savedMapper;
+    }
+
+    private static DatabaseProperties properties(int queueCapacity, int batchSize) {
+        DatabaseProperties properties = new DatabaseProperties();
+        properties.getLoggers().setQueueCapacity(queueCapacity);
+        properties.getLoggers().setBatchSize(batchSize);
+        return properties;
+    }
+
+    private static LoggerBodies bodies() {
+        return new LoggerBodies(mock(DatabaseClient.class), new DatabaseProperties());
+    }
+
+    private static LoggerReq logger(String url) {
+        return LoggerReq.of(null, "admin", "[1] ", "POST", "200", url,
+                ContextUtils.OBJECT_MAPPER.createObjectNode().put("requestAddress", "127.0.0.1"));
+    }
+
+    @Test
+    void insertsEveryRowWithItsOwnParameters() {
+        String sql = LoggersWriter.insertSql(2);
+
+        assertThat(sql).startsWith("insert into se_loggers (code, tenant_code, prefix, operator, status, method, url,"
+                + " context, created_by, updated_by, created_at, updated_at) values (:code0, :tenant_code0,");
+        assertThat(sql).contains("), (:code1, :tenant_code1,").endsWith(":updated_at1) on conflict (code, created_at) do nothing");
+    }
+
+    @Test
+    void bindsDefaultsForMissingValues() {
+        LoggerReq logger = logger("/menus");
+        logger.setUrl(null);
+
+        Map<String, Object> params = LoggersWriter.bindings(List.of(logger));
+
+        assertThat(params).hasSize(12);
+        assertThat(params.get("code0")).isNotNull();
+        assertThat(params.get("tenant_code0")).isEqualTo(ContextUtils.DEFAULT_UUID_CODE);
+        assertThat(params.get("created_by0")).isEqualTo(ContextUtils.DEFAULT_UUID_CODE);
+        assertThat(params.get("method0")).isEqualTo("POST");
+        assertThat(params.get("url0")).isInstanceOf(Parameter.class);
+        assertThat(params.get("updated_at0")).isEqualTo(params.get("created_at0"));
+    }
+
+    @Test
+    void insertsBodiesApartFromRecords() {
+        String sql = LoggersWriter.bodiesSql(2);
+
+        assertThat(sql).isEqualTo("insert into se_logger_bodies (code, created_at, body) values"
+                + " (:code0, :created_at0, :body0), (:code1, :created_at1, :body1) on conflict (code, created_at) do nothing");
+    }
+
+    @Test
+    void capturedBodiesAreCompressedOutOfContext() {
+        LoggerBodies bodies = bodies();
+        LoggerReq logger = logger("/menus");
+        logger.setRequestBody(new CapturedBody("{\"name\":\"menu\"}".getBytes(StandardCharsets.UTF_8), 15,
+                "application/json"));
+
+        logger.resolveBodies(bodies);
+
+        assertThat(logger.getContext().has("requestBody")).isFalse();
+        assertThat(logger.getContext().get("requestBodySize").asLong()).isEqualTo(15);
+        assertThat(bodies.decompress(logger.getBody()).get("requestBody").get("name").asText()).isEqualTo("menu");
+    }
+
+    @Test
+    void dropsRecordsBeyondQueueCapacity() {
+        var writer = new LoggersWriter(mock(DatabaseClient.class), bodies(), properties(2, 10));
+
+        assertThat(writer.write(logger("/a"))).isTrue();
+        assertThat(writer.write(logger("/b"))).isTrue();
+        assertThat(writer.write(logger("/c"))).isFalse();
+        assertThat(writer.queued()).isEqualTo(2);
+    }
+
+    @Test
+    void flushWritesQueuedRecordsInBatches() {
+        DatabaseClient client = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+        List<String> statements = new ArrayList<>();
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap()).fetch().rowsUpdated()).thenReturn(Mono.just(1L));
+            return spec;
+        });
+        var writer = new LoggersWriter(client, bodies(), properties(100, 2));
+        for (int i = 0; i < 5; i++) {
+            writer.write(logger("/" + i));
+        }
+
+        StepVerifier.create(writer.flush()).verifyComplete();
+
+        assertThat(writer.queued()).isZero();
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0)).contains(":code1").doesNotContain(":code2");
+        assertThat(statements.get(2)).contains(":code0").doesNotContain(":code1");
+    }
+
+    @Test
+    void listenersAreToldOfWrittenBatchesOnly() {
+        DatabaseClient client = mock(DatabaseClient.class);
+        AtomicBoolean failing = new AtomicBoolean(true);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap()).fetch().rowsUpdated()).thenReturn(failing.getAndSet(false)
+                    ? Mono.error(new DataAccessResourceFailureException("connection refused")) : Mono.just(2L));
+            return spec;
+        });
+        var writer = new LoggersWriter(client, bodies(), properties(100, 2));
+        List<Integer> notified = new ArrayList<>();
+        writer.onWritten(batch -> notified.add(batch.size()));
+        for (int i = 0; i < 4; i++) {
+            writer.write(logger("/" + i));
+        }
+
+        StepVerifier.create(writer.flush()).verifyComplete();
+
+        assertThat(notified).containsExactly(2);
+    }
+
+    @Test
+    void failedBatchIsDroppedAndFlushContinues() {
+        DatabaseClient client = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+        when(client.sql(anyString()).bindValues(anyMap()).fetch().rowsUpdated())
+                .thenReturn(Mono.error(new IllegalStateException("connection closed")));
+        var writer = new LoggersWriter(client, bodies(), properties(100, 2));
+        for (int i = 0; i < 3; i++) {
+            writer.write(logger("/" + i));
+        }
+
+        StepVerifier.create(writer.flush()).verifyComplete();
+
+        assertThat(writer.queued()).isZero();
+    }
+
+    @Test
+    void batchThatCannotBeBuiltIsDroppedNotJournaled(@TempDir Path directory) throws IOException {
+        DatabaseClient client = mock(DatabaseClient.class);
+        when(client.sql(anyString())).thenThrow(new IllegalStateException("bad row"));
+        DatabaseProperties properties = properties(100, 2);
+        properties.getLoggers().setFlushInterval(Duration.ofHours(1));
+        properties.getLoggers().getJournal().setEnabled(true);
+        properties.getLoggers().getJournal().setDirectory(directory.toString());
+        properties.getLoggers().getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        var writer = new LoggersWriter(client, bodies(), properties);
+        writer.afterPropertiesSet();
+        writer.write(logger("/a"));
+
+        StepVerifier.create(writer.flush()).verifyComplete();
+        writer.destroy();
+
+        assertThat(writer.queued()).isZero();
+        try (var journal = SegmentJournal.open(directory, 64 * 1024, 16, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThat(journal.hasPending()).isFalse();
+        }
+    }
+
+    @Test
+    void flushLoopSurvivesFailingFlush() throws IOException {
+        DatabaseClient client = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+        AtomicBoolean failing = new AtomicBoolean(true);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            if (failing.getAndSet(false)) {
+                throw new IllegalStateException("bad row");
+            }
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap()).fetch().rowsUpdated()).thenReturn(Mono.just(1L));
+            return spec;
+        });
+        DatabaseProperties properties = properties(100, 1);
+        properties.getLoggers().setFlushInterval(Duration.ofHours(1));
+        var writer = new LoggersWriter(client, bodies(), properties);
+        writer.afterPropertiesSet();
+
+        writer.write(logger("/a"));
+        verify(client, timeout(1000).times(1)).sql(anyString());
+        writer.write(logger("/b"));
+        verify(client, timeout(1000).times(2)).sql(anyString());
+        writer.destroy();
+
+        assertThat(writer.queued()).isZero();
+    }
+
+    @Test
+    void batchCancelledOnShutdownIsJournaled(@TempDir Path directory) throws IOException {
+        AtomicBoolean hanging = new AtomicBoolean(true);
+        DatabaseClient client = mock(DatabaseClient.class);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap()).fetch().rowsUpdated()).thenReturn(hanging.getAndSet(false) ? Mono.never()
+                    : Mono.error(new DataAccessResourceFailureException("connection refused")));
+            return spec;
+        });
+        DatabaseProperties properties = properties(100, 1);
+        properties.getLoggers().setFlushInterval(Duration.ofHours(1));
+        properties.getLoggers().getJournal().setEnabled(true);
+        properties.getLoggers().getJournal().setDirectory(directory.toString());
+        properties.getLoggers().getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        var writer = new LoggersWriter(client, bodies(), properties);
+        writer.afterPropertiesSet();
+
+        writer.write(logger("/a"));
+        verify(client, timeout(1000).times(1)).sql(anyString());
+        writer.destroy();
+
+        assertThat(writer.queued()).isZero();
+        try (var journal = SegmentJournal.open(directory, 64 * 1024, 16, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThat(journal.read(10)).hasSize(1);
+        }
+    }
+
+    @Test
+    void encodedRecordDecodesToSameValues() throws IOException {
+        LoggerReq logger = logger("/menus");
+        logger.setCode(UUID.randomUUID());
+        logger.setCreatedBy(UserAuditor.withCode(UUID.randomUUID()));
+        logger.setCreatedAt(LocalDateTime.of(2026, 10, 17, 8, 30, 15));
+
+        Logger decoded = LoggersWriter.decode(LoggersWriter.encode(logger));
+
+        assertThat(decoded.getCode()).isEqualTo(logger.getCode());
+        assertThat(decoded.getTenantCode()).isNull();
+        assertThat(decoded.getMethod()).isEqualTo(logger.getMethod());
+        assertThat(decoded.getUrl()).isEqualTo("/menus");
+        assertThat(decoded.getContext()).isEqualTo(logger.getContext());
+        assertThat(decoded.getCreatedBy().code()).isEqualTo(logger.getCreatedBy().code());
+        assertThat(decoded.getUpdatedBy()).isNull();
+        assertThat(decoded.getCreatedAt()).isEqualTo(logger.getCreatedAt());
+        assertThat(decoded.getBody()).isNull();
+    }
+
+    @Test
+    void encodedRecordKeepsCompressedBody() throws IOException {
+        LoggerReq logger = logger("/menus");
+        logger.setCode(UUID.randomUUID());
+        logger.setCreatedAt(LocalDateTime.of(2026, 10, 17, 8, 30, 15));
+        logger.setBody(new byte[]{120, 1, 2, 3});
+
+        Logger decoded = LoggersWriter.decode(LoggersWriter.encode(logger));
+
+        assertThat(decoded.getBody()).containsExactly(120, 1, 2, 3);
+        assertThat(LoggersWriter.bodyBindings(List.of(decoded))).containsEntry("code0", logger.getCode())
+                .containsEntry("created_at0", logger.getCreatedAt());
+    }
+
+    @Test
+    void recordsBeyondQueueCapacityAreJournaledByJournalThread(@TempDir Path directory) throws IOException {
+        DatabaseClient client = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+        when(client.sql(anyString()).bindValues(anyMap()).fetch().rowsUpdated())
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("connection refused")));
+        DatabaseProperties properties = properties(1, 10);
+        properties.getLoggers().setFlushInterval(Duration.ofHours(1));
+        properties.getLoggers().getJournal().setEnabled(true);
+        properties.getLoggers().getJournal().setDirectory(directory.toString());
+        properties.getLoggers().getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        var writer = new LoggersWriter(client, bodies(), properties);
+        writer.afterPropertiesSet();
+
+        assertThat(writer.write(logger("/a"))).isTrue();
+        assertThat(writer.write(logger("/b"))).isTrue();
+        assertThat(writer.queued()).isEqualTo(1);
+        writer.destroy();
+
+        try (var journal = SegmentJournal.open(directory, 64 * 1024, 16, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThat(journal.read(10)).hasSize(2);
+        }
+    }
+
+    @Test
+    void failedBatchIsJournaledAndReplayedOnceDatabaseRecovers(@TempDir Path directory) throws IOException {
+        AtomicBoolean available = new AtomicBoolean(false);
+        List<Integer> written = new ArrayList<>();
+        DatabaseClient client = mock(DatabaseClient.class);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_DEEP_STUBS);
+            when(spec.bindValues(anyMap()).fetch().rowsUpdated()).thenAnswer(bind -> Mono.defer(() -> {
+                if (!available.get()) {
+                    return Mono.error(new DataAccessResourceFailureException("connection refused"));
+                }
+                written.add(invocation.<String>getArgument(0).split("\\), \\(").length);
+                return Mono.just(1L);
+            }));
+            return spec;
+        });
+        DatabaseProperties properties = properties(100, 2);
+        properties.getLoggers().setFlushInterval(Duration.ofHours(1));
+        properties.getLoggers().getJournal().setEnabled(true);
+        properties.getLoggers().getJournal().setDirectory(directory.toString());
+        properties.getLoggers().getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        var writer = new LoggersWriter(client, bodies(), properties);
+        writer.afterPropertiesSet();
+        for (int i = 0; i < 3; i++) {
+            writer.write(logger("/" + i));
+        }
+
+        StepVerifier.create(writer.flush()).verifyComplete();
+        assertThat(written).isEmpty();
+
+        available.set(true);
+        StepVerifier.create(writer.flush()).verifyComplete();
+        writer.destroy();
+
+        assertThat(written).containsExactly(2, 1);
+        try (var journal = SegmentJournal.open(directory, 64 * 1024, 16, SegmentJournal.DropPolicy.DROP_NEWEST)) {
+            assertThat(journal.hasPending()).isFalse();
+        }
+    }
+}